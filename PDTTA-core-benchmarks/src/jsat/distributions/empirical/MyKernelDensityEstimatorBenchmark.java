@@ -0,0 +1,115 @@
+/**
+ * This file is part of SADL, a library for learning all sorts of (timed) automata and performing sequence-based anomaly detection.
+ * Copyright (C) 2013-2015  the original author or authors.
+ *
+ * SADL is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * SADL is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with SADL.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package jsat.distributions.empirical;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import jsat.distributions.empirical.kernelfunc.EpanechnikovKF;
+import jsat.distributions.empirical.kernelfunc.GaussKF;
+import jsat.distributions.empirical.kernelfunc.KernelFunction;
+import jsat.distributions.empirical.kernelfunc.UniformKF;
+import jsat.linear.DenseVector;
+import jsat.linear.Vec;
+import sadl.benchmarks.SyntheticData;
+import sadl.constants.KdeKernelFunction;
+
+/**
+ * Measures {@link MyKernelDensityEstimator#pdf(double)} and {@link MyKernelDensityEstimator#cdf(double)} of a mixture of three normal distributions at
+ * random points of its range, evaluated exactly and on a grid.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class MyKernelDensityEstimatorBenchmark {
+
+	private static final int QUERIES = 1024;
+
+	@Param({ "20", "1000", "100000" })
+	public int numberOfPoints;
+
+	@Param({ "GAUSS", "EPANECHNIKOV", "UNIFORM" })
+	public KdeKernelFunction kernel;
+
+	/**
+	 * 0 for the exact evaluation, otherwise the number of grid points per bandwidth
+	 */
+	@Param({ "0", "16" })
+	public int gridResolution;
+
+	private MyKernelDensityEstimator kde;
+	private double[] queries;
+
+	@Setup
+	public void setUp() {
+		final Random r = SyntheticData.reset();
+		final double[] points = new double[numberOfPoints];
+		for (int i = 0; i < numberOfPoints; i++) {
+			final double mean = 100 * (1 + r.nextInt(3));
+			points[i] = mean + 10 * r.nextGaussian();
+		}
+		final Vec v = new DenseVector(points);
+		kde = new MyKernelDensityEstimator(v, createKernel(), MyKernelDensityEstimator.BandwithGuassEstimate(v));
+		kde.setGridResolution(gridResolution);
+		queries = new double[QUERIES];
+		for (int i = 0; i < QUERIES; i++) {
+			queries[i] = 400 * r.nextDouble();
+		}
+	}
+
+	private KernelFunction createKernel() {
+		switch (kernel) {
+			case GAUSS:
+				return GaussKF.getInstance();
+			case EPANECHNIKOV:
+				return EpanechnikovKF.getInstance();
+			case UNIFORM:
+				return UniformKF.getInstance();
+			default:
+				throw new IllegalArgumentException("Kernel " + kernel + " is not benchmarked");
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(QUERIES)
+	public void pdf(Blackhole bh) {
+		for (final double x : queries) {
+			bh.consume(kde.pdf(x));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(QUERIES)
+	public void cdf(Blackhole bh) {
+		for (final double x : queries) {
+			bh.consume(kde.cdf(x));
+		}
+	}
+
+}
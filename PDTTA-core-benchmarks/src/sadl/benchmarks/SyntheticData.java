@@ -0,0 +1,208 @@
+/**
+ * This file is part of SADL, a library for learning all sorts of (timed) automata and performing sequence-based anomaly detection.
+ * Copyright (C) 2013-2015  the original author or authors.
+ *
+ * SADL is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * SADL is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with SADL.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package sadl.benchmarks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import gnu.trove.list.TIntList;
+import gnu.trove.list.array.TIntArrayList;
+import jsat.distributions.ContinuousDistribution;
+import jsat.distributions.empirical.MyKernelDensityEstimator;
+import jsat.linear.DenseVector;
+import sadl.constants.ClassLabel;
+import sadl.input.TimedInput;
+import sadl.input.TimedWord;
+import sadl.interfaces.TauEstimator;
+import sadl.models.PDFA;
+import sadl.models.PDTTA;
+import sadl.structure.Transition;
+import sadl.structure.ZeroProbTransition;
+import sadl.utils.MasterSeed;
+
+/**
+ * Creates the synthetic automata and data sets for the benchmarks. All random decisions are drawn from the {@link Random} returned by {@link #reset()}, so
+ * every fork of a benchmark works on exactly the same automaton and words.
+ */
+public class SyntheticData {
+
+	/**
+	 * Probability to stop in a state, i.e. the words have a mean length of ten.
+	 */
+	public static final double FINAL_PROBABILITY = 0.1;
+	public static final int KDE_POINTS = 50;
+	private static final int MAX_WORD_LENGTH = 1000;
+	private static final double TIME_DEVIATION = 0.1;
+	private static final int ANOMALY_TIME_FACTOR = 5;
+
+	private SyntheticData() {
+	}
+
+	/**
+	 * Resets the {@link MasterSeed} and returns the first {@link Random} drawn from it.
+	 */
+	public static Random reset() {
+		MasterSeed.reset();
+		return MasterSeed.nextRandom();
+	}
+
+	public static String symbol(int i) {
+		return "e" + i;
+	}
+
+	/**
+	 * Creates a {@link TimedInput} with a single word that contains every symbol once.
+	 */
+	public static TimedInput createAlphabet(int alphabetSize) {
+		final List<String> symbols = new ArrayList<>(alphabetSize);
+		final TIntList timeValues = new TIntArrayList(alphabetSize);
+		for (int i = 0; i < alphabetSize; i++) {
+			symbols.add(symbol(i));
+			timeValues.add(1);
+		}
+		return new TimedInput(Collections.singletonList(new TimedWord(symbols, timeValues, ClassLabel.NORMAL)));
+	}
+
+	/**
+	 * Creates a random {@link PDFA}. Every state has up to {@code outDegree} outgoing transitions with distinct symbols. The first one of state i leads to
+	 * state i+1 such that all states are reachable, the others lead to random states.
+	 * 
+	 * @param numberOfStates
+	 *            The number of states
+	 * @param alphabetSize
+	 *            The number of symbols
+	 * @param outDegree
+	 *            The maximum number of outgoing transitions per state
+	 * @param r
+	 *            The source of randomness
+	 * @return The mutable automaton
+	 */
+	public static PDFA createPdfa(int numberOfStates, int alphabetSize, int outDegree, Random r) {
+		final PDFA pdfa = new PDFA(createAlphabet(alphabetSize));
+		final List<Integer> symbols = new ArrayList<>(alphabetSize);
+		for (int i = 0; i < alphabetSize; i++) {
+			symbols.add(Integer.valueOf(i));
+		}
+		final int degree = Math.min(outDegree, alphabetSize);
+		final double[] weights = new double[degree];
+		for (int state = 0; state < numberOfStates; state++) {
+			Collections.shuffle(symbols, r);
+			double sum = 0;
+			for (int i = 0; i < degree; i++) {
+				weights[i] = 0.5 + r.nextDouble();
+				sum += weights[i];
+			}
+			for (int i = 0; i < degree; i++) {
+				final int target = i == 0 && state + 1 < numberOfStates ? state + 1 : r.nextInt(numberOfStates);
+				pdfa.addTransition(state, target, symbol(symbols.get(i).intValue()), (1 - FINAL_PROBABILITY) * weights[i] / sum);
+			}
+			pdfa.addFinalState(state, FINAL_PROBABILITY);
+		}
+		return pdfa;
+	}
+
+	/**
+	 * Creates a {@link PDTTA} from the given {@link PDFA}. The time values of every transition are modeled by a {@link MyKernelDensityEstimator} over
+	 * {@link #KDE_POINTS} values around {@link #meanTimeValue(Transition)}.
+	 * 
+	 * @param pdfa
+	 *            The structure of the automaton
+	 * @param tauEstimator
+	 *            The tau estimator or {@code null} for the identity
+	 * @param r
+	 *            The source of randomness
+	 * @return The preprocessed and immutable automaton
+	 */
+	public static PDTTA createPdtta(PDFA pdfa, TauEstimator tauEstimator, Random r) throws IOException {
+		final Map<ZeroProbTransition, ContinuousDistribution> distributions = new HashMap<>();
+		for (final int state : pdfa.getStates()) {
+			for (final Transition t : pdfa.getTransitions(state, false)) {
+				final double[] points = new double[KDE_POINTS];
+				for (int i = 0; i < points.length; i++) {
+					points[i] = sampleTimeValue(t, r);
+				}
+				distributions.put(t.toZeroProbTransition(), new MyKernelDensityEstimator(new DenseVector(points)));
+			}
+		}
+		final PDTTA pdtta = new PDTTA(pdfa, distributions, tauEstimator);
+		pdtta.preprocess();
+		pdtta.makeImmutable();
+		return pdtta;
+	}
+
+	/**
+	 * Samples words from the given automaton. The time values of a fraction of {@code anomalyRate} of the words are {@value #ANOMALY_TIME_FACTOR} times too
+	 * large and these words are labeled as {@link ClassLabel#ANOMALY}.
+	 * 
+	 * @param pdfa
+	 *            The automaton to sample from
+	 * @param numberOfWords
+	 *            The number of words
+	 * @param anomalyRate
+	 *            The fraction of abnormal words
+	 * @param r
+	 *            The source of randomness
+	 * @return The words
+	 */
+	public static TimedInput createWords(PDFA pdfa, int numberOfWords, double anomalyRate, Random r) {
+		final List<TimedWord> words = new ArrayList<>(numberOfWords);
+		for (int w = 0; w < numberOfWords; w++) {
+			final boolean anomaly = r.nextDouble() < anomalyRate;
+			final List<String> symbols = new ArrayList<>();
+			final TIntList timeValues = new TIntArrayList();
+			int state = PDFA.START_STATE;
+			while (symbols.size() < MAX_WORD_LENGTH) {
+				final Transition t = chooseTransition(pdfa, state, r);
+				if (t.isStopTraversingTransition()) {
+					break;
+				}
+				symbols.add(t.getSymbol());
+				timeValues.add(anomaly ? ANOMALY_TIME_FACTOR * sampleTimeValue(t, r) : sampleTimeValue(t, r));
+				state = t.getToState();
+			}
+			words.add(new TimedWord(symbols, timeValues, anomaly ? ClassLabel.ANOMALY : ClassLabel.NORMAL));
+		}
+		return new TimedInput(words);
+	}
+
+	private static Transition chooseTransition(PDFA pdfa, int state, Random r) {
+		final List<Transition> transitions = pdfa.getTransitions(state, true);
+		final double u = r.nextDouble();
+		double sum = 0;
+		for (final Transition t : transitions) {
+			sum += t.getProbability();
+			if (u < sum) {
+				return t;
+			}
+		}
+		// rounding errors
+		return transitions.get(transitions.size() - 1);
+	}
+
+	/**
+	 * Returns the mean time value of a transition. It only depends on the transition such that the words match the time distributions of the automaton.
+	 */
+	public static double meanTimeValue(Transition t) {
+		return 10 + 10 * Math.floorMod(31 * (31 * t.getFromState() + t.getToState()) + t.getSymbol().hashCode(), 100);
+	}
+
+	private static int sampleTimeValue(Transition t, Random r) {
+		final double mean = meanTimeValue(t);
+		return (int) Math.max(1, Math.round(mean + TIME_DEVIATION * mean * r.nextGaussian()));
+	}
+
+}
@@ -0,0 +1,93 @@
+/**
+ * This file is part of SADL, a library for learning all sorts of (timed) automata and performing sequence-based anomaly detection.
+ * Copyright (C) 2013-2015  the original author or authors.
+ *
+ * SADL is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * SADL is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with SADL.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package sadl.detectors;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import sadl.benchmarks.SyntheticData;
+import sadl.constants.ProbabilityAggregationMethod;
+import sadl.detectors.featureCreators.MinimalFeatureCreator;
+import sadl.input.TimedInput;
+import sadl.models.PDFA;
+import sadl.models.PDTTA;
+import sadl.oneclassclassifier.ThresholdClassifier;
+import sadl.utils.Settings;
+
+/**
+ * Measures {@link AnomalyDetector#areAnomalies(TimedInput)} of a {@link VectorDetector} with a {@link ThresholdClassifier} on a test set with 10% abnormal
+ * words. One operation is the classification of the whole test set.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class AnomalyDetectorBenchmark {
+
+	private static final int NUMBER_OF_STATES = 100;
+	private static final int ALPHABET_SIZE = 20;
+	private static final int OUT_DEGREE = 4;
+	private static final double ANOMALY_RATE = 0.1;
+
+	@Param({ "1000", "100000" })
+	public int numberOfWords;
+
+	@Param({ "false", "true" })
+	public boolean aggregateSublists;
+
+	@Param({ "false", "true" })
+	public boolean parallel;
+
+	private AnomalyDetector detector;
+	private TimedInput testSet;
+	private boolean wasParallel;
+
+	@Setup
+	public void setUp() throws IOException {
+		wasParallel = Settings.isParallel();
+		Settings.setParallel(parallel);
+		final Random r = SyntheticData.reset();
+		final PDFA pdfa = SyntheticData.createPdfa(NUMBER_OF_STATES, ALPHABET_SIZE, OUT_DEGREE, r);
+		final PDTTA pdtta = SyntheticData.createPdtta(pdfa, null, r);
+		testSet = SyntheticData.createWords(pdtta, numberOfWords, ANOMALY_RATE, r);
+		detector = new VectorDetector(ProbabilityAggregationMethod.NORMALIZED_MULTIPLY, new MinimalFeatureCreator(), new ThresholdClassifier(0.01, 0.0001),
+				aggregateSublists);
+		detector.setModel(pdtta);
+	}
+
+	@TearDown
+	public void tearDown() {
+		Settings.setParallel(wasParallel);
+	}
+
+	@Benchmark
+	public boolean[] areAnomalies() {
+		return detector.areAnomalies(testSet);
+	}
+
+}
@@ -0,0 +1,107 @@
+/**
+ * This file is part of SADL, a library for learning all sorts of (timed) automata and performing sequence-based anomaly detection.
+ * Copyright (C) 2013-2015  the original author or authors.
+ *
+ * SADL is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * SADL is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with SADL.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package sadl.modellearner.rtiplus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import sadl.benchmarks.SyntheticData;
+import sadl.input.TimedInput;
+import sadl.modellearner.rtiplus.SimplePDRTALearner.DistributionCheckType;
+import sadl.modellearner.rtiplus.SimplePDRTALearner.OperationTesterType;
+import sadl.modellearner.rtiplus.SimplePDRTALearner.SplitPosition;
+import sadl.modellearner.rtiplus.tester.OperationTester;
+import sadl.models.PDFA;
+import sadl.models.pdrta.Interval;
+import sadl.models.pdrta.PDRTA;
+import sadl.models.pdrta.PDRTAInput;
+import sadl.models.pdrta.PDRTAState;
+
+/**
+ * Measures the merge tests of RTI+ on the prefix tree of words sampled from a random automaton. One operation tests the merges of the red root with all of
+ * its blue successors, i.e. the first step of the learner.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class MergeTestBenchmark {
+
+	private static final int NUMBER_OF_STATES = 20;
+	private static final int ALPHABET_SIZE = 5;
+	private static final int OUT_DEGREE = 3;
+	private static final double SIGNIFICANCE = 0.05;
+	private static final String HIST_BINS = "4";
+	private static final String BOOL_OPS = "AAO";
+
+	@Param({ "1000", "10000" })
+	public int numberOfWords;
+
+	@Param({ "LRT", "LRT_ADV", "NAIVE_LRT", "FM", "FM_ADV" })
+	public OperationTesterType testerType;
+
+	private OperationTester tester;
+	private PDRTAState red;
+	private PDRTAState[] blues;
+
+	@Setup
+	public void setUp() {
+		final Random r = SyntheticData.reset();
+		final PDFA pdfa = SyntheticData.createPdfa(NUMBER_OF_STATES, ALPHABET_SIZE, OUT_DEGREE, r);
+		final TimedInput words = SyntheticData.createWords(pdfa, numberOfWords, 0, r);
+		final PDRTA a = new PDRTA(new PDRTAInput(words, HIST_BINS, false));
+		final StateColoring sc = new StateColoring(a);
+		red = a.getRoot();
+		sc.setRed(red);
+
+		final List<PDRTAState> targets = new ArrayList<>();
+		for (int i = 0; i < a.getAlphSize(); i++) {
+			for (final Interval in : red.getIntervals(i).values()) {
+				if (in.getTarget() != null && sc.isBlue(in.getTarget())) {
+					targets.add(in.getTarget());
+				}
+			}
+		}
+		blues = targets.toArray(new PDRTAState[targets.size()]);
+		// the learner also sets up the boolean operators of the pooling
+		final SimplePDRTALearner learner = new SimplePDRTALearner(SIGNIFICANCE, HIST_BINS, testerType, DistributionCheckType.DISABLED, SplitPosition.MIDDLE,
+				BOOL_OPS, null);
+		tester = learner.tester;
+		tester.setColoring(sc);
+	}
+
+	@Benchmark
+	public double testMerges() {
+		double sum = 0;
+		for (final PDRTAState blue : blues) {
+			sum += tester.testMerge(red, blue);
+		}
+		return sum;
+	}
+
+}
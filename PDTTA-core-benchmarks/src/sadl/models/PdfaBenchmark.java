@@ -0,0 +1,78 @@
+/**
+ * This file is part of SADL, a library for learning all sorts of (timed) automata and performing sequence-based anomaly detection.
+ * Copyright (C) 2013-2015  the original author or authors.
+ *
+ * SADL is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * SADL is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with SADL.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package sadl.models;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import sadl.benchmarks.SyntheticData;
+
+/**
+ * Measures the transition lookup {@link PDFA#getTransition(int, String)} for random pairs of states and symbols. Most of the pairs have no transition.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class PdfaBenchmark {
+
+	private static final int LOOKUPS = 1024;
+	private static final int OUT_DEGREE = 4;
+
+	@Param({ "100", "10000" })
+	public int numberOfStates;
+
+	@Param({ "10", "100" })
+	public int alphabetSize;
+
+	private PDFA pdfa;
+	private int[] states;
+	private String[] symbols;
+
+	@Setup
+	public void setUp() {
+		final Random r = SyntheticData.reset();
+		pdfa = SyntheticData.createPdfa(numberOfStates, alphabetSize, OUT_DEGREE, r);
+		pdfa.makeImmutable();
+		states = new int[LOOKUPS];
+		symbols = new String[LOOKUPS];
+		for (int i = 0; i < LOOKUPS; i++) {
+			states[i] = r.nextInt(numberOfStates);
+			symbols[i] = SyntheticData.symbol(r.nextInt(alphabetSize));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(LOOKUPS)
+	public void getTransition(Blackhole bh) {
+		for (int i = 0; i < LOOKUPS; i++) {
+			bh.consume(pdfa.getTransition(states[i], symbols[i]));
+		}
+	}
+
+}
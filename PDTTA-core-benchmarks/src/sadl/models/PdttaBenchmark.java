@@ -0,0 +1,99 @@
+/**
+ * This file is part of SADL, a library for learning all sorts of (timed) automata and performing sequence-based anomaly detection.
+ * Copyright (C) 2013-2015  the original author or authors.
+ *
+ * SADL is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * SADL is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with SADL.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package sadl.models;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.math3.util.Pair;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import gnu.trove.list.TDoubleList;
+import gnu.trove.list.array.TDoubleArrayList;
+import sadl.benchmarks.SyntheticData;
+import sadl.constants.TauEstimation;
+import sadl.input.TimedInput;
+import sadl.input.TimedWord;
+import sadl.tau_estimation.MonteCarloEstimator;
+
+/**
+ * Measures {@link PDTTA#calculateProbabilities(TimedWord)} for words sampled from the automaton. One operation is the scoring of one word.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class PdttaBenchmark {
+
+	private static final int WORDS = 1000;
+	private static final int ALPHABET_SIZE = 20;
+	private static final int OUT_DEGREE = 4;
+
+	@Param({ "10", "100", "1000" })
+	public int numberOfStates;
+
+	@Param({ "DENSITY", "MONTE_CARLO" })
+	public TauEstimation tauEstimation;
+
+	private PDTTA pdtta;
+	private TimedWord[] words;
+	private final TDoubleList eventLikelihoods = new TDoubleArrayList();
+	private final TDoubleList timeLikelihoods = new TDoubleArrayList();
+
+	@Setup
+	public void setUp() throws IOException {
+		final Random r = SyntheticData.reset();
+		final PDFA pdfa = SyntheticData.createPdfa(numberOfStates, ALPHABET_SIZE, OUT_DEGREE, r);
+		pdtta = SyntheticData.createPdtta(pdfa, tauEstimation == TauEstimation.MONTE_CARLO ? new MonteCarloEstimator(1000, 1000) : null, r);
+		final TimedInput input = SyntheticData.createWords(pdtta, WORDS, 0, r);
+		words = input.getWords().toArray(new TimedWord[WORDS]);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(WORDS)
+	public void calculateProbabilities(Blackhole bh) {
+		for (final TimedWord w : words) {
+			final Pair<TDoubleList, TDoubleList> result = pdtta.calculateProbabilities(w);
+			bh.consume(result);
+		}
+	}
+
+	/**
+	 * Like {@link #calculateProbabilities(Blackhole)} but reuses the likelihood lists, i.e. measures the scoring without the allocation of its result.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(WORDS)
+	public void calculateProbabilitiesReusingLists(Blackhole bh) {
+		for (final TimedWord w : words) {
+			eventLikelihoods.clear();
+			timeLikelihoods.clear();
+			pdtta.calculateProbabilities(w, eventLikelihoods, timeLikelihoods);
+			bh.consume(eventLikelihoods.get(eventLikelihoods.size() - 1));
+		}
+	}
+
+}
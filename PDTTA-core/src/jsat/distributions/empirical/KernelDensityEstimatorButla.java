@@ -14,6 +14,7 @@ package jsat.distributions.empirical;
 import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.function.DoubleUnaryOperator;
 
 import jsat.distributions.ContinuousDistribution;
 import jsat.distributions.empirical.kernelfunc.GaussKF;
@@ -39,8 +40,16 @@ public class KernelDensityEstimatorButla {
 	protected double startX;
 	protected double endX;
 
+	/**
+	 * The bandwidth of the {@link KDEFormelVariant#OriginalKDE} or 0 for the variants with a variable bandwidth
+	 */
+	protected double bandwidth;
+	protected int gridResolution = DEFAULT_GRID_RESOLUTION;
+
 	public static final double DEFAULT_BANDWIDTH = 0.6d;
 	public static final double DEFAULT_MIN_SEARCH_ACCURACY = 0.25d;
+	public static final int DEFAULT_GRID_RESOLUTION = 16;
+	public static final int MAX_GRID_RESOLUTION = 256;
 
 	public KernelDensityEstimatorButla(double[] dataPoints, KDEFormelVariant formelVariant) {
 		this(new DenseVector(dataPoints), formelVariant, DEFAULT_BANDWIDTH, DEFAULT_BANDWIDTH / 4.0, DEFAULT_MIN_SEARCH_ACCURACY);
@@ -76,6 +85,7 @@ public class KernelDensityEstimatorButla {
 		if (formelVariant == KDEFormelVariant.OriginalKDE) {
 
 			final MyKernelDensityEstimator kernelDensity = new MyKernelDensityEstimator(dataPoints, GaussKF.getInstance(), bandwidth);
+			this.bandwidth = bandwidth;
 			kernelPdfFunction = ContinuousDistribution.getFunctionPDF(kernelDensity);
 			kernelDerivationFunction = ContinuousDistribution
 					.getFunctionPDF(new MyKernelDensityEstimator(dataPoints, GaussKFDerivation.getInstance(),
@@ -282,15 +292,43 @@ public class KernelDensityEstimatorButla {
 		this.minSearchAccuracy = accuracy;
 	}
 
+	/**
+	 * Sets the resolution of the grid the derivative is evaluated on in {@link #getMinima()}. The grid is only used for the
+	 * {@link KDEFormelVariant#OriginalKDE}, because the other variants use a different bandwidth for every data point.
+	 * 
+	 * @param pointsPerBandwidth
+	 *            the number of grid points per bandwidth or 0 for evaluating the derivative exactly at every step
+	 */
+	public void setGridResolution(int pointsPerBandwidth) {
+		if (pointsPerBandwidth < 0 || pointsPerBandwidth > MAX_GRID_RESOLUTION) {
+			throw new IllegalArgumentException("The grid resolution must be between 0 and " + MAX_GRID_RESOLUTION + ", but was " + pointsPerBandwidth);
+		}
+		this.gridResolution = pointsPerBandwidth;
+	}
+
+	/**
+	 * Walks from the smallest to the largest data point in steps of minSearchStep and searches for a minimum of the density between two steps where the
+	 * derivative changes from negative to positive. If the derivative is evaluated on a grid (see {@link #setGridResolution(int)}), the minima are the same as
+	 * with the exact evaluation, because the grid value is only used if its absolute value exceeds the error bound of the grid. Otherwise the derivative is
+	 * evaluated exactly.
+	 * 
+	 * @return the minima of the density
+	 */
 	public Double[] getMinima() {
 
+		final DoubleUnaryOperator derivative;
+		if (bandwidth > 0 && gridResolution > 0) {
+			derivative = new BinnedDerivative();
+		} else {
+			derivative = x -> kernelDerivationFunction.f(x);
+		}
 		final List<Double> pointList = new LinkedList<>();
 
 		double lastX = startX;
-		double lastValue = kernelDerivationFunction.f(lastX);
+		double lastValue = derivative.applyAsDouble(lastX);
 
 		for (double x = lastX + minSearchStep; x < endX; x = x + minSearchStep) {
-			final double newValue = kernelDerivationFunction.f(x);
+			final double newValue = derivative.applyAsDouble(x);
 
 			if (lastValue < 0 && newValue > 0) {
 				pointList.add(GoldenSearch.minimize(minSearchAccuracy, 100, lastX, x, 0, kernelPdfFunction, new double[1]));
@@ -303,4 +341,90 @@ public class KernelDensityEstimatorButla {
 		return pointList.toArray(new Double[0]);
 	}
 
+	/**
+	 * The derivative of the {@link KDEFormelVariant#OriginalKDE} on a grid for ascending arguments. The range is divided into blocks that are binned and
+	 * convolved separately, such that long tails do not need huge grids and ranges without data points do not need a grid at all.
+	 */
+	private class BinnedDerivative implements DoubleUnaryOperator {
+
+		private final double[] sorted = dataPoints.arrayCopy();
+		private final double delta = bandwidth / gridResolution;
+		/**
+		 * Data points farther away have no influence on the grid value
+		 */
+		private final double cutOff = (Math.ceil(GaussKF.getInstance().cutOff() * gridResolution) + 2) * delta;
+		private final int blockSize = KernelDensityGrid.BLOCK_SIZE;
+
+		private KernelDensityGrid grid;
+		private double blockEnd = Double.NEGATIVE_INFINITY;
+		private int from;
+		private int to;
+		private double previous;
+
+		@Override
+		public double applyAsDouble(double x) {
+			if (x > blockEnd) {
+				nextBlock(x);
+			}
+			while (from < sorted.length && sorted[from] < x - cutOff) {
+				from++;
+			}
+			while (to < sorted.length && sorted[to] <= x + cutOff) {
+				to++;
+			}
+			double value;
+			if (from == to) {
+				// No data point within the cut off. Only the next data point to the right contributes to the exact derivative, so it is never negative and
+				// only needed if the derivative was negative before.
+				value = previous < 0 ? kernelDerivationFunction.f(x) : 0;
+			} else if (grid != null && x >= grid.start() && x <= grid.end()) {
+				value = grid.derivative(x);
+				if (Math.abs(value) <= grid.derivativeErrorBound(x)) {
+					value = kernelDerivationFunction.f(x);
+				}
+			} else {
+				value = kernelDerivationFunction.f(x);
+			}
+			previous = value;
+			return value;
+		}
+
+		private void nextBlock(double x) {
+			grid = null;
+			int lo = from;
+			while (lo < sorted.length && sorted[lo] < x - cutOff) {
+				lo++;
+			}
+			if (lo == sorted.length) {
+				blockEnd = Double.POSITIVE_INFINITY;
+			} else if (sorted[lo] > x + cutOff) {
+				blockEnd = sorted[lo] - cutOff;
+			} else {
+				blockEnd = x + blockSize * delta;
+				int hi = lo;
+				while (hi < sorted.length && sorted[hi] <= blockEnd + cutOff) {
+					hi++;
+				}
+				grid = KernelDensityGrid.createDerivative(Arrays.copyOfRange(sorted, lo, hi), null, sorted.length, GaussKF.getInstance(), bandwidth,
+						gridResolution, lag -> gaussThirdDerivativeSup((lag - 2.0) / gridResolution, (lag + 2.0) / gridResolution));
+			}
+		}
+	}
+
+	/**
+	 * @return sup|K'''(u)| = sup|(u^3 - 3u) * phi(u)| for u in [a, b]
+	 */
+	private static double gaussThirdDerivativeSup(double a, double b) {
+		double sup = 0;
+		// the extrema of K''' are at u^2 = 3 +- sqrt(6)
+		final double inner = Math.sqrt(3 - Math.sqrt(6));
+		final double outer = Math.sqrt(3 + Math.sqrt(6));
+		for (final double u : new double[] { a, b, -outer, -inner, inner, outer }) {
+			if (u >= a && u <= b) {
+				sup = Math.max(sup, Math.abs((u * u * u - 3 * u) * Math.exp(-u * u / 2) / Math.sqrt(2 * Math.PI)));
+			}
+		}
+		return sup;
+	}
+
 }
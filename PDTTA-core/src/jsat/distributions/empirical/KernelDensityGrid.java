@@ -0,0 +1,385 @@
+/**
+ * This file is part of SADL, a library for learning all sorts of (timed) automata and performing sequence-based anomaly detection.
+ * Copyright (C) 2013-2015  the original author or authors.
+ *
+ * SADL is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * SADL is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with SADL.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package jsat.distributions.empirical;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntToDoubleFunction;
+
+import org.apache.commons.math3.transform.DftNormalization;
+import org.apache.commons.math3.transform.FastFourierTransformer;
+import org.apache.commons.math3.transform.TransformType;
+
+import gnu.trove.list.TDoubleList;
+import gnu.trove.list.array.TDoubleArrayList;
+import jsat.distributions.empirical.kernelfunc.KernelFunction;
+
+/**
+ * The density and the cumulative distribution (or the derivative of the density) of a kernel density estimate on an equidistant grid. The data points are
+ * distributed linearly onto the two neighboring grid points (linear binning) and the bin counts are convolved with the kernel by FFT, which costs O(m log m)
+ * for m grid points instead of evaluating every kernel on every grid point. Values between the grid points are interpolated linearly. If the data spans more
+ * than {@link #MAX_GRID_SIZE} grid points, the pdf and cdf are computed in blocks of {@link #BLOCK_SIZE} grid points and regions without data are skipped.
+ * 
+ * @see MyKernelDensityEstimator#setGridResolution(int)
+ * @see KernelDensityEstimatorButla#setGridResolution(int)
+ */
+final class KernelDensityGrid implements Serializable {
+	private static final long serialVersionUID = 3164390734563208511L;
+
+	/**
+	 * The maximum number of grid points that are convolved at once
+	 */
+	static final int MAX_GRID_SIZE = 1 << 16;
+	/**
+	 * The number of grid points a block is responsible for. Together with the data points within the cut off on both sides, a block fits into
+	 * {@link #MAX_GRID_SIZE} grid points.
+	 */
+	static final int BLOCK_SIZE = MAX_GRID_SIZE / 2;
+	/**
+	 * Bound on the rounding errors of the FFT relative to the sum of the absolute values that are convolved
+	 */
+	private static final double FFT_ROUNDING = 1e-12;
+
+	private final double min;
+	private final double delta;
+	private final double[] pdf;
+	private final double[] cdf;
+	private final double[] derivative;
+	private final double[] derivativeError;
+	// the cdf left and right of the grid
+	private final double cdfBefore;
+	private final double cdfAfter;
+	// the first point every block is responsible for, or null if the grid is not split into blocks
+	private final double[] blockStarts;
+	private final KernelDensityGrid[] blocks;
+
+	private KernelDensityGrid(double min, double delta, double[] pdf, double[] cdf, double cdfBefore, double cdfAfter, double[] derivative,
+			double[] derivativeError) {
+		this.min = min;
+		this.delta = delta;
+		this.pdf = pdf;
+		this.cdf = cdf;
+		this.cdfBefore = cdfBefore;
+		this.cdfAfter = cdfAfter;
+		this.derivative = derivative;
+		this.derivativeError = derivativeError;
+		this.blockStarts = null;
+		this.blocks = null;
+	}
+
+	private KernelDensityGrid(double[] blockStarts, KernelDensityGrid[] blocks) {
+		this.min = blocks[0].min;
+		this.delta = blocks[0].delta;
+		this.pdf = null;
+		this.cdf = null;
+		this.cdfBefore = 0;
+		this.cdfAfter = 1;
+		this.derivative = null;
+		this.derivativeError = null;
+		this.blockStarts = blockStarts;
+		this.blocks = blocks;
+	}
+
+	/**
+	 * Computes the pdf and cdf grid for the given estimate.
+	 * 
+	 * @param x
+	 *            the sorted data points
+	 * @param weights
+	 *            the weight of every data point or {@code null} if all weights are one
+	 * @param sumOfWeights
+	 *            the sum of the weights
+	 * @param k
+	 *            the kernel
+	 * @param h
+	 *            the bandwidth
+	 * @param pointsPerBandwidth
+	 *            the number of grid points per bandwidth
+	 * @return the grid or {@code null} if the cut off of the kernel spans too many grid points for a block
+	 */
+	static KernelDensityGrid create(double[] x, double[] weights, double sumOfWeights, KernelFunction k, double h, int pointsPerBandwidth) {
+		final KernelDensityGrid grid = create(x, weights, sumOfWeights, k, h, pointsPerBandwidth, 0, 1, null);
+		if (grid != null) {
+			return grid;
+		}
+		return createBlocks(x, weights, sumOfWeights, k, h, pointsPerBandwidth);
+	}
+
+	/**
+	 * Splits the grid into blocks of {@link #BLOCK_SIZE} grid points. Every block is computed from the data points within the cut off of its grid points. A
+	 * new block starts at the end of the previous one or, if there is no data in between, in front of the next data point.
+	 */
+	private static KernelDensityGrid createBlocks(double[] x, double[] weights, double sumOfWeights, KernelFunction k, double h, int pointsPerBandwidth) {
+		final double delta = h / pointsPerBandwidth;
+		// Data points farther away have no influence on a grid value
+		final double cutOff = (Math.ceil(k.cutOff() * pointsPerBandwidth) + 2) * delta;
+		final TDoubleList starts = new TDoubleArrayList();
+		final List<KernelDensityGrid> blocks = new ArrayList<>();
+		// the weight of the data points left of the current block and its cut off
+		double before = 0;
+		int lo = 0;
+		double start = x[0] - cutOff;
+		while (true) {
+			final double end = start + BLOCK_SIZE * delta;
+			while (x[lo] < start - cutOff) {
+				before += weights == null ? 1 : weights[lo];
+				lo++;
+			}
+			int hi = lo;
+			double weight = 0;
+			while (hi < x.length && x[hi] <= end + cutOff) {
+				weight += weights == null ? 1 : weights[hi];
+				hi++;
+			}
+			final double cdfAfter = hi == x.length ? 1 : Math.min(1, (before + weight) / sumOfWeights);
+			final KernelDensityGrid block = create(Arrays.copyOfRange(x, lo, hi), weights == null ? null : Arrays.copyOfRange(weights, lo, hi), sumOfWeights,
+					k, h, pointsPerBandwidth, before / sumOfWeights, cdfAfter, null);
+			if (block == null) {
+				return null;
+			}
+			starts.add(start);
+			blocks.add(block);
+			int next = lo;
+			while (next < x.length && x[next] < end - cutOff) {
+				next++;
+			}
+			if (next == x.length) {
+				break;
+			}
+			start = Math.max(end, x[next] - cutOff);
+		}
+		return new KernelDensityGrid(starts.toArray(), blocks.toArray(new KernelDensityGrid[blocks.size()]));
+	}
+
+	/**
+	 * Computes the grid of the derivative of the given estimate, i.e. sum(w_i * K'((x - x_i) / h)) / (sumOfWeights * h). Only {@link #derivative(double)}
+	 * and {@link #derivativeErrorBound(double)} can be evaluated on the returned grid.
+	 * 
+	 * @param thirdDerivativeBound
+	 *            sup|K'''(v)| for |v - lag / pointsPerBandwidth| &lt;= 2 / pointsPerBandwidth
+	 * @see #create(double[], double[], double, KernelFunction, double, int)
+	 */
+	static KernelDensityGrid createDerivative(double[] x, double[] weights, double sumOfWeights, KernelFunction k, double h, int pointsPerBandwidth,
+			IntToDoubleFunction thirdDerivativeBound) {
+		return create(x, weights, sumOfWeights, k, h, pointsPerBandwidth, 0, 1, thirdDerivativeBound);
+	}
+
+	/**
+	 * @param cdfBefore
+	 *            the cdf of the data points left of the given ones
+	 * @param cdfAfter
+	 *            the cdf right of the given data points
+	 * @return the grid or {@code null} if it would have more than {@link #MAX_GRID_SIZE} points
+	 */
+	private static KernelDensityGrid create(double[] x, double[] weights, double sumOfWeights, KernelFunction k, double h, int pointsPerBandwidth,
+			double cdfBefore, double cdfAfter, IntToDoubleFunction thirdDerivativeBound) {
+		final double delta = h / pointsPerBandwidth;
+		// number of grid points on each side of a data point within the cut off of the kernel
+		final int l = (int) Math.ceil(k.cutOff() * pointsPerBandwidth);
+		final double span = Math.ceil((x[x.length - 1] - x[0]) / delta);
+		if (span + 2 * l + 2 > MAX_GRID_SIZE) {
+			return null;
+		}
+		final int m = (int) span + 2 * l + 2;
+		final double min = x[0] - l * delta;
+
+		// linear binning
+		final int size = Integer.highestOneBit(m + l - 1) << 1;
+		final double[][] counts = new double[2][size];
+		for (int i = 0; i < x.length; i++) {
+			final double w = weights == null ? 1 : weights[i];
+			final double pos = (x[i] - min) / delta;
+			final int j = (int) pos;
+			final double t = pos - j;
+			counts[0][j] += w * (1 - t);
+			counts[0][j + 1] += w * t;
+		}
+		final double[] prefixCounts = new double[m];
+		double sum = 0;
+		for (int j = 0; j < m; j++) {
+			sum += counts[0][j];
+			prefixCounts[j] = sum;
+		}
+		FastFourierTransformer.transformInPlace(counts, DftNormalization.STANDARD, TransformType.FORWARD);
+
+		if (thirdDerivativeBound != null) {
+			final double[][] derivativeKernel = kernel(size, l, lag -> k.kPrime((double) lag / pointsPerBandwidth) / h);
+			// Linear binning and linear interpolation both introduce an error of at most delta^2 / 8 * sup|f''| for the derivative f of a single kernel. The
+			// binned data points are at most delta away from the actual ones and the interpolated point at most delta away from the grid point.
+			final double scale = 1.0 / (8.0 * pointsPerBandwidth * pointsPerBandwidth * h);
+			final double[][] errorKernel = kernel(size, l, lag -> thirdDerivativeBound.applyAsDouble(lag) * scale);
+			convolve(counts, derivativeKernel);
+			convolve(counts, errorKernel);
+			final double rounding = FFT_ROUNDING * prefixCounts[m - 1] / h;
+			final double[] derivative = new double[m];
+			final double[] derivativeError = new double[m];
+			for (int j = 0; j < m; j++) {
+				derivative[j] = derivativeKernel[0][j] / sumOfWeights;
+				derivativeError[j] = (Math.abs(errorKernel[0][j]) + rounding) / sumOfWeights;
+			}
+			return new KernelDensityGrid(min, delta, null, null, 0, 1, derivative, derivativeError);
+		}
+
+		final double[][] pdfKernel = kernel(size, l, lag -> k.k((double) lag / pointsPerBandwidth) / h);
+		final double[][] cdfKernel = kernel(size, l, lag -> k.intK((double) lag / pointsPerBandwidth));
+		convolve(counts, pdfKernel);
+		convolve(counts, cdfKernel);
+
+		final double[] pdf = new double[m];
+		final double[] cdf = new double[m];
+		for (int j = 0; j < m; j++) {
+			// FFT rounding errors may lead to tiny negative values
+			pdf[j] = Math.max(0, pdfKernel[0][j] / sumOfWeights);
+			// the data points left of the cut off contribute their full weight
+			final double left = j - l - 1 >= 0 ? prefixCounts[j - l - 1] : 0;
+			cdf[j] = Math.min(1, Math.max(0, cdfBefore + (cdfKernel[0][j] + left) / sumOfWeights));
+		}
+		return new KernelDensityGrid(min, delta, pdf, cdf, cdfBefore, cdfAfter, null, null);
+	}
+
+	/**
+	 * Stores the kernel at the lags -l..l circularly, such that the circular convolution equals the linear one on the grid.
+	 */
+	private static double[][] kernel(int size, int l, IntToDoubleFunction kernel) {
+		final double[][] result = new double[2][size];
+		for (int lag = -l; lag <= l; lag++) {
+			result[0][lag < 0 ? size + lag : lag] = kernel.applyAsDouble(lag);
+		}
+		return result;
+	}
+
+	/**
+	 * Multiplies the kernel with the transformed counts in the frequency domain and transforms the result back into the kernel array.
+	 */
+	private static void convolve(double[][] transformedCounts, double[][] kernel) {
+		FastFourierTransformer.transformInPlace(kernel, DftNormalization.STANDARD, TransformType.FORWARD);
+		final double[] re = kernel[0];
+		final double[] im = kernel[1];
+		for (int i = 0; i < re.length; i++) {
+			final double r = transformedCounts[0][i] * re[i] - transformedCounts[1][i] * im[i];
+			im[i] = transformedCounts[0][i] * im[i] + transformedCounts[1][i] * re[i];
+			re[i] = r;
+		}
+		FastFourierTransformer.transformInPlace(kernel, DftNormalization.STANDARD, TransformType.INVERSE);
+	}
+
+	/**
+	 * 
+	 * @return the block that is responsible for the given point or {@code null} if the point is left of all blocks
+	 */
+	private KernelDensityGrid block(double x) {
+		int i = Arrays.binarySearch(blockStarts, x);
+		if (i < 0) {
+			i = -i - 2;
+		}
+		return i < 0 ? null : blocks[i];
+	}
+
+	double pdf(double x) {
+		if (blocks != null) {
+			final KernelDensityGrid block = block(x);
+			return block == null ? 0 : block.pdf(x);
+		}
+		final double pos = (x - min) / delta;
+		if (!(pos >= 0) || pos > pdf.length - 1) {
+			return 0;
+		}
+		return interpolate(pdf, pos);
+	}
+
+	double cdf(double x) {
+		if (blocks != null) {
+			final KernelDensityGrid block = block(x);
+			return block == null ? 0 : block.cdf(x);
+		}
+		final double pos = (x - min) / delta;
+		if (pos < 0) {
+			return cdfBefore;
+		} else if (pos >= cdf.length - 1) {
+			return cdfAfter;
+		}
+		return interpolate(cdf, pos);
+	}
+
+	double derivative(double x) {
+		final double pos = (x - min) / delta;
+		if (!(pos >= 0) || pos > derivative.length - 1) {
+			return 0;
+		}
+		return interpolate(derivative, pos);
+	}
+
+	/**
+	 * 
+	 * @return the bound on the absolute error of {@link #derivative(double)} compared to the exact derivative
+	 */
+	double derivativeErrorBound(double x) {
+		final double pos = (x - min) / delta;
+		if (!(pos >= 0) || pos > derivativeError.length - 1) {
+			return Double.POSITIVE_INFINITY;
+		}
+		final int j = (int) pos;
+		// binning error at the neighboring grid points plus the interpolation error
+		return 2 * Math.max(derivativeError[j], derivativeError[Math.min(j + 1, derivativeError.length - 1)]);
+	}
+
+	/**
+	 * 
+	 * @return the smallest point on the grid
+	 */
+	double start() {
+		return min;
+	}
+
+	/**
+	 * 
+	 * @return the largest point on the grid
+	 */
+	double end() {
+		if (blocks != null) {
+			return blocks[blocks.length - 1].end();
+		}
+		return min + (size() - 1) * delta;
+	}
+
+	private static double interpolate(double[] values, double pos) {
+		final int j = (int) pos;
+		if (j == values.length - 1) {
+			return values[j];
+		}
+		final double t = pos - j;
+		return values[j] * (1 - t) + values[j + 1] * t;
+	}
+
+	int size() {
+		if (blocks != null) {
+			int size = 0;
+			for (final KernelDensityGrid block : blocks) {
+				size += block.size();
+			}
+			return size;
+		}
+		return pdf != null ? pdf.length : derivative.length;
+	}
+
+	/**
+	 * 
+	 * @return the number of blocks the grid is split into
+	 */
+	int getNumberOfBlocks() {
+		return blocks == null ? 1 : blocks.length;
+	}
+
+}
@@ -20,9 +20,11 @@ import java.util.List;
 import org.apache.commons.math3.util.Precision;
 
 import jsat.distributions.ContinuousDistribution;
+import jsat.distributions.empirical.kernelfunc.BiweightKF;
 import jsat.distributions.empirical.kernelfunc.EpanechnikovKF;
 import jsat.distributions.empirical.kernelfunc.GaussKF;
 import jsat.distributions.empirical.kernelfunc.KernelFunction;
+import jsat.distributions.empirical.kernelfunc.TriweightKF;
 import jsat.distributions.empirical.kernelfunc.UniformKF;
 import jsat.linear.Vec;
 import jsat.math.Function;
@@ -63,6 +65,19 @@ public class MyKernelDensityEstimator extends ContinuousDistribution
 
 	private final KernelFunction k;
 
+	/**
+	 * The default number of grid points per bandwidth for {@link #setGridResolution(int)}
+	 */
+	public static final int DEFAULT_GRID_RESOLUTION = 16;
+	/**
+	 * The number of grid points per bandwidth or 0 if the pdf and cdf are evaluated exactly
+	 */
+	private int gridResolution;
+	/**
+	 * The binned estimate or {@code null} if the pdf and cdf are evaluated exactly
+	 */
+	private KernelDensityGrid grid;
+
 	public static double BandwithGuassEstimate(Vec X) {
 		if (X.length() == 1) {
 			return 1;
@@ -127,6 +142,126 @@ public class MyKernelDensityEstimator extends ContinuousDistribution
 		this.weights = Arrays.copyOf(weights, weights.length);
 	}
 
+	/**
+	 * Switches between the exact evaluation of the pdf and cdf and the evaluation on a grid. For the grid, the data points are linearly binned onto an
+	 * equidistant grid with the given number of points per bandwidth and the bins are convolved with the kernel by FFT. Afterwards, every evaluation costs
+	 * O(1) instead of O(n * epsilon * log(n)). The absolute error compared to the exact evaluation is bounded by {@link #getGridPdfErrorBound()} and
+	 * {@link #getGridCdfErrorBound()} and decreases quadratically with the resolution (only linearly for the pdf with the Epanechnikov kernel). The grid is
+	 * only used for the Gauss, Epanechnikov, Biweight and Triweight kernel. Data that spans more than {@value KernelDensityGrid#MAX_GRID_SIZE} grid points is
+	 * evaluated in blocks of {@value KernelDensityGrid#BLOCK_SIZE} grid points that skip the regions without data. The exact evaluation is kept if the cut off
+	 * of the kernel alone does not fit into a block.
+	 * 
+	 * @param pointsPerBandwidth
+	 *            the number of grid points per bandwidth or 0 for the exact evaluation
+	 * @return {@code true} if the grid is used for the evaluation
+	 */
+	public boolean setGridResolution(int pointsPerBandwidth) {
+		if (pointsPerBandwidth < 0) {
+			throw new IllegalArgumentException("The grid resolution must not be negative, but was " + pointsPerBandwidth);
+		}
+		gridResolution = pointsPerBandwidth;
+		updateGrid();
+		return grid != null;
+	}
+
+	/**
+	 * 
+	 * @return the number of grid points per bandwidth or 0 if the pdf and cdf are evaluated exactly
+	 */
+	public int getGridResolution() {
+		return gridResolution;
+	}
+
+	/**
+	 * 
+	 * @return {@code true} if the pdf and cdf are evaluated on a grid
+	 */
+	public boolean isGridded() {
+		return grid != null;
+	}
+
+	/**
+	 * The bound on the absolute error of the pdf on the grid compared to the exact evaluation. Linear binning and linear interpolation of the grid values both
+	 * contribute at most sup|K''| / (8 r^2 h) for r grid points per bandwidth h. For the Epanechnikov kernel the kink at the boundary of the support adds
+	 * 3 / (8 r h) to each of them, so 3 / (4 r h) in total.
+	 * 
+	 * @return the error bound or 0 if the pdf is evaluated exactly
+	 */
+	public double getGridPdfErrorBound() {
+		if (grid == null) {
+			return 0;
+		}
+		final double r = gridResolution;
+		return (gridKinkJump(k) / (2 * r) + gridCurvature(k) / (4 * r * r)) / h;
+	}
+
+	/**
+	 * The bound on the absolute error of the cdf on the grid compared to the exact evaluation. Linear binning and linear interpolation of the grid values both
+	 * contribute at most sup|K'| / (8 r^2) for r grid points per bandwidth.
+	 * 
+	 * @return the error bound or 0 if the cdf is evaluated exactly
+	 */
+	public double getGridCdfErrorBound() {
+		if (grid == null) {
+			return 0;
+		}
+		final double r = gridResolution;
+		return gridSlope(k) / (4 * r * r);
+	}
+
+	/**
+	 * sup|K''| where K'' exists
+	 */
+	private static double gridCurvature(KernelFunction k) {
+		if (k instanceof GaussKF) {
+			return 1 / Math.sqrt(2 * Math.PI);
+		} else if (k instanceof EpanechnikovKF) {
+			return 1.5;
+		} else if (k instanceof BiweightKF) {
+			return 7.5;
+		} else if (k instanceof TriweightKF) {
+			return 6.5625;
+		}
+		return Double.NaN;
+	}
+
+	/**
+	 * sup|K'|
+	 */
+	private static double gridSlope(KernelFunction k) {
+		if (k instanceof GaussKF) {
+			return Math.exp(-0.5) / Math.sqrt(2 * Math.PI);
+		} else if (k instanceof EpanechnikovKF) {
+			return 1.5;
+		} else if (k instanceof BiweightKF) {
+			return 1.4434;
+		} else if (k instanceof TriweightKF) {
+			return 1.8783;
+		}
+		return Double.NaN;
+	}
+
+	/**
+	 * The jump of K' at the boundary of the support
+	 */
+	private static double gridKinkJump(KernelFunction k) {
+		return k instanceof EpanechnikovKF ? 1.5 : 0;
+	}
+
+	private void updateGrid() {
+		grid = null;
+		if (gridResolution > 0 && !Double.isNaN(gridCurvature(k))) {
+			double[] w = null;
+			if (weights.length > 0) {
+				w = new double[X.length];
+				for (int i = 0; i < X.length; i++) {
+					w[i] = getWeight(i);
+				}
+			}
+			grid = KernelDensityGrid.create(X, w, sumOFWeights, k, h, gridResolution);
+		}
+	}
+
 	private void setUpX(Vec S) {
 		Xmean = S.mean();
 		Xvar = S.variance();
@@ -184,6 +319,9 @@ public class MyKernelDensityEstimator extends ContinuousDistribution
 
 	@Override
 	public double pdf(double x) {
+		if (grid != null) {
+			return grid.pdf(x);
+		}
 		return pdf(x, -1);
 	}
 
@@ -225,6 +363,9 @@ public class MyKernelDensityEstimator extends ContinuousDistribution
 
 	@Override
 	public double cdf(double x) {
+		if (grid != null) {
+			return grid.cdf(x);
+		}
 		// Only values within a certain range will have an effect on the result, so we will skip to that range!
 		int from = Arrays.binarySearch(X, x - h * k.cutOff());
 		int to = Arrays.binarySearch(X, x + h * k.cutOff());
@@ -340,6 +481,7 @@ public class MyKernelDensityEstimator extends ContinuousDistribution
 		}
 
 		this.h = val;
+		updateGrid();
 	}
 
 	/**
@@ -359,13 +501,18 @@ public class MyKernelDensityEstimator extends ContinuousDistribution
 
 	@Override
 	public MyKernelDensityEstimator clone() {
-		return new MyKernelDensityEstimator(X, h, Xmean, Xvar, Xskew, k, sumOFWeights, weights);
+		final MyKernelDensityEstimator clone = new MyKernelDensityEstimator(X, h, Xmean, Xvar, Xskew, k, sumOFWeights, weights);
+		// the grid is immutable and can be shared
+		clone.gridResolution = gridResolution;
+		clone.grid = grid;
+		return clone;
 	}
 
 	@Override
 	public void setUsingData(Vec data) {
 		setUpX(data);
 		this.h = BandwithGuassEstimate(data);
+		updateGrid();
 	}
 
 	@Override
@@ -17,5 +17,5 @@ package sadl.constants;
  *
  */
 public enum DetectorMethod {
-	SVM, THRESHOLD_ALL, THRESHOLD_AGG_ONLY, DBSCAN, ANODA;
+	SVM, THRESHOLD_ALL, THRESHOLD_AGG_ONLY, DBSCAN, ANODA, TSTIDE;
 }
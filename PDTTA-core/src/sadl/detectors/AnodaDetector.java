@@ -64,6 +64,11 @@ public class AnodaDetector extends AnomalyDetector {
 		return false;
 	}
 
+	@Override
+	protected boolean isAnomaly(TimedWord word, TDoubleList eventLikelihoods, TDoubleList timeLikelihoods) {
+		return isAnomaly(word);
+	}
+
 	@Override
 	protected boolean decide(TDoubleList eventLikelihoods, TDoubleList timeLikelihoods) {
 
@@ -18,9 +18,10 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.function.IntConsumer;
-import java.util.stream.IntStream;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import org.apache.commons.math3.util.Pair;
 import org.slf4j.Logger;
@@ -43,8 +44,12 @@ import sadl.utils.Settings;
 public abstract class AnomalyDetector {
 	private static Logger logger = LoggerFactory.getLogger(AnomalyDetector.class);
 
+	public static final int DEFAULT_CHUNK_SIZE = 256;
+
 	protected ProbabilityAggregationMethod aggType;
 	ProbabilisticModel model;
+	private ForkJoinPool pool = null;
+	private int chunkSize = DEFAULT_CHUNK_SIZE;
 
 	public boolean isAnomaly(ProbabilisticModel newModel, TimedWord s) {
 		setModel(newModel);
@@ -74,39 +79,155 @@ public abstract class AnomalyDetector {
 	 * @param testTimedSequences
 	 */
 	public List<double[]> computeAggregatedLikelihoods(TimedInput testTimedSequences) {
-		final List<double[]> result = new ArrayList<>();
-		for (final TimedWord ts : testTimedSequences) {
-			final Pair<TDoubleList, TDoubleList> p = model.calculateProbabilities(ts);
-			final double eventProb = aggregate(p.getKey(), aggType);
-			final double timeProb = aggregate(p.getValue(), aggType);
-			result.add(new double[] { eventProb, timeProb });
-		}
+		return new ArrayList<>(Arrays.asList(scoreAll(testTimedSequences)));
+	}
+
+	/**
+	 * Computes the aggregated event and time likelihood of every sequence. The sequences are scored in chunks of {@link #getChunkSize()} sequences (in
+	 * parallel if {@link Settings#isParallel()}), reusing the likelihood buffers within every chunk.
+	 * 
+	 * @param testSequences
+	 *            the sequences to score
+	 * @return for every sequence the aggregated event likelihood at index 0 and the aggregated time likelihood at index 1
+	 */
+	public double[][] scoreAll(TimedInput testSequences) {
+		final double[][] result = new double[testSequences.size()][];
+		runChunked(testSequences.size(), (from, to) -> {
+			final TDoubleArrayList eventLikelihoods = new TDoubleArrayList();
+			final TDoubleArrayList timeLikelihoods = new TDoubleArrayList();
+			for (int i = from; i < to; i++) {
+				eventLikelihoods.resetQuick();
+				timeLikelihoods.resetQuick();
+				model.calculateProbabilities(testSequences.get(i), eventLikelihoods, timeLikelihoods);
+				result[i] = new double[] { aggregate(eventLikelihoods, aggType), aggregate(timeLikelihoods, aggType) };
+			}
+		});
 		return result;
 	}
 
+	/**
+	 * Decides for every sequence whether it is an anomaly. Uses the same chunking as {@link #scoreAll(TimedInput)}.
+	 * 
+	 * @param testSequences
+	 *            the sequences to classify
+	 * @return true for every anomaly, false otherwise
+	 */
+	public boolean[] decideAll(TimedInput testSequences) {
+		final boolean[] result = new boolean[testSequences.size()];
+		runChunked(testSequences.size(), (from, to) -> {
+			final TDoubleArrayList eventLikelihoods = new TDoubleArrayList();
+			final TDoubleArrayList timeLikelihoods = new TDoubleArrayList();
+			for (int i = from; i < to; i++) {
+				eventLikelihoods.resetQuick();
+				timeLikelihoods.resetQuick();
+				result[i] = isAnomaly(testSequences.get(i), eventLikelihoods, timeLikelihoods);
+			}
+		});
+		return result;
+	}
+
+	@FunctionalInterface
+	private interface ChunkTask {
+		void run(int from, int to);
+	}
+
+	private void runChunked(int size, ChunkTask task) {
+		final int chunkCount = (size + chunkSize - 1) / chunkSize;
+		if (Settings.isParallel() && chunkCount > 1) {
+			final ForkJoinPool p = pool == null ? ForkJoinPool.commonPool() : pool;
+			p.invoke(new ChunkAction(task, size, chunkSize, 0, chunkCount));
+		} else {
+			task.run(0, size);
+		}
+	}
+
+	/**
+	 * Splits a range of chunks in halves until there is only one chunk left
+	 */
+	private static class ChunkAction extends RecursiveAction {
+		private static final long serialVersionUID = 5135931440917564364L;
+		private final ChunkTask task;
+		private final int size;
+		private final int chunkSize;
+		private final int firstChunk;
+		private final int lastChunk;
+
+		ChunkAction(ChunkTask task, int size, int chunkSize, int firstChunk, int lastChunk) {
+			this.task = task;
+			this.size = size;
+			this.chunkSize = chunkSize;
+			this.firstChunk = firstChunk;
+			this.lastChunk = lastChunk;
+		}
+
+		@Override
+		protected void compute() {
+			if (lastChunk - firstChunk == 1) {
+				task.run(firstChunk * chunkSize, Math.min(size, lastChunk * chunkSize));
+			} else {
+				final int middle = (firstChunk + lastChunk) >>> 1;
+				invokeAll(new ChunkAction(task, size, chunkSize, firstChunk, middle), new ChunkAction(task, size, chunkSize, middle, lastChunk));
+			}
+		}
+	}
+
+	/**
+	 * Sets the pool that is used for batch scoring.
+	 * 
+	 * @param pool
+	 *            the pool or {@code null} for the common pool
+	 */
+	public void setForkJoinPool(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	public int getChunkSize() {
+		return chunkSize;
+	}
+
+	/**
+	 * Sets the number of sequences that are scored by one task in {@link #scoreAll(TimedInput)} and {@link #decideAll(TimedInput)}.
+	 */
+	public void setChunkSize(int chunkSize) {
+		if (chunkSize < 1) {
+			throw new IllegalArgumentException("The chunk size must be positive, but is " + chunkSize);
+		}
+		this.chunkSize = chunkSize;
+	}
+
 	public Pair<TDoubleList, TDoubleList> computeAggregatedTrendLikelihood(TimedWord ts) {
 		final Pair<TDoubleList, TDoubleList> p = model.calculateProbabilities(ts);
 		return computeAggregatedTrendLikelihood(p.getKey(), p.getValue());
 	}
 
 	public Pair<TDoubleList, TDoubleList> computeAggregatedTrendLikelihood(TDoubleList eventLHs, TDoubleList timeLHs) {
-		final TDoubleList partialEventLHs = new TDoubleArrayList();
-		final TDoubleList partialTimeLHs = new TDoubleArrayList();
-		for (int i = 1; i <= eventLHs.size(); i++) {
-			final TDoubleList subList = eventLHs.subList(0, i);
-			partialEventLHs.add(aggregate(subList, aggType));
-		}
-		for (int i = 1; i <= timeLHs.size(); i++) {
-			final TDoubleList subList = timeLHs.subList(0, i);
-			partialTimeLHs.add(aggregate(subList, aggType));
+		return Pair.create(computeAggregatedTrend(eventLHs, aggType), computeAggregatedTrend(timeLHs, aggType));
+	}
+
+	/**
+	 * Aggregates every prefix of the given list in linear time.
+	 * 
+	 * @return the list where the i-th entry is the aggregation of the first i+1 likelihoods
+	 */
+	public static TDoubleList computeAggregatedTrend(TDoubleList likelihoods, ProbabilityAggregationMethod aggType) {
+		final TDoubleList result = new TDoubleArrayList(likelihoods.size());
+		final IncrementalAggregator agg = new IncrementalAggregator(aggType);
+		for (int i = 0; i < likelihoods.size(); i++) {
+			agg.add(likelihoods.get(i));
+			result.add(agg.getAggregate());
 		}
-		return Pair.create(partialEventLHs, partialTimeLHs);
+		return result;
 	}
 
 	public boolean isAnomaly(TimedWord s) {
-		final Pair<TDoubleList, TDoubleList> p = model.calculateProbabilities(s);
-		final TDoubleList eventLikelihoods = p.getKey();
-		final TDoubleList timeLikelihoods = p.getValue();
+		return isAnomaly(s, new TDoubleArrayList(s.length() + 1), new TDoubleArrayList(s.length()));
+	}
+
+	/**
+	 * Same as {@link #isAnomaly(TimedWord)}, but uses the given (empty) lists as buffers for the likelihoods.
+	 */
+	protected boolean isAnomaly(TimedWord s, TDoubleList eventLikelihoods, TDoubleList timeLikelihoods) {
+		model.calculateProbabilities(s, eventLikelihoods, timeLikelihoods);
 		if (eventLikelihoods.size() < timeLikelihoods.size()) {
 			throw new IllegalStateException("There must be at least as many event likelihoods as time likelihoods, but there are not: "
 					+ eventLikelihoods.size() + "(events) vs. " + timeLikelihoods.size() + "(time values)");
@@ -123,6 +244,44 @@ public abstract class AnomalyDetector {
 	 */
 	protected abstract boolean decide(TDoubleList eventLikelihoods, TDoubleList timeLikelihoods);
 
+	/**
+	 * Same as {@link #decide(TDoubleList, TDoubleList)} on the running state of the likelihood lists, except for the checks done by
+	 * {@link #isPrefixAnomaly(IncrementalAggregator, IncrementalAggregator)}. Used for online detection.
+	 * 
+	 * @throws UnsupportedOperationException
+	 *             if the detector does not support online detection
+	 */
+	protected boolean decide(IncrementalAggregator eventLikelihoods, IncrementalAggregator timeLikelihoods) {
+		throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support online detection");
+	}
+
+	/**
+	 * Decides whether a prefix of a word is an anomaly in any case, no matter which events follow. Called after every event with the likelihoods of all
+	 * events up to that one (without the final state probability).
+	 * 
+	 * @return true if the word is an anomaly
+	 */
+	protected boolean isPrefixAnomaly(IncrementalAggregator eventLikelihoods, IncrementalAggregator timeLikelihoods) {
+		return false;
+	}
+
+	/**
+	 * @return true if {@link #decide(IncrementalAggregator, IncrementalAggregator)} needs the statistics of the likelihoods
+	 */
+	protected boolean requiresStatistics() {
+		return false;
+	}
+
+	/**
+	 * Opens a session to detect whether a word is an anomaly while its events arrive.
+	 * 
+	 * @throws UnsupportedOperationException
+	 *             if the model does not support online scoring
+	 */
+	public DetectionSession openSession() {
+		return new DetectionSession(this, model.openCursor());
+	}
+
 	public boolean[] areAnomalies(TimedInput testSequences) {
 		if (Settings.isDebug()) {
 			final Path testLabelFile = Paths.get("testLabels.csv");
@@ -141,19 +300,8 @@ public abstract class AnomalyDetector {
 				logger.error("Unexpected exception occured", e);
 			}
 		}
-		final boolean[] result = new boolean[testSequences.size()];
-
 		// parallelism does not destroy determinism
-		final IntConsumer f = (i -> {
-			final TimedWord s = testSequences.get(i);
-			result[i] = isAnomaly(s);
-		});
-		if (Settings.isParallel()) {
-			IntStream.range(0, testSequences.size()).parallel().forEach(f);
-		} else {
-			IntStream.range(0, testSequences.size()).forEach(f);
-		}
-		return result;
+		return decideAll(testSequences);
 	}
 
 	public void setModel(ProbabilisticModel model) {
@@ -0,0 +1,125 @@
+/**
+ * This file is part of SADL, a library for learning all sorts of (timed) automata and performing sequence-based anomaly detection.
+ * Copyright (C) 2013-2015  the original author or authors.
+ *
+ * SADL is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * SADL is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with SADL.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package sadl.detectors;
+
+import sadl.interfaces.LikelihoodCursor;
+
+/**
+ * Online anomaly detection for a single word whose events arrive one after another. The verdict is the same that
+ * {@link AnomalyDetector#isAnomaly(sadl.input.TimedWord)} computes for the word of all pushed events, but it is available as soon as it cannot change
+ * anymore, e.g. after the first event the model cannot continue.
+ * 
+ * @see AnomalyDetector#openSession()
+ */
+public class DetectionSession {
+
+	private final AnomalyDetector detector;
+	private final LikelihoodCursor cursor;
+	private final IncrementalAggregator eventLikelihoods;
+	private final IncrementalAggregator timeLikelihoods;
+	private int length = 0;
+	private boolean prefixAnomaly = false;
+	private boolean decided = false;
+	private boolean anomaly = false;
+
+	DetectionSession(AnomalyDetector detector, LikelihoodCursor cursor) {
+		this.detector = detector;
+		this.cursor = cursor;
+		eventLikelihoods = new IncrementalAggregator(detector.aggType, detector.requiresStatistics());
+		timeLikelihoods = new IncrementalAggregator(detector.aggType, detector.requiresStatistics());
+	}
+
+	/**
+	 * Processes the next event. Events pushed after the verdict was made are ignored.
+	 * 
+	 * @param symbol
+	 *            the symbol of the event
+	 * @param timeDelay
+	 *            the time delay of the event
+	 * @return true if the verdict is certain
+	 */
+	public boolean push(String symbol, int timeDelay) {
+		if (decided) {
+			return true;
+		}
+		length++;
+		if (cursor.push(symbol, timeDelay, eventLikelihoods, timeLikelihoods)) {
+			if (!prefixAnomaly && detector.isPrefixAnomaly(eventLikelihoods, timeLikelihoods)) {
+				prefixAnomaly = true;
+			}
+			if (prefixAnomaly && cursor.retainsPrefixLikelihoods()) {
+				decide(true);
+			}
+		} else {
+			if (!cursor.retainsPrefixLikelihoods()) {
+				prefixAnomaly = false;
+			}
+			decide(prefixAnomaly || detector.decide(eventLikelihoods, timeLikelihoods));
+		}
+		return decided;
+	}
+
+	/**
+	 * Ends the word.
+	 * 
+	 * @return true if the word is an anomaly
+	 */
+	public boolean finish() {
+		if (!decided) {
+			cursor.finish(eventLikelihoods);
+			decide(prefixAnomaly || detector.decide(eventLikelihoods, timeLikelihoods));
+		}
+		return anomaly;
+	}
+
+	private void decide(boolean isAnomaly) {
+		decided = true;
+		anomaly = isAnomaly;
+	}
+
+	public boolean isDecided() {
+		return decided;
+	}
+
+	/**
+	 * @return true if the word is an anomaly
+	 * @throws IllegalStateException
+	 *             if the verdict is not certain yet
+	 */
+	public boolean isAnomaly() {
+		if (!decided) {
+			throw new IllegalStateException("The verdict is not certain yet; push more events or finish the word");
+		}
+		return anomaly;
+	}
+
+	/**
+	 * @return the number of events that were processed
+	 */
+	public int length() {
+		return length;
+	}
+
+	/**
+	 * @return the aggregated event likelihood of the events processed so far
+	 */
+	public double getEventLikelihood() {
+		return eventLikelihoods.getAggregate();
+	}
+
+	/**
+	 * @return the aggregated time likelihood of the events processed so far
+	 */
+	public double getTimeLikelihood() {
+		return timeLikelihoods.getAggregate();
+	}
+}
@@ -0,0 +1,169 @@
+/**
+ * This file is part of SADL, a library for learning all sorts of (timed) automata and performing sequence-based anomaly detection.
+ * Copyright (C) 2013-2015  the original author or authors.
+ *
+ * SADL is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * SADL is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with SADL.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package sadl.detectors;
+
+import jsat.math.OnLineStatistics;
+import sadl.constants.ProbabilityAggregationMethod;
+
+/**
+ * Running aggregation of a list of likelihoods that is extended one value at a time. After every {@link #add(double)} it yields the same values that
+ * {@link AnomalyDetector#aggregate(gnu.trove.list.TDoubleList, ProbabilityAggregationMethod)} and the list statistics used by the feature creators would
+ * yield for the list of all values added so far, but in constant time per value.
+ */
+public class IncrementalAggregator {
+
+	private final ProbabilityAggregationMethod aggType;
+	private final boolean trackStatistics;
+
+	private int size;
+	private double aggregate;
+	private double sum;
+	private double min;
+	private double max;
+	private double last;
+	private double minDiff;
+	private double maxDiff;
+	private OnLineStatistics statistics;
+
+	public IncrementalAggregator(ProbabilityAggregationMethod aggType) {
+		this(aggType, false);
+	}
+
+	/**
+	 * 
+	 * @param aggType
+	 *            the aggregation method
+	 * @param trackStatistics
+	 *            also keep the {@link OnLineStatistics} of the values (see {@link #getStatistics()})
+	 */
+	public IncrementalAggregator(ProbabilityAggregationMethod aggType, boolean trackStatistics) {
+		this.aggType = aggType;
+		this.trackStatistics = trackStatistics;
+		reset();
+	}
+
+	public void reset() {
+		size = 0;
+		aggregate = 0;
+		sum = 0;
+		min = Double.POSITIVE_INFINITY;
+		max = Double.NEGATIVE_INFINITY;
+		last = 0;
+		minDiff = Double.POSITIVE_INFINITY;
+		maxDiff = Double.NEGATIVE_INFINITY;
+		statistics = trackStatistics ? new OnLineStatistics() : null;
+	}
+
+	public void add(double value) {
+		if (size == 0) {
+			if (aggType == ProbabilityAggregationMethod.MULTIPLY || aggType == ProbabilityAggregationMethod.NORMALIZED_MULTIPLY) {
+				aggregate = Math.log(value);
+			} else {
+				aggregate = value;
+			}
+		} else {
+			if (aggType == ProbabilityAggregationMethod.MULTIPLY || aggType == ProbabilityAggregationMethod.NORMALIZED_MULTIPLY) {
+				aggregate += Math.log(value);
+			} else if (aggType == ProbabilityAggregationMethod.LUK_T) {
+				aggregate = Math.max(0, value + aggregate - 1);
+			} else if (aggType == ProbabilityAggregationMethod.LUK_STRONG_DISJUNCTION) {
+				aggregate = Math.min(1, value + aggregate);
+			} else if (aggType == ProbabilityAggregationMethod.NORMALIZED_MULTIPLY_UNSTABLE) {
+				aggregate *= value;
+			}
+			final double diff = Math.abs(value - last);
+			if (diff > maxDiff) {
+				maxDiff = diff;
+			}
+			if (diff < minDiff) {
+				minDiff = diff;
+			}
+		}
+		if (value > max) {
+			max = value;
+		}
+		if (value < min) {
+			min = value;
+		}
+		sum += value;
+		last = value;
+		size++;
+		if (statistics != null) {
+			statistics.add(value);
+		}
+	}
+
+	/**
+	 * @return the same as {@link AnomalyDetector#aggregate(gnu.trove.list.TDoubleList, ProbabilityAggregationMethod)} for the values added so far
+	 */
+	public double getAggregate() {
+		if (size == 0) {
+			return Double.POSITIVE_INFINITY;
+		}
+		if (aggType == ProbabilityAggregationMethod.MULTIPLY || aggType == ProbabilityAggregationMethod.LUK_T
+				|| aggType == ProbabilityAggregationMethod.LUK_STRONG_DISJUNCTION) {
+			return aggregate;
+		} else if (aggType == ProbabilityAggregationMethod.NORMALIZED_MULTIPLY) {
+			return Math.exp(aggregate / size);
+		} else if (aggType == ProbabilityAggregationMethod.NORMALIZED_MULTIPLY_UNSTABLE) {
+			return Math.pow(aggregate, 1.0 / size);
+		}
+		return -1;
+	}
+
+	public ProbabilityAggregationMethod getAggType() {
+		return aggType;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public double sum() {
+		return sum;
+	}
+
+	public double max() {
+		if (size == 0) {
+			throw new IllegalStateException("cannot find maximum of an empty list");
+		}
+		return max;
+	}
+
+	public double min() {
+		if (size == 0) {
+			throw new IllegalStateException("cannot find minimum of an empty list");
+		}
+		return min;
+	}
+
+	/**
+	 * @return the smallest absolute difference of two consecutive values or {@link Double#POSITIVE_INFINITY} if there are less than two values
+	 */
+	public double minDiff() {
+		return size <= 1 ? Double.POSITIVE_INFINITY : minDiff;
+	}
+
+	/**
+	 * @return the largest absolute difference of two consecutive values or {@link Double#POSITIVE_INFINITY} if there are less than two values
+	 */
+	public double maxDiff() {
+		return size <= 1 ? Double.POSITIVE_INFINITY : maxDiff;
+	}
+
+	/**
+	 * @return the statistics of the values added so far or {@code null} if they are not tracked
+	 */
+	public OnLineStatistics getStatistics() {
+		return statistics;
+	}
+}
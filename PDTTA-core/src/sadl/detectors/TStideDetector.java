@@ -11,12 +11,88 @@
 
 package sadl.detectors;
 
-@Deprecated
+import gnu.trove.list.TDoubleList;
+import sadl.constants.ProbabilityAggregationMethod;
+import sadl.models.TStide;
+
 /**
+ * The detector of t-STIDE. A window of a word mismatches if its relative frequency in the training sequences (the event likelihood computed by
+ * {@link TStide}) is below the rare threshold. A word is an anomaly if the fraction of its mismatching windows exceeds the anomaly threshold.
  * 
  * @author Timo Klerx
  *
  */
-public class TStideDetector {
+public class TStideDetector extends AnomalyDetector {
+
+	public static final double DEFAULT_RARE_THRESHOLD = 0.001;
+
+	private final double rareThreshold;
+	private final double anomalyThreshold;
+
+	/**
+	 * Creates a detector that reports every word with a window below {@link #DEFAULT_RARE_THRESHOLD}.
+	 */
+	public TStideDetector() {
+		this(DEFAULT_RARE_THRESHOLD, 0);
+	}
+
+	/**
+	 * 
+	 * @param rareThreshold
+	 *            windows with a relative frequency below this threshold mismatch
+	 * @param anomalyThreshold
+	 *            words with a larger fraction of mismatching windows are anomalies
+	 */
+	public TStideDetector(double rareThreshold, double anomalyThreshold) {
+		this(ProbabilityAggregationMethod.NORMALIZED_MULTIPLY, rareThreshold, anomalyThreshold);
+	}
+
+	/**
+	 * 
+	 * @param aggType
+	 *            the aggregation of the window frequencies in {@link #scoreAll(sadl.input.TimedInput)}
+	 * @param rareThreshold
+	 *            windows with a relative frequency below this threshold mismatch
+	 * @param anomalyThreshold
+	 *            words with a larger fraction of mismatching windows are anomalies
+	 */
+	public TStideDetector(ProbabilityAggregationMethod aggType, double rareThreshold, double anomalyThreshold) {
+		super(aggType);
+		if (anomalyThreshold < 0 || anomalyThreshold >= 1) {
+			throw new IllegalArgumentException("The anomaly threshold must be in [0, 1), but was " + anomalyThreshold);
+		}
+		this.rareThreshold = rareThreshold;
+		this.anomalyThreshold = anomalyThreshold;
+	}
+
+	@Override
+	protected boolean decide(TDoubleList eventLikelihoods, TDoubleList timeLikelihoods) {
+		return mismatchRate(eventLikelihoods) > anomalyThreshold;
+	}
+
+	/**
+	 * 
+	 * @return the fraction of the windows with a relative frequency below the rare threshold or 0 if there is no window
+	 */
+	public double mismatchRate(TDoubleList windowFrequencies) {
+		if (windowFrequencies.isEmpty()) {
+			return 0;
+		}
+		int mismatches = 0;
+		for (int i = 0; i < windowFrequencies.size(); i++) {
+			if (windowFrequencies.get(i) < rareThreshold) {
+				mismatches++;
+			}
+		}
+		return (double) mismatches / windowFrequencies.size();
+	}
+
+	public double getRareThreshold() {
+		return rareThreshold;
+	}
+
+	public double getAnomalyThreshold() {
+		return anomalyThreshold;
+	}
 
 }
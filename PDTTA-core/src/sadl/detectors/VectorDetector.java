@@ -50,10 +50,12 @@ public class VectorDetector extends AnomalyDetector implements TrainableDetector
 	protected boolean decide(TDoubleList eventLikelihoods, TDoubleList timeLikelihoods) {
 		if (aggSublists) {
 			// do sublists over timelikelihoods because the time list is shorter than the event list
-			for (int i = 1; i <= timeLikelihoods.size(); i++) {
-				final TDoubleList eventSubList = eventLikelihoods.subList(0, i);
-				final TDoubleList timeSubList = timeLikelihoods.subList(0, i);
-				final double[] vector = fc.createFeatures(eventSubList, timeSubList, aggType);
+			final IncrementalAggregator eventAgg = new IncrementalAggregator(aggType, fc.requiresStatistics());
+			final IncrementalAggregator timeAgg = new IncrementalAggregator(aggType, fc.requiresStatistics());
+			for (int i = 0; i < timeLikelihoods.size(); i++) {
+				eventAgg.add(eventLikelihoods.get(i));
+				timeAgg.add(timeLikelihoods.get(i));
+				final double[] vector = fc.createFeatures(eventAgg, timeAgg);
 				if (c.isOutlier(vector)) {
 					return true;
 				}
@@ -65,19 +67,42 @@ public class VectorDetector extends AnomalyDetector implements TrainableDetector
 		}
 	}
 
+	@Override
+	protected boolean decide(IncrementalAggregator eventLikelihoods, IncrementalAggregator timeLikelihoods) {
+		if (aggSublists) {
+			// every prefix was checked by isPrefixAnomaly
+			return false;
+		} else {
+			return c.isOutlier(fc.createFeatures(eventLikelihoods, timeLikelihoods));
+		}
+	}
+
+	@Override
+	protected boolean isPrefixAnomaly(IncrementalAggregator eventLikelihoods, IncrementalAggregator timeLikelihoods) {
+		return aggSublists && c.isOutlier(fc.createFeatures(eventLikelihoods, timeLikelihoods));
+	}
+
+	@Override
+	protected boolean requiresStatistics() {
+		return fc.requiresStatistics();
+	}
+
 	@Override
 	public void train(TimedInput trainingInput) {
 		final List<double[]> trainingSet = new ArrayList<>(trainingInput.size());
+		final IncrementalAggregator eventAgg = new IncrementalAggregator(aggType, fc.requiresStatistics());
+		final IncrementalAggregator timeAgg = new IncrementalAggregator(aggType, fc.requiresStatistics());
 		for (final TimedWord s : trainingInput) {
 			final Pair<TDoubleList, TDoubleList> p = model.calculateProbabilities(s);
 			if (aggSublists) {
 				final TDoubleList eventLikelihoods = p.getKey();
 				final TDoubleList timeLikelihoods = p.getValue();
-				for (int i = 1; i <= timeLikelihoods.size(); i++) {
-					final TDoubleList eventSubList = eventLikelihoods.subList(0, i);
-					final TDoubleList timeSubList = timeLikelihoods.subList(0, i);
-					final double[] vector = fc.createFeatures(eventSubList, timeSubList, aggType);
-					trainingSet.add(vector);
+				eventAgg.reset();
+				timeAgg.reset();
+				for (int i = 0; i < timeLikelihoods.size(); i++) {
+					eventAgg.add(eventLikelihoods.get(i));
+					timeAgg.add(timeLikelihoods.get(i));
+					trainingSet.add(fc.createFeatures(eventAgg, timeAgg));
 				}
 			} else {
 				trainingSet.add(fc.createFeatures(p.getKey(), p.getValue(), aggType));
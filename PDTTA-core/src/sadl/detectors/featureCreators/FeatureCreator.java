@@ -13,6 +13,7 @@ package sadl.detectors.featureCreators;
 
 import gnu.trove.list.TDoubleList;
 import sadl.constants.ProbabilityAggregationMethod;
+import sadl.detectors.IncrementalAggregator;
 
 /**
  * 
@@ -23,4 +24,22 @@ public interface FeatureCreator {
 	public double[] createFeatures(TDoubleList eventLikelihoods, TDoubleList timeLikelihoods);
 
 	double[] createFeatures(TDoubleList eventLikelihoods, TDoubleList timeLikelihoods, ProbabilityAggregationMethod aggType);
+
+	/**
+	 * Creates the same features as {@link #createFeatures(TDoubleList, TDoubleList, ProbabilityAggregationMethod)} from the running state of the
+	 * likelihood lists. Used to create features for every prefix of a sequence in constant time per prefix.
+	 * 
+	 * @throws UnsupportedOperationException
+	 *             if the feature creator does not support online detection
+	 */
+	default double[] createFeatures(IncrementalAggregator eventLikelihoods, IncrementalAggregator timeLikelihoods) {
+		throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support online detection");
+	}
+
+	/**
+	 * @return true if the aggregators passed to {@link #createFeatures(IncrementalAggregator, IncrementalAggregator)} must track their statistics
+	 */
+	default boolean requiresStatistics() {
+		return false;
+	}
 }
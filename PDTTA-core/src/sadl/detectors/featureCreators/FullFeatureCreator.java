@@ -16,6 +16,7 @@ import org.slf4j.LoggerFactory;
 
 import gnu.trove.list.TDoubleList;
 import sadl.constants.ProbabilityAggregationMethod;
+import sadl.detectors.IncrementalAggregator;
 
 /**
  * 
@@ -39,4 +40,17 @@ public class FullFeatureCreator extends SmallFeatureCreator {
 		}
 		return new double[] { superCall[0], superCall[1], superCall[2], eventMean, superCall[3], superCall[4], superCall[5], timeMean };
 	}
+
+	@Override
+	public double[] createFeatures(IncrementalAggregator eventLikelihoods, IncrementalAggregator timeLikelihoods) {
+		final double[] superCall = super.createFeatures(eventLikelihoods, timeLikelihoods);
+		final double eventMean = eventLikelihoods.sum() / eventLikelihoods.size();
+		final double timeMean;
+		if (timeLikelihoods.size() == 0) {
+			timeMean = Double.POSITIVE_INFINITY;
+		} else {
+			timeMean = timeLikelihoods.sum() / timeLikelihoods.size();
+		}
+		return new double[] { superCall[0], superCall[1], superCall[2], eventMean, superCall[3], superCall[4], superCall[5], timeMean };
+	}
 }
@@ -14,6 +14,7 @@ package sadl.detectors.featureCreators;
 import gnu.trove.list.TDoubleList;
 import sadl.constants.ProbabilityAggregationMethod;
 import sadl.detectors.AnomalyDetector;
+import sadl.detectors.IncrementalAggregator;
 
 public class MinimalFeatureCreator implements FeatureCreator {
 
@@ -31,4 +32,9 @@ public class MinimalFeatureCreator implements FeatureCreator {
 
 	}
 
+	@Override
+	public double[] createFeatures(IncrementalAggregator eventLikelihoods, IncrementalAggregator timeLikelihoods) {
+		return new double[] { eventLikelihoods.getAggregate(), timeLikelihoods.getAggregate() };
+	}
+
 }
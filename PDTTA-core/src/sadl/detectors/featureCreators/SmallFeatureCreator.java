@@ -13,6 +13,7 @@ package sadl.detectors.featureCreators;
 
 import gnu.trove.list.TDoubleList;
 import sadl.constants.ProbabilityAggregationMethod;
+import sadl.detectors.IncrementalAggregator;
 
 /**
  * 
@@ -40,6 +41,21 @@ public class SmallFeatureCreator extends MinimalFeatureCreator {
 		return new double[] { eventMax, eventMin, superCall[0], timeMax, timeMin, superCall[1] };
 	}
 
+	@Override
+	public double[] createFeatures(IncrementalAggregator eventLikelihoods, IncrementalAggregator timeLikelihoods) {
+		final double[] superCall = super.createFeatures(eventLikelihoods, timeLikelihoods);
+		final double timeMax;
+		final double timeMin;
+		if (timeLikelihoods.size() == 0) {
+			timeMax = Double.POSITIVE_INFINITY;
+			timeMin = Double.POSITIVE_INFINITY;
+		} else {
+			timeMax = timeLikelihoods.max();
+			timeMin = timeLikelihoods.min();
+		}
+		return new double[] { eventLikelihoods.max(), eventLikelihoods.min(), superCall[0], timeMax, timeMin, superCall[1] };
+	}
+
 
 
 }
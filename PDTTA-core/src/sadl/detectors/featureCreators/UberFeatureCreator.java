@@ -11,6 +11,8 @@
 
 package sadl.detectors.featureCreators;
 
+import java.util.Arrays;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -18,6 +20,7 @@ import gnu.trove.list.TDoubleList;
 import gnu.trove.list.array.TDoubleArrayList;
 import jsat.math.OnLineStatistics;
 import sadl.constants.ProbabilityAggregationMethod;
+import sadl.detectors.IncrementalAggregator;
 
 public class UberFeatureCreator extends FullFeatureCreator {
 	@SuppressWarnings("unused")
@@ -46,6 +49,28 @@ public class UberFeatureCreator extends FullFeatureCreator {
 		return result.toArray();
 	}
 
+	@Override
+	public double[] createFeatures(IncrementalAggregator eventLikelihoods, IncrementalAggregator timeLikelihoods) {
+		final double[] superCall = super.createFeatures(eventLikelihoods, timeLikelihoods);
+		final double[] result = Arrays.copyOf(superCall, superCall.length + 8);
+		int i = superCall.length;
+		result[i++] = eventLikelihoods.getStatistics().getStandardDeviation();
+		result[i++] = eventLikelihoods.size();
+		result[i++] = eventLikelihoods.minDiff();
+		result[i++] = eventLikelihoods.maxDiff();
+
+		result[i++] = timeLikelihoods.getStatistics().getStandardDeviation();
+		result[i++] = timeLikelihoods.size();
+		result[i++] = timeLikelihoods.minDiff();
+		result[i++] = timeLikelihoods.maxDiff();
+		return result;
+	}
+
+	@Override
+	public boolean requiresStatistics() {
+		return true;
+	}
+
 	private TDoubleList calcDiffs(TDoubleList likelihoods) {
 		if (likelihoods.size() <= 1) {
 			return new TDoubleArrayList(new double[] { Double.POSITIVE_INFINITY });
@@ -18,6 +18,7 @@ import org.slf4j.LoggerFactory;
 import gnu.trove.list.TDoubleList;
 import sadl.constants.ProbabilityAggregationMethod;
 import sadl.detectors.AnomalyDetector;
+import sadl.detectors.IncrementalAggregator;
 
 /**
  * 
@@ -70,6 +71,18 @@ public class AggregatedThresholdDetector extends AnomalyDetector {
 		}
 	}
 
+	@Override
+	protected boolean decide(IncrementalAggregator eventLikelihoods, IncrementalAggregator timeLikelihoods) {
+		// the complete lists are the last prefixes
+		return eventLikelihoods.getAggregate() <= aggregatedEventThreshold || timeLikelihoods.getAggregate() <= aggregatedTimeThreshold;
+	}
+
+	@Override
+	protected boolean isPrefixAnomaly(IncrementalAggregator eventLikelihoods, IncrementalAggregator timeLikelihoods) {
+		return aggregateSublists
+				&& (eventLikelihoods.getAggregate() <= aggregatedEventThreshold || timeLikelihoods.getAggregate() <= aggregatedTimeThreshold);
+	}
+
 	private  boolean myDecide(TDoubleList eventLikelihoods, TDoubleList timeLikelihoods) {
 		final double normalizedEventThreshold = aggregatedEventThreshold;
 		final double normalizedTimeThreshold = aggregatedTimeThreshold;
@@ -13,6 +13,7 @@ package sadl.detectors.threshold;
 
 import gnu.trove.list.TDoubleList;
 import sadl.constants.ProbabilityAggregationMethod;
+import sadl.detectors.IncrementalAggregator;
 
 /**
  * 
@@ -53,4 +54,19 @@ public class FullThresholdDetector extends AggregatedThresholdDetector {
 		}
 		return false;
 	}
+
+	@Override
+	protected boolean decide(IncrementalAggregator eventLikelihoods, IncrementalAggregator timeLikelihoods) {
+		return super.decide(eventLikelihoods, timeLikelihoods) || isSingleAnomaly(eventLikelihoods, timeLikelihoods);
+	}
+
+	@Override
+	protected boolean isPrefixAnomaly(IncrementalAggregator eventLikelihoods, IncrementalAggregator timeLikelihoods) {
+		return super.isPrefixAnomaly(eventLikelihoods, timeLikelihoods) || isSingleAnomaly(eventLikelihoods, timeLikelihoods);
+	}
+
+	private boolean isSingleAnomaly(IncrementalAggregator eventLikelihoods, IncrementalAggregator timeLikelihoods) {
+		return (eventLikelihoods.size() > 0 && eventLikelihoods.min() <= singleEventThreshold)
+				|| (timeLikelihoods.size() > 0 && timeLikelihoods.min() <= singleTimeThreshold);
+	}
 }
@@ -0,0 +1,199 @@
+/**
+ * This file is part of SADL, a library for learning all sorts of (timed) automata and performing sequence-based anomaly detection.
+ * Copyright (C) 2013-2015  the original author or authors.
+ *
+ * SADL is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * SADL is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with SADL.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package sadl.input;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Parses a file of timed sequences in parallel. The file is memory-mapped and split at line boundaries into chunks that are parsed concurrently, each with
+ * its own alphabet. The chunks are decoded while they are parsed, so no chunk is held in memory as characters. The chunks are merged in file order such that
+ * the result is the same as the one of a sequential parse.
+ */
+final class ParallelTimedInputLoader {
+
+	private static Logger logger = LoggerFactory.getLogger(ParallelTimedInputLoader.class);
+
+	// a mapped buffer cannot be larger than Integer.MAX_VALUE bytes
+	private static final long MAX_CHUNK_SIZE = 1L << 30;
+	private static final int READ_BUFFER_SIZE = 8192;
+
+	private ParallelTimedInputLoader() {
+	}
+
+	/**
+	 * Parses a file in parallel.
+	 * 
+	 * @param in
+	 *            the file
+	 * @param lineOffset
+	 *            the number of lines to skip at the beginning of the file
+	 * @param alternativeFormat
+	 *            whether the file is in the alternative format
+	 * @param parallelism
+	 *            the number of chunks to split the file into
+	 * @return the parsed {@link TimedInput} or {@code null} if some chunk could not be parsed; the file has to be parsed sequentially then to get the
+	 *         appropriate exception
+	 * @throws IOException
+	 */
+	static TimedInput load(Path in, int lineOffset, boolean alternativeFormat, int parallelism) throws IOException {
+		try (FileChannel channel = FileChannel.open(in, StandardOpenOption.READ)) {
+			final long size = channel.size();
+			final long start = skipLines(channel, lineOffset);
+			final int chunkCount = (int) Math.max(parallelism, (size - start) / MAX_CHUNK_SIZE + 1);
+			final long[] bounds = new long[chunkCount + 1];
+			bounds[0] = start;
+			bounds[chunkCount] = size;
+			for (int i = 1; i < chunkCount; i++) {
+				bounds[i] = Math.max(bounds[i - 1], nextLineStart(channel, start + (size - start) * i / chunkCount));
+			}
+			final ByteBuffer[] chunks = new ByteBuffer[chunkCount];
+			for (int i = 0; i < chunkCount; i++) {
+				chunks[i] = channel.map(MapMode.READ_ONLY, bounds[i], bounds[i + 1] - bounds[i]);
+			}
+			final List<TimedInput> parsed = IntStream.range(0, chunkCount).parallel().mapToObj(i -> parseChunk(chunks[i], alternativeFormat))
+					.collect(Collectors.toList());
+			if (parsed.contains(null)) {
+				return null;
+			}
+			return TimedInput.merge(parsed);
+		}
+	}
+
+	private static TimedInput parseChunk(ByteBuffer chunk, boolean alternativeFormat) {
+		try {
+			return TimedInput.parseChunk(Channels.newReader(new ByteBufferChannel(chunk), StandardCharsets.UTF_8.newDecoder(), READ_BUFFER_SIZE),
+					alternativeFormat);
+		} catch (final CharacterCodingException | IllegalArgumentException e) {
+			logger.debug("Could not parse chunk in parallel.", e);
+			return null;
+		} catch (final IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Returns the position after the given number of lines like {@link java.io.BufferedReader#readLine()} would skip them.
+	 */
+	private static long skipLines(FileChannel channel, int lines) throws IOException {
+		final ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+		long pos = 0;
+		int skipped = 0;
+		boolean afterCarriageReturn = false;
+		while (skipped < lines) {
+			buffer.clear();
+			final int read = channel.read(buffer, pos);
+			if (read <= 0) {
+				break;
+			}
+			int i = 0;
+			for (; i < read && skipped < lines; i++) {
+				final byte b = buffer.get(i);
+				if (b == '\n') {
+					if (!afterCarriageReturn) {
+						skipped++;
+					}
+					afterCarriageReturn = false;
+				} else if (b == '\r') {
+					skipped++;
+					afterCarriageReturn = true;
+				} else {
+					afterCarriageReturn = false;
+				}
+			}
+			pos += i;
+		}
+		if (afterCarriageReturn) {
+			// a line feed after the last carriage return belongs to the skipped line
+			buffer.clear();
+			buffer.limit(1);
+			if (channel.read(buffer, pos) == 1 && buffer.get(0) == '\n') {
+				pos++;
+			}
+		}
+		return pos;
+	}
+
+	/**
+	 * Returns the position of the first line that starts at or after the given position.
+	 */
+	private static long nextLineStart(FileChannel channel, long pos) throws IOException {
+		if (pos == 0) {
+			return 0;
+		}
+		final ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+		// lines are only split after a line feed, so a carriage return and a line feed are never separated
+		long p = pos - 1;
+		while (true) {
+			buffer.clear();
+			final int read = channel.read(buffer, p);
+			if (read <= 0) {
+				return channel.size();
+			}
+			for (int i = 0; i < read; i++) {
+				if (buffer.get(i) == '\n') {
+					return p + i + 1;
+				}
+			}
+			p += read;
+		}
+	}
+
+	/**
+	 * Reads the remaining bytes of a buffer.
+	 */
+	private static final class ByteBufferChannel implements ReadableByteChannel {
+		private final ByteBuffer source;
+		private boolean open = true;
+
+		ByteBufferChannel(ByteBuffer source) {
+			this.source = source;
+		}
+
+		@Override
+		public int read(ByteBuffer dst) {
+			if (!source.hasRemaining()) {
+				return -1;
+			}
+			final int n = Math.min(dst.remaining(), source.remaining());
+			final ByteBuffer part = source.duplicate();
+			part.limit(part.position() + n);
+			dst.put(part);
+			source.position(source.position() + n);
+			return n;
+		}
+
+		@Override
+		public boolean isOpen() {
+			return open;
+		}
+
+		@Override
+		public void close() {
+			open = false;
+		}
+	}
+}
@@ -15,6 +15,7 @@ import java.io.BufferedReader;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.ObjectInputStream;
 import java.io.Reader;
 import java.io.Serializable;
 import java.nio.file.Files;
@@ -24,14 +25,18 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import gnu.trove.list.TIntList;
+import gnu.trove.list.array.TIntArrayList;
 import gnu.trove.map.TObjectIntMap;
 import gnu.trove.map.hash.TObjectIntHashMap;
 import sadl.constants.ClassLabel;
+import sadl.utils.Settings;
 
 /**
  * Class for reading a set of timed sequences from a file or writing them to a file.
@@ -49,24 +54,28 @@ public class TimedInput implements Iterable<TimedWord>, Serializable {
 	private final TObjectIntMap<String> alphabet = new TObjectIntHashMap<>();
 	private final List<String> alphabetRev = new ArrayList<>();
 	private List<TimedWord> words = new ArrayList<>();
+	// the sequences of parsed inputs, words are views on it
+	private transient TimedWordColumns columns = new TimedWordColumns(alphabetRev);
 
 	private static final String[] parseSymbols = new String[] { "^\\(", "\\)$", "\\)\\s+\\(", "\\s*,\\s*", "\\s*:\\s*" };
 	private static final String[] parseSymbolsAlt = new String[] { "^\\d+ ", "$", "\\s{2}", "\\s", "\\s*:\\s*" };
 	private static final int parseStart = 0;
 	private static final int parseStartAlt = 1;
+	// files smaller than this are parsed sequentially by default
+	private static final long PARALLEL_PARSING_THRESHOLD = 16L * 1024 * 1024;
 
+	private TimedInput() {
+	}
+
+	/**
+	 * Creates a {@link TimedInput} from the given {@link TimedWord}s. Timed words are copied into the columns of the {@link TimedInput}, so they share its
+	 * alphabet and the {@link TimedInput} contains copies of them instead of the given objects.
+	 * 
+	 * @param words
+	 *            The {@link TimedWord}s
+	 */
 	public TimedInput(List<TimedWord> words) {
-		this.words.addAll(words);
-		for (final TimedWord w : words) {
-			if (w.getClass() == TimedWord.class) {
-				for (final String s : w.symbols) {
-					if (!alphabet.containsKey(s)) {
-						alphabet.put(s, alphabet.size());
-						alphabetRev.add(s);
-					}
-				}
-			}
-		}
+		addWords(words);
 	}
 
 	// TODO maybe add parsing for anomaly type?!
@@ -86,6 +95,27 @@ public class TimedInput implements Iterable<TimedWord>, Serializable {
 	 * @throws IOException
 	 */
 	public static TimedInput parse(Path in) throws IOException {
+		return parse(in, defaultParallelism(in));
+	}
+
+	/**
+	 * Parses timed sequences from a file like {@link #parse(Path)}. The file is split into the given number of chunks that are parsed in parallel. The
+	 * result is the same as the one of a sequential parse.
+	 * 
+	 * @param in
+	 *            A {@link Path} that contains timed sequences in the appropriate format
+	 * @param parallelism
+	 *            The number of chunks that are parsed in parallel
+	 * @return A {@link TimedInput} that represents the timed sequences parsed
+	 * @throws IOException
+	 */
+	public static TimedInput parse(Path in, int parallelism) throws IOException {
+		if (parallelism > 1 && Files.exists(in)) {
+			final TimedInput result = ParallelTimedInputLoader.load(in, parseStart, false, parallelism);
+			if (result != null) {
+				return result;
+			}
+		}
 		return parseCustom(in, parseStart, parseSymbols[0], parseSymbols[1], parseSymbols[2], parseSymbols[3], parseSymbols[4]);
 	}
 
@@ -185,9 +215,71 @@ public class TimedInput implements Iterable<TimedWord>, Serializable {
 	 * @throws IOException
 	 */
 	public static TimedInput parseAlt(Path in, int lineOffset) throws IOException {
+		return parseAlt(in, lineOffset, defaultParallelism(in));
+	}
+
+	/**
+	 * Parses timed sequences from a file in the alternative format like {@link #parseAlt(Path, int)}. The file is split into the given number of chunks
+	 * that are parsed in parallel. The result is the same as the one of a sequential parse.
+	 * 
+	 * @param in
+	 *            A {@link Path} that contains timed sequences in the appropriate alternative format
+	 * @param lineOffset
+	 *            The number of lines that will be skipped at the beginning of the file because they contain a header with meta data
+	 * @param parallelism
+	 *            The number of chunks that are parsed in parallel
+	 * @return A {@link TimedInput} that represents the timed sequences parsed
+	 * @throws IOException
+	 */
+	public static TimedInput parseAlt(Path in, int lineOffset, int parallelism) throws IOException {
+		if (parallelism > 1 && Files.exists(in)) {
+			final TimedInput result = ParallelTimedInputLoader.load(in, lineOffset, true, parallelism);
+			if (result != null) {
+				return result;
+			}
+		}
 		return parseCustom(in, lineOffset, parseSymbolsAlt[0], parseSymbolsAlt[1], parseSymbolsAlt[2], parseSymbolsAlt[3], parseSymbolsAlt[4]);
 	}
 
+	private static int defaultParallelism(Path in) throws IOException {
+		if (Settings.isParallel() && Files.exists(in) && Files.size(in) >= PARALLEL_PARSING_THRESHOLD) {
+			return ForkJoinPool.getCommonPoolParallelism();
+		}
+		return 1;
+	}
+
+	/**
+	 * Parses a chunk of a file in the standard or alternative format.
+	 */
+	static TimedInput parseChunk(Reader br, boolean alternativeFormat) throws IOException {
+		final String[] separators = alternativeFormat ? parseSymbolsAlt : parseSymbols;
+		return new TimedInput(br, 0, separators[0], separators[1], separators[2], separators[3], separators[4], false);
+	}
+
+	/**
+	 * Merges the {@link TimedInput}s of consecutive chunks of a file. The symbols are indexed in the order of their first occurrence like in a sequential
+	 * parse.
+	 */
+	static TimedInput merge(List<TimedInput> chunks) {
+		final TimedInput result = new TimedInput();
+		final int[][] remaps = new int[chunks.size()][];
+		final List<TimedWordColumns> parts = new ArrayList<>(chunks.size());
+		for (int c = 0; c < chunks.size(); c++) {
+			final TimedInput chunk = chunks.get(c);
+			remaps[c] = new int[chunk.alphabetRev.size()];
+			for (int i = 0; i < remaps[c].length; i++) {
+				remaps[c][i] = result.internSymbol(chunk.alphabetRev.get(i));
+			}
+			parts.add(chunk.columns);
+		}
+		result.columns.addAll(parts, remaps);
+		result.columns.trimToSize();
+		for (int i = 0; i < result.columns.wordCount; i++) {
+			result.words.add(new TimedWord(result.columns, i));
+		}
+		return result;
+	}
+
 	/**
 	 * Parses timed sequences from a file that has the following alternative format:
 	 * 
@@ -292,6 +384,14 @@ public class TimedInput implements Iterable<TimedWord>, Serializable {
 	private void loadData(Reader br, int lineOffset, String seqPrefix, String seqPostfix, String pairSep, String valueSep, String classSep,
 			boolean skipFirstElement) throws IOException {
 
+		// The predefined formats are recognized without regular expressions. Lines the scanner does not accept are parsed with the regular expressions.
+		final String[] separators = new String[] { seqPrefix, seqPostfix, pairSep, valueSep, classSep };
+		TimedInputScanner scanner = null;
+		if (Arrays.equals(separators, parseSymbols)) {
+			scanner = new TimedInputScanner(this, false, skipFirstElement);
+		} else if (Arrays.equals(separators, parseSymbolsAlt)) {
+			scanner = new TimedInputScanner(this, true, skipFirstElement);
+		}
 
 		try (BufferedReader in = new BufferedReader(br)) {
 
@@ -302,84 +402,116 @@ public class TimedInput implements Iterable<TimedWord>, Serializable {
 				counter++;
 			}
 
-			TimedWord word;
-			String symbol;
-			int timeDelay;
 			String line;
-			String[] splitWord;
-			String[] splitPair;
 			int lineCount = 0;
 			while ((line = in.readLine()) != null) {
 				if (line.isEmpty()) {
 					continue;
 				}
-				word = new TimedWord();
-
-				// Split and parse class label (if it exists)
-				splitWord = line.split(classSep, 2);
-				line = splitWord[0];
-				ClassLabel label;
-				if (splitWord.length == 2) {
-					switch (splitWord[1]) {
-						case "0":
-							label = ClassLabel.NORMAL;
-							break;
-						case "1":
-							label = ClassLabel.ANOMALY;
-							break;
-						default:
-							label = ClassLabel.NORMAL;
-							break;
-					}
-					word.setLabel(label);
-				}
-
-				// Remove sequence prefix
-				line = line.replaceAll(seqPrefix, "");
-
-				// Remove sequence postfix
-				line = line.replaceAll(seqPostfix, "");
-				if (!line.isEmpty()) {
-					// Parse sequence
-					splitWord = line.split(pairSep);
-					int i = 0;
-					if (skipFirstElement) {
-						i = 1;
-					}
-					for (; i < splitWord.length; i++) {
-						splitPair = splitWord[i].split(valueSep, 2);
-						if (splitPair.length < 2) {
-							final String errorMessage = "Pair \"" + splitWord[i] + "\" in line " + lineCount + " is in the wrong format. Separator \"" + valueSep
-									+ "\" not found!";
-							final IllegalArgumentException e = new IllegalArgumentException(errorMessage);
-							logger.error(errorMessage, e);
-							throw e;
-						}
-						symbol = splitPair[0];
-						if (symbol.matches("\\W")) {
-							// Only characters, digits and underscores are allowed for
-							// event names ([a-zA-Z_0-9])
-							final String errorMessage = "Event name \"" + symbol + "\" in line " + lineCount + " contains forbidden characters. "
-									+ "Only [a-zA-Z_0-9] are allowed.";
-							final IllegalArgumentException e = new IllegalArgumentException(errorMessage);
-							logger.error(errorMessage, e);
-							throw e;
-						}
-						timeDelay = Integer.parseInt(splitPair[1].trim());
-						if (!alphabet.containsKey(symbol)) {
-							alphabet.put(symbol, alphabet.size());
-							alphabetRev.add(symbol);
-						}
-						// Use String in alphabet to avoid redundant event name
-						// instances in input
-						word.appendPair(alphabetRev.get(alphabet.get(symbol)), timeDelay);
-					}
+				if (scanner == null || !scanner.scan(line)) {
+					parseLine(line, lineCount, seqPrefix, seqPostfix, pairSep, valueSep, classSep, skipFirstElement);
 				}
-				words.add(word);
 				lineCount++;
 			}
 			br.close();
 		}
+		columns.trimToSize();
+	}
+
+	private void parseLine(String line, int lineCount, String seqPrefix, String seqPostfix, String pairSep, String valueSep, String classSep,
+			boolean skipFirstElement) {
+
+		final TIntList symbolIds = new TIntArrayList();
+		final TIntList timeValues = new TIntArrayList();
+		ClassLabel label = ClassLabel.NORMAL;
+		String symbol;
+		int timeDelay;
+		String[] splitWord;
+		String[] splitPair;
+
+		// Split and parse class label (if it exists)
+		splitWord = line.split(classSep, 2);
+		line = splitWord[0];
+		if (splitWord.length == 2) {
+			switch (splitWord[1]) {
+				case "0":
+					label = ClassLabel.NORMAL;
+					break;
+				case "1":
+					label = ClassLabel.ANOMALY;
+					break;
+				default:
+					label = ClassLabel.NORMAL;
+					break;
+			}
+		}
+
+		// Remove sequence prefix
+		line = line.replaceAll(seqPrefix, "");
+
+		// Remove sequence postfix
+		line = line.replaceAll(seqPostfix, "");
+		if (!line.isEmpty()) {
+			// Parse sequence
+			splitWord = line.split(pairSep);
+			int i = 0;
+			if (skipFirstElement) {
+				i = 1;
+			}
+			for (; i < splitWord.length; i++) {
+				splitPair = splitWord[i].split(valueSep, 2);
+				if (splitPair.length < 2) {
+					final String errorMessage = "Pair \"" + splitWord[i] + "\" in line " + lineCount + " is in the wrong format. Separator \"" + valueSep
+							+ "\" not found!";
+					final IllegalArgumentException e = new IllegalArgumentException(errorMessage);
+					logger.error(errorMessage, e);
+					throw e;
+				}
+				symbol = splitPair[0];
+				if (symbol.matches("\\W")) {
+					// Only characters, digits and underscores are allowed for
+					// event names ([a-zA-Z_0-9])
+					final String errorMessage = "Event name \"" + symbol + "\" in line " + lineCount + " contains forbidden characters. "
+							+ "Only [a-zA-Z_0-9] are allowed.";
+					final IllegalArgumentException e = new IllegalArgumentException(errorMessage);
+					logger.error(errorMessage, e);
+					throw e;
+				}
+				timeDelay = Integer.parseInt(splitPair[1].trim());
+				symbolIds.add(internSymbol(symbol));
+				timeValues.add(timeDelay);
+			}
+		}
+		addWord(label, symbolIds, timeValues);
+	}
+
+	/**
+	 * Appends a sequence to the columns of the {@link TimedInput}.
+	 * 
+	 * @param label
+	 *            The label of the sequence
+	 * @param symbolIds
+	 *            The indices of the symbols in the alphabet
+	 * @param timeValues
+	 *            The time delays
+	 */
+	void addWord(ClassLabel label, TIntList symbolIds, TIntList timeValues) {
+		words.add(new TimedWord(columns, columns.add(label, symbolIds, timeValues)));
+	}
+
+	/**
+	 * Adds the given symbol to the alphabet if it is not contained yet.
+	 * 
+	 * @param symbol
+	 *            The symbol to add
+	 * @return The index of the symbol in the alphabet
+	 */
+	int internSymbol(String symbol) {
+		if (!alphabet.containsKey(symbol)) {
+			alphabet.put(symbol, alphabet.size());
+			alphabetRev.add(symbol);
+		}
+		return alphabet.get(symbol);
 	}
 
 	/**
@@ -397,6 +529,7 @@ public class TimedInput implements Iterable<TimedWord>, Serializable {
 	 */
 	public void clearWords() {
 		words.clear();
+		columns = new TimedWordColumns(alphabetRev);
 		cleared = true;
 	}
 
@@ -606,6 +739,23 @@ public class TimedInput implements Iterable<TimedWord>, Serializable {
 		return true;
 	}
 
+	/**
+	 * Returns the index of a symbol of a {@link TimedWord} in the alphabet of the {@link TimedInput}. For the words of the {@link TimedInput}, this is
+	 * the id of the symbol in the word and no lookup is needed.
+	 * 
+	 * @param w
+	 *            The {@link TimedWord}
+	 * @param i
+	 *            The index of the symbol in the {@link TimedWord}
+	 * @return The index of the symbol or {@code -1} if the symbol is not contained in the {@link TimedInput}
+	 */
+	public int getAlphIndex(TimedWord w, int i) {
+		if (w.getAlphabet() == columns.getAlphabet()) {
+			return w.getSymbolId(i);
+		}
+		return getAlphIndex(w.getSymbol(i));
+	}
+
 	public void decreaseSamples(double d) {
 		words = words.subList(0, (int) (words.size() * d));
 	}
@@ -613,4 +763,37 @@ public class TimedInput implements Iterable<TimedWord>, Serializable {
 	public List<TimedWord> getWords() {
 		return Collections.unmodifiableList(words);
 	}
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		// Store the deserialized words in columns again
+		columns = new TimedWordColumns(alphabetRev);
+		final List<TimedWord> deserialized = words;
+		words = new ArrayList<>(deserialized.size());
+		addWords(deserialized);
+	}
+
+	/**
+	 * Copies timed {@link TimedWord}s into the columns of the {@link TimedInput}. Untimed words and subclasses of {@link TimedWord} are added as they are.
+	 * The symbols of all words except for the subclasses are added to the alphabet.
+	 */
+	private void addWords(List<TimedWord> toAdd) {
+		for (final TimedWord w : toAdd) {
+			if (w.getClass() != TimedWord.class) {
+				words.add(w);
+				continue;
+			}
+			final TIntList symbolIds = new TIntArrayList(w.length());
+			for (int i = 0; i < w.length(); i++) {
+				symbolIds.add(internSymbol(w.getSymbol(i)));
+			}
+			final TIntList timeValues = w.getTimeValues();
+			if (timeValues != null) {
+				addWord(w.getLabel(), symbolIds, timeValues);
+			} else {
+				words.add(w);
+			}
+		}
+		columns.trimToSize();
+	}
 }
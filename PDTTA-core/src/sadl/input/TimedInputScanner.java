@@ -0,0 +1,271 @@
+/**
+ * This file is part of SADL, a library for learning all sorts of (timed) automata and performing sequence-based anomaly detection.
+ * Copyright (C) 2013-2015  the original author or authors.
+ *
+ * SADL is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * SADL is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with SADL.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package sadl.input;
+
+import java.util.Arrays;
+
+import gnu.trove.list.TIntList;
+import gnu.trove.list.array.TIntArrayList;
+import sadl.constants.ClassLabel;
+
+/**
+ * Hand-written scanner for the standard format {@code (s_1,t_1) (s_2,t_2) ... (s_n,t_n) : label} and the alternative format
+ * {@code n s_1 t_1  s_2 t_2 ... s_n t_n : label} of {@link TimedInput}. It recognizes the well-formed lines of both formats in a single pass without
+ * regular expressions and without creating intermediate {@link String}s; symbols are interned into the alphabet of the {@link TimedInput}. Every line it
+ * does not accept has to be parsed with the regular expressions, so that the result (including error messages) stays the same.
+ */
+final class TimedInputScanner {
+
+	private static final int NO_ENTRY = -1;
+
+	private final TimedInput input;
+	private final boolean alternativeFormat;
+	private final boolean skipFirstElement;
+
+	// open addressing table from symbol characters to alphabet indices
+	private int[] table = new int[64];
+	private int tableSize = 0;
+
+	private final TIntList symbolIndices = new TIntArrayList();
+	private final TIntList timeValues = new TIntArrayList();
+	private ClassLabel label;
+
+	TimedInputScanner(TimedInput input, boolean alternativeFormat, boolean skipFirstElement) {
+		this.input = input;
+		this.alternativeFormat = alternativeFormat;
+		this.skipFirstElement = skipFirstElement;
+		Arrays.fill(table, NO_ENTRY);
+	}
+
+	/**
+	 * Scans a line.
+	 * 
+	 * @param line
+	 *            the line (not empty)
+	 * @return true if the line was recognized and added to the {@link TimedInput}, false if it has to be parsed with the regular expressions
+	 */
+	boolean scan(String line) {
+		symbolIndices.clear();
+		timeValues.clear();
+		label = null;
+		int end = line.length();
+		// the class label is separated by the first ':' and the whitespace around it
+		final int colon = line.indexOf(':');
+		if (colon >= 0) {
+			end = colon;
+			while (end > 0 && isWhitespace(line.charAt(end - 1))) {
+				end--;
+			}
+			int labelStart = colon + 1;
+			while (labelStart < line.length() && isWhitespace(line.charAt(labelStart))) {
+				labelStart++;
+			}
+			if (labelStart == line.length() - 1 && line.charAt(labelStart) == '1') {
+				label = ClassLabel.ANOMALY;
+			} else {
+				label = ClassLabel.NORMAL;
+			}
+		}
+		if (alternativeFormat ? scanAlternative(line, end) : scanStandard(line, end)) {
+			input.addWord(label == null ? ClassLabel.NORMAL : label, symbolIndices, timeValues);
+			return true;
+		}
+		return false;
+	}
+
+	private boolean scanStandard(String line, int end) {
+		int pos = 0;
+		if (end == 0) {
+			return true;
+		}
+		if (line.charAt(0) != '(') {
+			return false;
+		}
+		pos++;
+		if (end > pos) {
+			if (line.charAt(end - 1) != ')') {
+				return false;
+			}
+			end--;
+		}
+		boolean skip = skipFirstElement;
+		while (pos < end) {
+			// find the end of the pair, i.e. the next ')' followed by whitespace and '('
+			int pairEnd = end;
+			int next = end;
+			for (int i = line.indexOf(')', pos); i >= 0 && i < end; i = line.indexOf(')', i + 1)) {
+				int j = i + 1;
+				while (j < end && isWhitespace(line.charAt(j))) {
+					j++;
+				}
+				if (j > i + 1 && j < end && line.charAt(j) == '(') {
+					pairEnd = i;
+					next = j + 1;
+					break;
+				}
+			}
+			int comma = -1;
+			for (int i = pos; i < pairEnd; i++) {
+				if (line.charAt(i) == ',') {
+					comma = i;
+					break;
+				}
+			}
+			if (comma < 0) {
+				return false;
+			}
+			int symbolEnd = comma;
+			while (symbolEnd > pos && isWhitespace(line.charAt(symbolEnd - 1))) {
+				symbolEnd--;
+			}
+			if (!skip && !addPair(line, pos, symbolEnd, comma + 1, pairEnd)) {
+				return false;
+			}
+			skip = false;
+			pos = next;
+		}
+		return true;
+	}
+
+	private boolean scanAlternative(String line, int end) {
+		// skip the length of the sequence followed by a single space
+		int pos = 0;
+		while (pos < end && line.charAt(pos) >= '0' && line.charAt(pos) <= '9') {
+			pos++;
+		}
+		if (pos == 0 || pos >= end || line.charAt(pos) != ' ') {
+			return false;
+		}
+		pos++;
+		boolean skip = skipFirstElement;
+		while (pos < end) {
+			final int symbolStart = pos;
+			while (pos < end && !isWhitespace(line.charAt(pos))) {
+				pos++;
+			}
+			final int symbolEnd = pos;
+			if (symbolEnd == symbolStart || pos == end) {
+				return false;
+			}
+			pos++;
+			final int timeStart = pos;
+			while (pos < end && !isWhitespace(line.charAt(pos))) {
+				pos++;
+			}
+			final int timeEnd = pos;
+			if (timeEnd == timeStart) {
+				return false;
+			}
+			if (pos < end) {
+				// exactly two whitespaces separate two pairs
+				if (pos + 2 >= end || !isWhitespace(line.charAt(pos + 1)) || isWhitespace(line.charAt(pos + 2))) {
+					return false;
+				}
+				pos += 2;
+			}
+			if (!skip && !addPair(line, symbolStart, symbolEnd, timeStart, timeEnd)) {
+				return false;
+			}
+			skip = false;
+		}
+		return true;
+	}
+
+	private boolean addPair(String line, int symbolStart, int symbolEnd, int timeStart, int timeEnd) {
+		final int symbolLength = symbolEnd - symbolStart;
+		if (symbolLength == 0 || (symbolLength == 1 && !isWordCharacter(line.charAt(symbolStart)))
+				|| (symbolLength == 2 && Character.isSurrogatePair(line.charAt(symbolStart), line.charAt(symbolStart + 1)))) {
+			// left to the regular expressions which report forbidden event names
+			return false;
+		}
+		// same as Integer.parseInt(s.trim()) for values that cannot overflow
+		while (timeStart < timeEnd && line.charAt(timeStart) <= ' ') {
+			timeStart++;
+		}
+		while (timeEnd > timeStart && line.charAt(timeEnd - 1) <= ' ') {
+			timeEnd--;
+		}
+		boolean negative = false;
+		if (timeStart < timeEnd && (line.charAt(timeStart) == '-' || line.charAt(timeStart) == '+')) {
+			negative = line.charAt(timeStart) == '-';
+			timeStart++;
+		}
+		if (timeStart == timeEnd || timeEnd - timeStart > 9) {
+			return false;
+		}
+		int time = 0;
+		for (int i = timeStart; i < timeEnd; i++) {
+			final char c = line.charAt(i);
+			if (c < '0' || c > '9') {
+				return false;
+			}
+			time = time * 10 + (c - '0');
+		}
+		symbolIndices.add(intern(line, symbolStart, symbolEnd));
+		timeValues.add(negative ? -time : time);
+		return true;
+	}
+
+	private int intern(String line, int start, int end) {
+		int hash = 0;
+		for (int i = start; i < end; i++) {
+			hash = 31 * hash + line.charAt(i);
+		}
+		final int mask = table.length - 1;
+		int slot = mix(hash) & mask;
+		while (table[slot] != NO_ENTRY) {
+			final String symbol = input.getSymbol(table[slot]);
+			if (symbol.length() == end - start && line.regionMatches(start, symbol, 0, symbol.length())) {
+				return table[slot];
+			}
+			slot = (slot + 1) & mask;
+		}
+		final int index = input.internSymbol(line.substring(start, end));
+		table[slot] = index;
+		tableSize++;
+		if (tableSize * 2 > table.length) {
+			rehash();
+		}
+		return index;
+	}
+
+	private void rehash() {
+		final int[] oldTable = table;
+		table = new int[oldTable.length * 2];
+		Arrays.fill(table, NO_ENTRY);
+		final int mask = table.length - 1;
+		for (final int index : oldTable) {
+			if (index != NO_ENTRY) {
+				int slot = mix(input.getSymbol(index).hashCode()) & mask;
+				while (table[slot] != NO_ENTRY) {
+					slot = (slot + 1) & mask;
+				}
+				table[slot] = index;
+			}
+		}
+	}
+
+	private static int mix(int hash) {
+		final int h = hash * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	private static boolean isWhitespace(char c) {
+		// same as \s
+		return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+	}
+
+	private static boolean isWordCharacter(char c) {
+		// same as \w
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+	}
+}
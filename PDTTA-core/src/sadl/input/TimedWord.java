@@ -11,6 +11,10 @@
 
 package sadl.input;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
@@ -18,6 +22,7 @@ import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import gnu.trove.impl.HashFunctions;
 import gnu.trove.list.TIntList;
 import gnu.trove.list.array.TIntArrayList;
 import sadl.constants.ClassLabel;
@@ -35,31 +40,36 @@ public class TimedWord implements Serializable{
 	@SuppressWarnings("unused")
 	private static Logger logger = LoggerFactory.getLogger(TimedWord.class);
 
-	protected TIntList timeValues;
-	protected List<String> symbols;
-	private ClassLabel label;
+	// keeps the serialized form of the list based implementation
+	private static final ObjectStreamField[] serialPersistentFields = { new ObjectStreamField("label", ClassLabel.class),
+			new ObjectStreamField("symbols", List.class), new ObjectStreamField("timeValues", TIntList.class) };
 
-	TimedWord() {
-		timeValues = new TIntArrayList();
-		symbols = new ArrayList<>();
-		label = ClassLabel.NORMAL;
-	}
+	private transient TimedWordColumns columns;
+	private transient int index;
 
-	TimedWord(ClassLabel l) {
-		this();
-		label = l;
+	/**
+	 * Creates a view on a sequence of the given columns.
+	 */
+	TimedWord(TimedWordColumns columns, int index) {
+		this.columns = columns;
+		this.index = index;
 	}
 
+	/**
+	 * Creates a {@link TimedWord} from a copy of the given symbols and time delays. Later changes to the given lists are not reflected by the
+	 * {@link TimedWord}.
+	 * 
+	 * @param symbols
+	 *            The symbols
+	 * @param timeValues
+	 *            The time delays or {@code null} if the {@link TimedWord} is untimed
+	 * @param label
+	 *            The {@link ClassLabel}
+	 */
 	public TimedWord(List<String> symbols, TIntList timeValues, ClassLabel label) {
 		super();
-		this.timeValues = timeValues;
-		this.symbols = symbols;
-		this.label = label;
-	}
-
-	void appendPair(String symbol, int timeDelay) {
-		symbols.add(symbol);
-		timeValues.add(timeDelay);
+		columns = TimedWordColumns.of(symbols, timeValues, label);
+		index = 0;
 	}
 
 	/**
@@ -69,7 +79,7 @@ public class TimedWord implements Serializable{
 	 *            The class label to be set
 	 */
 	public void setLabel(ClassLabel l) {
-		label = l;
+		columns.setLabel(index, l);
 	}
 
 	/**
@@ -80,7 +90,35 @@ public class TimedWord implements Serializable{
 	 * @return The symbol at the given index or {@code null} if the index does not exist
 	 */
 	public String getSymbol(int i) {
-		return symbols.get(i);
+		return columns.alphabetRev.get(getSymbolId(i));
+	}
+
+	/**
+	 * Returns the id of the symbol at the given index of the {@link TimedWord}. The id is the index of the symbol in {@link #getAlphabet()}.
+	 * 
+	 * @param i
+	 *            The index to get the symbol id for
+	 * @return The id of the symbol at the given index
+	 */
+	public int getSymbolId(int i) {
+		checkIndex(i);
+		return columns.symbols[columns.start(index) + i];
+	}
+
+	/**
+	 * Returns the symbols that are referenced by the symbol ids of the {@link TimedWord}. All {@link TimedWord}s of a parsed {@link TimedInput} share the
+	 * same list, which is the alphabet of the {@link TimedInput}.
+	 * 
+	 * @return The symbols indexed by their ids
+	 */
+	public List<String> getAlphabet() {
+		return columns.getAlphabet();
+	}
+
+	private void checkIndex(int i) {
+		if (i < 0 || i >= length()) {
+			throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + length());
+		}
 	}
 
 
@@ -92,7 +130,8 @@ public class TimedWord implements Serializable{
 	 * @return The time delay at the given index or {@code -1} if the index does not exist
 	 */
 	public int getTimeValue(int i) {
-		return timeValues.get(i);
+		checkIndex(i);
+		return columns.times[columns.start(index) + i];
 	}
 
 	/**
@@ -101,7 +140,7 @@ public class TimedWord implements Serializable{
 	 * @return The class label
 	 */
 	public ClassLabel getLabel() {
-		return label;
+		return columns.getLabel(index);
 	}
 
 	/**
@@ -110,7 +149,7 @@ public class TimedWord implements Serializable{
 	 * @return {@code true} if and only if the value of the class label is {@link ClassLabel#ANOMALY}
 	 */
 	public boolean isAnomaly() {
-		return label.equals(ClassLabel.ANOMALY);
+		return getLabel().equals(ClassLabel.ANOMALY);
 	}
 
 	/**
@@ -120,7 +159,7 @@ public class TimedWord implements Serializable{
 	 */
 	@Deprecated
 	public int getLength() {
-		return symbols.size();
+		return length();
 	}
 
 	/**
@@ -129,7 +168,7 @@ public class TimedWord implements Serializable{
 	 * @return The length of the {@link TimedWord}
 	 */
 	public int length() {
-		return symbols.size();
+		return columns.length(index);
 	}
 
 	@Override
@@ -192,8 +231,19 @@ public class TimedWord implements Serializable{
 
 
 
+	/**
+	 * Returns a copy of the time delays of the {@link TimedWord}. The list is a snapshot and not a view on the {@link TimedWord} anymore: changes to it
+	 * do not change the {@link TimedWord}. Use {@link #getTimeValue(int)} to access single time delays without copying.
+	 * 
+	 * @return The time delays or {@code null} if the {@link TimedWord} is untimed
+	 */
 	public TIntList getTimeValues() {
-		return timeValues;
+		if (!columns.isTimed()) {
+			return null;
+		}
+		final TIntArrayList result = new TIntArrayList(length());
+		result.add(columns.times, columns.start(index), length());
+		return result;
 	}
 
 	public String toTrebaString() {
@@ -211,11 +261,21 @@ public class TimedWord implements Serializable{
 
 	@Override
 	public int hashCode() {
+		// same as for the former list based implementation
 		final int prime = 31;
+		final ClassLabel label = getLabel();
+		int symbolsHash = 1;
+		int timeValuesHash = 0;
+		for (int i = 0; i < length(); i++) {
+			symbolsHash = 31 * symbolsHash + getSymbol(i).hashCode();
+			if (columns.isTimed()) {
+				timeValuesHash += HashFunctions.hash(getTimeValue(i));
+			}
+		}
 		int result = 1;
 		result = prime * result + ((label == null) ? 0 : label.hashCode());
-		result = prime * result + ((symbols == null) ? 0 : symbols.hashCode());
-		result = prime * result + ((timeValues == null) ? 0 : timeValues.hashCode());
+		result = prime * result + symbolsHash;
+		result = prime * result + timeValuesHash;
 		return result;
 	}
 
@@ -231,22 +291,26 @@ public class TimedWord implements Serializable{
 			return false;
 		}
 		final TimedWord other = (TimedWord) obj;
-		if (label != other.label) {
+		if (getLabel() != other.getLabel()) {
 			return false;
 		}
-		if (symbols == null) {
-			if (other.symbols != null) {
-				return false;
-			}
-		} else if (!symbols.equals(other.symbols)) {
+		final int length = length();
+		if (length != other.length() || columns.isTimed() != other.columns.isTimed()) {
 			return false;
 		}
-		if (timeValues == null) {
-			if (other.timeValues != null) {
+		final int start = columns.start(index);
+		final int otherStart = other.columns.start(other.index);
+		for (int i = 0; i < length; i++) {
+			if (columns.alphabetRev == other.columns.alphabetRev) {
+				if (columns.symbols[start + i] != other.columns.symbols[otherStart + i]) {
+					return false;
+				}
+			} else if (!getSymbol(i).equals(other.getSymbol(i))) {
+				return false;
+			}
+			if (columns.isTimed() && columns.times[start + i] != other.columns.times[otherStart + i]) {
 				return false;
 			}
-		} else if (!timeValues.equals(other.timeValues)) {
-			return false;
 		}
 		return true;
 	}
@@ -266,4 +330,24 @@ public class TimedWord implements Serializable{
 		return new TimedWord(newSymbols, newTimeValues, getLabel());
 	}
 
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		final List<String> symbols = new ArrayList<>(length());
+		for (int i = 0; i < length(); i++) {
+			symbols.add(getSymbol(i));
+		}
+		final ObjectOutputStream.PutField fields = out.putFields();
+		fields.put("label", getLabel());
+		fields.put("symbols", symbols);
+		fields.put("timeValues", getTimeValues());
+		out.writeFields();
+	}
+
+	@SuppressWarnings("unchecked")
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		final ObjectInputStream.GetField fields = in.readFields();
+		columns = TimedWordColumns.of((List<String>) fields.get("symbols", null), (TIntList) fields.get("timeValues", null),
+				(ClassLabel) fields.get("label", null));
+		index = 0;
+	}
+
 }
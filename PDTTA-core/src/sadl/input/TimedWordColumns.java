@@ -0,0 +1,214 @@
+/**
+ * This file is part of SADL, a library for learning all sorts of (timed) automata and performing sequence-based anomaly detection.
+ * Copyright (C) 2013-2015  the original author or authors.
+ *
+ * SADL is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * SADL is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with SADL.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package sadl.input;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import gnu.trove.impl.Constants;
+import gnu.trove.list.TIntList;
+import gnu.trove.map.TObjectIntMap;
+import gnu.trove.map.hash.TObjectIntHashMap;
+import sadl.constants.ClassLabel;
+import sadl.utils.Settings;
+
+/**
+ * Columnar storage of timed sequences. The symbol ids and time delays of all sequences are stored consecutively in primitive arrays, the sequences are
+ * given by offsets into those arrays. {@link TimedWord}s are views on a single sequence of the columns.
+ */
+final class TimedWordColumns {
+
+	private static final int INITIAL_CAPACITY = 16;
+	private static final byte NO_LABEL = -1;
+	private static final ClassLabel[] LABELS = ClassLabel.values();
+
+	final List<String> alphabetRev;
+	private final List<String> alphabet;
+	private final boolean timed;
+
+	int[] symbols;
+	int[] times;
+	// sequence i consists of the events offsets[i] until offsets[i + 1] (exclusive)
+	int[] offsets;
+	byte[] labels;
+	int wordCount = 0;
+	int eventCount = 0;
+
+	/**
+	 * Creates empty columns.
+	 * 
+	 * @param alphabetRev
+	 *            the list that maps symbol ids to symbols; it is not copied
+	 */
+	TimedWordColumns(List<String> alphabetRev) {
+		this(alphabetRev, true, INITIAL_CAPACITY, INITIAL_CAPACITY);
+	}
+
+	private TimedWordColumns(List<String> alphabetRev, boolean timed, int wordCapacity, int eventCapacity) {
+		this.alphabetRev = alphabetRev;
+		this.alphabet = Collections.unmodifiableList(alphabetRev);
+		this.timed = timed;
+		symbols = new int[eventCapacity];
+		times = timed ? new int[eventCapacity] : null;
+		offsets = new int[wordCapacity + 1];
+		labels = new byte[wordCapacity];
+	}
+
+	/**
+	 * Creates the columns of a single sequence that has its own alphabet.
+	 * 
+	 * @param symbols
+	 *            the symbols of the sequence
+	 * @param timeValues
+	 *            the time delays of the sequence or {@code null} if the sequence is untimed
+	 * @param label
+	 *            the label of the sequence
+	 */
+	static TimedWordColumns of(List<String> symbols, TIntList timeValues, ClassLabel label) {
+		final List<String> alphabetRev = new ArrayList<>();
+		final TObjectIntMap<String> alphabet = new TObjectIntHashMap<>(Constants.DEFAULT_CAPACITY, Constants.DEFAULT_LOAD_FACTOR, -1);
+		final TimedWordColumns result = new TimedWordColumns(alphabetRev, timeValues != null, 1, symbols.size());
+		int i = 0;
+		for (final String s : symbols) {
+			int id = alphabet.get(s);
+			if (id < 0) {
+				id = alphabetRev.size();
+				alphabet.put(s, id);
+				alphabetRev.add(s);
+			}
+			result.symbols[i++] = id;
+		}
+		if (timeValues != null) {
+			timeValues.toArray(result.times, 0, symbols.size());
+		}
+		result.eventCount = symbols.size();
+		result.offsets[1] = symbols.size();
+		result.labels[0] = encode(label);
+		result.wordCount = 1;
+		return result;
+	}
+
+	/**
+	 * Appends a sequence.
+	 * 
+	 * @return the index of the sequence
+	 */
+	int add(ClassLabel label, TIntList symbolIds, TIntList timeValues) {
+		final int length = symbolIds.size();
+		if (wordCount == labels.length) {
+			labels = Arrays.copyOf(labels, Math.max(INITIAL_CAPACITY, labels.length * 2));
+			offsets = Arrays.copyOf(offsets, labels.length + 1);
+		}
+		ensureEventCapacity(eventCount + length);
+		symbolIds.toArray(symbols, 0, eventCount, length);
+		timeValues.toArray(times, 0, eventCount, length);
+		eventCount += length;
+		labels[wordCount] = encode(label);
+		offsets[wordCount + 1] = eventCount;
+		return wordCount++;
+	}
+
+	private void ensureEventCapacity(int capacity) {
+		if (capacity > symbols.length) {
+			final int newCapacity = Math.max(Math.max(capacity, INITIAL_CAPACITY), symbols.length * 2);
+			symbols = Arrays.copyOf(symbols, newCapacity);
+			times = Arrays.copyOf(times, newCapacity);
+		}
+	}
+
+	/**
+	 * Appends the sequences of other columns in parallel.
+	 * 
+	 * @param parts
+	 *            the columns to append
+	 * @param remaps
+	 *            maps the symbol ids of each part to the symbol ids of these columns
+	 */
+	void addAll(List<TimedWordColumns> parts, int[][] remaps) {
+		final int[] wordStarts = new int[parts.size() + 1];
+		final int[] eventStarts = new int[parts.size() + 1];
+		wordStarts[0] = wordCount;
+		eventStarts[0] = eventCount;
+		for (int p = 0; p < parts.size(); p++) {
+			wordStarts[p + 1] = wordStarts[p] + parts.get(p).wordCount;
+			eventStarts[p + 1] = eventStarts[p] + parts.get(p).eventCount;
+		}
+		final int words = wordStarts[parts.size()];
+		if (words > labels.length) {
+			labels = Arrays.copyOf(labels, words);
+			offsets = Arrays.copyOf(offsets, words + 1);
+		}
+		ensureEventCapacity(eventStarts[parts.size()]);
+		final IntStream range = Settings.isParallel() ? IntStream.range(0, parts.size()).parallel() : IntStream.range(0, parts.size());
+		range.forEach(p -> {
+			final TimedWordColumns part = parts.get(p);
+			final int[] remap = remaps[p];
+			final int eventStart = eventStarts[p];
+			for (int i = 0; i < part.eventCount; i++) {
+				symbols[eventStart + i] = remap[part.symbols[i]];
+			}
+			System.arraycopy(part.times, 0, times, eventStart, part.eventCount);
+			System.arraycopy(part.labels, 0, labels, wordStarts[p], part.wordCount);
+			for (int w = 0; w < part.wordCount; w++) {
+				offsets[wordStarts[p] + w + 1] = eventStart + part.offsets[w + 1];
+			}
+		});
+		wordCount = words;
+		eventCount = eventStarts[parts.size()];
+	}
+
+	/**
+	 * Releases the capacity that is not used.
+	 */
+	void trimToSize() {
+		if (symbols.length > eventCount) {
+			symbols = Arrays.copyOf(symbols, eventCount);
+			times = timed ? Arrays.copyOf(times, eventCount) : null;
+		}
+		if (labels.length > wordCount) {
+			labels = Arrays.copyOf(labels, wordCount);
+			offsets = Arrays.copyOf(offsets, wordCount + 1);
+		}
+	}
+
+	int start(int word) {
+		return offsets[word];
+	}
+
+	int length(int word) {
+		return offsets[word + 1] - offsets[word];
+	}
+
+	boolean isTimed() {
+		return timed;
+	}
+
+	List<String> getAlphabet() {
+		return alphabet;
+	}
+
+	ClassLabel getLabel(int word) {
+		final byte b = labels[word];
+		return b == NO_LABEL ? null : LABELS[b];
+	}
+
+	void setLabel(int word, ClassLabel label) {
+		labels[word] = encode(label);
+	}
+
+	private static byte encode(ClassLabel label) {
+		return label == null ? NO_LABEL : (byte) label.ordinal();
+	}
+}
@@ -22,15 +22,18 @@ import org.slf4j.LoggerFactory;
 
 import jsat.distributions.ContinuousDistribution;
 import jsat.distributions.SingleValueDistribution;
-import sadl.integration.MonteCarloPoint.MonteCarloPointComparator;
 import sadl.utils.MasterSeed;
 import sadl.utils.Settings;
 
 public class MonteCarloIntegration implements Serializable {
-	private static final long serialVersionUID = -7798039596284260123L;
+	private static final long serialVersionUID = 3223823643731394951L;
 	private static Logger logger = LoggerFactory.getLogger(MonteCarloIntegration.class);
 	int pointsToStore;
-	MonteCarloPoint[] integral;
+	/**
+	 * The density values of all accepted points in ascending order. Every point carries the same mass of 1 / {@link #pointsToStore}, so the mass of all
+	 * points up to index i is i / {@link #pointsToStore}.
+	 */
+	double[] pdfValues;
 	boolean preprocessed = false;
 	private boolean singleValueDis = false;
 	final Random xRandom;
@@ -61,14 +64,14 @@ public class MonteCarloIntegration implements Serializable {
 
 		int pointsFound = 0;
 		int pointsRejected = 0;
-		integral = new MonteCarloPoint[pointsToStore];
+		pdfValues = new double[pointsToStore];
 		while (pointsFound < pointsToStore) {
 			final double xSampled = xMin + (xDiff * xRandom.nextDouble());
 			final double ySampled = yMin + (yDiff * yRandom.nextDouble());
 			final double pdfValue = d.pdf(xSampled);
 			if (pdfValue > 0 && ySampled <= pdfValue) {
 				// store the point because the sampled y value is smaller than the pdf value at the x value
-				integral[pointsFound] = new MonteCarloPoint(xSampled, pdfValue);
+				pdfValues[pointsFound] = pdfValue;
 				pointsFound++;
 			} else {
 				pointsRejected++;
@@ -77,13 +80,10 @@ public class MonteCarloIntegration implements Serializable {
 		logger.debug("Rejected {} points", pointsRejected);
 		logger.debug("Accepted {} points", pointsFound);
 		if (Settings.isParallel()) {
-			Arrays.parallelSort(integral, new MonteCarloPointComparator());
+			Arrays.parallelSort(pdfValues);
 		} else {
-			Arrays.sort(integral, new MonteCarloPointComparator());
+			Arrays.sort(pdfValues);
 		}
-
-		// Collections.sort(integral2);
-		// integral2.sort((m1, m2) -> Double.compare(m1.getX(), m2.getX()));
 		preprocessed = true;
 	}
 
@@ -124,11 +124,10 @@ public class MonteCarloIntegration implements Serializable {
 				return 0;
 			}
 		}
-		// x value of monte carlo point does not matter, we search for the pdf value
-		int foundIndex = Arrays.binarySearch(integral, new MonteCarloPoint(0, pdfValue));
+		int foundIndex = Arrays.binarySearch(pdfValues, pdfValue);
 		if (foundIndex > 0) {
 			// Check whether there are the same pdf values right to the found one (is just done because of binary search)
-			while (foundIndex + 1 < integral.length && Precision.equals(pdfValue, integral[foundIndex + 1].getPdfValue())) {
+			while (foundIndex + 1 < pdfValues.length && Precision.equals(pdfValue, pdfValues[foundIndex + 1])) {
 				foundIndex++;
 			}
 		} else if (foundIndex < 0) {
@@ -138,18 +137,22 @@ public class MonteCarloIntegration implements Serializable {
 				foundIndex--;
 			}
 		}
-		logger.debug("FoundIndex={}", foundIndex);
-		if (foundIndex - 1 >= 0) {
-			logger.debug("Pdf value one index before={}", integral[foundIndex - 1].getPdfValue());
-		}
-		logger.debug("Pdf value to look for={}", pdfValue);
-		logger.debug("Pdf value at index={}", integral[foundIndex].getPdfValue());
-		if (foundIndex + 1 < integral.length) {
-			logger.debug("Pdf value one index after={}", integral[foundIndex + 1].getPdfValue());
+		if (logger.isDebugEnabled()) {
+			logger.debug("FoundIndex={}", foundIndex);
+			if (foundIndex - 1 >= 0) {
+				logger.debug("Pdf value one index before={}", pdfValues[foundIndex - 1]);
+			}
+			logger.debug("Pdf value to look for={}", pdfValue);
+			logger.debug("Pdf value at index={}", pdfValues[foundIndex]);
+			if (foundIndex + 1 < pdfValues.length) {
+				logger.debug("Pdf value one index after={}", pdfValues[foundIndex + 1]);
+			}
 		}
 		final int numberOfPoints = foundIndex;
 
-		logger.debug("number of Points found={}", numberOfPoints);
+		if (logger.isDebugEnabled()) {
+			logger.debug("number of Points found={}", numberOfPoints);
+		}
 		return numberOfPoints / (double) pointsToStore;
 	}
 
@@ -168,7 +171,7 @@ public class MonteCarloIntegration implements Serializable {
 	public int hashCode() {
 		final int prime = 31;
 		int result = 1;
-		result = prime * result + Arrays.hashCode(integral);
+		result = prime * result + Arrays.hashCode(pdfValues);
 		result = prime * result + pointsToStore;
 		result = prime * result + (preprocessed ? 1231 : 1237);
 		return result;
@@ -186,7 +189,7 @@ public class MonteCarloIntegration implements Serializable {
 			return false;
 		}
 		final MonteCarloIntegration other = (MonteCarloIntegration) obj;
-		if (!Arrays.equals(integral, other.integral)) {
+		if (!Arrays.equals(pdfValues, other.pdfValues)) {
 			return false;
 		}
 		if (pointsToStore != other.pointsToStore) {
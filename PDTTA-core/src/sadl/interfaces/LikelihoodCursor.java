@@ -0,0 +1,51 @@
+/**
+ * This file is part of SADL, a library for learning all sorts of (timed) automata and performing sequence-based anomaly detection.
+ * Copyright (C) 2013-2015  the original author or authors.
+ *
+ * SADL is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * SADL is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with SADL.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package sadl.interfaces;
+
+import sadl.detectors.IncrementalAggregator;
+
+/**
+ * Walks a {@link ProbabilisticModel} event by event. The likelihoods appended to the aggregators are the same that
+ * {@link ProbabilisticModel#calculateProbabilities(sadl.input.TimedWord)} yields for the word made of all events pushed so far.
+ */
+public interface LikelihoodCursor {
+
+	/**
+	 * Feeds the next event to the model and appends its likelihoods.
+	 * 
+	 * @param symbol
+	 *            the symbol of the event
+	 * @param timeDelay
+	 *            the time delay of the event
+	 * @param eventLikelihoods
+	 *            receives the event likelihood
+	 * @param timeLikelihoods
+	 *            receives the time likelihood
+	 * @return false if the model cannot continue the word. The aggregators then hold the final likelihoods of the word, no matter which events follow,
+	 *         and the cursor must not be used anymore
+	 */
+	boolean push(String symbol, int timeDelay, IncrementalAggregator eventLikelihoods, IncrementalAggregator timeLikelihoods);
+
+	/**
+	 * Ends the word and appends the likelihood of ending it in the current state.
+	 * 
+	 * @param eventLikelihoods
+	 *            receives the final likelihood
+	 */
+	void finish(IncrementalAggregator eventLikelihoods);
+
+	/**
+	 * @return true if the likelihoods of a prefix are kept in the result when {@link #push(String, int, IncrementalAggregator, IncrementalAggregator)}
+	 *         fails later on; false if they are discarded
+	 */
+	boolean retainsPrefixLikelihoods();
+}
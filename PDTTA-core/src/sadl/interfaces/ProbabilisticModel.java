@@ -29,6 +29,34 @@ public interface ProbabilisticModel extends Model {
 
 	Pair<TDoubleList, TDoubleList> calculateProbabilities(TimedWord s);
 
+	/**
+	 * Same as {@link #calculateProbabilities(TimedWord)}, but appends the likelihoods to the given lists, so that callers scoring many words can reuse them.
+	 * 
+	 * @param s
+	 *            the word
+	 * @param eventLikelihoods
+	 *            receives the event likelihoods
+	 * @param timeLikelihoods
+	 *            receives the time likelihoods; stays untouched if the model has no time information
+	 */
+	default void calculateProbabilities(TimedWord s, TDoubleList eventLikelihoods, TDoubleList timeLikelihoods) {
+		final Pair<TDoubleList, TDoubleList> p = calculateProbabilities(s);
+		eventLikelihoods.addAll(p.getKey());
+		if (p.getValue() != null) {
+			timeLikelihoods.addAll(p.getValue());
+		}
+	}
+
+	/**
+	 * Opens a cursor to compute the likelihoods of a word while its events arrive.
+	 * 
+	 * @throws UnsupportedOperationException
+	 *             if the model does not support online scoring
+	 */
+	default LikelihoodCursor openCursor() {
+		throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support online scoring");
+	}
+
 	default Map<String, Function<TimedWord, Pair<TDoubleList, TDoubleList>>> getAvailableCalcMethods() {
 		final Map<String, Function<TimedWord, Pair<TDoubleList, TDoubleList>>> m = new HashMap<>();
 		m.put("default", this::calculateProbabilities);
@@ -12,11 +12,24 @@
 package sadl.interfaces;
 
 import java.util.Collection;
+import java.util.function.DoubleUnaryOperator;
 
 import jsat.distributions.ContinuousDistribution;
 
 public interface TauEstimator {
 	public double estimateTau(ContinuousDistribution d, double timeValue);
 
+	/**
+	 * Binds this estimator to a single distribution, so that everything that only depends on the distribution is resolved once and not for every time value.
+	 * Must be called after {@link #preprocess(Collection)}.
+	 * 
+	 * @param d
+	 *            the distribution
+	 * @return a function that maps a time value to the same result as {@link #estimateTau(ContinuousDistribution, double)}
+	 */
+	public default DoubleUnaryOperator bind(ContinuousDistribution d) {
+		return timeValue -> estimateTau(d, timeValue);
+	}
+
 	public void preprocess(Collection<ContinuousDistribution> values);
 }
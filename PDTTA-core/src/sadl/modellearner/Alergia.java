@@ -9,98 +9,351 @@
  * You should have received a copy of the GNU General Public License along with SADL.  If not, see <http://www.gnu.org/licenses/>.
  */
 
+
 package sadl.modellearner;
 
-import gnu.trove.map.TObjectIntMap;
+import java.util.Arrays;
 
-import java.util.Set;
-import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import gnu.trove.list.TIntList;
+import gnu.trove.list.array.TIntArrayList;
 import sadl.input.TimedInput;
+import sadl.input.TimedWord;
 import sadl.models.PDFA;
-import sadl.models.TauPTA;
-import sadl.structure.Transition;
 
 /**
+ * Learns a {@link PDFA} with ALERGIA. The states are merged in the same red-blue order as treba's {@code dffa_state_merge} with the ALERGIA test, so the
+ * result is equal to the one of {@link TrebaPdfaLearner} without smoothing.
  * 
  * @author Timo Klerx
  *
  */
 public class Alergia implements PdfaLearner {
 
+	private static Logger logger = LoggerFactory.getLogger(Alergia.class);
+
 	private final double alpha;
-	TauPTA pta;
-	TauPtaLearner learner = new TauPtaLearner();
+	private final boolean recursiveMergeTest;
+	private final int mergeT0;
 
 	public Alergia(double alpha) {
+		this(alpha, false);
+	}
+
+	public Alergia(double alpha, boolean recursiveMergeTest) {
+		this(alpha, recursiveMergeTest, 3);
+	}
+
+	/**
+	 * @param alpha
+	 *            The significance for the Hoeffding bound
+	 * @param recursiveMergeTest
+	 *            Whether the children of two states are tested, too
+	 * @param mergeT0
+	 *            The minimal frequency of a blue state to be merged or colored red
+	 */
+	public Alergia(double alpha, boolean recursiveMergeTest, int mergeT0) {
 		this.alpha = alpha;
+		this.recursiveMergeTest = recursiveMergeTest;
+		this.mergeT0 = mergeT0;
 	}
 
 	@Override
 	public PDFA train(TimedInput trainingSequences) {
-		// TODO Auto-generated method stub
-		pta = learner.train(trainingSequences);
-		return null;
+		logger.info("Starting to learn PDFA with ALERGIA...");
+		final FrequencyPrefixTree fpt = new FrequencyPrefixTree(trainingSequences);
+		logger.debug("Frequency prefix tree has {} states", fpt.numStates);
+		fpt.mergeRedBlue();
+		final PDFA pdfa = fpt.toPdfa(trainingSequences);
+		pdfa.makeImmutable();
+		logger.info("Learned PDFA with ALERGIA.");
+		return pdfa;
 	}
 
 	/**
-	 * true if states are compatible
-	 * 
-	 * @param qu
-	 * @param qv
-	 * @return
+	 * A frequency prefix tree stored in primitive arrays that is folded into a deterministic frequency automaton. The transitions and their frequencies are
+	 * stored per state and symbol at index {@code state * alphSize + symbol}; a transition exists iff its frequency is positive.
 	 */
-	boolean alergiaCompatibilityTest(int qu, int qv) {
-		int f1, n1, f2, n2;
-		double gamma, bound;
-		f1 = learner.finalStateCount.get(qu);
-		n1 = totalFreq(learner.transitionCount, qu);
-		f2 = learner.finalStateCount.get(qv);
-		n2 = totalFreq(learner.transitionCount, qv);
-		gamma = Math.abs(((double) f1) / ((double) n1) - ((double) f2) / ((double) n2));
-		bound = ((Math.sqrt(1.0 / n1) + Math.sqrt(1.0 / n2)) * Math.sqrt(Math.log(2.0 / alpha))) / 1.41421356237309504880;
-		if (gamma > bound) {
-			return false;
+	private final class FrequencyPrefixTree {
+
+		private final int alphSize;
+		private int numStates = 0;
+		private int[] trans;
+		private int[] freq;
+		private int[] finalFreq;
+		// Like in treba the total frequency is only updated for blue and red states before testing them
+		private int[] total;
+		// The single transition into a state that is not red
+		private int[] parent;
+		private int[] parentSym;
+		// Position of a state in the preorder of the tree, which is the state numbering of treba
+		private int[] rank;
+
+		private int[] stack = new int[48];
+
+		FrequencyPrefixTree(TimedInput input) {
+
+			alphSize = input.getAlphSize();
+			final int capacity = 1024;
+			trans = new int[capacity * alphSize];
+			freq = new int[capacity * alphSize];
+			finalFreq = new int[capacity];
+			parent = new int[capacity];
+			parentSym = new int[capacity];
+			addState();
+
+			for (final TimedWord w : input) {
+				int s = 0;
+				for (int i = 0; i < w.length(); i++) {
+					final int sym = input.getAlphIndex(w, i);
+					final int idx = s * alphSize + sym;
+					if (freq[idx] == 0) {
+						final int t = addState();
+						trans[idx] = t;
+						parent[t] = s;
+						parentSym[t] = sym;
+					}
+					freq[idx]++;
+					s = trans[idx];
+				}
+				finalFreq[s]++;
+			}
+
+			total = new int[numStates];
+			for (int s = 0; s < numStates; s++) {
+				updateTotal(s);
+			}
+			rank = new int[numStates];
+			int r = 0;
+			int top = push(0, 0);
+			while (top > 0) {
+				final int s = stack[--top];
+				rank[s] = r++;
+				for (int a = alphSize - 1; a >= 0; a--) {
+					if (freq[s * alphSize + a] > 0) {
+						top = push(top, trans[s * alphSize + a]);
+					}
+				}
+			}
+		}
+
+		private int addState() {
+
+			if (numStates == finalFreq.length) {
+				final int capacity = 2 * numStates;
+				trans = Arrays.copyOf(trans, capacity * alphSize);
+				freq = Arrays.copyOf(freq, capacity * alphSize);
+				finalFreq = Arrays.copyOf(finalFreq, capacity);
+				parent = Arrays.copyOf(parent, capacity);
+				parentSym = Arrays.copyOf(parentSym, capacity);
+			}
+			return numStates++;
+		}
+
+		private int push(int top, int value) {
+
+			if (top == stack.length) {
+				stack = Arrays.copyOf(stack, 2 * stack.length);
+			}
+			stack[top] = value;
+			return top + 1;
+		}
+
+		private void updateTotal(int s) {
+
+			int sum = finalFreq[s];
+			for (int a = 0; a < alphSize; a++) {
+				sum += freq[s * alphSize + a];
+			}
+			total[s] = sum;
+		}
+
+		/**
+		 * Merges the blue states into the red states until all states are red. In every round the first blue state that is frequent enough is merged with
+		 * the first compatible red state or colored red. The red states are ordered by the time they were colored, the blue states by their red parent and
+		 * symbol.
+		 */
+		void mergeRedBlue() {
+
+			final boolean[] red = new boolean[numStates];
+			final int[] blueRound = new int[numStates];
+			final TIntList reds = new TIntArrayList();
+			final TIntList blues = new TIntArrayList();
+			red[0] = true;
+			reds.add(0);
+			for (int a = 0; a < alphSize; a++) {
+				if (freq[a] > 0 && !red[trans[a]]) {
+					blues.add(trans[a]);
+				}
+			}
+			for (int round = 1;; round++) {
+				int qb = -1;
+				for (int i = 0; i < blues.size(); i++) {
+					final int b = blues.get(i);
+					updateTotal(b);
+					if (total[b] >= mergeT0) {
+						qb = b;
+						break;
+					}
+				}
+				if (qb < 0) {
+					break;
+				}
+				int qr = -1;
+				for (int i = 0; i < reds.size(); i++) {
+					final int r = reds.get(i);
+					updateTotal(r);
+					if (isCompatible(r, qb)) {
+						qr = r;
+						break;
+					}
+				}
+				if (qr >= 0) {
+					assert (red[parent[qb]]);
+					trans[parent[qb] * alphSize + parentSym[qb]] = qr;
+					fold(qr, qb);
+				} else {
+					red[qb] = true;
+					reds.add(qb);
+				}
+				blues.clear();
+				for (int i = 0; i < reds.size(); i++) {
+					final int r = reds.get(i);
+					for (int a = 0; a < alphSize; a++) {
+						final int t = trans[r * alphSize + a];
+						if (freq[r * alphSize + a] > 0 && !red[t] && blueRound[t] != round) {
+							blues.add(t);
+							blueRound[t] = round;
+						}
+					}
+				}
+			}
 		}
 
-		for (final String a : pta.getAlphabet().getSymbols()) {
-			f1 = symbolFreq(learner.transitionCount, qu, a);
-			n1 = totalFreq(learner.transitionCount, qu);
-			f2 = symbolFreq(learner.transitionCount, qv, a);
-			n2 = totalFreq(learner.transitionCount, qv);
-			gamma = Math.abs(((double) f1) / ((double) n1) - ((double) f2) / ((double) n2));
-			bound = ((Math.sqrt(1.0 / n1) + Math.sqrt(1.0 / n2)) * Math.sqrt(Math.log(2.0 / alpha))) / 1.41421356237309504880;
+		private boolean isCompatible(int qu, int qv) {
+
+			if (!alergiaTest(qu, qv)) {
+				return false;
+			}
+			if (recursiveMergeTest) {
+				for (int a = 0; a < alphSize; a++) {
+					if (freq[qu * alphSize + a] > 0 && freq[qv * alphSize + a] > 0) {
+						if (!alergiaTest(trans[qu * alphSize + a], trans[qv * alphSize + a])) {
+							return false;
+						}
+					}
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * Hoeffding bound test of the final and transition frequencies, computed exactly like treba.
+		 */
+		private boolean alergiaTest(int qu, int qv) {
+
+			final int n1 = total[qu];
+			final int n2 = total[qv];
+			final double bound = ((Math.sqrt(1.0 / n1) + Math.sqrt(1.0 / n2)) * Math.sqrt(Math.log(2.0 / alpha))) / 1.41421356237309504880;
+			double gamma = Math.abs(((double) finalFreq[qu]) / ((double) n1) - ((double) finalFreq[qv]) / ((double) n2));
 			if (gamma > bound) {
 				return false;
 			}
+			for (int a = 0; a < alphSize; a++) {
+				gamma = Math.abs(((double) freq[qu * alphSize + a]) / ((double) n1) - ((double) freq[qv * alphSize + a]) / ((double) n2));
+				if (gamma > bound) {
+					return false;
+				}
+			}
+			return true;
 		}
-		return true;
-	}
 
-	/**
-	 * frequency of transitions arriving at state qu
-	 * 
-	 * @param transitionCount
-	 * @param qu
-	 * @return
-	 */
-	private int totalFreq(TObjectIntMap<Transition> transitionCount, int qu) {
-		int result = 0;
-		final Set<Transition> incoming = pta.getAllTransitions().stream().filter(t -> (t.getToState() == qu)).collect(Collectors.toSet());
-		for (final Transition t : incoming) {
-			result += transitionCount.get(t);
+		/**
+		 * Folds the subtree of the blue state q into the state p. Uses an explicit stack of (p, q, next symbol) frames that visits the states in the same
+		 * order as the recursion of treba.
+		 */
+		private void fold(int p, int q) {
+
+			finalFreq[p] += finalFreq[q];
+			int top = push(push(push(0, p), q), 0);
+			while (top > 0) {
+				final int fp = stack[top - 3];
+				final int fq = stack[top - 2];
+				int a = stack[top - 1];
+				for (; a < alphSize; a++) {
+					final int pIdx = fp * alphSize + a;
+					final int qIdx = fq * alphSize + a;
+					if (freq[qIdx] > 0) {
+						if (freq[pIdx] > 0) {
+							freq[pIdx] += freq[qIdx];
+							break;
+						}
+						trans[pIdx] = trans[qIdx];
+						freq[pIdx] = freq[qIdx];
+						parent[trans[qIdx]] = fp;
+						parentSym[trans[qIdx]] = a;
+					}
+				}
+				if (a < alphSize) {
+					stack[top - 1] = a + 1;
+					final int cp = trans[fp * alphSize + a];
+					final int cq = trans[fq * alphSize + a];
+					finalFreq[cp] += finalFreq[cq];
+					top = push(push(push(top, cp), cq), 0);
+				} else {
+					top -= 3;
+				}
+			}
 		}
-		return result;
-	}
 
-	private int symbolFreq(TObjectIntMap<Transition> transitionCount, int fromState, String event) {
-		int result = 0;
-		final Set<Transition> incoming = pta.getAllTransitions().stream().filter(t -> (t.getFromState() == fromState && t.getSymbol().equals(event)))
-				.collect(Collectors.toSet());
-		for (final Transition t : incoming) {
-			result += transitionCount.get(t);
+		/**
+		 * Creates the {@link PDFA} of the states that are still reachable from the root. The states are numbered in the order of the prefix tree.
+		 */
+		PDFA toPdfa(TimedInput input) {
+
+			final boolean[] reachable = new boolean[numStates];
+			reachable[0] = true;
+			int top = push(0, 0);
+			while (top > 0) {
+				final int s = stack[--top];
+				for (int a = 0; a < alphSize; a++) {
+					final int t = trans[s * alphSize + a];
+					if (freq[s * alphSize + a] > 0 && !reachable[t]) {
+						reachable[t] = true;
+						top = push(top, t);
+					}
+				}
+			}
+			final int[] byRank = new int[numStates];
+			for (int s = 0; s < numStates; s++) {
+				byRank[rank[s]] = s;
+			}
+			final int[] ids = new int[numStates];
+			int id = 0;
+			for (final int s : byRank) {
+				if (reachable[s]) {
+					ids[s] = id++;
+				}
+			}
+
+			final PDFA pdfa = new PDFA(input);
+			for (int s = 0; s < numStates; s++) {
+				if (reachable[s]) {
+					updateTotal(s);
+					for (int a = 0; a < alphSize; a++) {
+						if (freq[s * alphSize + a] > 0) {
+							pdfa.addTransition(ids[s], ids[trans[s * alphSize + a]], input.getSymbol(a), ((double) freq[s * alphSize + a]) / total[s]);
+						}
+					}
+					if (finalFreq[s] > 0) {
+						pdfa.addFinalState(ids[s], ((double) finalFreq[s]) / total[s]);
+					}
+				}
+			}
+			return pdfa;
 		}
-		return result;
 	}
 
 }
@@ -12,11 +12,14 @@
 package sadl.modellearner;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.function.Consumer;
 
 import org.slf4j.Logger;
@@ -24,6 +27,8 @@ import org.slf4j.LoggerFactory;
 
 import gnu.trove.list.TDoubleList;
 import gnu.trove.list.array.TDoubleArrayList;
+import gnu.trove.map.TIntIntMap;
+import gnu.trove.map.hash.TIntIntHashMap;
 import jsat.distributions.ContinuousDistribution;
 import jsat.distributions.MyDistributionSearch;
 import jsat.distributions.SingleValueDistribution;
@@ -51,8 +56,11 @@ public class PdttaLearner implements ModelLearner {
 	private static Logger logger = LoggerFactory.getLogger(PdttaLearner.class);
 	KernelFunction kdeKernelFunction;
 	double kdeBandwidth;
+	private int kdeGridResolution;
 	private final PdfaLearner pdfaLearner;
 	private final TauEstimator tauEstimator;
+	private ForkJoinPool pool;
+	static final int MIN_WORDS_PER_TASK = 1000;
 
 	public PdttaLearner(double mergeAlpha, boolean recursiveMergeTest) {
 		this(new TrebaPdfaLearner(mergeAlpha, recursiveMergeTest), null, 0);
@@ -112,39 +120,21 @@ public class PdttaLearner implements ModelLearner {
 
 		final PDFA pdfa = pdfaLearner.train(trainingSequences);
 		try {
-			// for debugging why the hell parallel execution leads to different and non deterministic results even though the maps (and even the automata) are
-			// the same!
-			// final Map<ZeroProbTransition, TDoubleList> timeValueBucketsPar = fillTimeValueBucketsParallel(pdfa, trainingSequences);
-			final Map<ZeroProbTransition, TDoubleList> timeValueBucketsSeq = fillTimeValueBuckets(pdfa, trainingSequences);
-
-			// timeValueBucketsPar.values().forEach(list -> list.sort());
-			// timeValueBucketsSeq.values().forEach(list -> list.sort());
-			// if (!timeValueBucketsPar.equals(timeValueBucketsSeq)) {
-			// throw new IllegalStateException();
-			// }
-
-			// final Map<ZeroProbTransition, ContinuousDistribution> transitionDistributionsPar = fit(timeValueBucketsPar);
-			final Map<ZeroProbTransition, ContinuousDistribution> transitionDistributionsSeq = fit(timeValueBucketsSeq);
-			// if (!transitionDistributionsPar.equals(transitionDistributionsSeq)) {
-			// throw new IllegalStateException();
-			// }
-
-			// final PDTTA pdttaPar = new PDTTA(pdfa, transitionDistributionsPar, tauEstimator);
-			// pdttaPar.setAlphabet(trainingSequences);
-			// pdttaPar.preprocess();
-			// pdttaPar.makeImmutable();
-
-			final PDTTA pdttaSeq = new PDTTA(pdfa, transitionDistributionsSeq, tauEstimator);
-			pdttaSeq.setAlphabet(trainingSequences);
-			pdttaSeq.preprocess();
-			pdttaSeq.makeImmutable();
-			//
-			// if (!pdttaSeq.equals(pdttaPar)) {
-			// throw new IllegalStateException();
-			// }
+			final Map<ZeroProbTransition, TDoubleList> timeValueBuckets;
+			if (Settings.isParallel()) {
+				timeValueBuckets = fillTimeValueBucketsParallel(pdfa, trainingSequences);
+			} else {
+				timeValueBuckets = fillTimeValueBuckets(pdfa, trainingSequences);
+			}
+			final Map<ZeroProbTransition, ContinuousDistribution> transitionDistributions = fit(timeValueBuckets);
+
+			final PDTTA pdtta = new PDTTA(pdfa, transitionDistributions, tauEstimator);
+			pdtta.setAlphabet(trainingSequences);
+			pdtta.preprocess();
+			pdtta.makeImmutable();
 
 			logger.info("Learned PDTTA.");
-			return pdttaSeq;
+			return pdtta;
 		} catch (final IOException e) {
 			logger.error("An unexpected error occured", e);
 			e.printStackTrace();
@@ -152,34 +142,161 @@ public class PdttaLearner implements ModelLearner {
 		return null;
 	}
 
-	@SuppressWarnings("unused")
-	private Map<ZeroProbTransition, TDoubleList> fillTimeValueBucketsParallel(PDFA pdfa, TimedInput trainingSequences) {
-		final Map<ZeroProbTransition, TDoubleList> result = new HashMap<>();
-		// TODO check why parallelism destroys determinism
-		final Lock l = new ReentrantLock();
-		final Consumer<? super TimedWord> f = word -> {
-			int currentState = -1;
-			int followingState = -1;
-			currentState = pdfa.getStartState();
-			for (int i = 0; i < word.length(); i++) {
-				final String symbol = word.getSymbol(i);
-				final int timeValue = word.getTimeValue(i);
-				final Transition t = pdfa.getTransition(currentState, symbol);
-				followingState = t.getToState();
-				l.lock();
-				addTimeValue(result, currentState, followingState, symbol, timeValue);
-				l.unlock();
-				currentState = followingState;
+	/**
+	 * Collects the time values per transition like {@link #fillTimeValueBuckets(PDFA, TimedInput)}. The words are split into contiguous chunks that are
+	 * walked concurrently, each one appending to its own buffers per transition. The buffers are concatenated in the order of the chunks, so the result is
+	 * equal to the sequential one.
+	 * 
+	 * @param pdfa
+	 *            The automaton to walk the words through
+	 * @param trainingSequences
+	 *            The words
+	 * @return The time values of every used transition in the order of the words
+	 */
+	protected Map<ZeroProbTransition, TDoubleList> fillTimeValueBucketsParallel(PDFA pdfa, TimedInput trainingSequences) {
+
+		final TransitionTable table = new TransitionTable(pdfa, trainingSequences);
+		final int size = trainingSequences.size();
+		final ForkJoinPool p = getForkJoinPool();
+		final int chunkCount = Math.max(1, Math.min(p.getParallelism(), size / MIN_WORDS_PER_TASK));
+		final TDoubleArrayList[][] chunkBuckets = new TDoubleArrayList[chunkCount][];
+		if (chunkCount > 1) {
+			final List<ForkJoinTask<?>> tasks = new ArrayList<>(chunkCount);
+			for (int c = 0; c < chunkCount; c++) {
+				final int chunk = c;
+				final int from = (int) ((long) size * c / chunkCount);
+				final int to = (int) ((long) size * (c + 1) / chunkCount);
+				tasks.add(p.submit(() -> {
+					chunkBuckets[chunk] = table.collectTimeValues(trainingSequences, from, to);
+				}));
+			}
+			for (final ForkJoinTask<?> task : tasks) {
+				task.join();
 			}
-		};
-		if (Settings.isParallel()) {
-			trainingSequences.getWords().parallelStream().forEach(f);
 		} else {
-			trainingSequences.getWords().stream().forEach(f);
+			chunkBuckets[0] = table.collectTimeValues(trainingSequences, 0, size);
+		}
+
+		final Map<ZeroProbTransition, TDoubleList> result = new HashMap<>();
+		for (int t = 0; t < table.getTransitionCount(); t++) {
+			int valueCount = 0;
+			for (final TDoubleArrayList[] buckets : chunkBuckets) {
+				if (buckets[t] != null) {
+					valueCount += buckets[t].size();
+				}
+			}
+			if (valueCount > 0) {
+				final TDoubleArrayList values = new TDoubleArrayList(valueCount);
+				for (final TDoubleArrayList[] buckets : chunkBuckets) {
+					if (buckets[t] != null) {
+						values.addAll(buckets[t]);
+					}
+				}
+				result.put(table.getTransition(t), values);
+			}
 		}
 		return result;
 	}
 
+	/**
+	 * The transitions of a {@link PDFA} in a table that is indexed by the dense id of a state and the symbol index of the {@link TimedInput}
+	 */
+	private static class TransitionTable {
+		private final TimedInput input;
+		private final int alphSize;
+		private final int startState;
+		private final int[] table;
+		private final int[] next;
+		private final ZeroProbTransition[] transitions;
+
+		TransitionTable(PDFA pdfa, TimedInput input) {
+			this.input = input;
+			alphSize = input.getAlphSize();
+			final TIntIntMap stateIds = new TIntIntHashMap(pdfa.getNumberOfStates(), 0.5f, -1, -1);
+			stateIds.put(pdfa.getStartState(), 0);
+			for (final int state : pdfa.getStates()) {
+				stateIds.putIfAbsent(state, stateIds.size());
+			}
+			final List<Transition> all = new ArrayList<>();
+			for (final int state : pdfa.getStates()) {
+				all.addAll(pdfa.getTransitions(state, false));
+			}
+			for (final Transition t : all) {
+				stateIds.putIfAbsent(t.getToState(), stateIds.size());
+			}
+			startState = stateIds.get(pdfa.getStartState());
+			table = new int[stateIds.size() * alphSize];
+			Arrays.fill(table, -1);
+			next = new int[all.size()];
+			transitions = new ZeroProbTransition[all.size()];
+			for (int i = 0; i < all.size(); i++) {
+				final Transition t = all.get(i);
+				final int symbol = input.getAlphIndex(t.getSymbol());
+				if (symbol >= 0) {
+					table[stateIds.get(t.getFromState()) * alphSize + symbol] = i;
+				}
+				next[i] = stateIds.get(t.getToState());
+				transitions[i] = new ZeroProbTransition(t.getFromState(), t.getToState(), t.getSymbol());
+			}
+		}
+
+		int getTransitionCount() {
+			return transitions.length;
+		}
+
+		ZeroProbTransition getTransition(int t) {
+			return transitions[t];
+		}
+
+		TDoubleArrayList[] collectTimeValues(TimedInput words, int from, int to) {
+			final TDoubleArrayList[] result = new TDoubleArrayList[transitions.length];
+			for (int j = from; j < to; j++) {
+				final TimedWord word = words.getWord(j);
+				int state = startState;
+				for (int i = 0; i < word.length(); i++) {
+					final int t = table[state * alphSize + input.getAlphIndex(word, i)];
+					if (t < 0) {
+						throw new IllegalStateException("There is no transition for symbol " + word.getSymbol(i) + " of word " + word);
+					}
+					if (result[t] == null) {
+						result[t] = new TDoubleArrayList();
+					}
+					result[t].add(word.getTimeValue(i));
+					state = next[t];
+				}
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * Sets the pool that is used for filling the time value buckets concurrently.
+	 * 
+	 * @param pool
+	 *            the pool or {@code null} for the common pool
+	 */
+	public void setForkJoinPool(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	/**
+	 * Sets the resolution of the grid the learned kernel density estimates are evaluated on.
+	 * 
+	 * @param pointsPerBandwidth
+	 *            the number of grid points per bandwidth or 0 for the exact evaluation
+	 * @see MyKernelDensityEstimator#setGridResolution(int)
+	 */
+	public void setKdeGridResolution(int pointsPerBandwidth) {
+		if (pointsPerBandwidth < 0) {
+			throw new IllegalArgumentException("The grid resolution must not be negative, but was " + pointsPerBandwidth);
+		}
+		this.kdeGridResolution = pointsPerBandwidth;
+	}
+
+	ForkJoinPool getForkJoinPool() {
+		return pool == null ? ForkJoinPool.commonPool() : pool;
+	}
+
 	protected Map<ZeroProbTransition, TDoubleList> fillTimeValueBuckets(PDFA pdfa, TimedInput trainingSequences) {
 
 		final Map<ZeroProbTransition, TDoubleList> result2 = new HashMap<>();
@@ -244,6 +361,10 @@ public class PdttaLearner implements ModelLearner {
 				newKdeBandwidth = MyKernelDensityEstimator.BandwithGuassEstimate(v);
 			}
 			final MyKernelDensityEstimator kde = new MyKernelDensityEstimator(v, newKernelFunction, newKdeBandwidth);
+			if (kdeGridResolution > 0 && !kde.setGridResolution(kdeGridResolution)) {
+				logger.info("Evaluating the KDE of {} transition times with {} exactly, because it cannot be evaluated on a grid with resolution {}.",
+						transitionTimes.size(), newKernelFunction, kdeGridResolution);
+			}
 			return kde;
 		}
 	}
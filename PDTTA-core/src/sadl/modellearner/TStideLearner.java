@@ -0,0 +1,43 @@
+/**
+ * This file is part of SADL, a library for learning all sorts of (timed) automata and performing sequence-based anomaly detection.
+ * Copyright (C) 2013-2015  the original author or authors.
+ *
+ * SADL is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * SADL is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with SADL.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package sadl.modellearner;
+
+import sadl.input.TimedInput;
+import sadl.interfaces.ModelLearner;
+import sadl.models.TStide;
+
+/**
+ * Learns the {@link TStide} model of the training sequences.
+ */
+public class TStideLearner implements ModelLearner {
+
+	public static final int DEFAULT_WINDOW_SIZE = 6;
+
+	private final int windowSize;
+
+	public TStideLearner() {
+		this(DEFAULT_WINDOW_SIZE);
+	}
+
+	public TStideLearner(int windowSize) {
+		if (windowSize < 1) {
+			throw new IllegalArgumentException("The window size must be positive, but was " + windowSize);
+		}
+		this.windowSize = windowSize;
+	}
+
+	@Override
+	public TStide train(TimedInput trainingSequences) {
+		return new TStide(trainingSequences, windowSize);
+	}
+
+}
@@ -0,0 +1,238 @@
+/**
+ * This file is part of SADL, a library for learning all sorts of (timed) automata and performing sequence-based anomaly detection.
+ * Copyright (C) 2013-2015  the original author or authors.
+ *
+ * SADL is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * SADL is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with SADL.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package sadl.modellearner;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import gnu.trove.list.TDoubleList;
+import gnu.trove.list.array.TDoubleArrayList;
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.map.TIntIntMap;
+import gnu.trove.map.TObjectIntMap;
+import sadl.input.TimedInput;
+import sadl.input.TimedWord;
+import sadl.models.TauPTA;
+import sadl.structure.Transition;
+import sadl.structure.ZeroProbTransition;
+import sadl.utils.MasterSeed;
+
+/**
+ * Builds the prefix tree of a {@link TauPTA} with a single pass over the input. The tree is kept in primitive arrays: the children are found in an open
+ * addressing table keyed by {@code state * alphSize + symbol} and every state knows its parent, so the second tree that only contains the sequences above the
+ * {@link TauPTA#SEQUENCE_OMMIT_THRESHOLD} is derived from the first one without looking at the symbols again. The states, counts and probabilities are equal to
+ * the ones of the two-pass construction in {@link TauPTA#TauPTA(TimedInput)}.
+ */
+public class TauPtaBuilder {
+
+	private static final int NO_STATE = -1;
+
+	private final TimedInput input;
+	private final int alphSize;
+
+	private int numStates = 0;
+	private int[] parent = new int[1024];
+	private int[] parentSym = new int[1024];
+	private int[] finalCount = new int[1024];
+	// the state every word ends in
+	private final int[] wordEnds;
+
+	private long[] childKeys;
+	private int[] children;
+	private int numChildren = 0;
+
+	private Map<ZeroProbTransition, TDoubleList> timeValueBuckets;
+	private int ommitedSequenceCount = 0;
+
+	public TauPtaBuilder(TimedInput trainingSequences) {
+
+		input = trainingSequences;
+		alphSize = Math.max(input.getAlphSize(), 1);
+		childKeys = new long[1024];
+		children = new int[1024];
+		Arrays.fill(children, NO_STATE);
+		wordEnds = new int[input.size()];
+		addState(NO_STATE, -1);
+
+		for (int j = 0; j < wordEnds.length; j++) {
+			final TimedWord w = input.getWord(j);
+			int s = 0;
+			for (int i = 0; i < w.length(); i++) {
+				s = getOrAddChild(s, input.getAlphIndex(w, i));
+			}
+			finalCount[s]++;
+			wordEnds[j] = s;
+		}
+	}
+
+	/**
+	 * Creates the {@link TauPTA} from the prefix tree. Only the sequences that end in a state that is reached by at least
+	 * {@link TauPTA#SEQUENCE_OMMIT_THRESHOLD} of the input are kept. The states are numbered in the order the kept sequences reach them.
+	 * 
+	 * @param transitionCount
+	 *            The map to put the transition counts in
+	 * @param finalStateCount
+	 *            The map to put the counts of sequences ending in a state in
+	 * @return The mutable {@link TauPTA} without time distributions
+	 */
+	public TauPTA build(TObjectIntMap<Transition> transitionCount, TIntIntMap finalStateCount) {
+
+		// Counts only increase towards the root, so a sequence is kept iff its final state is frequent enough
+		final double threshold = TauPTA.SEQUENCE_OMMIT_THRESHOLD * wordEnds.length;
+		final int[] count = new int[numStates];
+		for (final int end : wordEnds) {
+			if (finalCount[end] >= threshold) {
+				count[end]++;
+			}
+		}
+		for (int s = numStates - 1; s > 0; s--) {
+			count[parent[s]] += count[s];
+		}
+
+		// The kept sequences create their states top-down and in input order
+		final int[] newIds = new int[numStates];
+		Arrays.fill(newIds, NO_STATE);
+		final int[] oldIds = new int[numStates];
+		newIds[0] = 0;
+		int numNewStates = 1;
+		final TIntArrayList path = new TIntArrayList();
+		for (final int end : wordEnds) {
+			if (finalCount[end] < threshold) {
+				ommitedSequenceCount++;
+				continue;
+			}
+			path.resetQuick();
+			for (int s = end; newIds[s] == NO_STATE; s = parent[s]) {
+				path.add(s);
+			}
+			for (int i = path.size() - 1; i >= 0; i--) {
+				final int s = path.get(i);
+				newIds[s] = numNewStates;
+				oldIds[numNewStates] = s;
+				numNewStates++;
+			}
+		}
+
+		// the two-pass construction created an intermediate TauPTA; draw its seed as well so that the random streams stay the same
+		MasterSeed.nextRandom();
+		final TauPTA pta = new TauPTA(transitionCount, finalStateCount);
+		pta.addState(TauPTA.START_STATE);
+		for (int id = 1; id < numNewStates; id++) {
+			final int s = oldIds[id];
+			final Transition t = pta.addTransition(newIds[parent[s]], id, input.getSymbol(parentSym[s]), count[s] / (double) count[parent[s]]);
+			transitionCount.put(t.toZeroProbTransition(), count[s]);
+		}
+		for (int id = 0; id < numNewStates; id++) {
+			final int s = oldIds[id];
+			final int kept = finalCount[s] >= threshold ? finalCount[s] : 0;
+			if (kept > 0) {
+				finalStateCount.put(id, kept);
+			}
+			pta.addFinalState(id, kept / (double) count[s]);
+		}
+
+		// Every kept sequence adds one time value to each transition on its path
+		final double[][] timeValues = new double[numNewStates][];
+		final int[] filled = new int[numNewStates];
+		for (int id = 1; id < numNewStates; id++) {
+			timeValues[id] = new double[count[oldIds[id]]];
+		}
+		for (int j = 0; j < wordEnds.length; j++) {
+			if (finalCount[wordEnds[j]] >= threshold) {
+				final TimedWord w = input.getWord(j);
+				int s = wordEnds[j];
+				for (int i = w.length() - 1; i >= 0; i--) {
+					final int id = newIds[s];
+					timeValues[id][filled[id]++] = w.getTimeValue(i);
+					s = parent[s];
+				}
+			}
+		}
+		timeValueBuckets = new HashMap<>(2 * numNewStates);
+		for (int id = 1; id < numNewStates; id++) {
+			final int s = oldIds[id];
+			timeValueBuckets.put(new ZeroProbTransition(newIds[parent[s]], id, input.getSymbol(parentSym[s])), TDoubleArrayList.wrap(timeValues[id]));
+		}
+		return pta;
+	}
+
+	/**
+	 * @return The time values of the kept sequences per transition of the {@link TauPTA} created by {@link #build(TObjectIntMap, TIntIntMap)}
+	 */
+	public Map<ZeroProbTransition, TDoubleList> getTimeValueBuckets() {
+		return timeValueBuckets;
+	}
+
+	public int getOmmitedSequenceCount() {
+		return ommitedSequenceCount;
+	}
+
+	public int getNumberOfStates() {
+		return numStates;
+	}
+
+	private int addState(int parentState, int sym) {
+		if (numStates == parent.length) {
+			final int capacity = 2 * numStates;
+			parent = Arrays.copyOf(parent, capacity);
+			parentSym = Arrays.copyOf(parentSym, capacity);
+			finalCount = Arrays.copyOf(finalCount, capacity);
+		}
+		parent[numStates] = parentState;
+		parentSym[numStates] = sym;
+		return numStates++;
+	}
+
+	private int getOrAddChild(int state, int sym) {
+		final long key = (long) state * alphSize + sym;
+		final int mask = children.length - 1;
+		int pos = slot(key, mask);
+		while (children[pos] != NO_STATE) {
+			if (childKeys[pos] == key) {
+				return children[pos];
+			}
+			pos = (pos + 1) & mask;
+		}
+		final int child = addState(state, sym);
+		childKeys[pos] = key;
+		children[pos] = child;
+		if (++numChildren > children.length / 2) {
+			rehash();
+		}
+		return child;
+	}
+
+	private void rehash() {
+		final long[] oldKeys = childKeys;
+		final int[] oldChildren = children;
+		childKeys = new long[2 * oldKeys.length];
+		children = new int[2 * oldChildren.length];
+		Arrays.fill(children, NO_STATE);
+		final int mask = children.length - 1;
+		for (int i = 0; i < oldChildren.length; i++) {
+			if (oldChildren[i] != NO_STATE) {
+				int pos = slot(oldKeys[i], mask);
+				while (children[pos] != NO_STATE) {
+					pos = (pos + 1) & mask;
+				}
+				childKeys[pos] = oldKeys[i];
+				children[pos] = oldChildren[i];
+			}
+		}
+	}
+
+	private static int slot(long key, int mask) {
+		return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+	}
+
+}
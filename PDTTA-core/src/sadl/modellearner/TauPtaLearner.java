@@ -12,11 +12,9 @@
 package sadl.modellearner;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-import org.apache.commons.lang3.SerializationUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -28,7 +26,6 @@ import gnu.trove.map.hash.TObjectIntHashMap;
 import jsat.distributions.ContinuousDistribution;
 import jsat.distributions.empirical.kernelfunc.KernelFunction;
 import sadl.input.TimedInput;
-import sadl.input.TimedWord;
 import sadl.models.TauPTA;
 import sadl.structure.Transition;
 import sadl.structure.ZeroProbTransition;
@@ -61,89 +58,11 @@ public class TauPtaLearner extends PdttaLearner {
 	public TauPTA train(TimedInput trainingSequences) {
 		transitionCount = new TObjectIntHashMap<>();
 		finalStateCount = new TIntIntHashMap();
-		trainingSequences = SerializationUtils.clone(trainingSequences);
-		final TauPTA initialPta = new TauPTA(transitionCount, finalStateCount);
-		initialPta.addState(TauPTA.START_STATE);
-		initialPta.setAlphabet(trainingSequences);
-
-		for (final TimedWord s : trainingSequences) {
-			addEventSequence(initialPta, s);
-		}
-
-		// remove transitions and ending states with less than X occurences
-		final double threshold = TauPTA.SEQUENCE_OMMIT_THRESHOLD * trainingSequences.size();
-		for (final int state : initialPta.getStates()) {
-			final List<Transition> stateTransitions = initialPta.getTransitions(state, false);
-			for (final Transition t : stateTransitions) {
-				if (transitionCount.get(t.toZeroProbTransition()) < threshold) {
-					initialPta.removeTimedTransition(t, false);
-				}
-			}
-			if (finalStateCount.get(state) < threshold) {
-				finalStateCount.put(state, 0);
-			}
-		}
-
-		// compute event probabilities from counts
-		for (final int state : initialPta.getStates()) {
-			final List<Transition> stateTransitions = initialPta.getTransitions(state, false);
-			int occurenceCount = 0;
-			for (final Transition t : stateTransitions) {
-				occurenceCount += transitionCount.get(t.toZeroProbTransition());
-			}
-			occurenceCount += finalStateCount.get(state);
-			for (final Transition t : stateTransitions) {
-				initialPta.changeTransitionProbability(t, transitionCount.get(t.toZeroProbTransition()) / (double) occurenceCount, false);
-			}
-			initialPta.addFinalState(state, finalStateCount.get(state) / (double) occurenceCount);
-		}
-		transitionCount = new TObjectIntHashMap<>();
-		finalStateCount = new TIntIntHashMap();
-		// now the whole stuff again but only with those sequences that are in the initialPta
-		// do not remove any sequences because they should occur more often than the specified threshold
-		final TauPTA newPta = new TauPTA(transitionCount, finalStateCount);
-
-		newPta.addState(TauPTA.START_STATE);
-
-		for (final TimedWord s : trainingSequences) {
-			if (initialPta.isInAutomaton(s)) {
-				addEventSequence(newPta, s);
-			}
-		}
-
-		// compute event probabilities from counts
-		for (final int state : newPta.getStates()) {
-			final List<Transition> stateTransitions = newPta.getTransitions(state, false);
-			int occurenceCount = 0;
-			for (final Transition t : stateTransitions) {
-				occurenceCount += transitionCount.get(t.toZeroProbTransition());
-			}
-			occurenceCount += finalStateCount.get(state);
-			for (final Transition t : stateTransitions) {
-				newPta.changeTransitionProbability(t, transitionCount.get(t.toZeroProbTransition()) / (double) occurenceCount, false);
-			}
-			newPta.addFinalState(state, finalStateCount.get(state) / (double) occurenceCount);
-		}
-
-		// compute time probabilities
-		final Map<ZeroProbTransition, TDoubleList> timeValueBuckets = new HashMap<>();
-		for (final TimedWord s : trainingSequences) {
-			if (newPta.isInAutomaton(s)) {
-				int currentState = TauPTA.START_STATE;
-				for (int i = 0; i < s.length(); i++) {
-					final String nextEvent = s.getSymbol(i);
-					final Transition t = newPta.getTransition(currentState, nextEvent);
-					if (t == null) {
-						// this should never happen!
-						throw new IllegalStateException("Did not get a transition, but checked before that there must be transitions for this sequence " + s);
-					}
-					addTimeValue(timeValueBuckets, t.getFromState(), t.getToState(), t.getSymbol(), s.getTimeValue(i));
-					currentState = t.getToState();
-				}
-			} else {
-				ommitedSequenceCount++;
-			}
-		}
+		final TauPtaBuilder builder = new TauPtaBuilder(trainingSequences);
+		logger.debug("Prefix tree of all sequences has {} states", builder.getNumberOfStates());
+		final TauPTA newPta = builder.build(transitionCount, finalStateCount);
+		final Map<ZeroProbTransition, TDoubleList> timeValueBuckets = builder.getTimeValueBuckets();
+		ommitedSequenceCount += builder.getOmmitedSequenceCount();
 		logger.info("OmmitedSequenceCount={} out of {} sequences at a threshold of less than {} absolute occurences.", ommitedSequenceCount,
 				trainingSequences.size(), TauPTA.SEQUENCE_OMMIT_THRESHOLD * trainingSequences.size());
 		final Map<ZeroProbTransition, ContinuousDistribution> distributions = fit(timeValueBuckets);
@@ -165,22 +84,4 @@ public class TauPtaLearner extends PdttaLearner {
 		return newPta;
 	}
 
-	private void addEventSequence(TauPTA pta, TimedWord s) {
-		int currentState = TauPTA.START_STATE;
-
-		for (int i = 0; i < s.length(); i++) {
-			final String nextEvent = s.getSymbol(i);
-			Transition t = pta.getTransition(currentState, nextEvent);
-			if (t == null) {
-				t = pta.addTransition(currentState, pta.getNumberOfStates(), nextEvent, TauPTA.NO_TRANSITION_PROBABILITY);
-				transitionCount.put(t.toZeroProbTransition(), 0);
-			}
-			transitionCount.increment(t.toZeroProbTransition());
-			currentState = t.getToState();
-		}
-		// add final state count
-		finalStateCount.adjustOrPutValue(currentState, 1, 1);
-	}
-
-
 }
@@ -40,6 +40,9 @@ public class TrebaPdfaLearner implements PdfaLearner {
 	private static Logger logger = LoggerFactory.getLogger(TrebaPdfaLearner.class);
 	protected double smoothingPrior = 0.00;
 	protected int mergeT0 = 3;
+	private boolean fileTransfer = false;
+	// false once the native library turned out to lack the array functions
+	static volatile boolean directTransferAvailable = true;
 
 	public TrebaPdfaLearner(double mergeAlpha, boolean recursiveMergeTest) {
 		this.mergeAlpha = mergeAlpha;
@@ -74,6 +77,56 @@ public class TrebaPdfaLearner implements PdfaLearner {
 
 	@Override
 	public PDFA train(TimedInput trainingSequences) {
+		if (!fileTransfer && directTransferAvailable) {
+			try {
+				return trainInMemory(trainingSequences);
+			} catch (final UnsatisfiedLinkError e) {
+				directTransferAvailable = false;
+				logger.warn("The loaded treba library does not support the in-memory transfer ({}). Falling back to temp files.", e.getMessage());
+			}
+		}
+		return trainWithFiles(trainingSequences);
+	}
+
+	/**
+	 * Uses temp files instead of passing the observations and the learned automaton through JNI arrays.
+	 * 
+	 * @param fileTransfer
+	 *            whether to exchange data with treba via temp files
+	 */
+	public void setFileTransfer(boolean fileTransfer) {
+		this.fileTransfer = fileTransfer;
+	}
+
+	private PDFA trainInMemory(TimedInput trainingSequences) {
+		treba.log1plus_init_wrapper();
+		try {
+			logger.info("Starting to learn PDFA with treba...");
+			observations o = createObservations(trainingSequences);
+			if (o == null) {
+				logger.error("No observations to learn a PDFA from");
+				System.exit(1);
+			}
+			o = treba.observations_sort(o);
+			o = treba.observations_uniq(o);
+			final wfsa fsm = learnFsm(o);
+			try {
+				final double loglikelihood = treba.loglikelihood_all_observations_fsm(fsm, o);
+				logger.debug("learned event automaton has loglikelihood of {}", loglikelihood);
+				final PDFA pdfa = toPdfa(fsm, trainingSequences);
+				pdfa.makeImmutable();
+				logger.info("Learned PDFA with treba.");
+				return pdfa;
+			} finally {
+				treba.wfsa_destroy(fsm);
+				treba.observations_destroy(o);
+			}
+		} finally {
+			treba.log1plus_free_wrapper();
+		}
+	}
+
+	private PDFA trainWithFiles(TimedInput trainingSequences) {
 		final PDFA pdfa;
 		treba.log1plus_init_wrapper();
 		final Path tempDir = Paths.get(System.getProperty("java.io.tmpdir"));
@@ -147,13 +200,75 @@ public class TrebaPdfaLearner implements PdfaLearner {
 		return sb.toString();
 	}
 
-	protected double trainFsm(Path eventTrainFile, Path fsmOutputFile) {
+	/**
+	 * Hands the symbol ids of all words to treba in one flat array, in the same order as {@link #createTrebaFile(TimedInput, Path)} writes them.
+	 */
+	private observations createObservations(TimedInput timedSequences) {
+		int numSymbols = 0;
+		for (final TimedWord w : timedSequences) {
+			numSymbols += w.length();
+		}
+		final int[] symbols = new int[numSymbols];
+		final int[] lengths = new int[timedSequences.size()];
+		int pos = 0;
+		for (int j = 0; j < lengths.length; j++) {
+			final TimedWord w = timedSequences.getWord(j);
+			for (int i = 0; i < w.length(); i++) {
+				symbols[pos++] = timedSequences.getAlphIndex(w, i);
+			}
+			lengths[j] = w.length();
+		}
+		return treba.observations_from_array(symbols, lengths, lengths.length);
+	}
+
+	/**
+	 * Reads the transitions and final probabilities that {@link treba#wfsa_to_file(wfsa, String)} would write directly into a {@link PDFA}.
+	 */
+	private static PDFA toPdfa(wfsa fsm, TimedInput trainingSequences) {
+		final int numStates = fsm.getNum_states();
+		int capacity = numStates * fsm.getAlphabet_size();
+		int[] from = new int[capacity];
+		int[] to = new int[capacity];
+		int[] symbol = new int[capacity];
+		double[] prob = new double[capacity];
+		final int numTransitions = treba.wfsa_transitions_to_array(fsm, from, to, symbol, prob, capacity);
+		if (numTransitions > capacity) {
+			// only happens for nondeterministic automata
+			capacity = numTransitions;
+			from = new int[capacity];
+			to = new int[capacity];
+			symbol = new int[capacity];
+			prob = new double[capacity];
+			treba.wfsa_transitions_to_array(fsm, from, to, symbol, prob, capacity);
+		}
+		final PDFA pdfa = new PDFA(trainingSequences);
+		for (int i = 0; i < numTransitions; i++) {
+			pdfa.addTransition(from[i], to[i], trainingSequences.getSymbol(symbol[i]), prob[i]);
+		}
+		final int[] finalStates = new int[numStates];
+		final double[] finalProbs = new double[numStates];
+		final int numFinals = treba.wfsa_finals_to_array(fsm, finalStates, finalProbs);
+		for (int i = 0; i < numFinals; i++) {
+			pdfa.addFinalState(finalStates[i], finalProbs[i]);
+		}
+		return pdfa;
+	}
+
+	private wfsa learnFsm(observations o) {
 		int recursive_merge_test = 0;
 		if (recursiveMergeTest) {
 			recursive_merge_test = 1;
 		}
 		treba.setT0(mergeT0);
 		treba.setPrior(smoothingPrior);
+		if (mergeTest == MergeTest.MDI) {
+			return treba.dffa_to_wfsa(treba.dffa_mdi(o, mergeAlpha));
+		} else {
+			return treba.dffa_to_wfsa(treba.dffa_state_merge(o, mergeAlpha, mergeTest.getAlgorithm(), recursive_merge_test));
+		}
+	}
+
+	protected double trainFsm(Path eventTrainFile, Path fsmOutputFile) {
 		double ll;
 		observations o = treba.observations_read(eventTrainFile.toString());
 		if (o == null) {
@@ -162,12 +277,7 @@ public class TrebaPdfaLearner implements PdfaLearner {
 		}
 		o = treba.observations_sort(o);
 		o = treba.observations_uniq(o);
-		wfsa fsm;
-		if (mergeTest == MergeTest.MDI) {
-			fsm = treba.dffa_to_wfsa(treba.dffa_mdi(o, mergeAlpha));
-		} else {
-			fsm = treba.dffa_to_wfsa(treba.dffa_state_merge(o, mergeAlpha, mergeTest.getAlgorithm(), recursive_merge_test));
-		}
+		final wfsa fsm = learnFsm(o);
 		ll = treba.loglikelihood_all_observations_fsm(fsm, o);
 		treba.wfsa_to_file(fsm, fsmOutputFile.toString());
 
@@ -0,0 +1,215 @@
+/**
+ * This file is part of SADL, a library for learning all sorts of (timed) automata and performing sequence-based anomaly detection.
+ * Copyright (C) 2013-2015  the original author or authors.
+ *
+ * SADL is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * SADL is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with SADL.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package sadl.modellearner.rtiplus;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import gnu.trove.iterator.TIntIterator;
+import gnu.trove.set.hash.TIntHashSet;
+import sadl.models.pdrta.Interval;
+import sadl.models.pdrta.PDRTA;
+import sadl.models.pdrta.PDRTAState;
+
+/**
+ * Indexed max-heap of the blue transitions of a {@link StateColoring}, i.e. the {@link Interval}s of red states with a blue target. The transition with the
+ * most tails is on top, ties are broken by the smallest source index, target index, symbol index and begin of the interval. Red states whose intervals were
+ * modified have to be reported by {@link #touch(PDRTAState)}; their transitions are updated before the next {@link #peek()}. Entries of transitions that
+ * stopped being blue in other ways are dropped or updated when they reach the top.
+ */
+class BlueTransitionQueue {
+
+	static class BlueTransition {
+		final PDRTAState source;
+		final int symAlphIdx;
+		final Interval in;
+		PDRTAState target;
+		int tails;
+		int begin;
+		int pos;
+
+		BlueTransition(PDRTAState source, int symAlphIdx, Interval in) {
+			this.source = source;
+			this.symAlphIdx = symAlphIdx;
+			this.in = in;
+		}
+	}
+
+	private final PDRTA a;
+	private final StateColoring sc;
+	private final Map<Interval, BlueTransition> entries = new IdentityHashMap<>();
+	private final TIntHashSet touched = new TIntHashSet();
+	private BlueTransition[] heap = new BlueTransition[16];
+	private int size = 0;
+
+	BlueTransitionQueue(PDRTA a, StateColoring sc) {
+
+		this.a = a;
+		this.sc = sc;
+		for (final PDRTAState s : sc) {
+			touch(s);
+		}
+	}
+
+	/**
+	 * Reports that the intervals or targets of the given state were modified.
+	 */
+	void touch(PDRTAState s) {
+		touched.add(s.getIndex());
+	}
+
+	/**
+	 * Returns the blue transition with the most tails without removing it.
+	 * 
+	 * @return The blue transition with the most tails or {@code null} if there is no blue transition containing tails
+	 */
+	BlueTransition peek() {
+
+		if (!touched.isEmpty()) {
+			final TIntIterator it = touched.iterator();
+			while (it.hasNext()) {
+				final PDRTAState s = a.getState(it.next());
+				if (s != null && sc.isRed(s)) {
+					for (int i = 0; i < a.getAlphSize(); i++) {
+						for (final Entry<Integer, Interval> eIn : s.getIntervals(i).entrySet()) {
+							update(s, i, eIn.getValue());
+						}
+					}
+				}
+			}
+			touched.clear();
+		}
+		while (size > 0) {
+			final BlueTransition top = heap[0];
+			if (isUpToDate(top)) {
+				return top;
+			}
+			update(top.source, top.symAlphIdx, top.in);
+		}
+		return null;
+	}
+
+	private boolean isUpToDate(BlueTransition t) {
+		return t.in.getTarget() == t.target && t.in.getTails().size() == t.tails && t.in.getBegin() == t.begin && isBlueTransition(t.source, t.symAlphIdx, t.in);
+	}
+
+	private boolean isBlueTransition(PDRTAState s, int symAlphIdx, Interval in) {
+		return sc.isRed(s) && a.getState(s.getIndex()) == s && s.getIntervals(symAlphIdx).get(in.getEnd()) == in && sc.isBlue(in.getTarget())
+				&& in.getTails().size() > 0;
+	}
+
+	/**
+	 * Inserts, moves or removes the entry of the given interval depending on its current state
+	 */
+	private void update(PDRTAState s, int symAlphIdx, Interval in) {
+
+		BlueTransition t = entries.get(in);
+		if (t != null && t.source != s) {
+			remove(t);
+			t = null;
+		}
+		if (!isBlueTransition(s, symAlphIdx, in)) {
+			if (t != null) {
+				remove(t);
+			}
+			return;
+		}
+		if (t == null) {
+			t = new BlueTransition(s, symAlphIdx, in);
+			entries.put(in, t);
+			if (size == heap.length) {
+				heap = Arrays.copyOf(heap, size * 2);
+			}
+			t.pos = size;
+			heap[size++] = t;
+		}
+		t.target = in.getTarget();
+		t.tails = in.getTails().size();
+		t.begin = in.getBegin();
+		siftDown(siftUp(t.pos));
+	}
+
+	private void remove(BlueTransition t) {
+
+		entries.remove(t.in);
+		final int pos = t.pos;
+		size--;
+		if (pos != size) {
+			heap[pos] = heap[size];
+			heap[pos].pos = pos;
+			heap[size] = null;
+			siftDown(siftUp(pos));
+		} else {
+			heap[size] = null;
+		}
+	}
+
+	private int siftUp(int pos) {
+
+		final BlueTransition t = heap[pos];
+		while (pos > 0) {
+			final int parent = (pos - 1) >>> 1;
+			if (!before(t, heap[parent])) {
+				break;
+			}
+			heap[pos] = heap[parent];
+			heap[pos].pos = pos;
+			pos = parent;
+		}
+		heap[pos] = t;
+		t.pos = pos;
+		return pos;
+	}
+
+	private void siftDown(int pos) {
+
+		final BlueTransition t = heap[pos];
+		while (true) {
+			int child = 2 * pos + 1;
+			if (child >= size) {
+				break;
+			}
+			if (child + 1 < size && before(heap[child + 1], heap[child])) {
+				child++;
+			}
+			if (!before(heap[child], t)) {
+				break;
+			}
+			heap[pos] = heap[child];
+			heap[pos].pos = pos;
+			pos = child;
+		}
+		heap[pos] = t;
+		t.pos = pos;
+	}
+
+	/**
+	 * The order of SimplePDRTALearner's former full scan: most tails, then smallest source index, target index, symbol index and interval begin
+	 */
+	private static boolean before(BlueTransition t1, BlueTransition t2) {
+
+		if (t1.tails != t2.tails) {
+			return t1.tails > t2.tails;
+		} else if (t1.source.getIndex() != t2.source.getIndex()) {
+			return t1.source.getIndex() < t2.source.getIndex();
+		} else if (t1.target.getIndex() != t2.target.getIndex()) {
+			return t1.target.getIndex() < t2.target.getIndex();
+		} else if (t1.symAlphIdx != t2.symAlphIdx) {
+			return t1.symAlphIdx < t2.symAlphIdx;
+		} else {
+			return t1.begin < t2.begin;
+		}
+	}
+
+}
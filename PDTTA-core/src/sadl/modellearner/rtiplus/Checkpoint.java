@@ -0,0 +1,129 @@
+/**
+ * This file is part of SADL, a library for learning all sorts of (timed) automata and performing sequence-based anomaly detection.
+ * Copyright (C) 2013-2015  the original author or authors.
+ *
+ * SADL is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * SADL is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with SADL.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package sadl.modellearner.rtiplus;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import sadl.models.pdrta.PDRTA;
+import sadl.models.pdrta.PDRTAInput;
+
+/**
+ * A checkpoint of the greedy RTI+ learning loop between two steps. It contains the {@link PDRTA}, the {@link StateColoring} and the step counter. The
+ * {@link sadl.models.pdrta.TimedTail}s are only referenced by their position, so a checkpoint can only be resumed with the same input and parameters.
+ */
+class Checkpoint {
+
+	private static final int MAGIC = 0x52544943;
+	private static final int VERSION = 1;
+
+	final PDRTA automaton;
+	final StateColoring coloring;
+	final int counter;
+
+	private Checkpoint(PDRTA a, StateColoring sc, int counter) {
+
+		this.automaton = a;
+		this.coloring = sc;
+		this.counter = counter;
+	}
+
+	/**
+	 * Encodes the state of the learning loop in memory, so it can be written while the loop continues.
+	 * 
+	 * @param params
+	 *            The parameters of the learner that have to match when resuming
+	 * @param counter
+	 *            The number of steps performed
+	 * @param a
+	 *            The {@link PDRTA} in training
+	 * @param sc
+	 *            The {@link StateColoring} of the {@link PDRTA}
+	 * @return The encoded checkpoint
+	 * @throws IOException
+	 */
+	static byte[] encode(String params, int counter, PDRTA a, StateColoring sc) throws IOException {
+
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeUTF(params);
+			out.writeInt(counter);
+			a.writeTrainingState(out);
+			sc.write(out);
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Writes an encoded checkpoint compressed to the given file. The file is replaced atomically, so it always contains a complete checkpoint.
+	 * 
+	 * @param data
+	 *            The encoded checkpoint
+	 * @param file
+	 *            The file to write to
+	 * @throws IOException
+	 */
+	static void write(byte[] data, Path file) throws IOException {
+
+		final Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+		try (OutputStream out = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+			out.write(data);
+		}
+		Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Reads a checkpoint from the given file.
+	 * 
+	 * @param file
+	 *            The file to read from
+	 * @param params
+	 *            The parameters of the learner, they have to be equal to the ones the checkpoint was written with
+	 * @param input
+	 *            The {@link PDRTAInput} the checkpoint was written with
+	 * @return The checkpoint
+	 * @throws IOException
+	 *             If reading fails or the checkpoint does not match the parameters or the input
+	 */
+	static Checkpoint read(Path file, String params, PDRTAInput input) throws IOException {
+
+		try (InputStream is = new GZIPInputStream(new BufferedInputStream(Files.newInputStream(file)));
+				DataInputStream in = new DataInputStream(new BufferedInputStream(is))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+				throw new IOException("The file " + file + " is no RTI+ checkpoint of version " + VERSION);
+			}
+			final String cParams = in.readUTF();
+			if (!cParams.equals(params)) {
+				throw new IOException("The checkpoint was written with parameters " + cParams + " but the learner has " + params);
+			}
+			final int counter = in.readInt();
+			final PDRTA a = PDRTA.readTrainingState(in, input);
+			final StateColoring sc = StateColoring.read(in, a);
+			return new Checkpoint(a, sc, counter);
+		}
+	}
+
+}
@@ -0,0 +1,102 @@
+/**
+ * This file is part of SADL, a library for learning all sorts of (timed) automata and performing sequence-based anomaly detection.
+ * Copyright (C) 2013-2015  the original author or authors.
+ *
+ * SADL is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * SADL is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with SADL.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package sadl.modellearner.rtiplus;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import sadl.models.pdrta.PDRTA;
+
+/**
+ * Periodically writes {@link Checkpoint}s of the learning loop. The checkpoint is encoded in memory by the caller and written to disk by a background
+ * thread, so the loop never waits for I/O. A checkpoint is skipped if the previous one is still being written.
+ */
+class CheckpointWriter implements AutoCloseable {
+
+	private static final Logger logger = LoggerFactory.getLogger(CheckpointWriter.class);
+
+	private final Path file;
+	private final long intervalMillis;
+	private final String params;
+	private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+		final Thread t = new Thread(r, "RTI+ checkpoint writer");
+		t.setDaemon(true);
+		return t;
+	});
+
+	private Future<?> pending = null;
+	private long lastCheckpoint = System.currentTimeMillis();
+
+	CheckpointWriter(Path file, long intervalMillis, String params) {
+
+		this.file = file;
+		this.intervalMillis = intervalMillis;
+		this.params = params;
+	}
+
+	/**
+	 * Writes a checkpoint if the interval has passed since the last one.
+	 * 
+	 * @param counter
+	 *            The number of steps performed
+	 * @param a
+	 *            The {@link PDRTA} in training
+	 * @param sc
+	 *            The {@link StateColoring} of the {@link PDRTA}
+	 */
+	void offer(int counter, PDRTA a, StateColoring sc) {
+
+		final long now = System.currentTimeMillis();
+		if (now - lastCheckpoint < intervalMillis || (pending != null && !pending.isDone())) {
+			return;
+		}
+		lastCheckpoint = now;
+		final byte[] data;
+		try {
+			data = Checkpoint.encode(params, counter, a, sc);
+		} catch (final IOException e) {
+			logger.error("Could not encode checkpoint at step {}", counter, e);
+			return;
+		}
+		pending = executor.submit(() -> {
+			try {
+				Checkpoint.write(data, file);
+				logger.debug("Wrote checkpoint at step {} to {}", counter, file);
+			} catch (final IOException e) {
+				logger.error("Could not write checkpoint at step {} to {}", counter, file, e);
+			}
+		});
+	}
+
+	/**
+	 * Waits until the last checkpoint is written.
+	 */
+	@Override
+	public void close() {
+
+		executor.shutdown();
+		try {
+			executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
@@ -11,7 +11,11 @@
 
 package sadl.modellearner.rtiplus;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map.Entry;
 import java.util.Set;
 
@@ -40,20 +44,21 @@ public class OperationUtil {
 
 		if (sc.isRed(s1)) {
 			final PDRTA a = s1.getPDRTA();
-			// Let transitions pointing to second state point to first state
-			for (final PDRTAState s : sc) {
-				for (int i = 0; i < a.getAlphSize(); i++) {
-					final Set<Entry<Integer, Interval>> ins = s.getIntervals(i).entrySet();
-					for (final Entry<Integer, Interval> eIn : ins) {
-						final PDRTAState t = eIn.getValue().getTarget();
-						if (t != null && t == s2) {
-							eIn.getValue().setTarget(s1);
-						}
-					}
+			// Let transitions of red states pointing to second state point to first state
+			final List<Interval> redirect = new ArrayList<>();
+			for (final Interval in : s2.getIncoming()) {
+				final PDRTAState s = in.getSource();
+				if (sc.isRed(s) && a.getState(s.getIndex()) == s) {
+					redirect.add(in);
 				}
 			}
+			final Set<PDRTAState> sources = Collections.newSetFromMap(new IdentityHashMap<>());
+			for (final Interval in : redirect) {
+				in.setTarget(s1);
+				sources.add(in.getSource());
+			}
 			// Merge neighbored intervals with same source and target (undo previous splits)
-			for (final PDRTAState s : sc) {
+			for (final PDRTAState s : sources) {
 				for (int i = 0; i < a.getAlphSize(); i++) {
 					final Iterator<Entry<Integer, Interval>> it = s.getIntervals(i).descendingMap().entrySet().iterator();
 					if (it.hasNext()) {
@@ -63,7 +68,11 @@ public class OperationUtil {
 							if (neighbor.getTarget() != null && in.getTarget() != null && neighbor.getTarget() == s1 && in.getTarget() == s1) {
 								assert (neighbor.getBegin() - 1 == in.getEnd());
 								neighbor.merge(in);
+								// Record the intervals before removing the merged one
+								s.getIntervalsForUpdate(i);
 								it.remove();
+								// Remove the merged interval from the incoming edges of the first state
+								in.setTarget(null);
 							} else {
 								neighbor = in;
 							}
@@ -71,6 +80,7 @@ public class OperationUtil {
 					}
 				}
 			}
+			assert (noMergeableNeighbors(s1, sc));
 			// Split overlapping intervals of second state
 			for (int i = 0; i < a.getAlphSize(); i++) {
 				assert (s2.getIntervals(i).size() == 1);
@@ -88,6 +98,22 @@ public class OperationUtil {
 		s1.getStat().merge(s2.getStat());
 	}
 
+	private static boolean noMergeableNeighbors(PDRTAState target, StateColoring sc) {
+
+		for (final PDRTAState s : sc) {
+			for (int i = 0; i < s.getPDRTA().getAlphSize(); i++) {
+				Interval neighbor = null;
+				for (final Interval in : s.getIntervals(i).values()) {
+					if (neighbor != null && neighbor.getTarget() == target && in.getTarget() == target) {
+						return false;
+					}
+					neighbor = in;
+				}
+			}
+		}
+		return true;
+	}
+
 	/**
 	 * Belongs to testMerge_C
 	 * 
@@ -111,6 +137,7 @@ public class OperationUtil {
 		}
 
 		preMerge(s1, s2, sc);
+		sc.touch(s1);
 
 		// Merge intervals
 		Iterator<Entry<Integer, Interval>> it1, it2;
@@ -138,11 +165,11 @@ public class OperationUtil {
 						} else {
 							merge(in1.getTarget(), in2.getTarget(), sc, test, advancedPooling, cr);
 						}
-						in1.getTails().putAll(in2.getTails());
+						in1.addAllTails(in2);
 					} else {
 						// Move subtree of s2 to s1
 						assert (s1.getIntervals(i).containsKey(in2.getEnd()));
-						s1.getIntervals(i).put(in2.getEnd(), in2);
+						s1.putInterval(i, in2);
 						if (sc.isRed(s1)) {
 							sc.setBlue(in2.getTarget());
 						}
@@ -160,9 +187,10 @@ public class OperationUtil {
 		final PDRTA a = s.getPDRTA();
 
 		final Interval in = s.getInterval(symAlphIdx, time);
+		sc.touch(s);
 
 		final Interval newIn = in.split(time);
-		s.getIntervals(symAlphIdx).put(newIn.getEnd(), newIn);
+		s.putInterval(symAlphIdx, newIn);
 
 		assert (newIn != in);
 		assert (newIn.getTarget() == null);
@@ -11,16 +11,22 @@
 
 package sadl.modellearner.rtiplus;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map.Entry;
 import java.util.NavigableSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.DoubleSupplier;
 
 import com.google.common.collect.TreeMultimap;
 
 import sadl.input.TimedInput;
-import sadl.interfaces.Model;
 import sadl.interfaces.ProbabilisticModel;
 import sadl.modellearner.rtiplus.boolop.OrOperator;
 import sadl.modellearner.rtiplus.tester.NaiveLikelihoodRatioTester;
+import sadl.modellearner.rtiplus.tester.OperationTester;
 import sadl.models.pdrta.Interval;
 import sadl.models.pdrta.PDRTA;
 import sadl.models.pdrta.PDRTAInput;
@@ -35,16 +41,33 @@ public class SearchingPDRTALearner extends SimplePDRTALearner {
 
 	private final int maxMergesToSearch = 10;
 	private final int maxSplitsToSearch = 10;
+	private final int beamWidth;
 
 	public SearchingPDRTALearner(double sig, String histBins, OperationTesterType testerType, DistributionCheckType distrCheckType, SplitPosition splitPos,
 			String boolOps, String dir) {
+		this(sig, histBins, testerType, distrCheckType, splitPos, boolOps, dir, 1);
+	}
+
+	/**
+	 * Creates a learner that keeps the given number of partial automata in every search step. A beam width of 1 performs the greedy search.
+	 */
+	public SearchingPDRTALearner(double sig, String histBins, OperationTesterType testerType, DistributionCheckType distrCheckType, SplitPosition splitPos,
+			String boolOps, String dir, int beamWidth) {
 		super(sig, histBins, testerType, distrCheckType, splitPos, boolOps, dir);
+
+		if (beamWidth < 1) {
+			throw new IllegalArgumentException("Wrong parameter: BEAM WIDTH must be at least 1");
+		}
+		this.beamWidth = beamWidth;
 	}
 
 	@Override
 	public ProbabilisticModel train(TimedInput trainingSequences) {
 
 		logger.info("RTI+: Building automaton from input sequences");
+		if (checkpointFile != null || resumeFile != null) {
+			logger.warn("Checkpoints are not supported by the searching RTI+ and will be ignored");
+		}
 
 		final boolean expand = distrCheckType.compareTo(DistributionCheckType.ALL) > 0;
 		final PDRTAInput in = new PDRTAInput(trainingSequences, histBinsStr, expand);
@@ -54,48 +77,180 @@ public class SearchingPDRTALearner extends SimplePDRTALearner {
 		logger.info("Parameters are: significance={} distrCheckType={}", significance, distrCheckType);
 		logger.info("Histogram Bins are: {}", a.getHistBinsString());
 
-		logger.info("*** Performing greedy RTI+ ***");
+		if (beamWidth == 1) {
+			logger.info("*** Performing greedy RTI+ ***");
+		} else {
+			logger.info("*** Performing RTI+ beam search with width {} ***", beamWidth);
+		}
 		startTime = System.currentTimeMillis();
 		final StateColoring sc = new StateColoring(a);
 		sc.setRed(a.getRoot());
 		tester.setColoring(sc);
 		mainModel = a;
-		greedyRTIplus(a, sc);
+		final PDRTA result = beamRTIplus(new BeamState(a, sc, tester, 0));
 
-		logger.info("Final PDRTA contains {} states and {} transitions", a.getNumberOfStates(), a.getSize());
-		logger.info("Trained PDRTA with quality: Likelihood={} and AIC={}", Math.exp(NaiveLikelihoodRatioTester.calcLikelihood(a).getRatio()), calcAIC(a));
+		logger.info("Final PDRTA contains {} states and {} transitions", result.getNumberOfStates(), result.getSize());
+		logger.info("Trained PDRTA with quality: Likelihood={} and AIC={}", Math.exp(NaiveLikelihoodRatioTester.calcLikelihood(result).getRatio()),
+				calcAIC(result));
 
-		a.cleanUp();
+		result.cleanUp();
 
 		logger.info("Time: {}", getDuration(startTime, System.currentTimeMillis()));
 		logger.info("END");
 
-		return a;
+		return result;
+	}
+
+	/**
+	 * A partial automaton of the search together with its coloring and the {@link OperationTester} working on this coloring
+	 */
+	private static class BeamState {
+		final PDRTA a;
+		final StateColoring sc;
+		final OperationTester opTester;
+		int counter;
+		List<Refinement> candidates;
+
+		BeamState(PDRTA a, StateColoring sc, OperationTester opTester, int counter) {
+			this.a = a;
+			this.sc = sc;
+			this.opTester = opTester;
+			this.counter = counter;
+		}
+	}
+
+	/**
+	 * A refinement of a partial automaton and the AIC of its completion
+	 */
+	private static class Successor {
+		final BeamState parent;
+		final int parentIdx;
+		final Refinement r;
+		final double aic;
+
+		Successor(BeamState parent, int parentIdx, Refinement r, double aic) {
+			this.parent = parent;
+			this.parentIdx = parentIdx;
+			this.r = r;
+			this.aic = aic;
+		}
 	}
 
+	/**
+	 * Keeps the smallest AICs of the completed candidates of one search step. A completion whose AIC lower bound exceeds the largest of them cannot get into
+	 * the beam anymore.
+	 */
+	private static class AICBound implements DoubleSupplier {
+		private final double[] best;
+		private int size = 0;
+		private volatile double bound = Double.POSITIVE_INFINITY;
+
+		AICBound(int width) {
+			best = new double[width];
+		}
+
+		synchronized void offer(double aic) {
+			if (size == best.length && aic >= best[size - 1]) {
+				return;
+			}
+			int i = size == best.length ? size - 1 : size++;
+			while (i > 0 && best[i - 1] > aic) {
+				best[i] = best[i - 1];
+				i--;
+			}
+			best[i] = aic;
+			if (size == best.length) {
+				bound = best[size - 1];
+			}
+		}
+
+		@Override
+		public double getAsDouble() {
+			return bound;
+		}
+	}
+
+	// Best AIC first, ties are broken by the partial automaton and then like in the greedy search by taking the greatest refinement. Refinements are only
+	// comparable for the same partial automaton.
+	private static final Comparator<Successor> successorOrder = (s1, s2) -> {
+		final int c = Double.compare(s1.aic, s2.aic);
+		if (c != 0) {
+			return c;
+		}
+		final int cP = Integer.compare(s1.parentIdx, s2.parentIdx);
+		if (cP != 0) {
+			return cP;
+		}
+		return s2.r.compareTo(s1.r);
+	};
+
+	private PDRTA beamRTIplus(BeamState initial) {
+
+		List<BeamState> beam = new ArrayList<>();
+		beam.add(initial);
+		final List<BeamState> finished = new ArrayList<>();
+		while (!beam.isEmpty()) {
+			// Advance every partial automaton to its next decision
+			final List<BeamState> open = new ArrayList<>(beam.size());
+			for (final BeamState m : beam) {
+				if (advance(m)) {
+					open.add(m);
+				} else {
+					finished.add(m);
+				}
+			}
+			if (open.isEmpty()) {
+				break;
+			}
+			final List<Successor> successors = evaluate(open);
+			successors.sort(successorOrder);
+			final List<Successor> selected = successors.subList(0, Math.min(beamWidth, successors.size()));
+			beam = apply(selected);
+		}
+
+		BeamState best = finished.get(0);
+		if (finished.size() > 1) {
+			double bestAIC = calcAIC(best.a);
+			for (int i = 1; i < finished.size(); i++) {
+				final double aic = calcAIC(finished.get(i).a);
+				if (aic < bestAIC) {
+					bestAIC = aic;
+					best = finished.get(i);
+				}
+			}
+		}
+		return best.a;
+	}
+
+	/**
+	 * Performs the steps of the greedy search on a partial automaton that do not need a decision until merge or split candidates are found.
+	 * 
+	 * @return {@code false} if the automaton is complete, {@code true} if {@link BeamState#candidates} contains the candidates to search
+	 */
 	// TODO Try to reduce duplicated code regarding SimplePDRTALearner.complete(...)
-	private void greedyRTIplus(PDRTA a, StateColoring sc) {
+	private boolean advance(BeamState m) {
 
+		final PDRTA a = m.a;
+		final StateColoring sc = m.sc;
 		final boolean preExit = (bOp[2] instanceof OrOperator) && distrCheckType.equals(DistributionCheckType.DISABLED);
-		if (preExit) {
+		if (preExit && m.counter == 0) {
 			logger.info("Pre-Exiting algorithm when number of tails falls below minData");
 		}
 
-		int counter = 0;
 		Transition t;
 		while ((t = getMostVisitedTrans(a, sc)) != null && !(preExit && t.in.getTails().size() >= PDRTA.getMinData())) {
-			if (directory != null) {
-				draw(a, true, directory, counter);
+			if (directory != null && mainModel == a) {
+				draw(a, true, directory, m.counter);
 			}
 			logger.debug("Automaton contains {} states and {} transitions", a.getNumberOfStates(), a.getSize());
 			logger.debug("Found most visited transition  {}  containing {} tails", t.toString(), t.in.getTails().size());
-			counter++;
+			m.counter++;
 
 			if (!distrCheckType.equals(DistributionCheckType.DISABLED)) {
 				logger.debug("Checking data distribution");
 				final List<Interval> idaIns = checkDistribution(t.source, t.symAlphIdx, distrCheckType, sc);
 				if (idaIns.size() > 0) {
-					logger.debug("#{} DO: Split interval due to IDA into {} intervals", counter, idaIns.size());
+					logger.debug("#{} DO: Split interval due to IDA into {} intervals", m.counter, idaIns.size());
 					// TODO Printing the intervals may be to expensive just for logging
 					final StringBuilder sb = new StringBuilder();
 					for (final Interval in : idaIns) {
@@ -109,7 +264,7 @@ public class SearchingPDRTALearner extends SimplePDRTALearner {
 					if (bOp[2] instanceof OrOperator && t.in.getTails().size() < PDRTA.getMinData()) {
 						// Shortcut for skipping merges and splits when OR is selected
 						if (mainModel == a) {
-							logger.debug("#{} DO: Color state {} red", counter, t.target.getIndex());
+							logger.debug("#{} DO: Color state {} red", m.counter, t.target.getIndex());
 						}
 						sc.setRed(t.target);
 						continue;
@@ -118,59 +273,33 @@ public class SearchingPDRTALearner extends SimplePDRTALearner {
 			}
 
 			logger.debug("Testing splits");
-			final NavigableSet<Refinement> splits = getSplitRefs(t, sc).descendingSet();
+			final NavigableSet<Refinement> splits = getSplitRefs(t, sc, m.opTester).descendingSet();
 			logger.debug("Found {} possible splits", splits.size());
 			logger.debug("Testing merges");
-			final NavigableSet<Refinement> merges = getMergeRefs(t, sc).descendingSet();
+			final NavigableSet<Refinement> merges = getMergeRefs(t, sc, m.opTester).descendingSet();
 			logger.debug("Found {} possible merges", merges.size());
-			logger.debug("Calculating sizes for splits");
 
-			final TreeMultimap<Double, Refinement> all = TreeMultimap.create();
-			int c = 0;
+			final List<Refinement> candidates = new ArrayList<>(maxSplitsToSearch + maxMergesToSearch);
 			for (final Refinement r : splits) {
-				if (c >= maxSplitsToSearch) {
+				if (candidates.size() >= maxSplitsToSearch) {
 					break;
 				}
-				final PDRTA copy = new PDRTA(a);
-				final StateColoring cColoring = new StateColoring(sc, copy);
-				final Refinement cR = new Refinement(copy, r, cColoring);
-				cR.refine();
-				complete(copy, cColoring);
-				// TODO Create algo param for selecting between AIC and size
-				// final double modelScore = copy.getSize();
-				final double modelScore = calcAIC(copy);
-				all.put(modelScore, r);
-				c++;
-			}
-
-			logger.debug("Calculating sizes for merges");
-			c = 0;
+				candidates.add(r);
+			}
+			final int numSplits = candidates.size();
 			for (final Refinement r : merges) {
-				if (c >= maxMergesToSearch) {
+				if (candidates.size() - numSplits >= maxMergesToSearch) {
 					break;
 				}
-				final PDRTA copy = new PDRTA(a);
-				final StateColoring cColoring = new StateColoring(sc, copy);
-				final Refinement cR = new Refinement(copy, r, cColoring);
-				cR.refine();
-				complete(copy, cColoring);
-				// TODO Create algo param for selecting between AIC and size
-				// final double modelScore = copy.getSize();
-				final double modelScore = calcAIC(copy);
-				all.put(modelScore, r);
-				c++;
+				candidates.add(r);
 			}
 
-			assert (all.size() <= (maxMergesToSearch + maxSplitsToSearch));
-			if (!all.isEmpty()) {
-				final double minSize = all.keySet().first();
-				final Refinement r = all.get(minSize).last();
-				logger.debug("#{} DO: {}  quality={}", counter, r.toString(), minSize);
-				r.refine();
-			} else {
-				logger.debug("#{} DO: Color state {} red", counter, t.target.getIndex());
-				sc.setRed(t.target);
+			if (!candidates.isEmpty()) {
+				m.candidates = candidates;
+				return true;
 			}
+			logger.debug("#{} DO: Color state {} red", m.counter, t.target.getIndex());
+			sc.setRed(t.target);
 			if (Settings.isDebug()) {
 				a.checkConsistency();
 			}
@@ -178,9 +307,120 @@ public class SearchingPDRTALearner extends SimplePDRTALearner {
 
 		a.checkConsistency();
 		assert (a.getNumberOfStates() == sc.getNumRedStates());
-		if (directory != null) {
-			draw(a, true, directory, counter);
+		if (directory != null && mainModel == a) {
+			draw(a, true, directory, m.counter);
+		}
+		return false;
+	}
+
+	/**
+	 * Completes every candidate refinement of the given partial automata on a copy and calculates the AIC of the completed automaton. The completions run
+	 * concurrently if {@link Settings#isParallel()}. Completions that cannot get into the beam anymore are aborted and left out.
+	 */
+	private List<Successor> evaluate(List<BeamState> open) {
+
+		logger.debug("Calculating sizes for splits and merges");
+		final List<BeamState> parents = new ArrayList<>();
+		final List<Refinement> refs = new ArrayList<>();
+		for (final BeamState m : open) {
+			for (final Refinement r : m.candidates) {
+				parents.add(m);
+				refs.add(r);
+			}
+		}
+
+		final AICBound bound = new AICBound(beamWidth);
+		final double[] aics = new double[refs.size()];
+		final boolean[] completed = new boolean[refs.size()];
+		if (Settings.isParallel() && refs.size() > 1) {
+			final ForkJoinPool p = getForkJoinPool();
+			final List<ForkJoinTask<?>> tasks = new ArrayList<>(refs.size());
+			for (int i = 0; i < refs.size(); i++) {
+				final int idx = i;
+				tasks.add(p.submit(() -> evaluate(parents.get(idx), refs.get(idx), bound, idx, aics, completed)));
+			}
+			for (final ForkJoinTask<?> task : tasks) {
+				task.join();
+			}
+		} else {
+			for (int i = 0; i < refs.size(); i++) {
+				evaluate(parents.get(i), refs.get(i), bound, i, aics, completed);
+			}
+		}
+
+		// Collect the results like the greedy search does for every partial automaton
+		final List<Successor> successors = new ArrayList<>();
+		int i = 0;
+		for (int j = 0; j < open.size(); j++) {
+			final BeamState m = open.get(j);
+			final TreeMultimap<Double, Refinement> all = TreeMultimap.create();
+			for (int k = 0; k < m.candidates.size(); k++, i++) {
+				if (completed[i]) {
+					all.put(aics[i], refs.get(i));
+				}
+			}
+			assert (all.size() <= (maxMergesToSearch + maxSplitsToSearch));
+			for (final Entry<Double, Refinement> e : all.entries()) {
+				successors.add(new Successor(m, j, e.getValue(), e.getKey()));
+			}
+			m.candidates = null;
+		}
+		return successors;
+	}
+
+	private void evaluate(BeamState m, Refinement r, AICBound bound, int idx, double[] aics, boolean[] completed) {
+
+		final PDRTA copy = new PDRTA(m.a);
+		final StateColoring cColoring = new StateColoring(m.sc, copy);
+		final Refinement cR = new Refinement(copy, r, cColoring);
+		cR.refine();
+		// The tester has to work on the coloring of the copy, because the completion colors further states red
+		final OperationTester cTester = createTester();
+		cTester.setColoring(cColoring);
+		if (complete(copy, cColoring, cTester, bound)) {
+			// TODO Create algo param for selecting between AIC and size
+			// final double modelScore = copy.getSize();
+			final double modelScore = calcAIC(copy);
+			bound.offer(modelScore);
+			aics[idx] = modelScore;
+			completed[idx] = true;
+		}
+	}
+
+	/**
+	 * Applies the selected refinements. A partial automaton is refined in place for its last selected refinement and copied for the others.
+	 */
+	private List<BeamState> apply(List<Successor> selected) {
+
+		final List<BeamState> beam = new ArrayList<>(selected.size());
+		for (int i = 0; i < selected.size(); i++) {
+			final Successor s = selected.get(i);
+			boolean lastUse = true;
+			for (int j = i + 1; j < selected.size(); j++) {
+				if (selected.get(j).parent == s.parent) {
+					lastUse = false;
+					break;
+				}
+			}
+			logger.debug("#{} DO: {}  quality={}", s.parent.counter, s.r.toString(), s.aic);
+			final BeamState child;
+			if (lastUse) {
+				s.r.refine();
+				child = s.parent;
+			} else {
+				final PDRTA copy = new PDRTA(s.parent.a);
+				final StateColoring cColoring = new StateColoring(s.parent.sc, copy);
+				final OperationTester cTester = createTester();
+				cTester.setColoring(cColoring);
+				new Refinement(copy, s.r, cColoring).refine();
+				child = new BeamState(copy, cColoring, cTester, s.parent.counter);
+			}
+			if (Settings.isDebug()) {
+				child.a.checkConsistency();
+			}
+			beam.add(child);
 		}
+		return beam;
 	}
 
 }
@@ -32,16 +32,22 @@ import java.util.NavigableSet;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.DoubleSupplier;
 
 import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import gnu.trove.list.TDoubleList;
+import gnu.trove.list.TIntList;
 import gnu.trove.list.array.TDoubleArrayList;
+import gnu.trove.list.array.TIntArrayList;
 import sadl.input.TimedInput;
 import sadl.interfaces.ModelLearner;
 import sadl.interfaces.ProbabilisticModel;
+import sadl.modellearner.rtiplus.BlueTransitionQueue.BlueTransition;
 import sadl.modellearner.rtiplus.boolop.AndOperator;
 import sadl.modellearner.rtiplus.boolop.BooleanOperator;
 import sadl.modellearner.rtiplus.boolop.OrOperator;
@@ -54,6 +60,7 @@ import sadl.models.pdrta.Interval;
 import sadl.models.pdrta.PDRTA;
 import sadl.models.pdrta.PDRTAInput;
 import sadl.models.pdrta.PDRTAState;
+import sadl.models.pdrta.StateStatistic;
 import sadl.models.pdrta.TimedTail;
 import sadl.utils.Settings;
 
@@ -84,18 +91,30 @@ public class SimplePDRTALearner implements ModelLearner {
 
 	static final Logger logger = LoggerFactory.getLogger(SimplePDRTALearner.class);
 
+	// Every parallel task copies the automaton once, so it should test at least this many candidates
+	private static final int MIN_CANDIDATES_PER_TASK = 2;
+
 	long startTime;
 
 	final double significance;
 	final DistributionCheckType distrCheckType;
 	final SplitPosition splitPos;
 	final String histBinsStr;
+	final OperationTesterType testerType;
 	final OperationTester tester;
+	final String boolOps;
 
 	Path directory;
 
 	PDRTA mainModel;
 
+	private ForkJoinPool pool = null;
+
+	Path checkpointFile = null;
+	long checkpointInterval;
+	Path resumeFile = null;
+	private CheckpointWriter checkpoints = null;
+
 	public SimplePDRTALearner(double sig, String histBins, OperationTesterType testerType, DistributionCheckType distrCheckType, SplitPosition splitPos,
 			String boolOps, String dir) {
 
@@ -105,6 +124,7 @@ public class SimplePDRTALearner implements ModelLearner {
 
 		parseBoolOps(boolOps);
 
+		this.boolOps = boolOps.toUpperCase();
 		this.significance = sig;
 		this.distrCheckType = distrCheckType;
 		this.histBinsStr = histBins;
@@ -116,25 +136,28 @@ public class SimplePDRTALearner implements ModelLearner {
 			directory = null;
 		}
 
+		this.testerType = testerType;
+		this.tester = createTester();
+	}
+
+	/**
+	 * Creates a new {@link OperationTester} of the type given to the constructor.
+	 */
+	OperationTester createTester() {
+
 		switch (testerType) {
 			case LRT:
-				this.tester = new LikelihoodRatioTester(false);
-				break;
+				return new LikelihoodRatioTester(false);
 			case LRT_ADV:
-				this.tester = new LikelihoodRatioTester(true);
-				break;
+				return new LikelihoodRatioTester(true);
 			case NAIVE_LRT:
-				this.tester = new NaiveLikelihoodRatioTester();
-				break;
+				return new NaiveLikelihoodRatioTester();
 			case FM:
-				this.tester = new FishersMethodTester(false);
-				break;
+				return new FishersMethodTester(false);
 			case FM_ADV:
-				this.tester = new FishersMethodTester(true);
-				break;
+				return new FishersMethodTester(true);
 			default:
-				this.tester = new LikelihoodRatioTester(false);
-				break;
+				return new LikelihoodRatioTester(false);
 		}
 	}
 
@@ -199,7 +222,25 @@ public class SimplePDRTALearner implements ModelLearner {
 
 		final boolean expand = distrCheckType.compareTo(DistributionCheckType.ALL) > 0;
 		final PDRTAInput in = new PDRTAInput(trainingSequences, histBinsStr, expand);
-		final PDRTA a = new PDRTA(in);
+		final PDRTA a;
+		final StateColoring sc;
+		int counter = 0;
+		if (resumeFile != null) {
+			final Checkpoint cp;
+			try {
+				cp = Checkpoint.read(resumeFile, getParamsString(), in);
+			} catch (final IOException e) {
+				throw new IllegalStateException("Could not resume from checkpoint " + resumeFile, e);
+			}
+			logger.info("Resuming from checkpoint {} at step {}", resumeFile, cp.counter);
+			a = cp.automaton;
+			sc = cp.coloring;
+			counter = cp.counter;
+		} else {
+			a = new PDRTA(in);
+			sc = new StateColoring(a);
+			sc.setRed(a.getRoot());
+		}
 
 		// TODO log new params
 		logger.info("Parameters are: significance={} distrCheckType={}", significance, distrCheckType);
@@ -207,11 +248,19 @@ public class SimplePDRTALearner implements ModelLearner {
 
 		logger.info("*** Performing simple RTI+ ***");
 		startTime = System.currentTimeMillis();
-		final StateColoring sc = new StateColoring(a);
-		sc.setRed(a.getRoot());
 		tester.setColoring(sc);
 		mainModel = a;
-		complete(a, sc);
+		if (checkpointFile != null) {
+			checkpoints = new CheckpointWriter(checkpointFile, checkpointInterval, getParamsString());
+		}
+		try {
+			complete(a, sc, tester, null, counter);
+		} finally {
+			if (checkpoints != null) {
+				checkpoints.close();
+				checkpoints = null;
+			}
+		}
 
 		logger.info("Final PDRTA contains {} states and {} transitions", a.getNumberOfStates(), a.getSize());
 		// TODO Check why Likelihood is 0.0 here
@@ -227,6 +276,25 @@ public class SimplePDRTALearner implements ModelLearner {
 
 	protected Transition getMostVisitedTrans(PDRTA a, StateColoring sc) {
 
+		final BlueTransition bt = sc.getBlueTransitions().peek();
+		final Transition trans = bt == null ? null : new Transition(a, bt.source, bt.symAlphIdx, bt.in, bt.target);
+		assert (isSameTransition(trans, scanMostVisitedTrans(a, sc)));
+		return trans;
+	}
+
+	private static boolean isSameTransition(Transition t1, Transition t2) {
+
+		if (t1 == null || t2 == null) {
+			return t1 == t2;
+		}
+		return t1.ta == t2.ta && t1.source == t2.source && t1.symAlphIdx == t2.symAlphIdx && t1.in == t2.in && t1.target == t2.target;
+	}
+
+	/**
+	 * Finds the blue transition with the most tails by scanning all red states. Only used for checking {@link BlueTransitionQueue}.
+	 */
+	private Transition scanMostVisitedTrans(PDRTA a, StateColoring sc) {
+
 		int maxVisit = 0;
 		Transition trans = null;
 		for (final PDRTAState r : sc) {
@@ -264,11 +332,21 @@ public class SimplePDRTALearner implements ModelLearner {
 	}
 
 	protected NavigableSet<Refinement> getMergeRefs(Transition t, StateColoring sc) {
+		return getMergeRefs(t, sc, tester);
+	}
+
+	NavigableSet<Refinement> getMergeRefs(Transition t, StateColoring sc, OperationTester opTester) {
 
 		final NavigableSet<Refinement> refs = new TreeSet<>();
-		//sequential
+		final List<PDRTAState> reds = new ArrayList<>(sc.getNumRedStates());
 		for (final PDRTAState r : sc) {
-			double score = tester.testMerge(r, t.target);
+			reds.add(r);
+		}
+		final int blueIdx = t.target.getIndex();
+		final double[] scores = testCandidates(t.ta, reds.size(), (a, i) -> opTester.testMerge(a.getState(reds.get(i).getIndex()), a.getState(blueIdx)));
+		for (int i = 0; i < reds.size(); i++) {
+			final PDRTAState r = reds.get(i);
+			double score = scores[i];
 			if (mainModel == t.ta) {
 				logger.trace("Score: {} (MERGE {} with {})", score, r.getIndex(), t.target.getIndex());
 			}
@@ -278,113 +356,184 @@ public class SimplePDRTALearner implements ModelLearner {
 				refs.add(ref);
 			}
 		}
-		//parallel (not yet checked for determinism)
-		// // final NavigableSet<Refinement> safeRefs = Collections.synchronizedNavigableSet(refs);
-		// sc.getRedStates().parallelStream().forEach(red -> {
-		// double score = tester.testMerge(red, t.target);
-		// if (mainModel == t.ta) {
-		// logger.trace("Score: {} (MERGE {} with {})", score, red.getIndex(), t.target.getIndex());
-		// }
-		// if (score > significance && score <= 1.0) {
-		// score = (score - significance) / (1.0 - significance);
-		// final Refinement ref = new Refinement(red, t.target, score, sc);
-		// l1.lock();
-		// refs.add(ref);
-		// l1.unlock();
-		// // safeRefs.add(ref);
-		// }
-		// });
 		return refs;
 	}
 
 	protected NavigableSet<Refinement> getSplitRefs(Transition t, StateColoring sc) {
+		return getSplitRefs(t, sc, tester);
+	}
+
+	NavigableSet<Refinement> getSplitRefs(Transition t, StateColoring sc, OperationTester opTester) {
 
 		final NavigableSet<Refinement> refs = new TreeSet<>();
-		//sequential
-		final Iterator<Integer> it = t.in.getTails().keySet().iterator();
-		if (it.hasNext()) {
-			int last = it.next();
-			while (it.hasNext()) {
-				final int cur = it.next();
-				int splitTime = -1;
-				switch (splitPos) {
-					case LEFT:
-						splitTime = last;
-						break;
-					case MIDDLE:
-						splitTime = (int) Math.rint(((cur - last) - 1) / 2.0) + last;
-						break;
-					case RIGHT:
-						splitTime = cur - 1;
-						break;
-					default:
-						splitTime = (int) Math.rint(((cur - last) - 1) / 2.0) + last;
-						break;
-				}
-				double score = tester.testSplit(t.source, t.symAlphIdx, splitTime);
-				if (mainModel == t.ta) {
-					logger.trace("Score: {} (SPLIT {} @ ({},{}))", score, t.source.getIndex(), t.ta.getSymbol(t.symAlphIdx), splitTime);
-				}
-				if (score < significance && score >= 0) {
-					score = (significance - score) / significance;
-					final Refinement ref = new Refinement(t.source, t.symAlphIdx, splitTime, score, sc);
-					refs.add(ref);
-				}
-				last = cur;
+		// Copy the tail times first, testers may split the interval in place and roll it back
+		final TIntList times = new TIntArrayList(t.in.getTails().keySet().size());
+		times.addAll(t.in.getTails().keySet());
+		final TIntList splitTimes = new TIntArrayList(Math.max(times.size() - 1, 0));
+		for (int i = 1; i < times.size(); i++) {
+			final int last = times.get(i - 1);
+			final int cur = times.get(i);
+			switch (splitPos) {
+				case LEFT:
+					splitTimes.add(last);
+					break;
+				case MIDDLE:
+					splitTimes.add((int) Math.rint(((cur - last) - 1) / 2.0) + last);
+					break;
+				case RIGHT:
+					splitTimes.add(cur - 1);
+					break;
+				default:
+					splitTimes.add((int) Math.rint(((cur - last) - 1) / 2.0) + last);
+					break;
+			}
+		}
+		final int sourceIdx = t.source.getIndex();
+		final double[] scores = testCandidates(t.ta, splitTimes.size(), (a, i) -> opTester.testSplit(a.getState(sourceIdx), t.symAlphIdx, splitTimes.get(i)));
+		for (int i = 0; i < splitTimes.size(); i++) {
+			final int splitTime = splitTimes.get(i);
+			double score = scores[i];
+			if (mainModel == t.ta) {
+				logger.trace("Score: {} (SPLIT {} @ ({},{}))", score, t.source.getIndex(), t.ta.getSymbol(t.symAlphIdx), splitTime);
+			}
+			if (score < significance && score >= 0) {
+				score = (significance - score) / significance;
+				final Refinement ref = new Refinement(t.source, t.symAlphIdx, splitTime, score, sc);
+				refs.add(ref);
 			}
-			//parallel (not yet checked for determinism)
-			// final TIntList splitTimes = new TIntArrayList();
-			// if (it.hasNext()) {
-			// int last = it.next();
-			// while (it.hasNext()) {
-			// final int cur = it.next();
-			// int splitTime = -1;
-			// switch (splitPos) {
-			// case LEFT:
-			// splitTime = last;
-			// break;
-			// case MIDDLE:
-			// splitTime = (int) Math.rint(((cur - last) - 1) / 2.0) + last;
-			// break;
-			// case RIGHT:
-			// splitTime = cur - 1;
-			// break;
-			// default:
-			// splitTime = (int) Math.rint(((cur - last) - 1) / 2.0) + last;
-			// break;
-			// }
-			// splitTimes.add(splitTime);
-			// last = cur;
-			// }
-			// // final NavigableSet<Refinement> safeRefs = Collections.synchronizedNavigableSet(refs);
-			// Arrays.stream(splitTimes.toArray()).parallel().forEach(splitTime -> {
-			// double score = tester.testSplit(t.source, t.symAlphIdx, splitTime);
-			// if (mainModel == t.ta) {
-			// logger.trace("Score: {} (SPLIT {} @ ({},{}))", score, t.source.getIndex(), t.ta.getSymbol(t.symAlphIdx), splitTime);
-			// }
-			// if (score < significance && score >= 0) {
-			// score = (significance - score) / significance;
-			// final Refinement ref = new Refinement(t.source, t.symAlphIdx, splitTime, score, sc);
-			// l2.lock();
-			// refs.add(ref);
-			// l2.unlock();
-			// // safeRefs.add(ref);
-			// }
-			// });
 		}
 		return refs;
 	}
 
+	@FunctionalInterface
+	interface CandidateTest {
+		double test(PDRTA a, int candidate);
+	}
+
+	/**
+	 * Calculates the scores of the given number of candidate refinements. If {@link Settings#isParallel()} the candidates are split into contiguous chunks
+	 * that are tested concurrently, each one on its own copy of the {@link PDRTA}. The scores are equal to the ones of the sequential run, because the testers
+	 * restore the automaton after every test.
+	 * 
+	 * @param a
+	 *            The {@link PDRTA} to test the candidates on
+	 * @param count
+	 *            The number of candidates
+	 * @param test
+	 *            Calculates the score of a candidate for the given {@link PDRTA}
+	 * @return The scores in the order of the candidates
+	 */
+	double[] testCandidates(PDRTA a, int count, CandidateTest test) {
+
+		final double[] scores = new double[count];
+		final ForkJoinPool p = getForkJoinPool();
+		final int chunkCount = Math.min(p.getParallelism(), count / MIN_CANDIDATES_PER_TASK);
+		if (Settings.isParallel() && chunkCount > 1) {
+			final List<ForkJoinTask<?>> tasks = new ArrayList<>(chunkCount);
+			for (int c = 0; c < chunkCount; c++) {
+				final int from = (int) ((long) count * c / chunkCount);
+				final int to = (int) ((long) count * (c + 1) / chunkCount);
+				tasks.add(p.submit(() -> {
+					final PDRTA copy = new PDRTA(a);
+					for (int i = from; i < to; i++) {
+						scores[i] = test.test(copy, i);
+					}
+				}));
+			}
+			for (final ForkJoinTask<?> task : tasks) {
+				task.join();
+			}
+		} else {
+			for (int i = 0; i < count; i++) {
+				scores[i] = test.test(a, i);
+			}
+		}
+		return scores;
+	}
+
+	/**
+	 * Sets the pool that is used for testing merge and split candidates concurrently.
+	 * 
+	 * @param pool
+	 *            the pool or {@code null} for the common pool
+	 */
+	public void setForkJoinPool(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	ForkJoinPool getForkJoinPool() {
+		return pool == null ? ForkJoinPool.commonPool() : pool;
+	}
+
+	/**
+	 * Enables periodic checkpoints of the learning loop. A checkpoint is written to the given file when the interval has passed since the last one and can be
+	 * used for resuming an interrupted run by {@link #setResume(Path)}.
+	 * 
+	 * @param file
+	 *            The file for the checkpoints or {@code null} for no checkpoints
+	 * @param intervalMillis
+	 *            The minimal time between two checkpoints in milliseconds
+	 */
+	public void setCheckpoint(Path file, long intervalMillis) {
+
+		this.checkpointFile = file;
+		this.checkpointInterval = intervalMillis;
+	}
+
+	/**
+	 * Lets the next training continue from a checkpoint written by {@link #setCheckpoint(Path, long)}. The training has to use the same input and
+	 * parameters; it results in the same {@link PDRTA} as an uninterrupted run.
+	 * 
+	 * @param file
+	 *            The checkpoint file or {@code null} for starting from scratch
+	 */
+	public void setResume(Path file) {
+		this.resumeFile = file;
+	}
+
+	String getParamsString() {
+		return "sig=" + significance + " hist=" + histBinsStr + " em=" + testerType + " ida=" + distrCheckType + " sp=" + splitPos + " bop=" + boolOps;
+	}
+
 	void complete(PDRTA a, StateColoring sc) {
+		complete(a, sc, tester, null);
+	}
+
+	boolean complete(PDRTA a, StateColoring sc, OperationTester opTester, DoubleSupplier maxAIC) {
+		return complete(a, sc, opTester, maxAIC, 0);
+	}
+
+	/**
+	 * Completes the given {@link PDRTA} by merging and splitting until all states are red.
+	 * 
+	 * @param a
+	 *            The {@link PDRTA} to complete
+	 * @param sc
+	 *            The {@link StateColoring} of the {@link PDRTA}
+	 * @param opTester
+	 *            The {@link OperationTester} for the merge and split candidates
+	 * @param maxAIC
+	 *            Supplies the AIC the completed {@link PDRTA} has to reach at most; the completion is aborted as soon as
+	 *            {@link #calcAICLowerBound(StateColoring)} exceeds it. May be {@code null} for never aborting.
+	 * @param counter
+	 *            The number of steps already performed
+	 * @return {@code false} if the completion was aborted, {@code true} otherwise
+	 */
+	boolean complete(PDRTA a, StateColoring sc, OperationTester opTester, DoubleSupplier maxAIC, int counter) {
 
 		final boolean preExit = (bOp[2] instanceof OrOperator) && distrCheckType.equals(DistributionCheckType.DISABLED);
 		if (mainModel == a && preExit) {
 			logger.info("Pre-Exiting algorithm when number of tails falls below minData");
 		}
 
-		int counter = 0;
 		Transition t;
 		while ((t = getMostVisitedTrans(a, sc)) != null && !(preExit && t.in.getTails().size() < PDRTA.getMinData())) {
+			if (maxAIC != null && calcAICLowerBound(sc) > maxAIC.getAsDouble()) {
+				return false;
+			}
+			if (mainModel == a && checkpoints != null) {
+				checkpoints.offer(counter, a, sc);
+			}
 			if (mainModel == a) {
 				if (directory != null) {
 					draw(a, true, directory, counter);
@@ -429,7 +578,7 @@ public class SimplePDRTALearner implements ModelLearner {
 			if (mainModel == a) {
 				logger.debug("Testing splits");
 			}
-			final SortedSet<Refinement> splits = getSplitRefs(t, sc);
+			final SortedSet<Refinement> splits = getSplitRefs(t, sc, opTester);
 			if (mainModel == a) {
 				logger.debug("Found {} possible splits", splits.size());
 			}
@@ -443,7 +592,7 @@ public class SimplePDRTALearner implements ModelLearner {
 				if (mainModel == a) {
 					logger.debug("Testing merges");
 				}
-				final SortedSet<Refinement> merges = getMergeRefs(t, sc);
+				final SortedSet<Refinement> merges = getMergeRefs(t, sc, opTester);
 				if (mainModel == a) {
 					logger.debug("Found {} possible merges", merges.size());
 				}
@@ -472,6 +621,7 @@ public class SimplePDRTALearner implements ModelLearner {
 		if (directory != null) {
 			draw(a, true, directory, counter);
 		}
+		return true;
 	}
 
 	void draw(PDRTA a, boolean withInp, Path path, int counter) {
@@ -737,4 +887,22 @@ public class SimplePDRTALearner implements ModelLearner {
 		return (2.0 * lv.getParam()) - (2.0 * lv.getRatio());
 	}
 
+	/**
+	 * Calculates a lower bound for the AIC of the completion of a {@link PDRTA}. Red states are kept by all operations and their statistics only grow, so
+	 * their parameters are part of the completed {@link PDRTA}. The log-likelihood is never positive.
+	 * 
+	 * @param sc
+	 *            The {@link StateColoring} of the {@link PDRTA}
+	 * @return The lower bound for the AIC
+	 */
+	double calcAICLowerBound(StateColoring sc) {
+
+		final LikelihoodValue lv = new LikelihoodValue();
+		for (final PDRTAState r : sc) {
+			lv.add(StateStatistic.getLikelihoodSym(r));
+			lv.add(StateStatistic.getLikelihoodTime(r));
+		}
+		return 2.0 * lv.getParam();
+	}
+
 }
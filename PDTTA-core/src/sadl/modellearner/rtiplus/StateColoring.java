@@ -11,7 +11,11 @@
 
 package sadl.modellearner.rtiplus;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map.Entry;
@@ -31,6 +35,8 @@ public class StateColoring implements Iterable<PDRTAState> {
 
 	private final PDRTA a;
 
+	private BlueTransitionQueue blueTransitions = null;
+
 	StateColoring(PDRTA a) {
 
 		this.redStates = new TIntHashSet();
@@ -45,6 +51,39 @@ public class StateColoring implements Iterable<PDRTAState> {
 		this.a = a;
 	}
 
+	/**
+	 * Writes the red and blue states of this coloring. Used for checkpoints of the learner.
+	 */
+	void write(DataOutput out) throws IOException {
+
+		for (final TIntHashSet set : Arrays.asList(redStates, blueStates)) {
+			out.writeInt(set.size());
+			final TIntIterator it = set.iterator();
+			while (it.hasNext()) {
+				out.writeInt(it.next());
+			}
+		}
+	}
+
+	/**
+	 * Reads a coloring of the given {@link PDRTA} that was written by {@link #write(DataOutput)}.
+	 */
+	static StateColoring read(DataInput in, PDRTA a) throws IOException {
+
+		final StateColoring sc = new StateColoring(a);
+		for (final TIntHashSet set : Arrays.asList(sc.redStates, sc.blueStates)) {
+			final int size = in.readInt();
+			for (int i = 0; i < size; i++) {
+				final int idx = in.readInt();
+				if (a.getState(idx) == null) {
+					throw new IOException("The coloring contains the unknown state " + idx);
+				}
+				set.add(idx);
+			}
+		}
+		return sc;
+	}
+
 	public void setRed(PDRTAState s) {
 
 		assert (a == s.getPDRTA());
@@ -61,7 +100,29 @@ public class StateColoring implements Iterable<PDRTAState> {
 					}
 				}
 			}
+			touch(s);
+		}
+	}
+
+	/**
+	 * Reports that the intervals or targets of the given state were modified. Has to be called by all operations that modify red states.
+	 */
+	void touch(PDRTAState s) {
+
+		if (blueTransitions != null && redStates.contains(s.getIndex())) {
+			blueTransitions.touch(s);
+		}
+	}
+
+	/**
+	 * Returns the queue of blue transitions. It is created on the first call and maintained by all further changes reported to this coloring.
+	 */
+	BlueTransitionQueue getBlueTransitions() {
+
+		if (blueTransitions == null) {
+			blueTransitions = new BlueTransitionQueue(a, this);
 		}
+		return blueTransitions;
 	}
 
 	public void setBlue(PDRTAState s) {
@@ -28,6 +28,7 @@ import sadl.models.pdrta.PDRTAState;
 import sadl.models.pdrta.StateStatistic;
 import sadl.models.pdrta.StateStatistic.CalcRatio;
 import sadl.models.pdrta.TimedTail;
+import sadl.models.pdrta.UndoLog;
 
 /**
  * 
@@ -120,19 +121,14 @@ public class LikelihoodRatioTester implements OperationTester {
 		// return -1.0;
 		// }
 
-		final PDRTA cA = new PDRTA(a);
-		final PDRTAState cR = cA.getState(red.getIndex());
-		final PDRTAState cB = cA.getState(blue.getIndex());
-
-		final StateColoring cColoring = new StateColoring(stateColoring, cA);
-
-		final LikelihoodValue lv = OperationUtil.merge(cR, cB, cColoring, true, advancedPooling, cr);
-
-		// TODO delete. only for debug
-		// System.out.println("p=" + (-2.0 * lv.ratio) + " , df="
-		// + lv.additionalParam);
-
-		return lv;
+		// Apply the merge to the automaton itself and roll it back afterwards instead of merging a copy
+		final StateColoring cColoring = new StateColoring(stateColoring, a);
+		final UndoLog log = UndoLog.start();
+		try {
+			return OperationUtil.merge(red, blue, cColoring, true, advancedPooling, cr);
+		} finally {
+			log.close();
+		}
 	}
 
 	private LikelihoodValue recTestSplit(PDRTAState s, Multimap<Integer, TimedTail> mHist, Multimap<Integer, TimedTail> mSym, CalcRatio cr) {
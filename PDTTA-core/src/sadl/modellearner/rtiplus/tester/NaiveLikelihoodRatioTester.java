@@ -17,6 +17,7 @@ import sadl.modellearner.rtiplus.StateColoring;
 import sadl.models.pdrta.PDRTA;
 import sadl.models.pdrta.PDRTAState;
 import sadl.models.pdrta.StateStatistic;
+import sadl.models.pdrta.UndoLog;
 
 /**
  * 
@@ -40,14 +41,17 @@ public class NaiveLikelihoodRatioTester implements OperationTester {
 		}
 
 		final PDRTA a = red.getPDRTA();
-
-		final PDRTA cA = new PDRTA(a);
-		final PDRTAState cRed = cA.getState(red.getIndex());
-		final StateColoring cColoring = new StateColoring(stateColoring, cA);
-
-		OperationUtil.split(cRed, symAlphIdx, time, cColoring);
-
-		return makeTest(calcLikelihood(a), calcLikelihood(cA));
+		final LikelihoodValue lvGeneral = calcLikelihood(a);
+
+		// Apply the split to the automaton itself and roll it back afterwards instead of splitting a copy
+		final StateColoring cColoring = new StateColoring(stateColoring, a);
+		final UndoLog log = UndoLog.start();
+		try {
+			OperationUtil.split(red, symAlphIdx, time, cColoring);
+			return makeTest(lvGeneral, calcLikelihood(a));
+		} finally {
+			log.close();
+		}
 	}
 
 	@Override
@@ -62,14 +66,17 @@ public class NaiveLikelihoodRatioTester implements OperationTester {
 		final PDRTA a = red.getPDRTA();
 		assert (a == blue.getPDRTA());
 
-		final PDRTA cA = new PDRTA(a);
-		final PDRTAState cRed = cA.getState(red.getIndex());
-		final PDRTAState cBlue = cA.getState(blue.getIndex());
-		final StateColoring cColoring = new StateColoring(stateColoring, cA);
-
-		OperationUtil.merge(cRed, cBlue, cColoring, false, false, null);
+		final LikelihoodValue lvSpecific = calcLikelihood(a);
 
-		return makeTest(calcLikelihood(cA), calcLikelihood(a));
+		// Apply the merge to the automaton itself and roll it back afterwards instead of merging a copy
+		final StateColoring cColoring = new StateColoring(stateColoring, a);
+		final UndoLog log = UndoLog.start();
+		try {
+			OperationUtil.merge(red, blue, cColoring, false, false, null);
+			return makeTest(calcLikelihood(a), lvSpecific);
+		} finally {
+			log.close();
+		}
 	}
 
 	@Override
@@ -0,0 +1,411 @@
+/**
+ * This file is part of SADL, a library for learning all sorts of (timed) automata and performing sequence-based anomaly detection.
+ * Copyright (C) 2013-2015  the original author or authors.
+ *
+ * SADL is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * SADL is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with SADL.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package sadl.models;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import gnu.trove.list.TDoubleList;
+import gnu.trove.list.array.TDoubleArrayList;
+import gnu.trove.map.TIntIntMap;
+import gnu.trove.map.TObjectIntMap;
+import gnu.trove.map.hash.TIntIntHashMap;
+import gnu.trove.map.hash.TObjectIntHashMap;
+import gnu.trove.set.TIntSet;
+import gnu.trove.set.hash.TIntHashSet;
+import jsat.distributions.ContinuousDistribution;
+import sadl.detectors.IncrementalAggregator;
+import sadl.input.TimedWord;
+import sadl.interfaces.LikelihoodCursor;
+import sadl.interfaces.TauEstimator;
+import sadl.structure.Transition;
+
+/**
+ * Flat, read-only representation of an immutable {@link PDFA} or {@link PDTTA} that is used for scoring. The states are renumbered densely (in ascending
+ * order of their original ids), the outgoing transitions of every state are stored consecutively and sorted by symbol id, and every transition is identified
+ * by its index in the transition arrays.
+ * 
+ * @see PDFA#makeImmutable()
+ */
+public final class CompiledPDFA {
+	private static Logger logger = LoggerFactory.getLogger(CompiledPDFA.class);
+
+	public static final int NO_SYMBOL = -1;
+	public static final int STOP_SYMBOL = -2;
+	public static final int NO_TRANSITION = -1;
+
+	private static final int LINEAR_SEARCH_THRESHOLD = 8;
+
+	private final TObjectIntMap<String> symbolIds;
+	private final TIntIntMap stateIds;
+	private final int startState;
+	// outgoing transitions of state s are stored in the range [firstTransition[s], firstTransition[s + 1])
+	private final int[] firstTransition;
+	private final int[] symbols;
+	private final int[] next;
+	private final double[] prob;
+	private final double[] finalProb;
+	private final ContinuousDistribution[] distributions;
+	private final DoubleUnaryOperator[] taus;
+	private volatile SymbolMapping lastMapping;
+
+	/**
+	 * Compiles the given automaton.
+	 * 
+	 * @param pdfa
+	 *            the automaton to compile
+	 * @param distributionFunction
+	 *            the time distribution for every transition or {@code null} if the automaton has no time information
+	 * @param tauEstimator
+	 *            the (preprocessed) estimator that is bound to every time distribution; may be {@code null} if the automaton has no time information
+	 */
+	CompiledPDFA(PDFA pdfa, Function<Transition, ContinuousDistribution> distributionFunction, TauEstimator tauEstimator) {
+		final TIntSet stateSet = new TIntHashSet(pdfa.getStates());
+		stateSet.add(pdfa.getStartState());
+		final TIntSet symbolSet = new TIntHashSet();
+		final TObjectIntMap<String> tempSymbolIds = new TObjectIntHashMap<>();
+		for (final Transition t : pdfa.transitions) {
+			stateSet.add(t.getFromState());
+			stateSet.add(t.getToState());
+			tempSymbolIds.put(t.getSymbol(), 0);
+		}
+		final String[] sortedSymbols = tempSymbolIds.keys(new String[tempSymbolIds.size()]);
+		Arrays.sort(sortedSymbols);
+		symbolIds = new TObjectIntHashMap<>(sortedSymbols.length, 0.5f, NO_SYMBOL);
+		for (int i = 0; i < sortedSymbols.length; i++) {
+			symbolIds.put(sortedSymbols[i], i);
+			symbolSet.add(i);
+		}
+		final int[] originalStates = stateSet.toArray();
+		Arrays.sort(originalStates);
+		stateIds = new TIntIntHashMap(originalStates.length, 0.5f, -1, -1);
+		for (int i = 0; i < originalStates.length; i++) {
+			stateIds.put(originalStates[i], i);
+		}
+		startState = stateIds.get(pdfa.getStartState());
+
+		final int transitionCount = pdfa.getTransitionCount();
+		firstTransition = new int[originalStates.length + 1];
+		symbols = new int[transitionCount];
+		next = new int[transitionCount];
+		prob = new double[transitionCount];
+		finalProb = new double[originalStates.length];
+		distributions = distributionFunction == null ? null : new ContinuousDistribution[transitionCount];
+		taus = distributionFunction == null ? null : new DoubleUnaryOperator[transitionCount];
+		final Comparator<Transition> bySymbolId = (t1, t2) -> Integer.compare(symbolIds.get(t1.getSymbol()), symbolIds.get(t2.getSymbol()));
+		int transitionId = 0;
+		for (int state = 0; state < originalStates.length; state++) {
+			firstTransition[state] = transitionId;
+			finalProb[state] = pdfa.getFinalStateProbability(originalStates[state]);
+			final List<Transition> outgoing = pdfa.getTransitions(originalStates[state], false);
+			outgoing.sort(bySymbolId);
+			for (final Transition t : outgoing) {
+				symbols[transitionId] = symbolIds.get(t.getSymbol());
+				next[transitionId] = stateIds.get(t.getToState());
+				prob[transitionId] = t.getProbability();
+				if (distributions != null) {
+					final ContinuousDistribution d = distributionFunction.apply(t);
+					distributions[transitionId] = d;
+					taus[transitionId] = d == null ? null : tauEstimator.bind(d);
+				}
+				transitionId++;
+			}
+		}
+		firstTransition[originalStates.length] = transitionId;
+		if (transitionId != transitionCount) {
+			logger.warn("Compiled {} out of {} transitions. There are transitions that are not reachable with getTransition(int, String)", transitionId,
+					transitionCount);
+		}
+	}
+
+	/**
+	 * Returns the id of the given symbol.
+	 * 
+	 * @param symbol
+	 *            the symbol
+	 * @return the id of the symbol, {@link #STOP_SYMBOL} for {@link Transition#STOP_TRAVERSING_SYMBOL} or {@link #NO_SYMBOL} if no transition is labeled
+	 *         with the symbol
+	 */
+	public int getSymbolId(String symbol) {
+		final int result = symbolIds.get(symbol);
+		if (result == NO_SYMBOL && symbol.equals(Transition.STOP_TRAVERSING_SYMBOL)) {
+			return STOP_SYMBOL;
+		}
+		return result;
+	}
+
+	/**
+	 * Maps the symbol ids of an alphabet of {@link TimedWord}s to the symbol ids of the automaton. The mapping of the last alphabet is cached, so the
+	 * words of the same {@link sadl.input.TimedInput} are scored without looking up their symbols.
+	 * 
+	 * @param alphabet
+	 *            the alphabet as returned by {@link TimedWord#getAlphabet()}
+	 * @return the symbol ids of the automaton indexed by the symbol ids of the alphabet
+	 */
+	public int[] getSymbolIds(List<String> alphabet) {
+		SymbolMapping mapping = lastMapping;
+		if (mapping == null || mapping.alphabet != alphabet || mapping.symbolIds.length != alphabet.size()) {
+			final int[] ids = new int[alphabet.size()];
+			for (int i = 0; i < ids.length; i++) {
+				ids[i] = getSymbolId(alphabet.get(i));
+			}
+			mapping = new SymbolMapping(alphabet, ids);
+			lastMapping = mapping;
+		}
+		return mapping.symbolIds;
+	}
+
+	private static final class SymbolMapping {
+		final List<String> alphabet;
+		final int[] symbolIds;
+
+		SymbolMapping(List<String> alphabet, int[] symbolIds) {
+			this.alphabet = alphabet;
+			this.symbolIds = symbolIds;
+		}
+	}
+
+	/**
+	 * Returns the compiled id of a state of the original automaton.
+	 * 
+	 * @param originalState
+	 *            the state of the original automaton
+	 * @return the compiled id or {@code -1} if the state does not exist
+	 */
+	public int getStateId(int originalState) {
+		return stateIds.get(originalState);
+	}
+
+	public int getStartState() {
+		return startState;
+	}
+
+	public int getNumberOfStates() {
+		return finalProb.length;
+	}
+
+	public int getTransitionCount() {
+		return next.length;
+	}
+
+	/**
+	 * Returns the id of the transition leaving the given (compiled) state with the given symbol id.
+	 * 
+	 * @param state
+	 *            the compiled state
+	 * @param symbolId
+	 *            the symbol id
+	 * @return the transition id or {@link #NO_TRANSITION}
+	 */
+	public int getTransition(int state, int symbolId) {
+		if (symbolId < 0) {
+			return NO_TRANSITION;
+		}
+		final int from = firstTransition[state];
+		final int to = firstTransition[state + 1];
+		if (to - from <= LINEAR_SEARCH_THRESHOLD) {
+			for (int i = from; i < to; i++) {
+				if (symbols[i] == symbolId) {
+					return i;
+				}
+			}
+			return NO_TRANSITION;
+		}
+		final int result = Arrays.binarySearch(symbols, from, to, symbolId);
+		return result < 0 ? NO_TRANSITION : result;
+	}
+
+	public int getNextState(int transition) {
+		return next[transition];
+	}
+
+	public double getProbability(int transition) {
+		return prob[transition];
+	}
+
+	public double getFinalStateProbability(int state) {
+		return finalProb[state];
+	}
+
+	/**
+	 * Returns the time distribution bound to the given transition.
+	 * 
+	 * @param transition
+	 *            the transition id
+	 * @return the time distribution or {@code null} if there is none
+	 */
+	public ContinuousDistribution getDistribution(int transition) {
+		return distributions == null ? null : distributions[transition];
+	}
+
+	/**
+	 * Computes the tau value of the given time value with the estimator bound to the given transition.
+	 * 
+	 * @param transition
+	 *            the transition id
+	 * @param timeValue
+	 *            the time value
+	 * @return the tau value or {@code 0} if there is no time distribution for the transition
+	 */
+	public double getTau(int transition, double timeValue) {
+		final DoubleUnaryOperator tau = taus == null ? null : taus[transition];
+		if (tau == null) {
+			return 0;
+		}
+		return tau.applyAsDouble(timeValue);
+	}
+
+	/**
+	 * Computes the event likelihoods of the given word.
+	 * 
+	 * @return the same list as {@link PDFA#computeEventLikelihoods(TimedWord)} on the original automaton
+	 */
+	public TDoubleList computeEventLikelihoods(TimedWord s) {
+		final TDoubleList list = new TDoubleArrayList(s.length() + 1);
+		computeLikelihoods(s, list, null);
+		return list;
+	}
+
+	/**
+	 * Computes the event and the time likelihoods of the given word in a single traversal. The results are appended to the given lists.
+	 * 
+	 * @param s
+	 *            the word
+	 * @param eventLikelihoods
+	 *            receives the same values as {@link #computeEventLikelihoods(TimedWord)}, including the final state probability or the trailing {@code 0}
+	 *            for a missing transition
+	 * @param timeLikelihoods
+	 *            receives the same values as {@link #computeTimeLikelihoods(TimedWord)}; may be {@code null} if only the event likelihoods are needed
+	 * @return the number of events that were traversed
+	 */
+	public int computeLikelihoods(TimedWord s, TDoubleList eventLikelihoods, TDoubleList timeLikelihoods) {
+		final int[] wordSymbolIds = getSymbolIds(s.getAlphabet());
+		int state = startState;
+		for (int i = 0; i < s.length(); i++) {
+			final int symbolId = wordSymbolIds[s.getSymbolId(i)];
+			if (symbolId == STOP_SYMBOL) {
+				eventLikelihoods.add(finalProb[state]);
+				if (timeLikelihoods != null) {
+					logger.warn("Found no time distribution for the final transition of state {}", Integer.valueOf(state));
+					timeLikelihoods.add(0);
+				}
+				continue;
+			}
+			final int t = getTransition(state, symbolId);
+			if (t == NO_TRANSITION) {
+				eventLikelihoods.add(0);
+				return i;
+			}
+			eventLikelihoods.add(prob[t]);
+			if (timeLikelihoods != null) {
+				timeLikelihoods.add(tau(t, state, s.getTimeValue(i)));
+			}
+			state = next[t];
+		}
+		eventLikelihoods.add(finalProb[state]);
+		return s.length();
+	}
+
+	/**
+	 * Computes the time likelihoods of the given word.
+	 * 
+	 * @return the same list as {@link PDTTA#computeTimeLikelihoods(TimedWord)} on the original automaton
+	 */
+	public TDoubleList computeTimeLikelihoods(TimedWord s) {
+		final TDoubleList list = new TDoubleArrayList(s.length());
+		final int[] wordSymbolIds = getSymbolIds(s.getAlphabet());
+		int state = startState;
+		for (int i = 0; i < s.length(); i++) {
+			final int symbolId = wordSymbolIds[s.getSymbolId(i)];
+			if (symbolId == STOP_SYMBOL) {
+				logger.warn("Found no time distribution for the final transition of state {}", Integer.valueOf(state));
+				list.add(0);
+				continue;
+			}
+			final int t = getTransition(state, symbolId);
+			if (t == NO_TRANSITION) {
+				return list;
+			}
+			list.add(tau(t, state, s.getTimeValue(i)));
+			state = next[t];
+		}
+		return list;
+	}
+
+	/**
+	 * Opens a cursor that yields the same likelihoods as {@link #computeLikelihoods(TimedWord, TDoubleList, TDoubleList)} event by event.
+	 * 
+	 * @param withTime
+	 *            also compute the time likelihoods
+	 */
+	public LikelihoodCursor openCursor(boolean withTime) {
+		return new Cursor(withTime);
+	}
+
+	private class Cursor implements LikelihoodCursor {
+		private final boolean withTime;
+		private int state = startState;
+
+		Cursor(boolean withTime) {
+			this.withTime = withTime;
+		}
+
+		@Override
+		public boolean push(String symbol, int timeDelay, IncrementalAggregator eventLikelihoods, IncrementalAggregator timeLikelihoods) {
+			final int symbolId = getSymbolId(symbol);
+			if (symbolId == STOP_SYMBOL) {
+				eventLikelihoods.add(finalProb[state]);
+				if (withTime) {
+					logger.warn("Found no time distribution for the final transition of state {}", Integer.valueOf(state));
+					timeLikelihoods.add(0);
+				}
+				return true;
+			}
+			final int t = getTransition(state, symbolId);
+			if (t == NO_TRANSITION) {
+				eventLikelihoods.add(0);
+				return false;
+			}
+			eventLikelihoods.add(prob[t]);
+			if (withTime) {
+				timeLikelihoods.add(tau(t, state, timeDelay));
+			}
+			state = next[t];
+			return true;
+		}
+
+		@Override
+		public void finish(IncrementalAggregator eventLikelihoods) {
+			eventLikelihoods.add(finalProb[state]);
+		}
+
+		@Override
+		public boolean retainsPrefixLikelihoods() {
+			return true;
+		}
+	}
+
+	private double tau(int transition, int state, double timeValue) {
+		final DoubleUnaryOperator tau = taus == null ? null : taus[transition];
+		if (tau == null) {
+			logger.warn("Found no time distribution for transition {} of state {}", Integer.valueOf(transition), Integer.valueOf(state));
+			return 0;
+		}
+		return tau.applyAsDouble(timeValue);
+	}
+}
@@ -14,6 +14,7 @@ package sadl.models;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
@@ -36,7 +37,11 @@ import org.slf4j.LoggerFactory;
 import gnu.trove.list.TDoubleList;
 import gnu.trove.list.array.TDoubleArrayList;
 import gnu.trove.map.TIntDoubleMap;
+import gnu.trove.map.TIntObjectMap;
+import gnu.trove.map.TObjectIntMap;
 import gnu.trove.map.hash.TIntDoubleHashMap;
+import gnu.trove.map.hash.TIntObjectHashMap;
+import gnu.trove.map.hash.TObjectIntHashMap;
 import gnu.trove.set.TIntSet;
 import gnu.trove.set.hash.TIntHashSet;
 import sadl.constants.AnomalyInsertionType;
@@ -44,6 +49,7 @@ import sadl.constants.ClassLabel;
 import sadl.input.TimedInput;
 import sadl.input.TimedWord;
 import sadl.interfaces.AutomatonModel;
+import sadl.interfaces.LikelihoodCursor;
 import sadl.structure.AbnormalTransition;
 import sadl.structure.Transition;
 import sadl.structure.UntimedSequence;
@@ -62,7 +68,6 @@ public class PDFA implements AutomatonModel, Serializable {
 	public static final int START_STATE = 0;
 
 	transient private static Logger logger = LoggerFactory.getLogger(PDFA.class);
-	// TODO maybe change Set<Transition> transitions to Map<State,Set<Transition>>
 	protected Random r = MasterSeed.nextRandom();
 
 	public static final double NO_TRANSITION_PROBABILITY = 0;
@@ -72,14 +77,60 @@ public class PDFA implements AutomatonModel, Serializable {
 	protected TIntDoubleMap finalStateProbabilities = new TIntDoubleHashMap();
 	protected TIntSet abnormalFinalStates = new TIntHashSet();
 
+	protected static final int NO_SYMBOL_ID = -1;
+	/**
+	 * Outgoing transitions of every state, keyed by the id of their symbol (see {@link #symbolIds}). Always mirrors {@link #transitions} and is rebuilt after
+	 * deserialization.
+	 */
+	transient private TIntObjectMap<TIntObjectMap<Transition>> transitionIndex = new TIntObjectHashMap<>();
+	transient private TObjectIntMap<String> symbolIds = new TObjectIntHashMap<>(10, 0.5f, NO_SYMBOL_ID);
+
 	protected boolean immutable = false;
+	/**
+	 * Flat scoring form of this automaton; only available while it is immutable.
+	 */
+	transient private CompiledPDFA compiled;
 
 	protected void makeMutable() {
 		immutable = false;
+		compiled = null;
 	}
 
+	/**
+	 * Freezes this automaton and compiles it into a {@link CompiledPDFA} which is used for all subsequent likelihood computations.
+	 */
 	public void makeImmutable() {
 		immutable = true;
+		compiled = compile();
+	}
+
+	protected CompiledPDFA compile() {
+		return new CompiledPDFA(this, null, null);
+	}
+
+	/**
+	 * Discards the compiled form, e.g. because something it depends on has changed. It is rebuilt on next use.
+	 */
+	protected void invalidateCompiled() {
+		compiled = null;
+	}
+
+	/**
+	 * Returns the compiled form of this automaton.
+	 * 
+	 * @return the compiled form or {@code null} if the automaton is mutable
+	 */
+	protected CompiledPDFA getCompiled() {
+		if (!immutable) {
+			return null;
+		}
+		CompiledPDFA result = compiled;
+		if (result == null) {
+			// e.g. after deserialization
+			result = compile();
+			compiled = result;
+		}
+		return result;
 	}
 
 	public boolean isImmutable() {
@@ -196,6 +247,16 @@ public class PDFA implements AutomatonModel, Serializable {
 	protected PDFA() {
 	}
 
+	/**
+	 * Creates an empty {@link PDFA} whose transitions are labeled with symbols of the given {@link TimedInput}
+	 * 
+	 * @param alphabet
+	 *            The {@link TimedInput} containing the symbols
+	 */
+	public PDFA(TimedInput alphabet) {
+		this.alphabet = alphabet;
+	}
+
 	public PDFA(Path trebaPath, TimedInput trainingSequences) throws IOException {
 		try (BufferedReader inputReader = Files.newBufferedReader(trebaPath, StandardCharsets.UTF_8)) {
 			this.alphabet = trainingSequences;
@@ -231,9 +292,68 @@ public class PDFA implements AutomatonModel, Serializable {
 
 	protected PDFA(PDFA pdfa) {
 		this.alphabet = pdfa.alphabet;
-		this.transitions = pdfa.transitions;
+		// copy the transitions s.t. changing this automaton does not invalidate the transition index of the given one
+		this.transitions = new HashSet<>(pdfa.transitions);
 		this.finalStateProbabilities = pdfa.finalStateProbabilities;
 		this.abnormalFinalStates = pdfa.abnormalFinalStates;
+		rebuildTransitionIndex();
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		rebuildTransitionIndex();
+	}
+
+	/**
+	 * Recomputes the transition index from {@link #transitions}. Must be called after {@link #transitions} was changed without using
+	 * {@link #putTransition(Transition)} or {@link #removeTransition(Transition)}.
+	 */
+	protected void rebuildTransitionIndex() {
+		transitionIndex = new TIntObjectHashMap<>();
+		symbolIds = new TObjectIntHashMap<>(10, 0.5f, NO_SYMBOL_ID);
+		for (final Transition t : transitions) {
+			indexTransition(t);
+		}
+	}
+
+	private void indexTransition(Transition t) {
+		int symbolId = symbolIds.get(t.getSymbol());
+		if (symbolId == NO_SYMBOL_ID) {
+			symbolId = symbolIds.size();
+			symbolIds.put(t.getSymbol(), symbolId);
+		}
+		TIntObjectMap<Transition> stateTransitions = transitionIndex.get(t.getFromState());
+		if (stateTransitions == null) {
+			stateTransitions = new TIntObjectHashMap<>(4);
+			transitionIndex.put(t.getFromState(), stateTransitions);
+		}
+		stateTransitions.put(symbolId, t);
+	}
+
+	private void unindexTransition(Transition t) {
+		final TIntObjectMap<Transition> stateTransitions = transitionIndex.get(t.getFromState());
+		if (stateTransitions != null) {
+			final int symbolId = symbolIds.get(t.getSymbol());
+			// the index may already point to a transition that replaced t (e.g. when changing its anomaly type)
+			if (t.equals(stateTransitions.get(symbolId))) {
+				stateTransitions.remove(symbolId);
+				if (stateTransitions.isEmpty()) {
+					transitionIndex.remove(t.getFromState());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Adds the given transition to the automaton and to the transition index.
+	 * 
+	 * @param t
+	 *            the transition to add
+	 */
+	protected void putTransition(Transition t) {
+		checkImmutable();
+		transitions.add(t);
+		indexTransition(t);
 	}
 
 	public int getTransitionCount() {
@@ -245,7 +365,7 @@ public class PDFA implements AutomatonModel, Serializable {
 		addState(fromState);
 		addState(toState);
 		final Transition t = new Transition(fromState, toState, symbol, probability);
-		transitions.add(t);
+		putTransition(t);
 		return t;
 	}
 
@@ -254,7 +374,7 @@ public class PDFA implements AutomatonModel, Serializable {
 		addState(fromState);
 		addState(toState);
 		final Transition t = new AbnormalTransition(fromState, toState, symbol, probability, anomalyType);
-		transitions.add(t);
+		putTransition(t);
 		return t;
 	}
 
@@ -365,10 +485,9 @@ public class PDFA implements AutomatonModel, Serializable {
 	}
 
 	public double getTransitionProbability(int fromState, int toState, String symbol) {
-		for (final Transition t : transitions) {
-			if (t.getFromState() == fromState && t.getToState() == toState && t.getSymbol().equals(symbol)) {
-				return t.getProbability();
-			}
+		final Transition t = getTransition(fromState, symbol);
+		if (t != null && t.getToState() == toState) {
+			return t.getProbability();
 		}
 		return NO_TRANSITION_PROBABILITY;
 	}
@@ -378,12 +497,11 @@ public class PDFA implements AutomatonModel, Serializable {
 		if (event.equals(Transition.STOP_TRAVERSING_SYMBOL)) {
 			result = getFinalTransition(currentState);
 		} else {
-			for (final Transition t : transitions) {
-				if (t.getFromState() == currentState && t.getSymbol().equals(event)) {
-					if (result != null) {
-						logger.error("Found more than one transition for state " + currentState + " and event " + event);
-					}
-					result = t;
+			final TIntObjectMap<Transition> stateTransitions = transitionIndex.get(currentState);
+			if (stateTransitions != null) {
+				final int symbolId = symbolIds.get(event);
+				if (symbolId != NO_SYMBOL_ID) {
+					result = stateTransitions.get(symbolId);
 				}
 			}
 		}
@@ -395,6 +513,8 @@ public class PDFA implements AutomatonModel, Serializable {
 		final boolean wasRemoved = transitions.remove(t);
 		if (!wasRemoved) {
 			logger.warn("Tried to remove a non existing transition={}", t);
+		} else {
+			unindexTransition(t);
 		}
 		return wasRemoved;
 	}
@@ -446,18 +566,16 @@ public class PDFA implements AutomatonModel, Serializable {
 	 * @return the outgoing transitions
 	 */
 	public List<Transition> getTransitions(int currentState, boolean includeStoppingTransition) {
-		final List<Transition> result = new ArrayList<>();
-		for (final Transition t : transitions) {
-			if (t.getFromState() == currentState) {
-				result.add(t);
-			}
+		final TIntObjectMap<Transition> stateTransitions = transitionIndex.get(currentState);
+		final List<Transition> result;
+		if (stateTransitions == null) {
+			result = new ArrayList<>(1);
+		} else {
+			result = new ArrayList<>(stateTransitions.size() + 1);
+			result.addAll(stateTransitions.valueCollection());
 		}
-		if (includeStoppingTransition) {
-			for (final int state : finalStateProbabilities.keys()) {
-				if (state == currentState) {
-					result.add(getFinalTransition(state));
-				}
-			}
+		if (includeStoppingTransition && finalStateProbabilities.containsKey(currentState)) {
+			result.add(getFinalTransition(currentState));
 		}
 		return result;
 	}
@@ -620,7 +738,10 @@ public class PDFA implements AutomatonModel, Serializable {
 	 * @return the list up to the last probability that exists. list may be shorter than the events list, iff there is an event which has no transition
 	 */
 	protected TDoubleList computeEventLikelihoods(TimedWord s) {
-
+		final CompiledPDFA c = getCompiled();
+		if (c != null) {
+			return c.computeEventLikelihoods(s);
+		}
 		final TDoubleList list = new TDoubleArrayList();
 		int currentState = 0;
 		for (int i = 0; i < s.length(); i++) {
@@ -643,5 +764,32 @@ public class PDFA implements AutomatonModel, Serializable {
 		return Pair.create(computeEventLikelihoods(s), null);
 	}
 
+	@Override
+	public void calculateProbabilities(TimedWord s, TDoubleList eventLikelihoods, TDoubleList timeLikelihoods) {
+		final CompiledPDFA c = getCompiled();
+		if (c != null) {
+			c.computeLikelihoods(s, eventLikelihoods, null);
+		} else {
+			eventLikelihoods.addAll(computeEventLikelihoods(s));
+		}
+	}
+
+	/**
+	 * @throws IllegalStateException
+	 *             if the automaton is not immutable
+	 */
+	@Override
+	public LikelihoodCursor openCursor() {
+		return getCompiledOrFail().openCursor(false);
+	}
+
+	protected CompiledPDFA getCompiledOrFail() {
+		final CompiledPDFA c = getCompiled();
+		if (c == null) {
+			throw new IllegalStateException("Only immutable automata can be scored online");
+		}
+		return c;
+	}
+
 
 }
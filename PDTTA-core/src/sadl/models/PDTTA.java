@@ -17,6 +17,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ForkJoinTask;
 import java.util.function.IntConsumer;
 import java.util.stream.IntStream;
 
@@ -32,6 +33,7 @@ import jsat.distributions.ContinuousDistribution;
 import jsat.distributions.Distribution;
 import sadl.constants.ClassLabel;
 import sadl.input.TimedWord;
+import sadl.interfaces.LikelihoodCursor;
 import sadl.interfaces.TauEstimator;
 import sadl.structure.Transition;
 import sadl.structure.ZeroProbTransition;
@@ -79,7 +81,26 @@ public class PDTTA extends PDFA {
 
 	@Override
 	public Pair<TDoubleList, TDoubleList> calculateProbabilities(TimedWord s) {
-		return Pair.create(computeEventLikelihoods(s), computeTimeLikelihoods(s));
+		final TDoubleList eventLikelihoods = new TDoubleArrayList(s.length() + 1);
+		final TDoubleList timeLikelihoods = new TDoubleArrayList(s.length());
+		calculateProbabilities(s, eventLikelihoods, timeLikelihoods);
+		return Pair.create(eventLikelihoods, timeLikelihoods);
+	}
+
+	@Override
+	public LikelihoodCursor openCursor() {
+		return getCompiledOrFail().openCursor(true);
+	}
+
+	@Override
+	public void calculateProbabilities(TimedWord s, TDoubleList eventLikelihoods, TDoubleList timeLikelihoods) {
+		final CompiledPDFA c = getCompiled();
+		if (c != null) {
+			c.computeLikelihoods(s, eventLikelihoods, timeLikelihoods);
+		} else {
+			eventLikelihoods.addAll(computeEventLikelihoods(s));
+			timeLikelihoods.addAll(computeTimeLikelihoods(s));
+		}
 	}
 
 	@Override
@@ -103,7 +124,7 @@ public class PDTTA extends PDFA {
 			ContinuousDistribution d = null;
 			d = removeTimedTransition(transition, bindTimeInformation);
 			final Transition t = new Transition(transition.getFromState(), transition.getToState(), transition.getSymbol(), newProbability);
-			transitions.add(t);
+			putTransition(t);
 			if (bindTimeInformation) {
 				bindTransitionDistribution(t, d);
 			}
@@ -113,7 +134,19 @@ public class PDTTA extends PDFA {
 		}
 	}
 
+	@Override
+	protected CompiledPDFA compile() {
+		if (transitionDistributions == null) {
+			return super.compile();
+		}
+		return new CompiledPDFA(this, t -> transitionDistributions.get(t.toZeroProbTransition()), tauEstimator == null ? new IdentityEstimator() : tauEstimator);
+	}
+
 	protected TDoubleList computeTimeLikelihoods(TimedWord ts) {
+		final CompiledPDFA c = getCompiled();
+		if (c != null) {
+			return c.computeTimeLikelihoods(ts);
+		}
 		final TDoubleList list = new TDoubleArrayList(ts.length());
 		int currentState = 0;
 		//sequential
@@ -159,7 +192,8 @@ public class PDTTA extends PDFA {
 				list.set(i, tauEstimator.estimateTau(d, ts.getTimeValue(i)));
 			}
 		};
-		if (Settings.isParallel()) {
+		// do not nest parallelism if the caller already scores several words in parallel
+		if (Settings.isParallel() && !ForkJoinTask.inForkJoinPool()) {
 			IntStream.range(0, traversedTransitions.size()).parallel().forEach(f);
 		} else {
 			IntStream.range(0, traversedTransitions.size()).forEach(f);
@@ -176,6 +210,7 @@ public class PDTTA extends PDFA {
 		// there may be more transitions than transitionDistributions
 		final boolean removedTransitions = transitions.removeIf(t -> !transitionDistributions.containsKey(t.toZeroProbTransition()));
 		if (removedTransitions) {
+			rebuildTransitionIndex();
 			logger.info("Removed some unnecessary transitions");
 		}
 		if (getTransitionCount() != transitionDistributions.size()) {
@@ -338,6 +373,8 @@ public class PDTTA extends PDFA {
 
 	public void preprocess() {
 		tauEstimator.preprocess(transitionDistributions.values());
+		// the compiled form binds the estimator to the distributions
+		invalidateCompiled();
 
 	}
 }
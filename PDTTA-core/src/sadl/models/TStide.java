@@ -11,11 +11,227 @@
 
 package sadl.models;
 
+import java.io.Serializable;
+import java.util.List;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+
+import org.apache.commons.math3.util.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import gnu.trove.list.TDoubleList;
+import gnu.trove.list.array.TDoubleArrayList;
+import gnu.trove.map.hash.TLongIntHashMap;
+import gnu.trove.map.hash.TObjectIntHashMap;
+import sadl.input.TimedInput;
+import sadl.input.TimedWord;
+import sadl.interfaces.ProbabilisticModel;
+import sadl.utils.Settings;
+
 /**
+ * The model of t-STIDE (threshold based sequence time-delay embedding). It counts how often every window of {@link #getWindowSize()} consecutive events
+ * occurs in the training sequences. The event likelihoods of a word are the relative frequencies of its windows, so there is one likelihood per window and
+ * none for the time values. Words that are shorter than the window are padded at the beginning.
+ * 
+ * The windows are encoded as long keys over the symbol ids. If all symbol ids of a window fit into 64 bits, the key is the exact concatenation of the ids,
+ * otherwise it is a 64 bit polynomial hash. In both cases the key of the next window is computed from the previous one in constant time.
  * 
  * @author Timo Klerx
  *
  */
-public class TStide {
+public class TStide implements ProbabilisticModel, Serializable {
+	private static final long serialVersionUID = -4683437829211035725L;
+	private static Logger logger = LoggerFactory.getLogger(TStide.class);
+
+	/**
+	 * The symbol id of the padding of words that are shorter than the window
+	 */
+	private static final int PADDING = 0;
+	/**
+	 * Base of the polynomial hash if the ids of a window do not fit into a long
+	 */
+	private static final long HASH_BASE = 0x9E3779B97F4A7C15L;
+
+	private final int windowSize;
+	/**
+	 * The ids of the training symbols start at 1. Symbols that did not occur in the training sequences get the id {@link #unknownSymbol}.
+	 */
+	private final TObjectIntHashMap<String> symbolIds;
+	private final int unknownSymbol;
+	private final long base;
+	private final long basePower;
+	private final TLongIntHashMap windowCounts;
+	private final long numberOfWindows;
+
+	private transient volatile SymbolTranslation translation;
+
+	/**
+	 * Maps the symbol ids of the words of one {@link TimedInput} to the ids of the model
+	 */
+	private static class SymbolTranslation {
+		final List<String> alphabet;
+		final int[] ids;
+
+		SymbolTranslation(List<String> alphabet, int[] ids) {
+			this.alphabet = alphabet;
+			this.ids = ids;
+		}
+	}
+
+	/**
+	 * Counts the windows of the given sequences (in parallel if {@link Settings#isParallel()}).
+	 * 
+	 * @param trainingSequences
+	 *            the sequences to learn from
+	 * @param windowSize
+	 *            the number of consecutive events in a window
+	 */
+	public TStide(TimedInput trainingSequences, int windowSize) {
+		if (windowSize < 1) {
+			throw new IllegalArgumentException("The window size must be positive, but was " + windowSize);
+		}
+		this.windowSize = windowSize;
+		symbolIds = new TObjectIntHashMap<>(trainingSequences.getAlphSize());
+		for (int i = 0; i < trainingSequences.getAlphSize(); i++) {
+			symbolIds.put(trainingSequences.getSymbol(i), i + 1);
+		}
+		unknownSymbol = symbolIds.size() + 1;
+		final int bitsPerSymbol = 32 - Integer.numberOfLeadingZeros(unknownSymbol);
+		if ((long) bitsPerSymbol * windowSize <= Long.SIZE) {
+			base = 1L << bitsPerSymbol;
+		} else {
+			base = HASH_BASE;
+		}
+		long power = 1;
+		for (int i = 0; i < windowSize; i++) {
+			power *= base;
+		}
+		basePower = power;
+
+		Stream<TimedWord> words = trainingSequences.getWords().stream();
+		if (Settings.isParallel()) {
+			words = words.parallel();
+		}
+		// every thread counts into its own map and the maps are merged at the end
+		windowCounts = words.collect(TLongIntHashMap::new, (counts, word) -> forEachWindow(word, key -> counts.adjustOrPutValue(key, 1, 1)),
+				(counts, other) -> other.forEachEntry((key, count) -> {
+					counts.adjustOrPutValue(key, count, count);
+					return true;
+				}));
+		long sum = 0;
+		for (final int count : windowCounts.values()) {
+			sum += count;
+		}
+		numberOfWindows = sum;
+		logger.info("Learned t-STIDE with {} distinct windows out of {} windows of size {}.", windowCounts.size(), numberOfWindows, windowSize);
+	}
+
+	/**
+	 * Calls the action with the key of every window of the word in O(length) time.
+	 */
+	private void forEachWindow(TimedWord word, LongConsumer action) {
+		final int length = word.length();
+		if (length == 0) {
+			return;
+		}
+		final int[] ids = translate(word);
+		final int padding = Math.max(0, windowSize - length);
+		long key = 0;
+		for (int i = 0; i < padding + length; i++) {
+			final int in = i < padding ? PADDING : ids[i - padding];
+			final int out;
+			if (i < windowSize) {
+				out = 0;
+			} else {
+				out = i - windowSize < padding ? PADDING : ids[i - windowSize - padding];
+			}
+			key = key * base + in - out * basePower;
+			if (i >= windowSize - 1) {
+				action.accept(key);
+			}
+		}
+	}
+
+	private int[] translate(TimedWord word) {
+		final List<String> alphabet = word.getAlphabet();
+		SymbolTranslation t = translation;
+		if (t == null || t.alphabet != alphabet || t.ids.length != alphabet.size()) {
+			final int[] ids = new int[alphabet.size()];
+			for (int i = 0; i < ids.length; i++) {
+				ids[i] = symbolIds.containsKey(alphabet.get(i)) ? symbolIds.get(alphabet.get(i)) : unknownSymbol;
+			}
+			t = new SymbolTranslation(alphabet, ids);
+			translation = t;
+		}
+		final int[] result = new int[word.length()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = t.ids[word.getSymbolId(i)];
+		}
+		return result;
+	}
+
+	@Override
+	public Pair<TDoubleList, TDoubleList> calculateProbabilities(TimedWord s) {
+		final TDoubleList eventLikelihoods = new TDoubleArrayList(Math.max(1, s.length() - windowSize + 1));
+		final TDoubleList timeLikelihoods = new TDoubleArrayList(0);
+		calculateProbabilities(s, eventLikelihoods, timeLikelihoods);
+		return Pair.create(eventLikelihoods, timeLikelihoods);
+	}
+
+	@Override
+	public void calculateProbabilities(TimedWord s, TDoubleList eventLikelihoods, TDoubleList timeLikelihoods) {
+		final double total = numberOfWindows;
+		forEachWindow(s, key -> eventLikelihoods.add(windowCounts.get(key) / total));
+	}
+
+	/**
+	 * 
+	 * @return the number of consecutive events in a window
+	 */
+	public int getWindowSize() {
+		return windowSize;
+	}
+
+	/**
+	 * 
+	 * @return the number of distinct windows in the training sequences
+	 */
+	public int getNumberOfDistinctWindows() {
+		return windowCounts.size();
+	}
+
+	/**
+	 * 
+	 * @return the number of windows in the training sequences
+	 */
+	public long getNumberOfWindows() {
+		return numberOfWindows;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + windowSize;
+		result = prime * result + symbolIds.hashCode();
+		result = prime * result + windowCounts.hashCode();
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null) {
+			return false;
+		}
+		if (getClass() != obj.getClass()) {
+			return false;
+		}
+		final TStide other = (TStide) obj;
+		return windowSize == other.windowSize && symbolIds.equals(other.symbolIds) && windowCounts.equals(other.windowCounts);
+	}
 
 }
@@ -338,7 +338,7 @@ public class TauPTA extends PDTTA {
 					this.anomalyType, anomalyType);
 			return;
 		}
-		immutable = false;
+		makeMutable();
 		setAnomalyType(newAnomalyType);
 		if (anomalyType == AnomalyInsertionType.TYPE_ONE) {
 			logger.debug("TransitionCount before inserting {} anomalies={}", anomalyType, getTransitionCount());
@@ -363,7 +363,7 @@ public class TauPTA extends PDTTA {
 		}
 		checkForAbnormalTransitions();
 		this.checkAndRestoreConsistency();
-		immutable = true;
+		makeImmutable();
 	}
 
 	private void checkForAbnormalTransitions() {
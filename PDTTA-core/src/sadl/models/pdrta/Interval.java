@@ -12,8 +12,10 @@
 package sadl.models.pdrta;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map.Entry;
 import java.util.NavigableMap;
 import java.util.Set;
@@ -56,6 +58,11 @@ public class Interval implements Serializable {
 	 */
 	private PDRTAState target;
 
+	/**
+	 * The {@link PDRTAState} containing this transition while training. Restored by {@link PDRTA} after deserialization.
+	 */
+	private transient PDRTAState source;
+
 	/**
 	 * Returns the inclusive begin of the interval
 	 * 
@@ -102,6 +109,23 @@ public class Interval implements Serializable {
 		return target;
 	}
 
+	/**
+	 * Returns the {@link PDRTAState} containing this transition while training
+	 * 
+	 * @return The source {@link PDRTAState} of this transition
+	 */
+	public PDRTAState getSource() {
+		return source;
+	}
+
+	void setSource(PDRTAState state) {
+		if (UndoLog.isRecording()) {
+			final PDRTAState oldSource = source;
+			UndoLog.record(() -> source = oldSource);
+		}
+		source = state;
+	}
+
 	/**
 	 * Returns a visual representation of this interval with the slots occupied by {@link TimedTail}s marked. If the interval range is large it will be scaled
 	 * down.
@@ -166,28 +190,35 @@ public class Interval implements Serializable {
 	 *            The inclusive begin of the interval
 	 * @param maxTimeDelay
 	 *            The inclusive end of the interval
+	 * @param source
+	 *            The {@link PDRTAState} containing the interval
 	 * @return Map containing only one {@link Interval}
 	 */
-	protected static NavigableMap<Integer, Interval> createInitialIntervalMap(int minTimeDelay, int maxTimeDelay) {
+	protected static NavigableMap<Integer, Interval> createInitialIntervalMap(int minTimeDelay, int maxTimeDelay, PDRTAState source) {
 
 		final NavigableMap<Integer, Interval> map = new TreeMap<>();
 		final Interval in = new Interval(minTimeDelay, maxTimeDelay);
+		in.source = source;
 		map.put(in.getEnd(), in);
 		return map;
 	}
 
 	/**
-	 * Creates a deep copy of the given interval. It does not copy the {@link TimedTail}s from the {@link PDRTAInput}.
+	 * Creates a deep copy of the given interval. It does not copy the {@link TimedTail}s from the {@link PDRTAInput} and the target {@link PDRTAState}, which
+	 * has to be set to the copy of the target.
 	 * 
 	 * @param in
 	 *            Interval to be copied
+	 * @param source
+	 *            The {@link PDRTAState} containing the copy
 	 */
-	protected Interval(Interval in) {
+	protected Interval(Interval in, PDRTAState source) {
 
 		begin = in.begin;
 		end = in.end;
 		tails = TreeMultimap.create(in.tails);
-		target = in.target;
+		target = null;
+		this.source = source;
 	}
 
 	/**
@@ -205,6 +236,7 @@ public class Interval implements Serializable {
 			throw new IllegalArgumentException("Time value not suitable -> split [" + begin + "," + end + "] @ " + time);
 		}
 		final Interval newIn = new Interval(begin, time);
+		newIn.source = source;
 		// TODO Check whether a TreeMultiMap for tails is necessary
 		final Iterator<Entry<Integer, TimedTail>> itTails = tails.entries().iterator();
 		while (itTails.hasNext()) {
@@ -215,6 +247,13 @@ public class Interval implements Serializable {
 				assert (!tails.containsEntry(eT.getKey(), eT.getValue()));
 			}
 		}
+		if (UndoLog.isRecording()) {
+			final int oldBegin = begin;
+			UndoLog.record(() -> {
+				begin = oldBegin;
+				tails.putAll(newIn.tails);
+			});
+		}
 		begin = time + 1;
 		return newIn;
 	}
@@ -231,12 +270,20 @@ public class Interval implements Serializable {
 	public void merge(Interval in) {
 
 		if ((begin - 1 == in.end || end + 1 == in.begin) && target == in.target) {
+			if (UndoLog.isRecording()) {
+				final int oldBegin = begin;
+				final int oldEnd = end;
+				UndoLog.record(() -> {
+					begin = oldBegin;
+					end = oldEnd;
+				});
+			}
 			if (begin - 1 == in.end) {
 				begin = in.begin;
 			} else {
 				end = in.end;
 			}
-			tails.putAll(in.tails);
+			addAllTails(in);
 		} else {
 			throw new IllegalArgumentException("Intervals not neighbored -> merge [" + begin + "," + end + "] >-< [" + in.begin + "," + in.end + "]");
 		}
@@ -249,7 +296,33 @@ public class Interval implements Serializable {
 	 *            The {@link TimedTail} using this transition while training a {@link PDRTA}
 	 */
 	protected void addTail(TimedTail tail) {
-		tails.put(tail.getTimeDelay(), tail);
+		if (tails.put(tail.getTimeDelay(), tail)) {
+			UndoLog.record(() -> tails.remove(tail.getTimeDelay(), tail));
+		}
+	}
+
+	/**
+	 * Adds all {@link TimedTail}s of the given transition to this transition
+	 * 
+	 * @param in
+	 *            The transition containing the {@link TimedTail}s to be added. The given object will not be changed.
+	 */
+	public void addAllTails(Interval in) {
+		if (UndoLog.isRecording()) {
+			final List<Entry<Integer, TimedTail>> added = new ArrayList<>();
+			for (final Entry<Integer, TimedTail> eT : in.tails.entries()) {
+				if (tails.put(eT.getKey(), eT.getValue())) {
+					added.add(eT);
+				}
+			}
+			UndoLog.record(() -> {
+				for (final Entry<Integer, TimedTail> eT : added) {
+					tails.remove(eT.getKey(), eT.getValue());
+				}
+			});
+		} else {
+			tails.putAll(in.tails);
+		}
 	}
 
 	/**
@@ -259,7 +332,29 @@ public class Interval implements Serializable {
 	 *            The target to be set
 	 */
 	public void setTarget(PDRTAState state) {
+		if (UndoLog.isRecording()) {
+			final PDRTAState oldTarget = target;
+			UndoLog.record(() -> changeTarget(oldTarget));
+		}
+		changeTarget(state);
+	}
+
+	void restoreEdge(PDRTAState state) {
+
+		source = state;
+		if (target != null) {
+			target.addIncoming(this);
+		}
+	}
+
+	private void changeTarget(PDRTAState state) {
+		if (target != null) {
+			target.removeIncoming(this);
+		}
 		target = state;
+		if (target != null) {
+			target.addIncoming(this);
+		}
 	}
 
 	/**
@@ -301,7 +396,7 @@ public class Interval implements Serializable {
 	 * @param e
 	 *            The inclusive end of the interval
 	 */
-	private Interval(int b, int e) {
+	Interval(int b, int e) {
 
 		if (b <= e) {
 			begin = b;
@@ -12,9 +12,12 @@
 package sadl.models.pdrta;
 
 import java.io.BufferedReader;
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
@@ -34,9 +37,13 @@ import org.apache.commons.math3.util.Pair;
 import com.google.common.collect.TreeMultimap;
 
 import gnu.trove.list.TDoubleList;
+import gnu.trove.list.TIntList;
 import gnu.trove.list.array.TDoubleArrayList;
+import gnu.trove.list.array.TIntArrayList;
+import sadl.detectors.IncrementalAggregator;
 import sadl.input.TimedWord;
 import sadl.interfaces.AutomatonModel;
+import sadl.interfaces.LikelihoodCursor;
 import sadl.modellearner.rtiplus.StateColoring;
 
 /**
@@ -109,7 +116,7 @@ public class PDRTA implements AutomatonModel, Serializable {
 					assert(cIn.getEnd() == eIn.getValue().getEnd());
 					assert(cIn.getTails().size() == eIn.getValue().getTails().size());
 					if (eIn.getValue().getTarget() != null) {
-						assert(cIn.getTarget() == eIn.getValue().getTarget());
+						assert(cIn.getTarget() == null);
 						cIn.setTarget(getState(eIn.getValue().getTarget().getIndex()));
 						assert(cIn.getTarget() != eIn.getValue().getTarget());
 					} else {
@@ -241,6 +248,13 @@ public class PDRTA implements AutomatonModel, Serializable {
 				final Set<Entry<Integer, Interval>> ins = s.getIntervals(i).entrySet();
 				for (final Entry<Integer, Interval> eIn : ins) {
 					s2 = eIn.getValue().getTarget();
+					if (eIn.getValue().getSource() != s) {
+						throw new IllegalStateException("Interval [" + eIn.getValue().getBegin() + "," + eIn.getValue().getEnd() + "] of state (" + s.getIndex() + ") has a wrong source!");
+					}
+					if (s2 != null && !s2.getIncoming().contains(eIn.getValue())) {
+						throw new IllegalStateException("Interval [" + eIn.getValue().getBegin() + "," + eIn.getValue().getEnd() + "] of state (" + s.getIndex() + ") is not incoming to state (" + s2.getIndex()
+						+ ")!");
+					}
 					if (s2 != null && !seen.contains(s2)) {
 						seen.add(s2);
 						q.add(s2);
@@ -418,6 +432,8 @@ public class PDRTA implements AutomatonModel, Serializable {
 		}
 		final PDRTAState x1 = states.put(idx, s);
 		assert(x1 == null);
+		final int added = idx;
+		UndoLog.record(() -> states.remove(added));
 		return idx;
 	}
 
@@ -453,6 +469,115 @@ public class PDRTA implements AutomatonModel, Serializable {
 		createTAPTA();
 	}
 
+	/**
+	 * Writes the training state of this {@link PDRTA} in a compact binary format. The {@link TimedTail}s are only referenced by their position in the
+	 * {@link PDRTAInput}, so the same input is needed for reading it with {@link #readTrainingState(DataInput, PDRTAInput)}.
+	 * 
+	 * @param out
+	 *            The output to write to
+	 * @throws IOException
+	 */
+	public void writeTrainingState(DataOutput out) throws IOException {
+
+		out.writeInt(input.size());
+		out.writeInt(input.getAlphSize());
+		out.writeInt(states.size());
+		out.writeInt(root.getIndex());
+		for (final PDRTAState s : states.values()) {
+			out.writeInt(s.getIndex());
+			s.getStat().write(out);
+			for (int i = 0; i < input.getAlphSize(); i++) {
+				final Collection<Interval> ins = s.getIntervals(i).values();
+				out.writeInt(ins.size());
+				for (final Interval in : ins) {
+					out.writeInt(in.getBegin());
+					out.writeInt(in.getEnd());
+					out.writeInt(in.getTarget() == null ? -1 : in.getTarget().getIndex());
+					out.writeInt(in.getTails().size());
+					for (final TimedTail t : in.getTails().values()) {
+						out.writeInt(t.getWordIdx());
+						out.writeInt(t.getTailIdx());
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Reads a {@link PDRTA} in training that was written by {@link #writeTrainingState(DataOutput)}
+	 * 
+	 * @param in
+	 *            The input to read from
+	 * @param input
+	 *            The {@link PDRTAInput} the {@link PDRTA} was trained with
+	 * @return The {@link PDRTA} in training
+	 * @throws IOException
+	 *             If reading fails or the data does not match the {@link PDRTAInput}
+	 */
+	public static PDRTA readTrainingState(DataInput in, PDRTAInput input) throws IOException {
+		return new PDRTA(in, input);
+	}
+
+	private PDRTA(DataInput data, PDRTAInput inp) throws IOException {
+
+		input = inp;
+		states = new TreeMap<>();
+
+		if (data.readInt() != input.size() || data.readInt() != input.getAlphSize()) {
+			throw new IOException("The training state does not match the input");
+		}
+		final TimedTail[][] tails = new TimedTail[input.size()][];
+		for (int i = 0; i < tails.length; i++) {
+			final List<TimedTail> chain = new ArrayList<>();
+			for (TimedTail t = input.getTailChain(i).getNextTail(); t != null; t = t.getNextTail()) {
+				chain.add(t);
+			}
+			tails[i] = chain.toArray(new TimedTail[chain.size()]);
+		}
+
+		final int numStates = data.readInt();
+		final int rootIdx = data.readInt();
+		final List<Interval> targetIns = new ArrayList<>();
+		final TIntList targets = new TIntArrayList();
+		for (int j = 0; j < numStates; j++) {
+			final int idx = data.readInt();
+			final PDRTAState s = new PDRTAState(this, idx, StateStatistic.read(data, input.getAlphSize(), getHistSizes()));
+			for (int i = 0; i < input.getAlphSize(); i++) {
+				s.getIntervals(i).clear();
+				final int numIns = data.readInt();
+				for (int k = 0; k < numIns; k++) {
+					final Interval in = new Interval(data.readInt(), data.readInt());
+					final int target = data.readInt();
+					final int numTails = data.readInt();
+					for (int l = 0; l < numTails; l++) {
+						final int wordIdx = data.readInt();
+						final int tailIdx = data.readInt();
+						if (wordIdx < 0 || wordIdx >= tails.length || tailIdx < 0 || tailIdx >= tails[wordIdx].length) {
+							throw new IOException("The training state does not match the input");
+						}
+						in.addTail(tails[wordIdx][tailIdx]);
+					}
+					s.putInterval(i, in);
+					if (target >= 0) {
+						targetIns.add(in);
+						targets.add(target);
+					}
+				}
+			}
+		}
+		for (int i = 0; i < targetIns.size(); i++) {
+			final PDRTAState t = getState(targets.get(i));
+			if (t == null) {
+				throw new IOException("The training state is incomplete");
+			}
+			targetIns.get(i).setTarget(t);
+		}
+		root = getState(rootIdx);
+		if (root == null) {
+			throw new IOException("The training state is incomplete");
+		}
+	}
+
 	private PDRTA(TreeMultimap<Integer, String> trans, TreeMultimap<Integer, String> stats, PDRTAInput inp) {
 
 		input = inp;
@@ -587,6 +712,7 @@ public class PDRTA implements AutomatonModel, Serializable {
 
 		if (states.containsKey(s.getIndex()) && states.get(s.getIndex()) == s) {
 			states.remove(s.getIndex());
+			UndoLog.record(() -> states.put(s.getIndex(), s));
 			if (sc.isBlue(s)) {
 				sc.remove(s);
 			}
@@ -646,6 +772,52 @@ public class PDRTA implements AutomatonModel, Serializable {
 		return testSeqHisto(t);
 	}
 
+	@Override
+	public LikelihoodCursor openCursor() {
+		return new HistogramCursor();
+	}
+
+	/**
+	 * Yields the same likelihoods as {@link PDRTA#calculateProbabilities(TimedWord)} event by event.
+	 */
+	private class HistogramCursor implements LikelihoodCursor {
+		private PDRTAState s = root;
+
+		@Override
+		public boolean push(String symbol, int timeDelay, IncrementalAggregator eventLikelihoods, IncrementalAggregator timeLikelihoods) {
+			final int symbolAlphIndex = input.getAlphIndex(symbol);
+			final int histBarIndex = input.getHistBarIdx(timeDelay);
+			if (symbolAlphIndex < 0 || histBarIndex < 0) {
+				return fail(eventLikelihoods, timeLikelihoods);
+			}
+			final double[] p = s.getStat().getHistProb(symbolAlphIndex, histBarIndex);
+			eventLikelihoods.add(p[0]);
+			timeLikelihoods.add(p[1]);
+			s = s.getInterval(symbolAlphIndex, timeDelay).getTarget();
+			if (s == null) {
+				return fail(eventLikelihoods, timeLikelihoods);
+			}
+			return true;
+		}
+
+		private boolean fail(IncrementalAggregator eventLikelihoods, IncrementalAggregator timeLikelihoods) {
+			eventLikelihoods.reset();
+			timeLikelihoods.reset();
+			eventLikelihoods.add(0.0);
+			return false;
+		}
+
+		@Override
+		public void finish(IncrementalAggregator eventLikelihoods) {
+			eventLikelihoods.add(s.getStat().getTailEndProb());
+		}
+
+		@Override
+		public boolean retainsPrefixLikelihoods() {
+			return false;
+		}
+	}
+
 	public Pair<TDoubleList, TDoubleList> calculateProbsTrans(TimedWord seq) {
 
 		final TimedTail t = input.toTestTailChain(seq);
@@ -706,6 +878,31 @@ public class PDRTA implements AutomatonModel, Serializable {
 		for (final PDRTAState s : states.values()) {
 			s.cleanUp();
 		}
+		// Drop the intervals of removed states from the incoming edge index
+		rebuildEdgeIndex();
+	}
+
+	/**
+	 * Rebuilds the sources of all {@link Interval}s and the incoming edge index of all {@link PDRTAState}s from the current states.
+	 */
+	private void rebuildEdgeIndex() {
+
+		for (final PDRTAState s : states.values()) {
+			s.clearIncoming();
+		}
+		for (final PDRTAState s : states.values()) {
+			for (int i = 0; i < input.getAlphSize(); i++) {
+				for (final Interval in : s.getIntervals(i).values()) {
+					in.restoreEdge(s);
+				}
+			}
+		}
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+
+		in.defaultReadObject();
+		rebuildEdgeIndex();
 	}
 
 	@Override
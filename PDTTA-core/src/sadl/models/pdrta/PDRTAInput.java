@@ -318,7 +318,7 @@ public class PDRTAInput implements Serializable {
 		// }
 	}
 
-	private int getHistBarIdx(int time) {
+	int getHistBarIdx(int time) {
 
 		if (time < minTimeDelay || time > maxTimeDelay) {
 			return -1;
@@ -13,6 +13,8 @@ package sadl.models.pdrta;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.NavigableMap;
@@ -36,12 +38,17 @@ public class PDRTAState implements Serializable {
 	private final StateStatistic stat;
 	private final int index;
 
+	/**
+	 * The {@link Interval}s pointing to this state. Maintained by {@link Interval#setTarget(PDRTAState)} and restored by {@link PDRTA} after deserialization.
+	 */
+	private transient Set<Interval> incoming;
+
 	protected PDRTAState(PDRTA ta) {
 
 		automaton = ta;
 		intervals = new ArrayList<>();
 		for (int i = 0; i < ta.getAlphSize(); ++i) {
-			intervals.add(Interval.createInitialIntervalMap(ta.getMinTimeDelay(), ta.getMaxTimeDelay()));
+			intervals.add(Interval.createInitialIntervalMap(ta.getMinTimeDelay(), ta.getMaxTimeDelay(), this));
 		}
 		stat = StateStatistic.initStat(ta.getAlphSize(), ta.getHistSizes());
 		index = automaton.addState(this, automaton.getNumberOfStates());
@@ -52,7 +59,7 @@ public class PDRTAState implements Serializable {
 		automaton = ta;
 		intervals = new ArrayList<>();
 		for (int i = 0; i < ta.getAlphSize(); ++i) {
-			intervals.add(Interval.createInitialIntervalMap(ta.getMinTimeDelay(), ta.getMaxTimeDelay()));
+			intervals.add(Interval.createInitialIntervalMap(ta.getMinTimeDelay(), ta.getMaxTimeDelay(), this));
 		}
 		stat = st;
 		index = automaton.addState(this, idx);
@@ -77,7 +84,7 @@ public class PDRTAState implements Serializable {
 			final NavigableMap<Integer, Interval> newIns = new TreeMap<>();
 			final Set<Entry<Integer, Interval>> ins = s.getIntervals(i).entrySet();
 			for (final Entry<Integer, Interval> eIn : ins) {
-				newIns.put(eIn.getKey(), new Interval(eIn.getValue()));
+				newIns.put(eIn.getKey(), new Interval(eIn.getValue(), this));
 			}
 			intervals.add(newIns);
 		}
@@ -158,6 +165,26 @@ public class PDRTAState implements Serializable {
 		return intervals.get(alphIdx);
 	}
 
+	/**
+	 * Returns the {@link Interval}s for the given symbol index like {@link #getIntervals(int)} before they are modified. If the current thread records an
+	 * {@link UndoLog}, the current {@link Interval}s are recorded for the rollback.
+	 * 
+	 * @param alphIdx
+	 *            The symbol index
+	 * @return The {@link Interval}s to be modified
+	 */
+	public NavigableMap<Integer, Interval> getIntervalsForUpdate(int alphIdx) {
+		final NavigableMap<Integer, Interval> ins = intervals.get(alphIdx);
+		if (UndoLog.isRecording()) {
+			final NavigableMap<Integer, Interval> oldIns = new TreeMap<>(ins);
+			UndoLog.record(() -> {
+				ins.clear();
+				ins.putAll(oldIns);
+			});
+		}
+		return ins;
+	}
+
 	public Interval getInterval(int alphIdx, int time) {
 
 		if (alphIdx < 0) {
@@ -225,6 +252,52 @@ public class PDRTAState implements Serializable {
 		return index;
 	}
 
+	/**
+	 * Puts an {@link Interval} into the intervals of the given symbol and makes this state its source.
+	 * 
+	 * @param alphIdx
+	 *            The index of the symbol
+	 * @param in
+	 *            The {@link Interval} to put
+	 */
+	public void putInterval(int alphIdx, Interval in) {
+
+		getIntervalsForUpdate(alphIdx).put(in.getEnd(), in);
+		in.setSource(this);
+	}
+
+	/**
+	 * Returns the {@link Interval}s pointing to this state. The set must not be modified and is only valid until the next change of a target.
+	 * 
+	 * @return The incoming {@link Interval}s
+	 */
+	public Set<Interval> getIncoming() {
+
+		if (incoming == null) {
+			return Collections.emptySet();
+		}
+		return Collections.unmodifiableSet(incoming);
+	}
+
+	void addIncoming(Interval in) {
+
+		if (incoming == null) {
+			incoming = Collections.newSetFromMap(new IdentityHashMap<>());
+		}
+		incoming.add(in);
+	}
+
+	void clearIncoming() {
+		incoming = null;
+	}
+
+	void removeIncoming(Interval in) {
+
+		if (incoming != null) {
+			incoming.remove(in);
+		}
+	}
+
 	void cleanUp() {
 
 		stat.cleanUp(this);
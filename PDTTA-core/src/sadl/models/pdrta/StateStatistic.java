@@ -11,6 +11,9 @@
 
 package sadl.models.pdrta;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.Arrays;
 import java.util.Collection;
@@ -351,6 +354,54 @@ public class StateStatistic implements Serializable {
 		}
 	}
 
+	/**
+	 * Writes the counts of a {@link StateStatistic} in training mode
+	 * 
+	 * @param out
+	 *            The output to write to
+	 * @throws IOException
+	 */
+	void write(DataOutput out) throws IOException {
+
+		if (!trainMode) {
+			throw new UnsupportedOperationException();
+		}
+		out.writeInt(totalInCount);
+		out.writeInt(totalOutCount);
+		for (final int c : symbolCount) {
+			out.writeInt(c);
+		}
+		for (final int c : timeCount) {
+			out.writeInt(c);
+		}
+	}
+
+	/**
+	 * Reads a {@link StateStatistic} in training mode that was written by {@link #write(DataOutput)}
+	 * 
+	 * @param in
+	 *            The input to read from
+	 * @param numSymbols
+	 *            The number of symbols from the input set
+	 * @param histoBarSizes
+	 *            The sizes of the histogram bins
+	 * @return The {@link StateStatistic} for training
+	 * @throws IOException
+	 */
+	static StateStatistic read(DataInput in, int numSymbols, int[] histoBarSizes) throws IOException {
+
+		final StateStatistic st = new StateStatistic(numSymbols, histoBarSizes);
+		st.totalInCount = in.readInt();
+		st.totalOutCount = in.readInt();
+		for (int i = 0; i < st.symbolCount.length; i++) {
+			st.symbolCount[i] = in.readInt();
+		}
+		for (int i = 0; i < st.timeCount.length; i++) {
+			st.timeCount[i] = in.readInt();
+		}
+		return st;
+	}
+
 	/**
 	 * Adds an incoming {@link TimedTail} to the statistics while training
 	 * 
@@ -367,6 +418,17 @@ public class StateStatistic implements Serializable {
 				symbolCount[t.getSymbolAlphIndex()]++;
 				timeCount[t.getHistBarIndex()]++;
 			}
+			if (UndoLog.isRecording()) {
+				final TimedTail next = t;
+				UndoLog.record(() -> {
+					totalInCount--;
+					if (next != null) {
+						totalOutCount--;
+						symbolCount[next.getSymbolAlphIndex()]--;
+						timeCount[next.getHistBarIndex()]--;
+					}
+				});
+			}
 		} else {
 			throw new IllegalArgumentException();
 		}
@@ -385,6 +447,18 @@ public class StateStatistic implements Serializable {
 		assert (symbolCount.length == st.symbolCount.length);
 		assert (histBarSizes.length == st.histBarSizes.length);
 
+		if (UndoLog.isRecording()) {
+			final int[] oldTimeCount = Arrays.copyOf(timeCount, timeCount.length);
+			final int[] oldSymbolCount = Arrays.copyOf(symbolCount, symbolCount.length);
+			final int oldTotalOutCount = totalOutCount;
+			final int oldTotalInCount = totalInCount;
+			UndoLog.record(() -> {
+				System.arraycopy(oldTimeCount, 0, timeCount, 0, timeCount.length);
+				System.arraycopy(oldSymbolCount, 0, symbolCount, 0, symbolCount.length);
+				totalOutCount = oldTotalOutCount;
+				totalInCount = oldTotalInCount;
+			});
+		}
 		for (int i = 0; i < timeCount.length; i++) {
 			timeCount[i] += st.timeCount[i];
 		}
@@ -469,17 +543,31 @@ public class StateStatistic implements Serializable {
 	 */
 	protected double[] getHistProb(TimedTail t) {
 
-		if (t.getHistBarIndex() < 0 || t.getSymbolAlphIndex() < 0) {
+		return getHistProb(t.getSymbolAlphIndex(), t.getHistBarIndex());
+	}
+
+	/**
+	 * Returns the probability for a given symbol and histogram bin according to the independent symbol and histogram bin probabilities
+	 * 
+	 * @param symbolAlphIndex
+	 *            The index of the symbol
+	 * @param histBarIndex
+	 *            The index of the histogram bin
+	 * @return The probability for a given symbol and histogram bin according to the independent symbol and histogram bin probabilities
+	 */
+	protected double[] getHistProb(int symbolAlphIndex, int histBarIndex) {
+
+		if (histBarIndex < 0 || symbolAlphIndex < 0) {
 			return new double[] { 0.0, 0.0 };
 		}
 
 		if (trainMode) {
-			final double timeP = (double) timeCount[t.getHistBarIndex()] / (double) totalOutCount;
-			final double symP = (double) symbolCount[t.getSymbolAlphIndex()] / (double) totalOutCount;
-			return new double[] { symP, (timeP / histBarSizes[t.getHistBarIndex()]) };
+			final double timeP = (double) timeCount[histBarIndex] / (double) totalOutCount;
+			final double symP = (double) symbolCount[symbolAlphIndex] / (double) totalOutCount;
+			return new double[] { symP, (timeP / histBarSizes[histBarIndex]) };
 		} else {
-			final double timeP = (timeProbs[t.getHistBarIndex()] / histBarSizes[t.getHistBarIndex()]);
-			final double symP = symbolProbs[t.getSymbolAlphIndex()];
+			final double timeP = (timeProbs[histBarIndex] / histBarSizes[histBarIndex]);
+			final double symP = symbolProbs[symbolAlphIndex];
 			return new double[] { symP, timeP };
 		}
 	}
@@ -76,6 +76,14 @@ public class TimedTail implements Comparable<TimedTail>, Serializable {
 		return next;
 	}
 
+	int getWordIdx() {
+		return wordIdx;
+	}
+
+	int getTailIdx() {
+		return tailIdx;
+	}
+
 	@Override
 	public int hashCode() {
 
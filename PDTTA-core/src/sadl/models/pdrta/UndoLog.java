@@ -0,0 +1,97 @@
+/**
+ * This file is part of SADL, a library for learning all sorts of (timed) automata and performing sequence-based anomaly detection.
+ * Copyright (C) 2013-2015  the original author or authors.
+ *
+ * SADL is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * SADL is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with SADL.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package sadl.models.pdrta;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records the modifications of {@link PDRTA}s, {@link PDRTAState}s, {@link Interval}s and {@link StateStatistic}s made by the current thread, such that they
+ * can be rolled back. This allows to apply an operation to a {@link PDRTA} for testing and to restore the {@link PDRTA} afterwards without copying it. The
+ * effort of the rollback is proportional to the modifications.
+ * 
+ * <pre>
+ * {@code
+ * final UndoLog log = UndoLog.start();
+ * try {
+ * 	// modify and evaluate the PDRTA
+ * } finally {
+ * 	log.close();
+ * }
+ * }
+ * </pre>
+ */
+public final class UndoLog implements AutoCloseable {
+
+	private static final ThreadLocal<UndoLog> current = new ThreadLocal<>();
+
+	private final List<Runnable> undoActions = new ArrayList<>();
+
+	private UndoLog() {
+	}
+
+	/**
+	 * Starts recording the modifications made by the current thread.
+	 * 
+	 * @return The {@link UndoLog} that records the modifications
+	 * @throws IllegalStateException
+	 *             If the current thread already records the modifications
+	 */
+	public static UndoLog start() {
+		if (current.get() != null) {
+			throw new IllegalStateException("The current thread already records an undo log");
+		}
+		final UndoLog log = new UndoLog();
+		current.set(log);
+		return log;
+	}
+
+	/**
+	 * Reverts all modifications recorded so far in reverse order. The recording continues.
+	 */
+	public void rollback() {
+		for (int i = undoActions.size() - 1; i >= 0; i--) {
+			undoActions.get(i).run();
+		}
+		undoActions.clear();
+	}
+
+	/**
+	 * Reverts all modifications and stops recording.
+	 */
+	@Override
+	public void close() {
+		try {
+			rollback();
+		} finally {
+			current.remove();
+		}
+	}
+
+	/**
+	 * States whether the current thread records its modifications.
+	 */
+	static boolean isRecording() {
+		return current.get() != null;
+	}
+
+	/**
+	 * Records the action that reverts a modification if the current thread records its modifications. The action must not modify the automaton by methods
+	 * that are recorded themselves.
+	 */
+	static void record(Runnable undoAction) {
+		final UndoLog log = current.get();
+		if (log != null) {
+			log.undoActions.add(undoAction);
+		}
+	}
+}
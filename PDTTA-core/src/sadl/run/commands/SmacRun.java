@@ -36,6 +36,7 @@ import sadl.constants.ProbabilityAggregationMethod;
 import sadl.constants.ScalingMethod;
 import sadl.detectors.AnodaDetector;
 import sadl.detectors.AnomalyDetector;
+import sadl.detectors.TStideDetector;
 import sadl.detectors.VectorDetector;
 import sadl.detectors.featureCreators.FeatureCreator;
 import sadl.detectors.featureCreators.FullFeatureCreator;
@@ -52,6 +53,7 @@ import sadl.run.factories.LearnerFactory;
 import sadl.run.factories.learn.ButlaFactory;
 import sadl.run.factories.learn.PdttaFactory;
 import sadl.run.factories.learn.RTIFactory;
+import sadl.run.factories.learn.TStideFactory;
 import sadl.utils.MasterSeed;
 import sadl.utils.RamGobbler;
 
@@ -144,6 +146,12 @@ public class SmacRun {
 	@Parameter(names = "-dbScanThreshold")
 	private double dbscan_threshold = -1;
 
+	@Parameter(names = "-tstideRareThreshold")
+	private double tstideRareThreshold = TStideDetector.DEFAULT_RARE_THRESHOLD;
+
+	@Parameter(names = "-tstideAnomalyThreshold")
+	private double tstideAnomalyThreshold;
+
 	@Parameter(names = "-skipFirstElement", arity = 1)
 	boolean skipFirstElement = false;
 
@@ -213,6 +221,8 @@ public class SmacRun {
 		final AnomalyDetection detection;
 		if (detectorMethod == DetectorMethod.ANODA) {
 			detection = new AnomalyDetection(new AnodaDetector(aggType), learner);
+		} else if (detectorMethod == DetectorMethod.TSTIDE) {
+			detection = new AnomalyDetection(new TStideDetector(aggType, tstideRareThreshold, tstideAnomalyThreshold), learner);
 		} else {
 			detection = new AnomalyDetection(anomalyDetector, learner);
 		}
@@ -292,6 +302,9 @@ public class SmacRun {
 			case BUTLA:
 				lf = new ButlaFactory();
 				break;
+			case TSTIDE:
+				lf = new TStideFactory();
+				break;
 				// TODO Add other learning algorithms
 			default:
 				logger.error("Unknown algo param {}!", algoName);
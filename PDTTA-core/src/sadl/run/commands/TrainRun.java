@@ -28,6 +28,8 @@ import com.beust.jcommander.Parameters;
 import sadl.input.TimedInput;
 import sadl.interfaces.ProbabilisticModel;
 import sadl.interfaces.ModelLearner;
+import sadl.modellearner.rtiplus.SearchingPDRTALearner;
+import sadl.modellearner.rtiplus.SimplePDRTALearner;
 import sadl.models.pdrta.PDRTA;
 import sadl.run.factories.LearnerFactory;
 import sadl.run.factories.learn.RTIFactory;
@@ -50,6 +52,9 @@ public class TrainRun {
 	@Parameter(names = "-out", arity = 1)
 	Path out = Paths.get("sadl_train_out.model");
 
+	@Parameter(names = { "-resume", "--resume" }, arity = 1)
+	private Path resume;
+
 	public TrainRun(boolean smacMode) {
 		this.smacMode = smacMode;
 	}
@@ -82,6 +87,15 @@ public class TrainRun {
 		@SuppressWarnings("null")
 		final ModelLearner ml = lf.create();
 
+		if (resume != null) {
+			if (ml instanceof SimplePDRTALearner && !(ml instanceof SearchingPDRTALearner)) {
+				((SimplePDRTALearner) ml).setResume(resume);
+			} else {
+				logger.error("Parameter error: Resuming from a checkpoint is only supported by the simple RTI+!");
+				System.exit(1);
+			}
+		}
+
 		if (!smacMode) {
 			try {
 				trainSeqs = TimedInput.parse(in);
@@ -51,6 +51,9 @@ public class PdttaFactory implements LearnerFactory {
 	@Parameter(names = "-kdeBandwidth")
 	double kdeBandwidth;
 
+	@Parameter(names = "-kdeGridResolution")
+	int kdeGridResolution = 0;
+
 	@Parameter(names = "-kdeKernelFunction")
 	KdeKernelFunction kdeKernelFunctionQualifier;
 	KernelFunction kdeKernelFunction;
@@ -88,8 +91,9 @@ public class PdttaFactory implements LearnerFactory {
 			tauEstimator = null;
 		}
 
-		final ModelLearner learner = new PdttaLearner(mergeAlpha, recursiveMergeTest, kdeKernelFunction, kdeBandwidth, mergeTest, smoothingPrior, mergeT0,
+		final PdttaLearner learner = new PdttaLearner(mergeAlpha, recursiveMergeTest, kdeKernelFunction, kdeBandwidth, mergeTest, smoothingPrior, mergeT0,
 				tauEstimator);
+		learner.setKdeGridResolution(kdeGridResolution);
 		return learner;
 	}
 
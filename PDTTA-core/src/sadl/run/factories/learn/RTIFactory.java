@@ -11,6 +11,9 @@
 
 package sadl.run.factories.learn;
 
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
 import com.beust.jcommander.Parameter;
 import com.beust.jcommander.Parameters;
 
@@ -39,6 +42,9 @@ public class RTIFactory implements LearnerFactory {
 	@Parameter(names = "-search", arity = 0)
 	boolean searching = false;
 
+	@Parameter(names = "-beam", arity = 1)
+	int beamWidth = 1;
+
 	@Parameter(names = "-em", arity = 1)
 	OperationTesterType tester = OperationTesterType.LRT;
 
@@ -54,15 +60,23 @@ public class RTIFactory implements LearnerFactory {
 	@Parameter(names = "-steps", arity = 1)
 	String stepsDir = null;
 
+	@Parameter(names = "-checkpoint", arity = 1)
+	Path checkpoint = null;
+
+	// Minimal time between two checkpoints in seconds
+	@Parameter(names = "-checkpointInterval", arity = 1)
+	long checkpointInterval = 600;
+
 	@Override
 	public ModelLearner create() {
 
-		ModelLearner ml = null;
+		SimplePDRTALearner ml = null;
 		if (searching) {
-			ml = new SearchingPDRTALearner(sig, hist, tester, distrCheck, splitPos, boolOps, stepsDir);
+			ml = new SearchingPDRTALearner(sig, hist, tester, distrCheck, splitPos, boolOps, stepsDir, beamWidth);
 		} else {
 			ml = new SimplePDRTALearner(sig, hist, tester, distrCheck, splitPos, boolOps, stepsDir);
 		}
+		ml.setCheckpoint(checkpoint, TimeUnit.SECONDS.toMillis(checkpointInterval));
 		return ml;
 	}
 
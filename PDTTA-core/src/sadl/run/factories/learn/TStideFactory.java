@@ -0,0 +1,32 @@
+/**
+ * This file is part of SADL, a library for learning all sorts of (timed) automata and performing sequence-based anomaly detection.
+ * Copyright (C) 2013-2015  the original author or authors.
+ *
+ * SADL is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * SADL is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with SADL.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package sadl.run.factories.learn;
+
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.Parameters;
+
+import sadl.interfaces.ModelLearner;
+import sadl.modellearner.TStideLearner;
+import sadl.run.factories.LearnerFactory;
+
+@Parameters(commandDescription = "Run with t-STIDE as a learner")
+public class TStideFactory implements LearnerFactory {
+
+	@Parameter(names = "-windowSize")
+	int windowSize = TStideLearner.DEFAULT_WINDOW_SIZE;
+
+	@Override
+	public ModelLearner create() {
+		return new TStideLearner(windowSize);
+	}
+
+}
@@ -13,6 +13,7 @@ package sadl.tau_estimation;
 
 import java.io.Serializable;
 import java.util.Collection;
+import java.util.function.DoubleUnaryOperator;
 
 import jsat.distributions.ContinuousDistribution;
 import sadl.interfaces.TauEstimator;
@@ -26,6 +27,11 @@ public class IdentityEstimator implements TauEstimator,Serializable {
 		return d.pdf(timeValue);
 	}
 
+	@Override
+	public DoubleUnaryOperator bind(ContinuousDistribution d) {
+		return d::pdf;
+	}
+
 	@Override
 	public void preprocess(Collection<ContinuousDistribution> values) {
 		// do nothing
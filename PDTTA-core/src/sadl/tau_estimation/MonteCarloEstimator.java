@@ -11,12 +11,18 @@
 
 package sadl.tau_estimation;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.function.Consumer;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,8 +35,17 @@ import sadl.utils.Settings;
 public class MonteCarloEstimator implements TauEstimator, Serializable {
 	private static Logger logger = LoggerFactory.getLogger(MonteCarloEstimator.class);
 
-	private static final long serialVersionUID = -4398919127157832777L;
-	Map<ContinuousDistribution, MonteCarloIntegration> mcs = new ConcurrentHashMap<>();
+	private static final long serialVersionUID = -780964628688983753L;
+	/**
+	 * All preprocessed distributions. The id of a distribution is its index, its integration is stored at the same index in {@link #integrations}.
+	 */
+	ContinuousDistribution[] distributions = new ContinuousDistribution[0];
+	MonteCarloIntegration[] integrations = new MonteCarloIntegration[0];
+	/**
+	 * Finds the integration of a preprocessed distribution by the identity of the distribution object and not by its content, whose hash code walks all the
+	 * data of a kernel density estimator.
+	 */
+	private transient volatile Map<ContinuousDistribution, MonteCarloIntegration> index = new IdentityHashMap<>();
 	int pointsToStore, numberOfSteps;
 
 	public MonteCarloEstimator(int numberOfSteps, int pointsToStore) {
@@ -41,33 +56,73 @@ public class MonteCarloEstimator implements TauEstimator, Serializable {
 
 	@Override
 	public double estimateTau(ContinuousDistribution d, double timeValue) {
-		final MonteCarloIntegration mc = mcs.get(d);
-		final double result = mc.integrate(d.pdf(timeValue));
-		return result;
+		final MonteCarloIntegration mc = getIntegration(d);
+		if (mc == null) {
+			throw new IllegalStateException("Distribution " + d + " was not preprocessed");
+		}
+		return mc.integrate(d.pdf(timeValue));
+	}
+
+	@Override
+	public DoubleUnaryOperator bind(ContinuousDistribution d) {
+		final MonteCarloIntegration mc = getIntegration(d);
+		if (mc == null) {
+			return TauEstimator.super.bind(d);
+		}
+		return timeValue -> mc.integrate(d.pdf(timeValue));
+	}
+
+	private MonteCarloIntegration getIntegration(ContinuousDistribution d) {
+		return index.get(d);
 	}
 
 	@Override
-	public void preprocess(Collection<ContinuousDistribution> values) {
+	public synchronized void preprocess(Collection<ContinuousDistribution> values) {
+		final Map<ContinuousDistribution, MonteCarloIntegration> newIndex = new IdentityHashMap<>(index);
+		final List<ContinuousDistribution> newDistributions = new ArrayList<>(values.size());
+		final List<MonteCarloIntegration> newIntegrations = new ArrayList<>(values.size());
 		for (final ContinuousDistribution d : values) {
-			final MonteCarloIntegration mc = new MonteCarloIntegration(pointsToStore);
-			mcs.put(d, mc);
-			logger.debug("Preprocessed {} Monte Carlo Intervals.", mcs.size());
+			if (!newIndex.containsKey(d)) {
+				final MonteCarloIntegration mc = new MonteCarloIntegration(pointsToStore);
+				newIndex.put(d, mc);
+				newDistributions.add(d);
+				newIntegrations.add(mc);
+			}
 		}
-		final Consumer<? super Entry<ContinuousDistribution, MonteCarloIntegration>> f = e -> {
-			e.getValue().preprocess(e.getKey(), numberOfSteps);
-		};
+		final IntConsumer f = i -> newIntegrations.get(i).preprocess(newDistributions.get(i), numberOfSteps);
 		if (Settings.isParallel()) {
-			mcs.entrySet().parallelStream().forEach(f);
+			IntStream.range(0, newDistributions.size()).parallel().forEach(f);
 		} else {
-			mcs.entrySet().stream().forEach(f);
+			IntStream.range(0, newDistributions.size()).forEach(f);
+		}
+		final int oldSize = distributions.length;
+		final ContinuousDistribution[] ds = Arrays.copyOf(distributions, oldSize + newDistributions.size());
+		final MonteCarloIntegration[] mcs = Arrays.copyOf(integrations, oldSize + newIntegrations.size());
+		for (int i = 0; i < newDistributions.size(); i++) {
+			ds[oldSize + i] = newDistributions.get(i);
+			mcs[oldSize + i] = newIntegrations.get(i);
+		}
+		distributions = ds;
+		integrations = mcs;
+		index = newIndex;
+		logger.debug("Preprocessed {} Monte Carlo Intervals.", newDistributions.size());
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		final Map<ContinuousDistribution, MonteCarloIntegration> newIndex = new IdentityHashMap<>(distributions.length);
+		for (int i = 0; i < distributions.length; i++) {
+			newIndex.put(distributions[i], integrations[i]);
 		}
+		index = newIndex;
 	}
 
 	@Override
 	public int hashCode() {
 		final int prime = 31;
 		int result = 1;
-		result = prime * result + ((mcs == null) ? 0 : mcs.hashCode());
+		result = prime * result + Arrays.hashCode(distributions);
+		result = prime * result + Arrays.hashCode(integrations);
 		result = prime * result + numberOfSteps;
 		result = prime * result + pointsToStore;
 		return result;
@@ -85,11 +140,10 @@ public class MonteCarloEstimator implements TauEstimator, Serializable {
 			return false;
 		}
 		final MonteCarloEstimator other = (MonteCarloEstimator) obj;
-		if (mcs == null) {
-			if (other.mcs != null) {
-				return false;
-			}
-		} else if (!mcs.equals(other.mcs)) {
+		if (!Arrays.equals(distributions, other.distributions)) {
+			return false;
+		}
+		if (!Arrays.equals(integrations, other.integrations)) {
 			return false;
 		}
 		if (numberOfSteps != other.numberOfSteps) {
@@ -0,0 +1,55 @@
+package jsat.distributions.empirical;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import sadl.constants.KDEFormelVariant;
+
+public class KernelDensityEstimatorButlaTest {
+
+	@Test
+	public void testGridMinima() {
+		final Random r = new Random(4321);
+		for (int run = 0; run < 30; run++) {
+			final int n = 5 + r.nextInt(run < 25 ? 300 : 20000);
+			final double[] centers = new double[1 + r.nextInt(6)];
+			for (int i = 0; i < centers.length; i++) {
+				centers[i] = r.nextDouble() * (run % 3 == 0 ? 5000 : 100);
+			}
+			final double[] times = new double[n];
+			for (int i = 0; i < n; i++) {
+				final double t = run % 4 == 0 ? Math.exp(2 * r.nextGaussian()) : centers[r.nextInt(centers.length)] + r.nextGaussian() * (1 + r.nextInt(3));
+				times[i] = run % 5 == 0 ? Math.round(t) : t;
+			}
+			Arrays.sort(times);
+			final KernelDensityEstimatorButla kde = new KernelDensityEstimatorButla(times, KDEFormelVariant.OriginalKDE, run % 2 == 0 ? 2.5 : 0.6);
+			kde.setGridResolution(0);
+			final Double[] expected = kde.getMinima();
+			kde.setGridResolution(KernelDensityEstimatorButla.DEFAULT_GRID_RESOLUTION);
+			assertArrayEquals("Minima differ for run " + run, expected, kde.getMinima());
+			kde.setGridResolution(2);
+			assertArrayEquals("Minima differ for run " + run, expected, kde.getMinima());
+		}
+	}
+
+	@Test
+	public void testSeparatedClusters() {
+		final double[] times = new double[300];
+		for (int i = 0; i < times.length; i++) {
+			times[i] = (i % 3) * 30 + (i % 7) * 0.1;
+		}
+		Arrays.sort(times);
+		final KernelDensityEstimatorButla kde = new KernelDensityEstimatorButla(times, KDEFormelVariant.OriginalKDE);
+		kde.setGridResolution(0);
+		final Double[] expected = kde.getMinima();
+		assertTrue(expected.length >= 2);
+		kde.setGridResolution(KernelDensityEstimatorButla.DEFAULT_GRID_RESOLUTION);
+		assertArrayEquals(expected, kde.getMinima());
+	}
+
+}
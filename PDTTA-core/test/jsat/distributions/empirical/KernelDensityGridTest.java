@@ -0,0 +1,132 @@
+package jsat.distributions.empirical;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import jsat.distributions.empirical.kernelfunc.BiweightKF;
+import jsat.distributions.empirical.kernelfunc.EpanechnikovKF;
+import jsat.distributions.empirical.kernelfunc.GaussKF;
+import jsat.distributions.empirical.kernelfunc.KernelFunction;
+import jsat.distributions.empirical.kernelfunc.TriweightKF;
+import jsat.distributions.empirical.kernelfunc.UniformKF;
+import jsat.linear.DenseVector;
+
+public class KernelDensityGridTest {
+
+	@Test
+	public void testErrorBound() {
+		final Random r = new Random(1234);
+		for (final KernelFunction k : new KernelFunction[] { GaussKF.getInstance(), EpanechnikovKF.getInstance(), BiweightKF.getInstance(),
+				TriweightKF.getInstance() }) {
+			for (final int n : new int[] { 5, 100, 2000 }) {
+				final double[] data = new double[n];
+				for (int i = 0; i < n; i++) {
+					data[i] = r.nextBoolean() ? r.nextGaussian() * 3 + 10 : r.nextDouble() * 40;
+				}
+				final MyKernelDensityEstimator exact = new MyKernelDensityEstimator(new DenseVector(data), k);
+				final MyKernelDensityEstimator binned = exact.clone();
+				for (final int resolution : new int[] { 4, MyKernelDensityEstimator.DEFAULT_GRID_RESOLUTION }) {
+					assertTrue(binned.setGridResolution(resolution));
+					final double pdfBound = binned.getGridPdfErrorBound();
+					final double cdfBound = binned.getGridCdfErrorBound();
+					for (int i = 0; i < 2000; i++) {
+						final double x = -10 + 70 * r.nextDouble();
+						assertEquals(k + " pdf at " + x, exact.pdf(x), binned.pdf(x), pdfBound);
+						assertEquals(k + " cdf at " + x, exact.cdf(x), binned.cdf(x), cdfBound);
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testBlocks() {
+		final Random r = new Random(4321);
+		for (final KernelFunction k : new KernelFunction[] { GaussKF.getInstance(), EpanechnikovKF.getInstance() }) {
+			// long tailed clusters with large gaps in between
+			final double[] data = new double[3000];
+			for (int i = 0; i < data.length; i++) {
+				final int cluster = r.nextInt(4);
+				data[i] = cluster * 1e5 + Math.abs(r.nextGaussian()) * (cluster == 3 ? 20000 : 500);
+			}
+			final double[] sorted = data.clone();
+			Arrays.sort(sorted);
+			final double[] weights = new double[data.length];
+			for (int i = 0; i < weights.length; i++) {
+				weights[i] = 1 + r.nextInt(3);
+			}
+			for (final double[] w : new double[][] { null, weights }) {
+				final MyKernelDensityEstimator exact = w == null ? new MyKernelDensityEstimator(new DenseVector(data), k, 20)
+						: new MyKernelDensityEstimator(new DenseVector(data), k, 20, w);
+				final MyKernelDensityEstimator binned = exact.clone();
+				assertTrue(binned.setGridResolution(MyKernelDensityEstimator.DEFAULT_GRID_RESOLUTION));
+				final KernelDensityGrid grid = KernelDensityGrid.create(sorted, null, data.length, k, 20, MyKernelDensityEstimator.DEFAULT_GRID_RESOLUTION);
+				assertTrue(grid.getNumberOfBlocks() > 4);
+				assertTrue(grid.size() < 4 * KernelDensityGrid.MAX_GRID_SIZE);
+				final double pdfBound = binned.getGridPdfErrorBound();
+				final double cdfBound = binned.getGridCdfErrorBound();
+				for (int i = 0; i < 5000; i++) {
+					final double x = -1e4 + 5e5 * r.nextDouble();
+					assertEquals(k + " pdf at " + x, exact.pdf(x), binned.pdf(x), pdfBound);
+					assertEquals(k + " cdf at " + x, cdf(data, w, k, 20, x), binned.cdf(x), cdfBound);
+				}
+				for (final double x : new double[] { -1e9, 1e9, 99999.5, 150000, 250000 }) {
+					assertEquals(k + " pdf at " + x, exact.pdf(x), binned.pdf(x), pdfBound);
+					assertEquals(k + " cdf at " + x, cdf(data, w, k, 20, x), binned.cdf(x), cdfBound);
+				}
+			}
+		}
+
+		// only two blocks are needed for data that spans a lot of bandwidths
+		final MyKernelDensityEstimator wide = new MyKernelDensityEstimator(new DenseVector(new double[] { 0, 1e9 }), GaussKF.getInstance(), 1);
+		final MyKernelDensityEstimator exact = wide.clone();
+		assertTrue(wide.setGridResolution(MyKernelDensityEstimator.DEFAULT_GRID_RESOLUTION));
+		assertEquals(2, KernelDensityGrid.create(new double[] { 0, 1e9 }, null, 2, GaussKF.getInstance(), 1, MyKernelDensityEstimator.DEFAULT_GRID_RESOLUTION)
+				.getNumberOfBlocks());
+		for (final double x : new double[] { 0.5, 5e8, 1e9 - 0.5 }) {
+			assertEquals(exact.pdf(x), wide.pdf(x), wide.getGridPdfErrorBound());
+			assertEquals(exact.cdf(x), wide.cdf(x), wide.getGridCdfErrorBound());
+		}
+	}
+
+	/**
+	 * The exact cdf, because {@link MyKernelDensityEstimator#cdf(double)} does not sum up the weights left of x.
+	 */
+	private static double cdf(double[] data, double[] weights, KernelFunction k, double h, double x) {
+		double sum = 0;
+		double sumOfWeights = 0;
+		for (int i = 0; i < data.length; i++) {
+			final double w = weights == null ? 1 : weights[i];
+			sum += w * k.intK((x - data[i]) / h);
+			sumOfWeights += w;
+		}
+		return sum / sumOfWeights;
+	}
+
+	@Test
+	public void testExactFallback() {
+		final DenseVector v = new DenseVector(new double[] { 1, 2, 3, 5, 8 });
+		final MyKernelDensityEstimator uniform = new MyKernelDensityEstimator(v, UniformKF.getInstance());
+		assertFalse(uniform.setGridResolution(MyKernelDensityEstimator.DEFAULT_GRID_RESOLUTION));
+		assertEquals(0, uniform.getGridPdfErrorBound(), 0);
+
+		// the cut off of the kernel spans too many grid points for a block
+		final MyKernelDensityEstimator fine = new MyKernelDensityEstimator(v, GaussKF.getInstance(), 1);
+		assertFalse(fine.setGridResolution(4096));
+		assertEquals(new MyKernelDensityEstimator(v, GaussKF.getInstance(), 1).pdf(4.5), fine.pdf(4.5), 0);
+
+		final MyKernelDensityEstimator gauss = new MyKernelDensityEstimator(v, GaussKF.getInstance());
+		final double exact = gauss.pdf(4);
+		assertTrue(gauss.setGridResolution(MyKernelDensityEstimator.DEFAULT_GRID_RESOLUTION));
+		assertTrue(gauss.clone().isGridded());
+		assertFalse(gauss.setGridResolution(0));
+		assertEquals(exact, gauss.pdf(4), 0);
+	}
+
+}
@@ -0,0 +1,66 @@
+package sadl.detectors;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+
+import org.apache.commons.math3.util.Pair;
+import org.junit.Test;
+
+import gnu.trove.list.TDoubleList;
+import sadl.constants.ProbabilityAggregationMethod;
+import sadl.detectors.threshold.AggregatedThresholdDetector;
+import sadl.input.TimedInput;
+import sadl.modellearner.PdttaLearner;
+import sadl.models.PDTTA;
+import sadl.utils.IoUtils;
+import sadl.utils.MasterSeed;
+
+public class BatchScoringTest {
+
+	@Test
+	public void test() throws Exception {
+		MasterSeed.reset();
+		final Pair<TimedInput, TimedInput> inputSets = readInput();
+		final PDTTA pdtta = new PdttaLearner(0.05, false).train(inputSets.getKey());
+		final TimedInput test = inputSets.getValue();
+
+		final AggregatedThresholdDetector detector = new AggregatedThresholdDetector(ProbabilityAggregationMethod.NORMALIZED_MULTIPLY, Math.exp(-5),
+				Math.exp(-8), false);
+		detector.setModel(pdtta);
+		final double[][] expectedScores = new double[test.size()][];
+		final boolean[] expectedDecisions = new boolean[test.size()];
+		for (int i = 0; i < test.size(); i++) {
+			final Pair<TDoubleList, TDoubleList> p = pdtta.calculateProbabilities(test.get(i));
+			expectedScores[i] = new double[] { AnomalyDetector.aggregate(p.getKey(), ProbabilityAggregationMethod.NORMALIZED_MULTIPLY),
+					AnomalyDetector.aggregate(p.getValue(), ProbabilityAggregationMethod.NORMALIZED_MULTIPLY) };
+			expectedDecisions[i] = detector.isAnomaly(test.get(i));
+		}
+
+		final ForkJoinPool pool = new ForkJoinPool(3);
+		try {
+			detector.setForkJoinPool(pool);
+			for (final int chunkSize : new int[] { 1, 7, AnomalyDetector.DEFAULT_CHUNK_SIZE, test.size() + 1 }) {
+				detector.setChunkSize(chunkSize);
+				final double[][] actualScores = detector.scoreAll(test);
+				assertEquals(expectedScores.length, actualScores.length);
+				for (int i = 0; i < expectedScores.length; i++) {
+					assertArrayEquals(expectedScores[i], actualScores[i], 0);
+				}
+				assertArrayEquals(expectedDecisions, detector.decideAll(test));
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	private Pair<TimedInput, TimedInput> readInput() throws URISyntaxException, IOException {
+		final Path p = Paths.get(this.getClass().getResource("/pdtta/smac_mix_type1.txt").toURI());
+		return IoUtils.readTrainTestFile(p);
+	}
+}
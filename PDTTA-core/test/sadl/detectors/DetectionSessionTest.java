@@ -0,0 +1,81 @@
+package sadl.detectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.apache.commons.math3.util.Pair;
+import org.junit.Test;
+
+import sadl.constants.ProbabilityAggregationMethod;
+import sadl.detectors.featureCreators.MinimalFeatureCreator;
+import sadl.detectors.featureCreators.SmallFeatureCreator;
+import sadl.detectors.threshold.AggregatedThresholdDetector;
+import sadl.detectors.threshold.FullThresholdDetector;
+import sadl.input.TimedInput;
+import sadl.input.TimedWord;
+import sadl.interfaces.ProbabilisticModel;
+import sadl.modellearner.PdttaLearner;
+import sadl.modellearner.rtiplus.SimplePDRTALearner;
+import sadl.modellearner.rtiplus.SimplePDRTALearner.DistributionCheckType;
+import sadl.modellearner.rtiplus.SimplePDRTALearner.OperationTesterType;
+import sadl.modellearner.rtiplus.SimplePDRTALearner.SplitPosition;
+import sadl.oneclassclassifier.ThresholdClassifier;
+import sadl.utils.IoUtils;
+import sadl.utils.MasterSeed;
+
+@SuppressWarnings("deprecation")
+public class DetectionSessionTest {
+
+	private static AnomalyDetector[] createDetectors() {
+		final ProbabilityAggregationMethod agg = ProbabilityAggregationMethod.NORMALIZED_MULTIPLY;
+		return new AnomalyDetector[] { new AggregatedThresholdDetector(agg, Math.exp(-5), Math.exp(-8), false),
+				new AggregatedThresholdDetector(agg, Math.exp(-5), Math.exp(-8), true),
+				new FullThresholdDetector(agg, Math.exp(-5), Math.exp(-8), true, Math.exp(-6), Math.exp(-9)),
+				new VectorDetector(agg, new MinimalFeatureCreator(), new ThresholdClassifier(Math.exp(-5), Math.exp(-8)), false),
+				new VectorDetector(agg, new MinimalFeatureCreator(), new ThresholdClassifier(Math.exp(-5), Math.exp(-8)), true),
+				new VectorDetector(agg, new SmallFeatureCreator(), new ThresholdClassifier(Math.exp(-5), Math.exp(-8), Math.exp(-5), Math.exp(-8)), true) };
+	}
+
+	private static int checkSessions(ProbabilisticModel model, TimedInput words) {
+		int earlyDecisions = 0;
+		for (final AnomalyDetector detector : createDetectors()) {
+			detector.setModel(model);
+			for (final TimedWord w : words) {
+				final DetectionSession session = detector.openSession();
+				for (int i = 0; i < w.length() && !session.isDecided(); i++) {
+					session.push(w.getSymbol(i), w.getTimeValue(i));
+				}
+				if (session.length() < w.length()) {
+					earlyDecisions++;
+				}
+				assertEquals(detector.isAnomaly(w), session.finish());
+			}
+		}
+		return earlyDecisions;
+	}
+
+	@Test
+	public void testPdtta() throws URISyntaxException, IOException {
+		MasterSeed.reset();
+		final Path p = Paths.get(this.getClass().getResource("/pdtta/smac_mix_type1.txt").toURI());
+		final Pair<TimedInput, TimedInput> inputSets = IoUtils.readTrainTestFile(p);
+		final ProbabilisticModel pdtta = new PdttaLearner(0.05, false).train(inputSets.getKey());
+		assertTrue(checkSessions(pdtta, inputSets.getValue()) > 0);
+	}
+
+	@Test
+	public void testPdrta() throws URISyntaxException, IOException {
+		final TimedInput words = TimedInput.parse(Paths.get(this.getClass().getResource("/pdrta/test_1.inp").toURI()));
+		final SimplePDRTALearner learner = new SimplePDRTALearner(0.05, "4", OperationTesterType.LRT, DistributionCheckType.ALL, SplitPosition.MIDDLE,
+				"AOO", null);
+		final ProbabilisticModel pdrta = learner.train(words);
+		final TimedInput testWords = TimedInput.parse(Paths.get(this.getClass().getResource("/pdrta/test_2.inp").toURI()));
+		checkSessions(pdrta, testWords);
+	}
+
+}
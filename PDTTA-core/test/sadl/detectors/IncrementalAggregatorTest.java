@@ -0,0 +1,66 @@
+package sadl.detectors;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import gnu.trove.list.TDoubleList;
+import gnu.trove.list.array.TDoubleArrayList;
+import sadl.constants.ProbabilityAggregationMethod;
+import sadl.detectors.featureCreators.FeatureCreator;
+import sadl.detectors.featureCreators.FullFeatureCreator;
+import sadl.detectors.featureCreators.MinimalFeatureCreator;
+import sadl.detectors.featureCreators.SmallFeatureCreator;
+import sadl.detectors.featureCreators.UberFeatureCreator;
+
+public class IncrementalAggregatorTest {
+
+	private static TDoubleList randomLikelihoods(Random r, int size) {
+		final TDoubleList result = new TDoubleArrayList(size);
+		for (int i = 0; i < size; i++) {
+			// include some zeros and ones
+			result.add(r.nextInt(10) == 0 ? r.nextInt(2) : r.nextDouble());
+		}
+		return result;
+	}
+
+	@Test
+	public void testAggregate() {
+		final Random r = new Random(42);
+		final TDoubleList likelihoods = randomLikelihoods(r, 200);
+		for (final ProbabilityAggregationMethod aggType : ProbabilityAggregationMethod.values()) {
+			final IncrementalAggregator agg = new IncrementalAggregator(aggType);
+			assertEquals(AnomalyDetector.aggregate(new TDoubleArrayList(), aggType), agg.getAggregate(), 0);
+			final TDoubleList trend = AnomalyDetector.computeAggregatedTrend(likelihoods, aggType);
+			for (int i = 1; i <= likelihoods.size(); i++) {
+				agg.add(likelihoods.get(i - 1));
+				final double expected = AnomalyDetector.aggregate(likelihoods.subList(0, i), aggType);
+				assertEquals(expected, agg.getAggregate(), 0);
+				assertEquals(expected, trend.get(i - 1), 0);
+			}
+		}
+	}
+
+	@Test
+	public void testFeatures() {
+		final Random r = new Random(7);
+		final TDoubleList events = randomLikelihoods(r, 50);
+		final TDoubleList times = randomLikelihoods(r, 49);
+		for (final FeatureCreator fc : new FeatureCreator[] { new MinimalFeatureCreator(), new SmallFeatureCreator(), new FullFeatureCreator(),
+				new UberFeatureCreator() }) {
+			for (final ProbabilityAggregationMethod aggType : ProbabilityAggregationMethod.values()) {
+				final IncrementalAggregator eventAgg = new IncrementalAggregator(aggType, fc.requiresStatistics());
+				final IncrementalAggregator timeAgg = new IncrementalAggregator(aggType, fc.requiresStatistics());
+				for (int i = 1; i <= times.size(); i++) {
+					eventAgg.add(events.get(i - 1));
+					timeAgg.add(times.get(i - 1));
+					assertArrayEquals(fc.createFeatures(events.subList(0, i), times.subList(0, i), aggType), fc.createFeatures(eventAgg, timeAgg), 0);
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,145 @@
+package sadl.input;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.Test;
+
+public class TimedInputParserTest {
+
+	// equivalent to the predefined separators but not equal, so the regular expressions are used
+	private static TimedInput parseWithRegex(Path p) throws IOException {
+		return TimedInput.parseCustom(p, 0, "^[(]", "[)]$", "[)]\\s+[(]", "\\s*[,]\\s*", "\\s*[:]\\s*");
+	}
+
+	private static TimedInput parseWithRegex(String s) throws IOException {
+		return TimedInput.parseCustom(new StringReader(s), 0, "^[(]", "[)]$", "[)]\\s+[(]", "\\s*[,]\\s*", "\\s*[:]\\s*");
+	}
+
+	private static TimedInput parseAltWithRegex(Path p, int lineOffset) throws IOException {
+		return TimedInput.parseCustom(p, lineOffset, "^[0-9]+ ", "$", "\\s\\s", "[\\s]", "\\s*[:]\\s*");
+	}
+
+	private static TimedInput parseAltWithRegex(String s) throws IOException {
+		return TimedInput.parseCustom(new StringReader(s), 0, "^[0-9]+ ", "$", "\\s\\s", "[\\s]", "\\s*[:]\\s*");
+	}
+
+	private Path resource(String name) throws URISyntaxException {
+		return Paths.get(this.getClass().getResource(name).toURI());
+	}
+
+	@Test
+	public void testResourceFiles() throws IOException, URISyntaxException {
+		for (final String name : new String[] { "/pdta/my_test_8-5000.inp", "/pdrta/test_1.inp", "/pdrta/test_2.inp" }) {
+			final Path p = resource(name);
+			assertEquals(name, parseWithRegex(p), TimedInput.parse(p));
+		}
+		final Path p = resource("/taupta/medium/rti_medium.txt");
+		assertEquals(parseAltWithRegex(p, 1), TimedInput.parseAlt(p, 1));
+	}
+
+	@Test
+	public void testEdgeCases() throws IOException {
+		final String[] lines = new String[] { "(a,1) (b,2)\n(a,3):1", "(a , 1)  (b,\t2) : 0", "(a,1) (b,2) : x", "() : 1\n(\n:0", "(a,-1) (b,+2)",
+				"( a,1) (a ,1)", "(a,1) () (b,2)", "(a,1) ()", "(,1)", "a,1) (b,2", "(a,1)(b,2)", "(a,1) (b,2)\u0085", "(a,1,2)", "(a,1) (b,01234567890)",
+				"(a,1) (b, 2 ) : 1 ", "(ab,1) (a,1) (ab,2)\n(b,1)\n\n(ab,3)" };
+		for (final String s : lines) {
+			assertSameResult(s, false);
+		}
+		final String[] altLines = new String[] { "2 a 1  b 2\n1 a 3 : 1", "2 a 1  b 2 : 0", "2 a 1   b 2", "2 a  1", "3 : 1", "3 ", "a 1  b 2", "2 a 1  b 2 ",
+				"1 a 1\t: 1", "2 a\t1  b 2", "1 a 1 x", "1 a -1" };
+		for (final String s : altLines) {
+			assertSameResult(s, true);
+		}
+	}
+
+	@Test
+	public void testParallelParsing() throws IOException, URISyntaxException {
+		final Path p = resource("/pdta/my_test_10-15000.inp");
+		final TimedInput expected = TimedInput.parse(p, 1);
+		final Path alt = resource("/taupta/medium/rti_medium.txt");
+		final TimedInput expectedAlt = TimedInput.parseAlt(alt, 1, 1);
+		for (final int parallelism : new int[] { 2, 3, 7, 64 }) {
+			assertEquals(expected, TimedInput.parse(p, parallelism));
+			assertEquals(expectedAlt, TimedInput.parseAlt(alt, 1, parallelism));
+		}
+	}
+
+	@Test
+	public void testParallelParsingLineBreaks() throws IOException {
+		final Path p = Files.createTempFile("timedInput", ".txt");
+		try {
+			final String[] contents = new String[] { "(a,1) (b,2)\r\n(c,1)\r\n\r\n(b,3) : 1\n(d,1)", "(a,1)\r(b,2)\r\r(c,1)\n\n(d,1)\n",
+					"\n\n\n(a,1)\n(b,2)\n\n(c,3)\n(a,1)\n", "(a,1) (b,2)\n(c,1) (d,1)\n(x,y)\n(e,1)\n" };
+			for (final String content : contents) {
+				Files.write(p, content.getBytes(StandardCharsets.UTF_8));
+				for (final int parallelism : new int[] { 2, 5, 40 }) {
+					assertSameParallelResult(p, 0, parallelism, false);
+				}
+			}
+			final String[] altContents = new String[] { "4 4\r\n2 a 1  b 2\r\n1 c 3 : 1\n1 d 1", "2 2\r1 a 1\r\r1 b 2\n", "2 2\n1 a 1\n1 b x\n1 c 1\n" };
+			for (final String content : altContents) {
+				Files.write(p, content.getBytes(StandardCharsets.UTF_8));
+				for (final int parallelism : new int[] { 2, 5, 40 }) {
+					assertSameParallelResult(p, 1, parallelism, true);
+				}
+			}
+		} finally {
+			Files.delete(p);
+		}
+	}
+
+	private static void assertSameParallelResult(Path p, int lineOffset, int parallelism, boolean alternativeFormat) throws IOException {
+		TimedInput expected = null;
+		String expectedError = null;
+		try {
+			expected = alternativeFormat ? TimedInput.parseAlt(p, lineOffset, 1) : TimedInput.parse(p, 1);
+		} catch (final IllegalArgumentException e) {
+			expectedError = e.getMessage();
+		}
+		try {
+			final TimedInput actual = alternativeFormat ? TimedInput.parseAlt(p, lineOffset, parallelism) : TimedInput.parse(p, parallelism);
+			assertEquals(expected, actual);
+		} catch (final IllegalArgumentException e) {
+			assertEquals(expectedError, e.getMessage());
+		}
+	}
+
+	@Test
+	public void testForbiddenCharacters() throws IOException {
+		assertSameResult("(a,1) (-,2)", false);
+		assertSameResult("(a,1) (b)", false);
+		assertSameResult("(a,1) (b,x)", false);
+		assertSameResult("1 -- 1", true);
+		assertSameResult("1 - 1", true);
+	}
+
+	private static void assertSameResult(String s, boolean alternativeFormat) throws IOException {
+		TimedInput expected = null;
+		String expectedError = null;
+		try {
+			expected = alternativeFormat ? parseAltWithRegex(s) : parseWithRegex(s);
+		} catch (final IllegalArgumentException e) {
+			// the error messages contain the separators
+			expectedError = e.getClass() + ": " + e.getMessage().replace("\\s*[,]\\s*", "\\s*,\\s*").replace("[\\s]", "\\s");
+		}
+		try {
+			final TimedInput actual = alternativeFormat ? TimedInput.parseAlt(new StringReader(s), 0) : TimedInput.parse(new StringReader(s));
+			if (expectedError != null) {
+				fail("Expected " + expectedError + " for " + s);
+			}
+			assertEquals(s, expected, actual);
+			assertEquals(s, expected.toString(), actual.toString());
+		} catch (final IllegalArgumentException e) {
+			assertEquals(s, expectedError, e.getClass() + ": " + e.getMessage());
+		}
+	}
+}
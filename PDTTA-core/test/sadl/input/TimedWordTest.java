@@ -0,0 +1,84 @@
+package sadl.input;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+
+import org.apache.commons.lang3.SerializationUtils;
+import org.junit.Test;
+
+import gnu.trove.list.array.TIntArrayList;
+import sadl.constants.ClassLabel;
+
+public class TimedWordTest {
+
+	@Test
+	public void testColumns() throws IOException {
+		final TimedInput input = TimedInput.parse(new StringReader("(a,1) (b,2) : 1\n(b,3)\n\n(c,4) (a,5) (a,6) : 0"));
+		assertEquals(3, input.size());
+		assertEquals(3, input.getAlphSize());
+		final TimedWord w = input.get(2);
+		assertEquals(3, w.length());
+		assertEquals("c", w.getSymbol(0));
+		assertEquals(input.getAlphIndex("a"), w.getSymbolId(1));
+		assertEquals(6, w.getTimeValue(2));
+		assertEquals(new TIntArrayList(new int[] { 4, 5, 6 }), w.getTimeValues());
+		assertSame(input.get(0).getAlphabet(), w.getAlphabet());
+		assertEquals(Arrays.asList("a", "b", "c"), w.getAlphabet());
+		assertEquals(ClassLabel.ANOMALY, input.get(0).getLabel());
+
+		final TimedWord standalone = new TimedWord(Arrays.asList("c", "a", "a"), new TIntArrayList(new int[] { 4, 5, 6 }), ClassLabel.NORMAL);
+		assertEquals(standalone, w);
+		assertEquals(standalone.hashCode(), w.hashCode());
+		assertEquals(w.getSubWord(2), standalone.getSubWord(2));
+
+		w.setLabel(ClassLabel.ANOMALY);
+		assertEquals(ClassLabel.ANOMALY, input.get(2).getLabel());
+		assertNotEquals(standalone, w);
+		assertEquals(ClassLabel.NORMAL, input.get(1).getLabel());
+	}
+
+	@Test
+	public void testWordsShareColumns() {
+		final TimedWord w1 = new TimedWord(Arrays.asList("a", "b"), new TIntArrayList(new int[] { 1, 2 }), ClassLabel.NORMAL);
+		final TimedWord w2 = new TimedWord(Arrays.asList("c", "a"), new TIntArrayList(new int[] { 3, 4 }), ClassLabel.ANOMALY);
+		final TimedInput input = new TimedInput(Arrays.asList(w1, w2));
+		assertSame(input.get(0).getAlphabet(), input.get(1).getAlphabet());
+		assertEquals(Arrays.asList("a", "b", "c"), input.get(1).getAlphabet());
+		assertEquals(input.getAlphIndex("a"), input.get(1).getSymbolId(1));
+		assertEquals(w1, input.get(0));
+		assertEquals(w2, input.get(1));
+	}
+
+	@Test
+	public void testAlphIndexOfWord() throws IOException {
+		final TimedInput input = TimedInput.parse(new StringReader("(a,1) (b,2)\n(c,3) (a,4)"));
+		final TimedWord foreign = new TimedWord(Arrays.asList("c", "d", "b"), new TIntArrayList(new int[] { 1, 2, 3 }), ClassLabel.NORMAL);
+		assertEquals(input.getAlphIndex("c"), input.getAlphIndex(input.get(1), 0));
+		assertEquals(input.getAlphIndex("a"), input.getAlphIndex(input.get(1), 1));
+		assertEquals(input.getAlphIndex("c"), input.getAlphIndex(foreign, 0));
+		assertEquals(-1, input.getAlphIndex(foreign, 1));
+		assertEquals(input.getAlphIndex("b"), input.getAlphIndex(foreign, 2));
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testIndexOutOfBounds() throws IOException {
+		final TimedInput input = TimedInput.parse(new StringReader("(a,1)\n(b,2)"));
+		input.get(0).getSymbol(1);
+	}
+
+	@Test
+	public void testSerialization() throws IOException {
+		final TimedInput input = TimedInput.parse(new StringReader("(a,1) (b,2) : 1\n(b,3)\n(c,4) (a,5)"));
+		final TimedInput copy = SerializationUtils.clone(input);
+		assertEquals(input, copy);
+		assertEquals(input.toString(), copy.toString());
+		assertSame(copy.get(0).getAlphabet(), copy.get(2).getAlphabet());
+		final TimedWord w = new TimedWord(Arrays.asList("x", "y"), new TIntArrayList(new int[] { 1, 2 }), ClassLabel.ANOMALY);
+		assertEquals(w, SerializationUtils.clone(w));
+	}
+}
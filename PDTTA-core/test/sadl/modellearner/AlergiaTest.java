@@ -0,0 +1,48 @@
+package sadl.modellearner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Paths;
+
+import org.junit.Test;
+
+import sadl.input.TimedInput;
+import sadl.models.PDFA;
+import sadl.structure.Transition;
+import sadl.utils.IoUtils;
+
+public class AlergiaTest {
+
+	@Test
+	public void testEqualToTreba() throws IOException, URISyntaxException {
+
+		for (int i = 1; i <= 5; i++) {
+			final TimedInput ti = IoUtils.readTrainTestFile(Paths.get(this.getClass().getResource("/pdtta/smac_mix_type" + i + ".txt").toURI())).getKey();
+			for (final boolean recursive : new boolean[] { false, true }) {
+				final PDFA expected = new TrebaPdfaLearner(0.05, recursive).train(ti);
+				final PDFA actual = new Alergia(0.05, recursive).train(ti);
+				assertEqualPdfa("PDFAs for file " + i + " are not equal", expected, actual);
+			}
+		}
+	}
+
+	private static void assertEqualPdfa(String message, PDFA expected, PDFA actual) {
+
+		assertEquals(message, expected.getNumberOfStates(), actual.getNumberOfStates());
+		assertEquals(message, expected.getTransitionCount(), actual.getTransitionCount());
+		for (final int s : expected.getStates()) {
+			// treba stores the probabilities as logarithms
+			assertEquals(message, expected.getFinalStateProbability(s), actual.getFinalStateProbability(s), 1e-9);
+			for (final Transition t : expected.getTransitions(s, false)) {
+				final Transition a = actual.getTransition(s, t.getSymbol());
+				assertNotNull(message, a);
+				assertEquals(message, t.getToState(), a.getToState());
+				assertEquals(message, t.getProbability(), a.getProbability(), 1e-9);
+			}
+		}
+	}
+
+}
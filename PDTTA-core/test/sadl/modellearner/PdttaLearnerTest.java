@@ -1,10 +1,13 @@
 package sadl.modellearner;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 import org.apache.commons.lang3.SerializationUtils;
 import org.apache.commons.math3.util.Pair;
@@ -14,8 +17,11 @@ import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import gnu.trove.list.TDoubleList;
 import sadl.input.TimedInput;
 import sadl.interfaces.ProbabilisticModel;
+import sadl.models.PDFA;
+import sadl.structure.ZeroProbTransition;
 import sadl.utils.IoUtils;
 import sadl.utils.MasterSeed;
 import sadl.utils.Settings;
@@ -57,4 +63,22 @@ public class PdttaLearnerTest {
 			// TODO Also compare with loaded model from file
 		}
 	}
+
+	@Test
+	public void parallelTimeValueBucketsTest() throws IOException, URISyntaxException {
+		final TimedInput train = IoUtils.readTrainTestFile(Paths.get(this.getClass().getResource("/pdtta/smac_mix_type1.txt").toURI())).getKey();
+		final PDFA pdfa = new Alergia(0.05).train(train);
+		final PdttaLearner learner = new PdttaLearner(new Alergia(0.05), null, 0);
+		final ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			learner.setForkJoinPool(pool);
+			assertTrue(train.size() >= 4 * PdttaLearner.MIN_WORDS_PER_TASK);
+			final Map<ZeroProbTransition, TDoubleList> sequential = learner.fillTimeValueBuckets(pdfa, train);
+			final Map<ZeroProbTransition, TDoubleList> parallel = learner.fillTimeValueBucketsParallel(pdfa, train);
+			// the order of the time values matters, so the lists are compared without sorting
+			assertEquals(sequential, parallel);
+		} finally {
+			pool.shutdown();
+		}
+	}
 }
@@ -6,6 +6,7 @@ import java.io.IOException;
 import java.net.URISyntaxException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
 
 import org.apache.commons.lang3.SerializationUtils;
 import org.junit.After;
@@ -16,11 +17,13 @@ import org.junit.Test;
 
 import sadl.input.TimedInput;
 import sadl.interfaces.ProbabilisticModel;
+import sadl.modellearner.rtiplus.SearchingPDRTALearner;
 import sadl.modellearner.rtiplus.SimplePDRTALearner;
 import sadl.modellearner.rtiplus.SimplePDRTALearner.DistributionCheckType;
 import sadl.modellearner.rtiplus.SimplePDRTALearner.OperationTesterType;
 import sadl.modellearner.rtiplus.SimplePDRTALearner.SplitPosition;
 import sadl.utils.IoUtils;
+import sadl.utils.Settings;
 
 public class RtiPlusTest {
 
@@ -60,6 +63,68 @@ public class RtiPlusTest {
 		}
 	}
 
+	@Test
+	public void testParallelDeterminism() throws URISyntaxException, IOException {
+
+		final ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			for (final OperationTesterType type : new OperationTesterType[] { OperationTesterType.LRT, OperationTesterType.NAIVE_LRT }) {
+				for (int i = 1; i <= 5; i++) {
+
+					final TimedInput ti1 = TimedInput.parse(Paths.get(this.getClass().getResource("/pdrta/test_" + i + ".inp").toURI()));
+					final TimedInput ti2 = SerializationUtils.clone(ti1);
+
+					Settings.setParallel(false);
+					final SimplePDRTALearner l1 = new SimplePDRTALearner(0.05, "4", type, DistributionCheckType.ALL, SplitPosition.MIDDLE, "AAO", null);
+					final ProbabilisticModel p1 = l1.train(ti1);
+
+					Settings.setParallel(true);
+					final SimplePDRTALearner l2 = new SimplePDRTALearner(0.05, "4", type, DistributionCheckType.ALL, SplitPosition.MIDDLE, "AAO", null);
+					l2.setForkJoinPool(pool);
+					final ProbabilisticModel p2 = l2.train(ti2);
+
+					assertEquals("PDRTAs for files " + i + " are not equal", p1, p2);
+					assertEquals("PDRTAs for files " + i + " are not equal", p1.toString(), p2.toString());
+				}
+			}
+		} finally {
+			Settings.setParallel(true);
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void testSearchingParallelDeterminism() throws URISyntaxException, IOException {
+
+		final ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			for (final int beamWidth : new int[] { 1, 3 }) {
+				for (int i = 1; i <= 5; i++) {
+
+					final TimedInput ti1 = TimedInput.parse(Paths.get(this.getClass().getResource("/pdrta/test_" + i + ".inp").toURI()));
+					final TimedInput ti2 = SerializationUtils.clone(ti1);
+
+					Settings.setParallel(false);
+					final SearchingPDRTALearner l1 = new SearchingPDRTALearner(0.05, "4", OperationTesterType.LRT, DistributionCheckType.ALL,
+							SplitPosition.MIDDLE, "AAO", null, beamWidth);
+					final ProbabilisticModel p1 = l1.train(ti1);
+
+					Settings.setParallel(true);
+					final SearchingPDRTALearner l2 = new SearchingPDRTALearner(0.05, "4", OperationTesterType.LRT, DistributionCheckType.ALL,
+							SplitPosition.MIDDLE, "AAO", null, beamWidth);
+					l2.setForkJoinPool(pool);
+					final ProbabilisticModel p2 = l2.train(ti2);
+
+					assertEquals("PDRTAs for files " + i + " are not equal", p1, p2);
+					assertEquals("PDRTAs for files " + i + " are not equal", p1.toString(), p2.toString());
+				}
+			}
+		} finally {
+			Settings.setParallel(true);
+			pool.shutdown();
+		}
+	}
+
 	// @Test
 	public void testDeterminismNaive() throws URISyntaxException, IOException {
 
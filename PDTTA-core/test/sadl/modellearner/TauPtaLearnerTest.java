@@ -5,6 +5,9 @@ import static org.junit.Assert.assertEquals;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
 
 import org.junit.After;
 import org.junit.AfterClass;
@@ -12,9 +15,14 @@ import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import gnu.trove.list.TIntList;
+import gnu.trove.list.array.TIntArrayList;
+import sadl.constants.ClassLabel;
 import sadl.input.TimedInput;
+import sadl.input.TimedWord;
 import sadl.models.TauPTA;
 import sadl.models.TauPtaTestV1;
+import sadl.utils.MasterSeed;
 
 public class TauPtaLearnerTest {
 
@@ -45,4 +53,30 @@ public class TauPtaLearnerTest {
 
 	}
 
+	@Test
+	public void testOmmitedSequences() {
+		// more than 1 / SEQUENCE_OMMIT_THRESHOLD sequences, so rare ones are removed from the PTA
+		final Random r = new Random(1);
+		final String[] alphabet = { "a", "b", "c", "d", "e" };
+		final List<TimedWord> words = new ArrayList<>();
+		for (int j = 0; j < 20000; j++) {
+			final List<String> symbols = new ArrayList<>();
+			final TIntList times = new TIntArrayList();
+			final int length = r.nextInt(6);
+			for (int i = 0; i < length; i++) {
+				symbols.add(alphabet[Math.min(r.nextInt(alphabet.length), r.nextInt(alphabet.length))]);
+				times.add(r.nextInt(100) + i);
+			}
+			words.add(new TimedWord(symbols, times, ClassLabel.NORMAL));
+		}
+		final TimedInput train = new TimedInput(words);
+		MasterSeed.reset();
+		@SuppressWarnings("deprecation")
+		final TauPTA oldPta = new TauPTA(train);
+		MasterSeed.reset();
+		final TauPTA newPta = new TauPtaLearner().train(train);
+		assertEquals(oldPta.getNumberOfStates(), newPta.getNumberOfStates());
+		assertEquals(newPta, oldPta);
+	}
+
 }
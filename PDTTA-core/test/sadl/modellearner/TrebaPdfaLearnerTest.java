@@ -0,0 +1,33 @@
+package sadl.modellearner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Paths;
+
+import org.junit.Test;
+
+import sadl.input.TimedInput;
+import sadl.models.PDFA;
+
+public class TrebaPdfaLearnerTest {
+
+	@Test
+	public void testInMemoryEqualToFiles() throws IOException, URISyntaxException {
+
+		for (final String file : new String[] { "my_test_1", "my_test_2", "my_test_3", "my_test_4", "my_test_8-5000", "my_test_9-5000" }) {
+			final TimedInput ti = TimedInput.parse(Paths.get(this.getClass().getResource("/pdta/" + file + ".inp").toURI()));
+			for (final boolean recursive : new boolean[] { false, true }) {
+				final TrebaPdfaLearner files = new TrebaPdfaLearner(0.05, recursive);
+				files.setFileTransfer(true);
+				final PDFA expected = files.train(ti);
+				final PDFA actual = new TrebaPdfaLearner(0.05, recursive).train(ti);
+				assertTrue("The treba library does not support the in-memory transfer", TrebaPdfaLearner.directTransferAvailable);
+				assertEquals("PDFAs for file " + file + " are not equal", expected, actual);
+				assertEquals("PDFAs for file " + file + " are not equal", expected.toString(), actual.toString());
+			}
+		}
+	}
+}
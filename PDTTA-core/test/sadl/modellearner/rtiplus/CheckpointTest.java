@@ -0,0 +1,78 @@
+package sadl.modellearner.rtiplus;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.apache.commons.lang3.SerializationUtils;
+import org.junit.Test;
+
+import sadl.input.TimedInput;
+import sadl.interfaces.ProbabilisticModel;
+import sadl.modellearner.rtiplus.SimplePDRTALearner.DistributionCheckType;
+import sadl.modellearner.rtiplus.SimplePDRTALearner.OperationTesterType;
+import sadl.modellearner.rtiplus.SimplePDRTALearner.SplitPosition;
+import sadl.modellearner.rtiplus.tester.OperationTester;
+import sadl.models.pdrta.PDRTA;
+import sadl.models.pdrta.PDRTAInput;
+
+public class CheckpointTest {
+
+	@Test
+	public void testResume() throws URISyntaxException, IOException {
+
+		final Path file = Files.createTempFile("rti", ".checkpoint");
+		try {
+			for (int i = 1; i <= 5; i++) {
+				final TimedInput ti = TimedInput.parse(Paths.get(this.getClass().getResource("/pdrta/test_" + i + ".inp").toURI()));
+
+				final ProbabilisticModel expected = createLearner().train(SerializationUtils.clone(ti));
+
+				// Interrupt the learning loop after some steps and resume from a checkpoint
+				final SimplePDRTALearner l1 = createLearner();
+				final PDRTA a = new PDRTA(new PDRTAInput(SerializationUtils.clone(ti), "4", false));
+				final StateColoring sc = new StateColoring(a);
+				sc.setRed(a.getRoot());
+				final OperationTester tester = l1.createTester();
+				tester.setColoring(sc);
+				final int[] steps = { 0 };
+				l1.complete(a, sc, tester, () -> steps[0]++ < 10 ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY, 0);
+				Checkpoint.write(Checkpoint.encode(l1.getParamsString(), steps[0] - 1, a, sc), file);
+
+				final Checkpoint cp = Checkpoint.read(file, l1.getParamsString(), new PDRTAInput(SerializationUtils.clone(ti), "4", false));
+				assertEquals("Checkpoint for file " + i + " was not restored", a, cp.automaton);
+				assertEquals("Checkpoint for file " + i + " was not restored", a.toString(), cp.automaton.toString());
+				assertEquals(sc.getNumRedStates(), cp.coloring.getNumRedStates());
+				cp.automaton.checkConsistency();
+
+				final SimplePDRTALearner l2 = createLearner();
+				l2.setResume(file);
+				final ProbabilisticModel resumed = l2.train(SerializationUtils.clone(ti));
+				assertEquals("PDRTAs for file " + i + " are not equal", expected, resumed);
+				assertEquals("PDRTAs for file " + i + " are not equal", expected.toString(), resumed.toString());
+
+				// Resume from the last checkpoint written while learning
+				Files.delete(file);
+				final SimplePDRTALearner l3 = createLearner();
+				l3.setCheckpoint(file, 0);
+				assertEquals(expected, l3.train(SerializationUtils.clone(ti)));
+				assertTrue(Files.exists(file));
+				final SimplePDRTALearner l4 = createLearner();
+				l4.setResume(file);
+				assertEquals("PDRTAs for file " + i + " are not equal", expected, l4.train(SerializationUtils.clone(ti)));
+			}
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	private static SimplePDRTALearner createLearner() {
+		return new SimplePDRTALearner(0.05, "4", OperationTesterType.LRT, DistributionCheckType.ALL, SplitPosition.MIDDLE, "AAO", null);
+	}
+
+}
@@ -0,0 +1,72 @@
+package sadl.modellearner.rtiplus;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import sadl.input.TimedInput;
+import sadl.modellearner.rtiplus.tester.LikelihoodValue;
+import sadl.modellearner.rtiplus.tester.NaiveLikelihoodRatioTester;
+import sadl.models.pdrta.Interval;
+import sadl.models.pdrta.PDRTA;
+import sadl.models.pdrta.PDRTAInput;
+import sadl.models.pdrta.PDRTAState;
+import sadl.models.pdrta.UndoLog;
+
+public class UndoLogTest {
+
+	@Test
+	public void testRollback() throws URISyntaxException, IOException {
+
+		for (int i = 1; i <= 5; i++) {
+			final TimedInput ti = TimedInput.parse(Paths.get(this.getClass().getResource("/pdrta/test_" + i + ".inp").toURI()));
+			final PDRTA a = new PDRTA(new PDRTAInput(ti, "4", false));
+			final StateColoring sc = new StateColoring(a);
+			sc.setRed(a.getRoot());
+
+			final PDRTA expected = new PDRTA(a);
+			final String expectedDot = a.toString();
+			final LikelihoodValue expectedLv = NaiveLikelihoodRatioTester.calcLikelihood(a);
+
+			final PDRTAState red = a.getRoot();
+			for (int j = 0; j < a.getAlphSize(); j++) {
+				for (final Interval in : new ArrayList<>(red.getIntervals(j).values())) {
+					if (in.getTarget() != null) {
+						final UndoLog log = UndoLog.start();
+						try {
+							OperationUtil.merge(red, in.getTarget(), new StateColoring(sc, a), false, false, null);
+						} finally {
+							log.close();
+						}
+						assertRestored(i, expected, expectedDot, expectedLv, a);
+					}
+					if (in.getBegin() < in.getEnd()) {
+						final UndoLog log = UndoLog.start();
+						try {
+							OperationUtil.split(red, j, (in.getBegin() + in.getEnd()) / 2, new StateColoring(sc, a));
+						} finally {
+							log.close();
+						}
+						assertRestored(i, expected, expectedDot, expectedLv, a);
+					}
+				}
+			}
+		}
+	}
+
+	private static void assertRestored(int i, PDRTA expected, String expectedDot, LikelihoodValue expectedLv, PDRTA actual) {
+
+		assertEquals("PDRTA for file " + i + " was not restored", expected, actual);
+		assertEquals("PDRTA for file " + i + " was not restored", expectedDot, actual.toString());
+		final LikelihoodValue lv = NaiveLikelihoodRatioTester.calcLikelihood(actual);
+		assertEquals(expectedLv.getRatio(), lv.getRatio(), 0.0);
+		assertEquals(expectedLv.getParam(), lv.getParam());
+		actual.checkConsistency();
+	}
+
+}
@@ -0,0 +1,69 @@
+package sadl.models;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.apache.commons.lang3.SerializationUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+import sadl.structure.Transition;
+import sadl.utils.MasterSeed;
+
+public class PdfaTest {
+
+	PDFA pdfa;
+
+	@Before
+	public void setUp() throws Exception {
+		MasterSeed.reset();
+		pdfa = new PDFA();
+		pdfa.addTransition(0, 1, "a", 0.5);
+		pdfa.addTransition(0, 2, "b", 0.5);
+		pdfa.addTransition(1, 2, "a", 0.7);
+		pdfa.addFinalState(1, 0.3);
+		pdfa.addFinalState(2, 1);
+	}
+
+	@Test
+	public void testTransitionLookup() {
+		assertEquals(1, pdfa.getTransition(0, "a").getToState());
+		assertEquals(2, pdfa.getTransition(0, "b").getToState());
+		assertNull(pdfa.getTransition(1, "b"));
+		assertNull(pdfa.getTransition(2, "a"));
+		assertNull(pdfa.getTransition(0, "c"));
+		assertTrue(pdfa.getTransition(1, Transition.STOP_TRAVERSING_SYMBOL).isStopTraversingTransition());
+		assertEquals(0.7, pdfa.getTransitionProbability(1, 2, "a"), 0);
+		assertEquals(PDFA.NO_TRANSITION_PROBABILITY, pdfa.getTransitionProbability(1, 1, "a"), 0);
+		assertEquals(2, pdfa.getTransitions(0, false).size());
+		assertEquals(2, pdfa.getTransitions(1, true).size());
+		assertEquals(0, pdfa.getTransitions(2, false).size());
+	}
+
+	@Test
+	public void testIndexConsistency() {
+		final Transition t = pdfa.getTransition(0, "a");
+		pdfa.changeTransitionProbability(t, 0.25);
+		assertEquals(0.25, pdfa.getTransition(0, "a").getProbability(), 0);
+		assertEquals(2, pdfa.getTransitions(0, false).size());
+
+		pdfa.removeTransition(pdfa.getTransition(0, "b"));
+		assertNull(pdfa.getTransition(0, "b"));
+		final List<Transition> remaining = pdfa.getTransitions(0, false);
+		assertEquals(1, remaining.size());
+		assertEquals("a", remaining.get(0).getSymbol());
+		assertEquals(2, pdfa.getTransitionCount());
+	}
+
+	@Test
+	public void testIndexAfterDeserialization() {
+		final PDFA copy = SerializationUtils.clone(pdfa);
+		assertEquals(pdfa, copy);
+		assertEquals(pdfa.getTransition(1, "a"), copy.getTransition(1, "a"));
+		assertEquals(2, copy.getTransitions(0, false).size());
+	}
+
+}
@@ -0,0 +1,122 @@
+package sadl.models;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.SerializationUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+import gnu.trove.list.TDoubleList;
+import gnu.trove.list.array.TDoubleArrayList;
+import gnu.trove.list.array.TIntArrayList;
+import jsat.distributions.ContinuousDistribution;
+import jsat.distributions.SingleValueDistribution;
+import sadl.constants.ClassLabel;
+import sadl.input.TimedWord;
+import sadl.structure.Transition;
+import sadl.structure.ZeroProbTransition;
+import sadl.tau_estimation.IdentityEstimator;
+import sadl.tau_estimation.MonteCarloEstimator;
+import sadl.utils.MasterSeed;
+
+public class PdttaTest {
+
+	PDTTA pdtta;
+	List<TimedWord> words;
+
+	@Before
+	public void setUp() throws Exception {
+		MasterSeed.reset();
+		final PDFA pdfa = new PDFA();
+		pdfa.addTransition(0, 1, "a", 0.5);
+		pdfa.addTransition(0, 2, "b", 0.5);
+		pdfa.addTransition(1, 2, "a", 0.7);
+		pdfa.addFinalState(1, 0.3);
+		pdfa.addFinalState(2, 1);
+		final Map<ZeroProbTransition, ContinuousDistribution> distributions = new HashMap<>();
+		distributions.put(new ZeroProbTransition(0, 1, "a"), new SingleValueDistribution(1));
+		distributions.put(new ZeroProbTransition(0, 2, "b"), new SingleValueDistribution(2));
+		distributions.put(new ZeroProbTransition(1, 2, "a"), new SingleValueDistribution(3));
+		pdtta = new PDTTA(pdfa, distributions, new IdentityEstimator());
+		words = Arrays.asList(word(new String[] { "a", "a" }, 1, 3), word(new String[] { "a", "a" }, 1, 4), word(new String[] { "b" }, 2),
+				word(new String[] { "a", "b", "a" }, 1, 2, 3), word(new String[] { "c" }, 1), word(new String[] {}),
+				word(new String[] { "a", Transition.STOP_TRAVERSING_SYMBOL, "a" }, 1, 2, 3));
+	}
+
+	private static TimedWord word(String[] symbols, int... timeValues) {
+		return new TimedWord(Arrays.asList(symbols), new TIntArrayList(timeValues), ClassLabel.NORMAL);
+	}
+
+	@Test
+	public void testCompiledLikelihoods() {
+		final TDoubleList[] events = new TDoubleList[words.size()];
+		final TDoubleList[] times = new TDoubleList[words.size()];
+		for (int i = 0; i < words.size(); i++) {
+			events[i] = pdtta.computeEventLikelihoods(words.get(i));
+			times[i] = pdtta.computeTimeLikelihoods(words.get(i));
+		}
+		assertTrue(pdtta.getCompiled() == null);
+		pdtta.makeImmutable();
+		for (int i = 0; i < words.size(); i++) {
+			assertEquals(events[i], pdtta.calculateProbabilities(words.get(i)).getKey());
+			assertEquals(times[i], pdtta.calculateProbabilities(words.get(i)).getValue());
+		}
+		final PDTTA copy = SerializationUtils.clone(pdtta);
+		for (int i = 0; i < words.size(); i++) {
+			assertEquals(events[i], copy.computeEventLikelihoods(words.get(i)));
+			assertEquals(times[i], copy.computeTimeLikelihoods(words.get(i)));
+		}
+	}
+
+	@Test
+	public void testBoundTauEstimator() throws Exception {
+		final PDFA pdfa = new PDFA();
+		pdfa.addTransition(0, 1, "a", 0.5);
+		pdfa.addTransition(1, 1, "a", 0.5);
+		pdfa.addFinalState(0, 0.5);
+		pdfa.addFinalState(1, 0.5);
+		final Map<ZeroProbTransition, ContinuousDistribution> distributions = new HashMap<>();
+		distributions.put(new ZeroProbTransition(0, 1, "a"), new SingleValueDistribution(10));
+		distributions.put(new ZeroProbTransition(1, 1, "a"), new SingleValueDistribution(20));
+		final MonteCarloEstimator estimator = new MonteCarloEstimator(1000, 1000);
+		final PDTTA monteCarloPdtta = new PDTTA(pdfa, distributions, estimator);
+		monteCarloPdtta.preprocess();
+		final TimedWord w = word(new String[] { "a", "a", "a", "a" }, 10, 20, 12, 20);
+		final TDoubleList expected = monteCarloPdtta.computeTimeLikelihoods(w);
+		monteCarloPdtta.makeImmutable();
+		assertEquals(expected, monteCarloPdtta.computeTimeLikelihoods(w));
+		final CompiledPDFA c = monteCarloPdtta.getCompiled();
+		final int t = c.getTransition(c.getStartState(), c.getSymbolId("a"));
+		assertEquals(estimator.estimateTau(c.getDistribution(t), 10), c.getTau(t, 10), 0);
+	}
+
+	@Test
+	public void testCompiledStructure() {
+		pdtta.makeImmutable();
+		final CompiledPDFA c = pdtta.getCompiled();
+		assertEquals(3, c.getNumberOfStates());
+		assertEquals(3, c.getTransitionCount());
+		final int a = c.getSymbolId("a");
+		final int t = c.getTransition(c.getStartState(), a);
+		assertEquals(c.getStateId(1), c.getNextState(t));
+		assertEquals(0.5, c.getProbability(t), 0);
+		assertEquals(1, c.getDistribution(t).pdf(1), 0);
+		assertEquals(CompiledPDFA.NO_SYMBOL, c.getSymbolId("c"));
+		assertEquals(CompiledPDFA.STOP_SYMBOL, c.getSymbolId(Transition.STOP_TRAVERSING_SYMBOL));
+		assertEquals(CompiledPDFA.NO_TRANSITION, c.getTransition(c.getStateId(2), a));
+		assertEquals(0.3, c.getFinalStateProbability(c.getStateId(1)), 0);
+
+		final TDoubleList events = new TDoubleArrayList();
+		final TDoubleList times = new TDoubleArrayList();
+		assertEquals(1, c.computeLikelihoods(words.get(3), events, times));
+		assertEquals(new TDoubleArrayList(new double[] { 0.5, 0 }), events);
+		assertEquals(new TDoubleArrayList(new double[] { 1 }), times);
+	}
+
+}
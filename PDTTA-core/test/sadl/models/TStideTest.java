@@ -0,0 +1,156 @@
+package sadl.models;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.apache.commons.lang3.SerializationUtils;
+import org.junit.After;
+import org.junit.Test;
+
+import gnu.trove.list.TDoubleList;
+import sadl.anomalydetecion.AnomalyDetection;
+import sadl.detectors.TStideDetector;
+import sadl.experiments.ExperimentResult;
+import sadl.input.TimedInput;
+import sadl.input.TimedWord;
+import sadl.modellearner.TStideLearner;
+import sadl.utils.Settings;
+
+public class TStideTest {
+
+	@After
+	public void tearDown() {
+		Settings.setParallel(true);
+	}
+
+	private static TimedInput parse(String... words) throws IOException {
+		final StringBuilder sb = new StringBuilder();
+		for (final String w : words) {
+			sb.append(w).append('\n');
+		}
+		return TimedInput.parse(new StringReader(sb.toString()));
+	}
+
+	@Test
+	public void testWindowFrequencies() throws IOException {
+		final TStide model = new TStide(parse("(a,1) (b,1) (c,1) (a,1) (b,1) (c,1)", "(a,1) (b,1) (c,1)"), 3);
+		assertEquals(5, model.getNumberOfWindows());
+		assertEquals(3, model.getNumberOfDistinctWindows());
+
+		final TimedInput test = parse("(a,1) (b,1) (c,1) (a,1)", "(a,1) (b,1)", "(a,1) (b,1) (x,1)", "(c,1) (a,1) (b,1)");
+		assertLikelihoods(model.calculateProbabilities(test.get(0)).getFirst(), 0.6, 0.2);
+		// short words are padded
+		assertLikelihoods(model.calculateProbabilities(test.get(1)).getFirst(), 0);
+		// unknown symbols
+		assertLikelihoods(model.calculateProbabilities(test.get(2)).getFirst(), 0);
+		assertLikelihoods(model.calculateProbabilities(test.get(3)).getFirst(), 0.2);
+		assertTrue(model.calculateProbabilities(test.get(3)).getSecond().isEmpty());
+	}
+
+	private static void assertLikelihoods(TDoubleList actual, double... expected) {
+		assertEquals(expected.length, actual.size());
+		for (int i = 0; i < expected.length; i++) {
+			assertEquals(expected[i], actual.get(i), 1e-12);
+		}
+	}
+
+	@Test
+	public void testPackedAndHashedWindows() throws IOException {
+		// 4 symbols fit into a long for windows of 5, 300 symbols do not for windows of 8
+		final int[][] configurations = { { 4, 5 }, { 300, 8 }, { 300, 2 } };
+		for (final int[] c : configurations) {
+			final Random r = new Random(c[0] * 31 + c[1]);
+			final TimedInput train = randomInput(r, 500, c[0]);
+			final TimedInput test = randomInput(r, 100, c[0] + 5);
+			final TStide model = new TStide(train, c[1]);
+			final Map<List<String>, Integer> expectedCounts = countWindows(train, c[1]);
+			int total = 0;
+			for (final int count : expectedCounts.values()) {
+				total += count;
+			}
+			assertEquals(total, model.getNumberOfWindows());
+			assertEquals(expectedCounts.size(), model.getNumberOfDistinctWindows());
+			for (final TimedWord w : test) {
+				final List<List<String>> windows = windows(w, c[1]);
+				final TDoubleList likelihoods = model.calculateProbabilities(w).getFirst();
+				assertEquals(windows.size(), likelihoods.size());
+				for (int i = 0; i < windows.size(); i++) {
+					final Integer count = expectedCounts.get(windows.get(i));
+					assertEquals((count == null ? 0 : count.intValue()) / (double) total, likelihoods.get(i), 0);
+				}
+			}
+		}
+	}
+
+	private static TimedInput randomInput(Random r, int size, int alphabetSize) throws IOException {
+		final String[] words = new String[size];
+		for (int i = 0; i < size; i++) {
+			final StringBuilder sb = new StringBuilder();
+			final int length = 1 + r.nextInt(15);
+			int symbol = r.nextInt(alphabetSize);
+			for (int j = 0; j < length; j++) {
+				// mostly successors, so that windows repeat
+				symbol = r.nextInt(10) == 0 ? r.nextInt(alphabetSize) : (symbol + 1) % alphabetSize;
+				sb.append(j == 0 ? "" : " ").append("(s").append(symbol).append(",1)");
+			}
+			words[i] = sb.toString();
+		}
+		return parse(words);
+	}
+
+	private static List<List<String>> windows(TimedWord w, int windowSize) {
+		final List<String> padded = new ArrayList<>(Collections.nCopies(Math.max(0, windowSize - w.length()), (String) null));
+		for (int i = 0; i < w.length(); i++) {
+			padded.add(w.getSymbol(i));
+		}
+		final List<List<String>> result = new ArrayList<>();
+		for (int i = 0; i + windowSize <= padded.size(); i++) {
+			result.add(padded.subList(i, i + windowSize));
+		}
+		return result;
+	}
+
+	private static Map<List<String>, Integer> countWindows(TimedInput input, int windowSize) {
+		final Map<List<String>, Integer> result = new HashMap<>();
+		for (final TimedWord w : input) {
+			for (final List<String> window : windows(w, windowSize)) {
+				result.merge(window, 1, Integer::sum);
+			}
+		}
+		return result;
+	}
+
+	@Test
+	public void testParallelTraining() throws IOException {
+		final TimedInput train = randomInput(new Random(1), 5000, 20);
+		Settings.setParallel(false);
+		final TStide sequential = new TStide(train, 4);
+		Settings.setParallel(true);
+		final TStide parallel = new TStide(train, 4);
+		assertEquals(sequential, parallel);
+		assertEquals(sequential, SerializationUtils.roundtrip(parallel));
+	}
+
+	@Test
+	public void testDetection() throws IOException {
+		final TimedInput train = parse("(a,1) (b,1) (c,1) (d,1) : 0", "(a,1) (b,1) (c,1) (d,1) (a,1) (b,1) : 0", "(b,1) (c,1) (d,1) : 0");
+		final TimedInput test = parse("(a,1) (b,1) (c,1) (d,1) : 0", "(b,1) (c,1) (d,1) (a,1) : 0", "(a,1) (c,1) (b,1) (d,1) : 1",
+				"(a,1) (b,1) (x,1) : 1");
+		final AnomalyDetection detection = new AnomalyDetection(new TStideDetector(), new TStideLearner(3));
+		final ExperimentResult result = detection.trainTest(train, test);
+		assertEquals(2, result.getTruePositives());
+		assertEquals(2, result.getTrueNegatives());
+		assertEquals(0, result.getFalsePositives());
+		assertEquals(0, result.getFalseNegatives());
+	}
+
+}
@@ -0,0 +1,63 @@
+package sadl.tau_estimation;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.lang3.SerializationUtils;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Before;
+import org.junit.Test;
+
+import jsat.distributions.ContinuousDistribution;
+import jsat.distributions.SingleValueDistribution;
+import jsat.distributions.empirical.MyKernelDensityEstimator;
+import jsat.linear.DenseVector;
+import sadl.utils.MasterSeed;
+
+public class MonteCarloEstimatorTest {
+
+	MonteCarloEstimator estimator;
+	List<ContinuousDistribution> distributions;
+
+	@Before
+	public void setUp() {
+		MasterSeed.reset();
+		distributions = Arrays.asList(new MyKernelDensityEstimator(new DenseVector(new double[] { 10, 11, 12, 15, 20, 21, 30 })),
+				new MyKernelDensityEstimator(new DenseVector(new double[] { 100, 120, 130, 131, 200 })), new SingleValueDistribution(5));
+		estimator = new MonteCarloEstimator(1000, 1000);
+		estimator.preprocess(distributions);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testEqualDistribution() {
+		// distributions are found by identity, an equal copy was not preprocessed
+		estimator.estimateTau(distributions.get(0).clone(), 12);
+	}
+
+	@Test
+	public void testSerialization() {
+		// the distributions are serialized together with the estimator like in a PDTTA
+		final Pair<MonteCarloEstimator, List<ContinuousDistribution>> copy = SerializationUtils
+				.clone(Pair.of(estimator, new ArrayList<>(distributions)));
+		assertEquals(estimator, copy.getLeft());
+		for (int i = 0; i < distributions.size(); i++) {
+			for (double x = 0; x < 250; x += 0.5) {
+				assertEquals(estimator.estimateTau(distributions.get(i), x), copy.getLeft().estimateTau(copy.getRight().get(i), x), 0);
+			}
+		}
+	}
+
+	@Test
+	public void testRepeatedPreprocessing() {
+		final List<ContinuousDistribution> more = Arrays.asList(distributions.get(0), new SingleValueDistribution(7));
+		final double before = estimator.estimateTau(distributions.get(0), 12);
+		estimator.preprocess(more);
+		assertEquals(before, estimator.estimateTau(distributions.get(0), 12), 0);
+		assertEquals(1, estimator.estimateTau(more.get(1), 7), 0);
+		assertEquals(4, estimator.distributions.length);
+	}
+
+}
@@ -375,6 +375,10 @@ public class trebaJNI {
 
 	public final static native void wfsa_to_file(long jarg1, wfsa jarg1_, String jarg2);
 
+	public final static native int wfsa_transitions_to_array(long jarg1, wfsa jarg1_, int[] jarg2, int[] jarg3, int[] jarg4, double[] jarg5, int jarg6);
+
+	public final static native int wfsa_finals_to_array(long jarg1, wfsa jarg1_, int[] jarg2, double[] jarg3);
+
 	public final static native void wfsa_randomize_deterministic(long jarg1, wfsa jarg1_, int jarg2);
 
 	public final static native void wfsa_randomize_nondeterministic(long jarg1, wfsa jarg1_, int jarg2, int jarg3);
@@ -407,6 +411,8 @@ public class trebaJNI {
 
 	public final static native long observations_read(String jarg1);
 
+	public final static native long observations_from_array(int[] jarg1, int[] jarg2, int jarg3);
+
 	public final static native double loglikelihood_all_observations_fsm(long jarg1, wfsa jarg1_, long jarg2,
 			observations jarg2_);
 
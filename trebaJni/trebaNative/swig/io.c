@@ -114,6 +114,50 @@ void wfsa_to_file(struct wfsa *fsm, char *filename){
     fclose(f);
 }
 
+/* Stores the transitions wfsa_to_file would write; only the first       */
+/* capacity ones are stored, the total number is returned                */
+int wfsa_transitions_to_array(struct wfsa *fsm, int *trans_from, int *trans_to, int *trans_symbol, double *trans_prob, int capacity) {
+    int i, j, k, n;
+    PROB thisprob;
+    for (i = 0, n = 0; i < fsm->num_states; i++) {
+	for (j = 0; j < fsm->alphabet_size; j++) {
+	    for (k = 0; k < fsm->num_states; k++) {
+		thisprob = *(TRANSITION(fsm,i,j,k));
+		if (thisprob > SMRZERO_LOG) {
+		    if (g_output_format != FORMAT_REAL || output_convert(thisprob) > 0) {
+			if (n < capacity) {
+			    *(trans_from+n) = i;
+			    *(trans_to+n) = k;
+			    *(trans_symbol+n) = j;
+			    *(trans_prob+n) = output_convert(thisprob);
+			}
+			n++;
+		    }
+		}
+	    }
+	}
+    }
+    return(n);
+}
+
+/* Stores the final probabilities wfsa_to_file would write; both arrays  */
+/* need num_states entries, the number of stored ones is returned        */
+int wfsa_finals_to_array(struct wfsa *fsm, int *final_state, double *final_prob) {
+    int i, n;
+    PROB thisprob;
+    for (i = 0, n = 0; i < fsm->num_states; i++) {
+	thisprob = *(fsm->final_table + i);
+	if (thisprob > SMRZERO_LOG) {
+	    if (g_output_format != FORMAT_REAL || output_convert(thisprob) > 0) {
+		*(final_state+n) = i;
+		*(final_prob+n) = output_convert(thisprob);
+		n++;
+	    }
+	}
+    }
+    return(n);
+}
+
 
 void hmm_print(struct hmm *hmm) {
     PROB thisprob;
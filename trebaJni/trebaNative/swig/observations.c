@@ -18,6 +18,7 @@
 /**************************************************************************/
 
 #include <stdlib.h>
+#include <string.h>
 
 #include "treba.h"
 
@@ -155,3 +156,26 @@ struct observations *observations_read(char *filename) {
     free(obs_char_data);
     return(ohead);
 }
+
+/* Builds the same list as observations_read from num_obs sequences whose */
+/* symbols are stored back to back in obs_symbols                         */
+struct observations *observations_from_array(int *obs_symbols, int *obs_lengths, int num_obs) {
+    struct observations *ohead, *o, *olast;
+    int i, *sptr;
+    ohead = olast = NULL;
+    for (i = 0, sptr = obs_symbols; i < num_obs; sptr += *(obs_lengths+i), i++) {
+	o = malloc(sizeof(struct observations));
+	o->size = *(obs_lengths+i);
+	o->data = malloc(o->size * sizeof(int));
+	memcpy(o->data, sptr, o->size * sizeof(int));
+	o->occurrences = 1;
+	o->next = NULL;
+	if (olast == NULL) {
+	    ohead = o;
+	} else {
+	    olast->next = o;
+	}
+	olast = o;
+    }
+    return(ohead);
+}
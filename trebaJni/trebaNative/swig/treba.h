@@ -182,6 +182,8 @@ int rand_int_range(int from, int to);
 struct wfsa *wfsa_read_file(char *filename);
 void wfsa_print(struct wfsa *fsm);
 void wfsa_to_file(struct wfsa *fsm, char *filename);
+int wfsa_transitions_to_array(struct wfsa *fsm, int *trans_from, int *trans_to, int *trans_symbol, double *trans_prob, int capacity);
+int wfsa_finals_to_array(struct wfsa *fsm, int *final_state, double *final_prob);
 void wfsa_randomize_deterministic(struct wfsa *fsm, int uniform);
 void wfsa_randomize_nondeterministic(struct wfsa *fsm, int bakis, int uniform);
 struct wfsa *wfsa_init(int num_states, int alphabet_size);
@@ -202,6 +204,7 @@ struct observations *observations_uniq(struct observations *ohead);
 struct observations *observations_sort(struct observations *ohead);
 void observations_destroy(struct observations *ohead);
 struct observations *observations_read(char *filename);
+struct observations *observations_from_array(int *obs_symbols, int *obs_lengths, int num_obs);
 
 
 PROB loglikelihood_all_observations_fsm(struct wfsa *fsm, struct observations *o);
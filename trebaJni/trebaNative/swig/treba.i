@@ -4,5 +4,11 @@
  #include "treba.h"
  %}
  
+ /* Copy Java arrays in and out for the in-memory observation and wfsa transfer */
+ %include "arrays_java.i"
+ %apply int[] { int *obs_symbols, int *obs_lengths };
+ %apply int[] { int *trans_from, int *trans_to, int *trans_symbol, int *final_state };
+ %apply double[] { double *trans_prob, double *final_prob };
+
  /* Parse the header file to generate wrappers */
  %include "treba.h"
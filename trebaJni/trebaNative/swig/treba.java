@@ -230,6 +230,14 @@ public class treba implements trebaConstants {
     trebaJNI.wfsa_to_file(wfsa.getCPtr(fsm), fsm, filename);
   }
 
+  public static int wfsa_transitions_to_array(wfsa fsm, int[] trans_from, int[] trans_to, int[] trans_symbol, double[] trans_prob, int capacity) {
+    return trebaJNI.wfsa_transitions_to_array(wfsa.getCPtr(fsm), fsm, trans_from, trans_to, trans_symbol, trans_prob, capacity);
+  }
+
+  public static int wfsa_finals_to_array(wfsa fsm, int[] final_state, double[] final_prob) {
+    return trebaJNI.wfsa_finals_to_array(wfsa.getCPtr(fsm), fsm, final_state, final_prob);
+  }
+
   public static void wfsa_randomize_deterministic(wfsa fsm, int uniform) {
     trebaJNI.wfsa_randomize_deterministic(wfsa.getCPtr(fsm), fsm, uniform);
   }
@@ -300,6 +308,11 @@ public class treba implements trebaConstants {
     return (cPtr == 0) ? null : new observations(cPtr, false);
   }
 
+  public static observations observations_from_array(int[] obs_symbols, int[] obs_lengths, int num_obs) {
+    long cPtr = trebaJNI.observations_from_array(obs_symbols, obs_lengths, num_obs);
+    return (cPtr == 0) ? null : new observations(cPtr, false);
+  }
+
   public static double loglikelihood_all_observations_fsm(wfsa fsm, observations o) {
     return trebaJNI.loglikelihood_all_observations_fsm(wfsa.getCPtr(fsm), fsm, observations.getCPtr(o), o);
   }
@@ -191,6 +191,118 @@ static void SWIGUNUSED SWIG_JavaThrowException(JNIEnv *jenv, SWIG_JavaExceptionC
  #include "treba.h"
  
 
+
+#if defined(SWIG_NOINCLUDE) || defined(SWIG_NOARRAYS)
+
+
+static int SWIG_JavaArrayInInt (JNIEnv *jenv, jint **jarr, int **carr, jintArray input);
+static void SWIG_JavaArrayArgoutInt (JNIEnv *jenv, jint *jarr, int *carr, jintArray input);
+static jintArray SWIG_JavaArrayOutInt (JNIEnv *jenv, int *result, jsize sz);
+
+
+static int SWIG_JavaArrayInDouble (JNIEnv *jenv, jdouble **jarr, double **carr, jdoubleArray input);
+static void SWIG_JavaArrayArgoutDouble (JNIEnv *jenv, jdouble *jarr, double *carr, jdoubleArray input);
+static jdoubleArray SWIG_JavaArrayOutDouble (JNIEnv *jenv, double *result, jsize sz);
+
+
+#else
+
+
+/* int[] support */
+static int SWIG_JavaArrayInInt (JNIEnv *jenv, jint **jarr, int **carr, jintArray input) {
+  int i;
+  jsize sz;
+  if (!input) {
+    SWIG_JavaThrowException(jenv, SWIG_JavaNullPointerException, "null array");
+    return 0;
+  }
+  sz = (*jenv)->GetArrayLength(jenv, input);
+  *jarr = (*jenv)->GetIntArrayElements(jenv, input, 0);
+  if (!*jarr)
+    return 0; 
+  *carr = (int*) malloc(sz * sizeof(int)); 
+  if (!*carr) {
+    SWIG_JavaThrowException(jenv, SWIG_JavaOutOfMemoryError, "array memory allocation failed");
+    return 0;
+  }
+  for (i=0; i<sz; i++)
+    (*carr)[i] = (int)(*jarr)[i];
+  return 1;
+}
+
+static void SWIG_JavaArrayArgoutInt (JNIEnv *jenv, jint *jarr, int *carr, jintArray input) {
+  int i;
+  jsize sz = (*jenv)->GetArrayLength(jenv, input);
+  for (i=0; i<sz; i++)
+    jarr[i] = (jint)carr[i];
+  (*jenv)->ReleaseIntArrayElements(jenv, input, jarr, 0);
+}
+
+static jintArray SWIG_JavaArrayOutInt (JNIEnv *jenv, int *result, jsize sz) {
+  jint *arr;
+  int i;
+  jintArray jresult = (*jenv)->NewIntArray(jenv, sz);
+  if (!jresult)
+    return NULL;
+  arr = (*jenv)->GetIntArrayElements(jenv, jresult, 0);
+  if (!arr)
+    return NULL;
+  for (i=0; i<sz; i++)
+    arr[i] = (jint)result[i];
+  (*jenv)->ReleaseIntArrayElements(jenv, jresult, arr, 0);
+  return jresult;
+}
+
+
+/* double[] support */
+static int SWIG_JavaArrayInDouble (JNIEnv *jenv, jdouble **jarr, double **carr, jdoubleArray input) {
+  int i;
+  jsize sz;
+  if (!input) {
+    SWIG_JavaThrowException(jenv, SWIG_JavaNullPointerException, "null array");
+    return 0;
+  }
+  sz = (*jenv)->GetArrayLength(jenv, input);
+  *jarr = (*jenv)->GetDoubleArrayElements(jenv, input, 0);
+  if (!*jarr)
+    return 0; 
+  *carr = (double*) malloc(sz * sizeof(double)); 
+  if (!*carr) {
+    SWIG_JavaThrowException(jenv, SWIG_JavaOutOfMemoryError, "array memory allocation failed");
+    return 0;
+  }
+  for (i=0; i<sz; i++)
+    (*carr)[i] = (double)(*jarr)[i];
+  return 1;
+}
+
+static void SWIG_JavaArrayArgoutDouble (JNIEnv *jenv, jdouble *jarr, double *carr, jdoubleArray input) {
+  int i;
+  jsize sz = (*jenv)->GetArrayLength(jenv, input);
+  for (i=0; i<sz; i++)
+    jarr[i] = (jdouble)carr[i];
+  (*jenv)->ReleaseDoubleArrayElements(jenv, input, jarr, 0);
+}
+
+static jdoubleArray SWIG_JavaArrayOutDouble (JNIEnv *jenv, double *result, jsize sz) {
+  jdouble *arr;
+  int i;
+  jdoubleArray jresult = (*jenv)->NewDoubleArray(jenv, sz);
+  if (!jresult)
+    return NULL;
+  arr = (*jenv)->GetDoubleArrayElements(jenv, jresult, 0);
+  if (!arr)
+    return NULL;
+  for (i=0; i<sz; i++)
+    arr[i] = (jdouble)result[i];
+  (*jenv)->ReleaseDoubleArrayElements(jenv, jresult, arr, 0);
+  return jresult;
+}
+
+
+#endif
+
+
 #ifdef __cplusplus
 extern "C" {
 #endif
@@ -2164,6 +2276,68 @@ SWIGEXPORT void JNICALL Java_treba_trebaJNI_wfsa_1to_1file(JNIEnv *jenv, jclass
 }
 
 
+SWIGEXPORT jint JNICALL Java_treba_trebaJNI_wfsa_1transitions_1to_1array(JNIEnv *jenv, jclass jcls, jlong jarg1, jobject jarg1_, jintArray jarg2, jintArray jarg3, jintArray jarg4, jdoubleArray jarg5, jint jarg6) {
+  jint jresult = 0 ;
+  struct wfsa *arg1 = (struct wfsa *) 0 ;
+  int *arg2 = (int *) 0 ;
+  int *arg3 = (int *) 0 ;
+  int *arg4 = (int *) 0 ;
+  double *arg5 = (double *) 0 ;
+  int arg6 ;
+  jint *jarr2 ;
+  jint *jarr3 ;
+  jint *jarr4 ;
+  jdouble *jarr5 ;
+  int result;
+  
+  (void)jenv;
+  (void)jcls;
+  (void)jarg1_;
+  arg1 = *(struct wfsa **)&jarg1; 
+  if (!SWIG_JavaArrayInInt(jenv, &jarr2, (int **)&arg2, jarg2)) return 0; 
+  if (!SWIG_JavaArrayInInt(jenv, &jarr3, (int **)&arg3, jarg3)) return 0; 
+  if (!SWIG_JavaArrayInInt(jenv, &jarr4, (int **)&arg4, jarg4)) return 0; 
+  if (!SWIG_JavaArrayInDouble(jenv, &jarr5, (double **)&arg5, jarg5)) return 0; 
+  arg6 = (int)jarg6; 
+  result = (int)wfsa_transitions_to_array(arg1,arg2,arg3,arg4,arg5,arg6);
+  jresult = (jint)result; 
+  SWIG_JavaArrayArgoutInt(jenv, jarr2, (int *)arg2, jarg2); 
+  SWIG_JavaArrayArgoutInt(jenv, jarr3, (int *)arg3, jarg3); 
+  SWIG_JavaArrayArgoutInt(jenv, jarr4, (int *)arg4, jarg4); 
+  SWIG_JavaArrayArgoutDouble(jenv, jarr5, (double *)arg5, jarg5); 
+  free(arg2); 
+  free(arg3); 
+  free(arg4); 
+  free(arg5); 
+  return jresult;
+}
+
+
+SWIGEXPORT jint JNICALL Java_treba_trebaJNI_wfsa_1finals_1to_1array(JNIEnv *jenv, jclass jcls, jlong jarg1, jobject jarg1_, jintArray jarg2, jdoubleArray jarg3) {
+  jint jresult = 0 ;
+  struct wfsa *arg1 = (struct wfsa *) 0 ;
+  int *arg2 = (int *) 0 ;
+  double *arg3 = (double *) 0 ;
+  jint *jarr2 ;
+  jdouble *jarr3 ;
+  int result;
+  
+  (void)jenv;
+  (void)jcls;
+  (void)jarg1_;
+  arg1 = *(struct wfsa **)&jarg1; 
+  if (!SWIG_JavaArrayInInt(jenv, &jarr2, (int **)&arg2, jarg2)) return 0; 
+  if (!SWIG_JavaArrayInDouble(jenv, &jarr3, (double **)&arg3, jarg3)) return 0; 
+  result = (int)wfsa_finals_to_array(arg1,arg2,arg3);
+  jresult = (jint)result; 
+  SWIG_JavaArrayArgoutInt(jenv, jarr2, (int *)arg2, jarg2); 
+  SWIG_JavaArrayArgoutDouble(jenv, jarr3, (double *)arg3, jarg3); 
+  free(arg2); 
+  free(arg3); 
+  return jresult;
+}
+
+
 SWIGEXPORT void JNICALL Java_treba_trebaJNI_wfsa_1randomize_1deterministic(JNIEnv *jenv, jclass jcls, jlong jarg1, jobject jarg1_, jint jarg2) {
   struct wfsa *arg1 = (struct wfsa *) 0 ;
   int arg2 ;
@@ -2404,6 +2578,30 @@ SWIGEXPORT jlong JNICALL Java_treba_trebaJNI_observations_1read(JNIEnv *jenv, jc
 }
 
 
+SWIGEXPORT jlong JNICALL Java_treba_trebaJNI_observations_1from_1array(JNIEnv *jenv, jclass jcls, jintArray jarg1, jintArray jarg2, jint jarg3) {
+  jlong jresult = 0 ;
+  int *arg1 = (int *) 0 ;
+  int *arg2 = (int *) 0 ;
+  int arg3 ;
+  jint *jarr1 ;
+  jint *jarr2 ;
+  struct observations *result = 0 ;
+  
+  (void)jenv;
+  (void)jcls;
+  if (!SWIG_JavaArrayInInt(jenv, &jarr1, (int **)&arg1, jarg1)) return 0; 
+  if (!SWIG_JavaArrayInInt(jenv, &jarr2, (int **)&arg2, jarg2)) return 0; 
+  arg3 = (int)jarg3; 
+  result = (struct observations *)observations_from_array(arg1,arg2,arg3);
+  *(struct observations **)&jresult = result; 
+  SWIG_JavaArrayArgoutInt(jenv, jarr1, (int *)arg1, jarg1); 
+  SWIG_JavaArrayArgoutInt(jenv, jarr2, (int *)arg2, jarg2); 
+  free(arg1); 
+  free(arg2); 
+  return jresult;
+}
+
+
 SWIGEXPORT jdouble JNICALL Java_treba_trebaJNI_loglikelihood_1all_1observations_1fsm(JNIEnv *jenv, jclass jcls, jlong jarg1, jobject jarg1_, jlong jarg2, jobject jarg2_) {
   jdouble jresult = 0 ;
   struct wfsa *arg1 = (struct wfsa *) 0 ;